@@ -31,6 +31,8 @@ class AppConfiguration extends TrellisConfiguration {
     @NotNull
     private String namespaces;
 
+    private boolean asyncMementos = false;
+
     private int levels = 3;
 
     private int length =  2;
@@ -55,6 +57,28 @@ class AppConfiguration extends TrellisConfiguration {
         this.mementos = config;
     }
 
+    /**
+     * Get whether Mementos are written in the background.
+     * @return true if Mementos are written in the background; false otherwise
+     */
+    @JsonProperty
+    public boolean getAsyncMementos() {
+        return asyncMementos;
+    }
+
+    /**
+     * Set whether Mementos are written in the background.
+     *
+     * @implNote Background writes are queued and journaled as configured by the
+     *           {@code trellis.file.memento.queue} properties, and any journaled writes
+     *           are recovered when the application starts.
+     * @param asyncMementos true if Mementos are to be written in the background; false otherwise
+     */
+    @JsonProperty
+    public void setAsyncMementos(final boolean asyncMementos) {
+        this.asyncMementos = asyncMementos;
+    }
+
     /**
      * Get the binary configuration.
      * @return the binary configuration
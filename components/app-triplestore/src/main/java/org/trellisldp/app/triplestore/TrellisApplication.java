@@ -13,6 +13,8 @@
  */
 package org.trellisldp.app.triplestore;
 
+import com.codahale.metrics.MetricRegistry;
+
 import io.dropwizard.setup.Environment;
 
 import org.trellisldp.api.ServiceBundler;
@@ -23,7 +25,7 @@ import org.trellisldp.app.AbstractTrellisApplication;
  */
 public class TrellisApplication extends AbstractTrellisApplication<AppConfiguration> {
 
-    private ServiceBundler serviceBundler;
+    private TrellisServiceBundler serviceBundler;
 
     /**
      * The main entry point.
@@ -45,4 +47,9 @@ public class TrellisApplication extends AbstractTrellisApplication<AppConfigurat
         super.initialize(config, environment);
         this.serviceBundler = new TrellisServiceBundler(config, environment);
     }
+
+    @Override
+    protected void registerServiceMetrics(final MetricRegistry metrics) {
+        serviceBundler.registerMetrics(metrics);
+    }
 }
@@ -13,27 +13,47 @@
  */
 package org.trellisldp.app.triplestore;
 
+import static com.codahale.metrics.MetricRegistry.name;
 import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.HOURS;
-
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.tamaya.ConfigurationProvider.getConfiguration;
+import static org.trellisldp.file.BinaryGarbageCollector.CONFIG_FILE_BINARY_GC_INTERVAL;
+import static org.trellisldp.file.BinaryGarbageCollector.DEFAULT_INTERVAL;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.cache.Cache;
 
+import io.dropwizard.lifecycle.Managed;
 import io.dropwizard.setup.Environment;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
 import org.apache.jena.rdfconnection.RDFConnection;
 import org.trellisldp.agent.SimpleAgentService;
 import org.trellisldp.api.AgentService;
 import org.trellisldp.api.AuditService;
 import org.trellisldp.api.BinaryService;
+import org.trellisldp.api.CachingResourceService;
 import org.trellisldp.api.DefaultIdentifierService;
 import org.trellisldp.api.EventService;
 import org.trellisldp.api.IOService;
 import org.trellisldp.api.MementoService;
 import org.trellisldp.api.NamespaceService;
 import org.trellisldp.api.RDFaWriterService;
+import org.trellisldp.api.Resource;
 import org.trellisldp.api.ResourceService;
 import org.trellisldp.api.ServiceBundler;
 import org.trellisldp.app.TrellisCache;
+import org.trellisldp.file.AsyncMementoService;
+import org.trellisldp.file.BinaryGarbageCollector;
 import org.trellisldp.file.FileBinaryService;
 import org.trellisldp.file.FileMementoService;
 import org.trellisldp.io.JenaIOService;
@@ -52,11 +72,12 @@ public class TrellisServiceBundler implements ServiceBundler {
 
     private final MementoService mementoService;
     private final AuditService auditService;
-    private final TriplestoreResourceService resourceService;
+    private final ResourceService resourceService;
     private final BinaryService binaryService;
     private final AgentService agentService;
     private final IOService ioService;
     private final EventService eventService;
+    private final BinaryGarbageCollector binaryCollector;
 
     /**
      * Create a new application service bundler.
@@ -65,9 +86,15 @@ public class TrellisServiceBundler implements ServiceBundler {
      */
     public TrellisServiceBundler(final AppConfiguration config, final Environment environment) {
         agentService = new SimpleAgentService();
-        mementoService = new FileMementoService(config.getMementos());
-        auditService = resourceService = buildResourceService(config, environment);
-        binaryService = buildBinaryService(config);
+        final TriplestoreResourceService triplestoreService = buildResourceService(config, environment);
+        final FileMementoService fileMementoService = new FileMementoService(config.getMementos());
+        final FileBinaryService fileBinaryService = buildBinaryService(config);
+        auditService = triplestoreService;
+        resourceService = buildResourceCache(config, triplestoreService);
+        mementoService = buildMementoService(config, fileMementoService, resourceService);
+        binaryService = fileBinaryService;
+        binaryCollector = buildBinaryCollector(fileBinaryService, triplestoreService, fileMementoService,
+                environment);
         ioService = buildIoService(config);
         eventService = AppUtils.getNotificationService(config.getNotifications(), environment);
     }
@@ -107,13 +134,101 @@ public class TrellisServiceBundler implements ServiceBundler {
         return eventService;
     }
 
+    /**
+     * Register the metrics of the bundled services.
+     *
+     * <p>When Mementos are written in the background, this registers the depth and lag (in milliseconds)
+     * of the Memento queue along with counts of the queued, coalesced, completed and failed writes. It also
+     * registers the counts of the binary garbage collector.
+     *
+     * @param metrics the metric registry
+     */
+    public void registerMetrics(final MetricRegistry metrics) {
+        metrics.register(name("trellis-binary-gc", "runs"), (Gauge<Long>) binaryCollector::getRuns);
+        metrics.register(name("trellis-binary-gc", "scanned"), (Gauge<Long>) binaryCollector::getScanned);
+        metrics.register(name("trellis-binary-gc", "orphaned"), (Gauge<Long>) binaryCollector::getOrphaned);
+        metrics.register(name("trellis-binary-gc", "purged"), (Gauge<Long>) binaryCollector::getPurged);
+        metrics.register(name("trellis-binary-gc", "purgedBytes"), (Gauge<Long>) binaryCollector::getPurgedBytes);
+        if (mementoService instanceof AsyncMementoService) {
+            final AsyncMementoService mementos = (AsyncMementoService) mementoService;
+            metrics.register(name("trellis-memento-queue", "depth"), (Gauge<Integer>) mementos::getQueueDepth);
+            metrics.register(name("trellis-memento-queue", "lag"), (Gauge<Long>) () -> mementos.getLag().toMillis());
+            metrics.register(name("trellis-memento-queue", "queued"), (Gauge<Long>) mementos::getQueued);
+            metrics.register(name("trellis-memento-queue", "coalesced"), (Gauge<Long>) mementos::getCoalesced);
+            metrics.register(name("trellis-memento-queue", "completed"), (Gauge<Long>) mementos::getCompleted);
+            metrics.register(name("trellis-memento-queue", "failed"), (Gauge<Long>) mementos::getFailed);
+        }
+    }
+
+    private static MementoService buildMementoService(final AppConfiguration config,
+            final MementoService mementos, final ResourceService resourceService) {
+        if (config.getAsyncMementos()) {
+            final AsyncMementoService service = new AsyncMementoService(mementos);
+            // Re-queue any writes that were journaled, but not completed, before the last shutdown
+            service.recover(resourceService);
+            return service;
+        }
+        return mementos;
+    }
+
+    private static BinaryGarbageCollector buildBinaryCollector(final FileBinaryService binaryService,
+            final TriplestoreResourceService resourceService, final FileMementoService mementoService,
+            final Environment environment) {
+        // Binaries are retained while referenced by a current resource or by a stored Memento
+        final List<Supplier<Stream<IRI>>> references = asList(resourceService::listBinaries,
+                mementoService::listBinaries);
+        final BinaryGarbageCollector collector = new BinaryGarbageCollector(binaryService, references);
+        final long interval = getConfiguration().getOrDefault(CONFIG_FILE_BINARY_GC_INTERVAL, Long.class,
+                DEFAULT_INTERVAL);
+        if (interval > 0L) {
+            collector.schedule(interval, MILLISECONDS);
+        }
+        environment.lifecycle().manage(new Managed() {
+            @Override
+            public void start() {
+                // Collection runs are scheduled once the collector is built
+            }
+
+            @Override
+            public void stop() {
+                collector.close();
+            }
+        });
+        return collector;
+    }
+
     private static TriplestoreResourceService buildResourceService(final AppConfiguration config,
             final Environment environment) {
         final RDFConnection rdfConnection = TriplestoreResourceService.buildRDFConnection(config.getResources());
 
         // Health checks
         environment.healthChecks().register("rdfconnection", new RDFConnectionHealthCheck(rdfConnection));
-        return new TriplestoreResourceService(rdfConnection);
+        final TriplestoreResourceService service = new TriplestoreResourceService(rdfConnection);
+
+        // Commit any queued triplestore updates on shutdown
+        environment.lifecycle().manage(new Managed() {
+            @Override
+            public void start() {
+                // The service is ready once constructed
+            }
+
+            @Override
+            public void stop() {
+                service.close();
+            }
+        });
+        return service;
+    }
+
+    private static ResourceService buildResourceCache(final AppConfiguration config,
+            final ResourceService service) {
+        if (config.getResourceCache().getEnabled()) {
+            final Cache<IRI, CompletableFuture<Resource>> cache = newBuilder()
+                .maximumSize(config.getResourceCache().getCacheSize())
+                .expireAfterWrite(config.getResourceCache().getCacheExpireSeconds(), SECONDS).build();
+            return new CachingResourceService(service, new TrellisCache<>(cache));
+        }
+        return service;
     }
 
     private static IOService buildIoService(final AppConfiguration config) {
@@ -128,7 +243,7 @@ public class TrellisServiceBundler implements ServiceBundler {
                 config.getJsonld().getContextWhitelist(), config.getJsonld().getContextDomainWhitelist());
     }
 
-    private static BinaryService buildBinaryService(final AppConfiguration config) {
+    private static FileBinaryService buildBinaryService(final AppConfiguration config) {
         return new FileBinaryService(new DefaultIdentifierService(), config.getBinaries(),
                 config.getBinaryHierarchyLevels(), config.getBinaryHierarchyLength());
     }
@@ -13,14 +13,22 @@
  */
 package org.trellisldp.app;
 
+import static com.codahale.metrics.MetricRegistry.name;
 import static java.util.Collections.emptyList;
 import static java.util.Optional.of;
 import static java.util.Optional.ofNullable;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.trellisldp.api.ExecutorPool.BINARY_IO;
+import static org.trellisldp.api.ExecutorPool.MEMENTO_IO;
+import static org.trellisldp.api.ExecutorPool.RESOURCE_READ;
+import static org.trellisldp.api.ExecutorPool.RESOURCE_WRITE;
 import static org.trellisldp.app.TrellisUtils.getAuthFilters;
 import static org.trellisldp.app.TrellisUtils.getCorsConfiguration;
 import static org.trellisldp.app.TrellisUtils.getWebacCache;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
 import io.dropwizard.Application;
 import io.dropwizard.configuration.EnvironmentVariableSubstitutor;
 import io.dropwizard.configuration.SubstitutingSourceProvider;
@@ -34,6 +42,7 @@ import java.util.List;
 import org.apache.tamaya.ConfigurationProvider;
 import org.slf4j.Logger;
 import org.trellisldp.api.AccessControlService;
+import org.trellisldp.api.ExecutorPool;
 import org.trellisldp.api.ServiceBundler;
 import org.trellisldp.app.config.BasicAuthConfiguration;
 import org.trellisldp.app.config.JwtAuthConfiguration;
@@ -74,6 +83,16 @@ public abstract class AbstractTrellisApplication<T extends TrellisConfiguration>
         return emptyList();
     }
 
+    /**
+     * Register any metrics of the application services.
+     *
+     * @implSpec By default, this registers no additional metrics.
+     * @param metrics the metric registry, with which the executor pool metrics are also registered
+     */
+    protected void registerServiceMetrics(final MetricRegistry metrics) {
+        LOGGER.debug("No additional service metrics to register");
+    }
+
     /**
      * Get the TrellisHttpResource matcher.
      *
@@ -116,8 +135,18 @@ public abstract class AbstractTrellisApplication<T extends TrellisConfiguration>
 
     @Override
     public void run(final T config, final Environment environment) throws Exception {
+        // Size the asynchronous service pools before any services are created
+        ExecutorPool.getInstance(RESOURCE_READ, config.getExecutors().getResourceRead());
+        ExecutorPool.getInstance(RESOURCE_WRITE, config.getExecutors().getResourceWrite());
+        ExecutorPool.getInstance(BINARY_IO, config.getExecutors().getBinary());
+        ExecutorPool.getInstance(MEMENTO_IO, config.getExecutors().getMemento());
+
         initialize(config, environment);
 
+        // Executor metrics
+        ExecutorPool.getInstances().forEach(pool -> registerMetrics(pool, environment.metrics()));
+        registerServiceMetrics(environment.metrics());
+
         getAuthFilters(config).forEach(environment.jersey()::register);
 
         // Resource matchers
@@ -156,4 +185,11 @@ public abstract class AbstractTrellisApplication<T extends TrellisConfiguration>
         // Additional components
         getComponents().forEach(environment.jersey()::register);
     }
+
+    private static void registerMetrics(final ExecutorPool pool, final MetricRegistry metrics) {
+        metrics.register(name(pool.getName(), "queue"), (Gauge<Integer>) pool::getQueueDepth);
+        metrics.register(name(pool.getName(), "active"), (Gauge<Integer>) pool::getActiveCount);
+        metrics.register(name(pool.getName(), "rejected"), (Gauge<Long>) pool::getRejectedCount);
+        metrics.register(name(pool.getName(), "completed"), (Gauge<Long>) pool::getCompletedCount);
+    }
 }
@@ -57,4 +57,9 @@ public class TrellisCache<K, V> implements CacheService<K, V> {
             return null;
         }
     }
+
+    @Override
+    public void invalidate(final K key) {
+        cache.invalidate(key);
+    }
 }
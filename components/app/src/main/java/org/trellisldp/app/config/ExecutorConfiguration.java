@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.app.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Configuration for the thread pools used by asynchronous service operations.
+ */
+public class ExecutorConfiguration {
+
+    private int resourceRead = 16;
+
+    private int resourceWrite = 16;
+
+    private int binary = 16;
+
+    private int memento = 16;
+
+    /**
+     * Set the number of threads used for reading resources.
+     * @param resourceRead the number of threads
+     */
+    @JsonProperty
+    public void setResourceRead(final int resourceRead) {
+        this.resourceRead = resourceRead;
+    }
+
+    /**
+     * Get the number of threads used for reading resources.
+     * @return the number of threads
+     */
+    @JsonProperty
+    public int getResourceRead() {
+        return resourceRead;
+    }
+
+    /**
+     * Set the number of threads used for writing resources.
+     * @param resourceWrite the number of threads
+     */
+    @JsonProperty
+    public void setResourceWrite(final int resourceWrite) {
+        this.resourceWrite = resourceWrite;
+    }
+
+    /**
+     * Get the number of threads used for writing resources.
+     * @return the number of threads
+     */
+    @JsonProperty
+    public int getResourceWrite() {
+        return resourceWrite;
+    }
+
+    /**
+     * Set the number of threads used for binary I/O.
+     * @param binary the number of threads
+     */
+    @JsonProperty
+    public void setBinary(final int binary) {
+        this.binary = binary;
+    }
+
+    /**
+     * Get the number of threads used for binary I/O.
+     * @return the number of threads
+     */
+    @JsonProperty
+    public int getBinary() {
+        return binary;
+    }
+
+    /**
+     * Set the number of threads used for memento I/O.
+     * @param memento the number of threads
+     */
+    @JsonProperty
+    public void setMemento(final int memento) {
+        this.memento = memento;
+    }
+
+    /**
+     * Get the number of threads used for memento I/O.
+     * @return the number of threads
+     */
+    @JsonProperty
+    public int getMemento() {
+        return memento;
+    }
+}
@@ -43,6 +43,12 @@ public class TrellisConfiguration extends Configuration {
     @NotNull
     private AssetConfiguration assets = new AssetConfiguration();
 
+    @NotNull
+    private ExecutorConfiguration executors = new ExecutorConfiguration();
+
+    @NotNull
+    private ResourceCacheConfiguration resourceCache = new ResourceCacheConfiguration();
+
     @NotNull
     private CORSConfiguration cors = new CORSConfiguration();
 
@@ -240,4 +246,40 @@ public class TrellisConfiguration extends Configuration {
     public NotificationsConfiguration getNotifications() {
         return notifications;
     }
+
+    /**
+     * Set the executor configuration.
+     * @param executors the executor configuration
+     */
+    @JsonProperty
+    public void setExecutors(final ExecutorConfiguration executors) {
+        this.executors = executors;
+    }
+
+    /**
+     * Get the executor configuration.
+     * @return the executor configuration
+     */
+    @JsonProperty
+    public ExecutorConfiguration getExecutors() {
+        return executors;
+    }
+
+    /**
+     * Set the resource cache configuration.
+     * @param resourceCache the resource cache configuration
+     */
+    @JsonProperty
+    public void setResourceCache(final ResourceCacheConfiguration resourceCache) {
+        this.resourceCache = resourceCache;
+    }
+
+    /**
+     * Get the resource cache configuration.
+     * @return the resource cache configuration
+     */
+    @JsonProperty
+    public ResourceCacheConfiguration getResourceCache() {
+        return resourceCache;
+    }
 }
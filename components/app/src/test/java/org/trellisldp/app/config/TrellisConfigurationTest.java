@@ -44,6 +44,17 @@ public class TrellisConfigurationTest {
         assertFalse(config.getCache().getNoCache(), "Unexpected cache/noCache value!");
         assertTrue(config.getCache().getMustRevalidate(), "Missing cache/mustRevalidate value!");
 
+        // Executor tests
+        assertEquals(32, config.getExecutors().getResourceRead(), "Incorrect executors/resourceRead value!");
+        assertEquals(16, config.getExecutors().getResourceWrite(), "Incorrect executors/resourceWrite value!");
+        assertEquals(8, config.getExecutors().getBinary(), "Incorrect executors/binary value!");
+        assertEquals(16, config.getExecutors().getMemento(), "Incorrect executors/memento value!");
+
+        // Resource cache tests
+        assertTrue(config.getResourceCache().getEnabled(), "Resource cache should be enabled!");
+        assertEquals(500L, config.getResourceCache().getCacheSize(), "Incorrect resourceCache/cacheSize value!");
+        assertEquals(60L, config.getResourceCache().getCacheExpireSeconds(), "Bad resourceCache/cacheExpireSeconds!");
+
         // JSON-LD tests
         assertEquals(48L, config.getJsonld().getCacheExpireHours(), "Incorrect jsonld/cacheExpireHours");
         assertEquals(10L, config.getJsonld().getCacheSize(), "Incorrect jsonld/cacheSize");
@@ -0,0 +1,398 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.write;
+import static java.time.Instant.now;
+import static java.time.temporal.ChronoUnit.SECONDS;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.unmodifiableSortedSet;
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toSet;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.trellisldp.api.ExecutorPool.MEMENTO_IO;
+import static org.trellisldp.api.TrellisUtils.getInstance;
+import static org.trellisldp.file.FileBinaryService.deleteQuietly;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.apache.commons.rdf.api.Dataset;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.tamaya.Configuration;
+import org.apache.tamaya.ConfigurationProvider;
+import org.slf4j.Logger;
+import org.trellisldp.api.ExecutorPool;
+import org.trellisldp.api.MementoService;
+import org.trellisldp.api.Metadata;
+import org.trellisldp.api.Resource;
+import org.trellisldp.api.ResourceService;
+
+/**
+ * A {@link MementoService} that writes Mementos to another Memento service in the background.
+ *
+ * <p>A request to create a Memento is queued and completes at once, so that the caller does not wait for the
+ * resource to be fetched and serialized. Writes for a resource run one at a time, in order. A request that arrives
+ * while an earlier write for the same resource is queued is merged into that write only if both map to the same
+ * Memento, that is, to the same second; otherwise, both are queued, so that no version is lost. Requests that
+ * capture the current state of a resource, rather than a known version, merge with one another.
+ *
+ * <p>Reads are served by the other Memento service, with the queued versions of a resource merged in. A listing of
+ * Mementos includes every queued version, and a queued resource is returned as its own Memento. A read waits only
+ * when the Memento it asks for is queued without its data, and only for that write. While a request that captures
+ * the current state of a resource is queued, its version is not yet known, so a read of a single Memento waits for
+ * the queued writes of that resource.
+ *
+ * <p>The queue is bounded. Once it is full, a request for a resource that is not already queued completes only when
+ * its Memento has been written, so that callers are slowed to the rate at which Mementos can be written.
+ *
+ * <p>Optionally, each queued write is recorded in a journal directory until it has completed. After a restart,
+ * {@link #recover} queues a new Memento for each resource whose write was interrupted.
+ */
+public class AsyncMementoService implements MementoService {
+
+    /** The configuration key controlling whether Mementos are written in the background. */
+    public static final String CONFIG_FILE_MEMENTO_ASYNC = "trellis.file.memento.async";
+
+    /** The configuration key controlling the maximum number of queued Memento writes. */
+    public static final String CONFIG_FILE_MEMENTO_QUEUE_SIZE = "trellis.file.memento.queue.size";
+
+    /** The configuration key controlling the location of the journal of queued Memento writes. */
+    public static final String CONFIG_FILE_MEMENTO_QUEUE_JOURNAL = "trellis.file.memento.queue.journal";
+
+    private static final Logger LOGGER = getLogger(AsyncMementoService.class);
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+    private static final String SUFFIX = ".pending";
+
+    private final MementoService delegate;
+    private final Semaphore capacity;
+    private final Path journal;
+    private final Executor executor = ExecutorPool.getInstance(MEMENTO_IO);
+    // The most recently queued write for each resource, if it has not yet started and can take more requests
+    private final Map<IRI, Entry> pending = new ConcurrentHashMap<>();
+    // All writes that have not yet started
+    private final Set<Entry> waiting = ConcurrentHashMap.newKeySet();
+    // The most recently queued write for each resource, on which the next write for that resource waits
+    private final Map<IRI, CompletableFuture<Void>> writes = new ConcurrentHashMap<>();
+    // All writes for each resource that have not yet completed
+    private final Map<IRI, Set<Entry>> unwritten = new ConcurrentHashMap<>();
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Create an asynchronous memento service.
+     *
+     * @param delegate the underlying memento service
+     */
+    public AsyncMementoService(final MementoService delegate) {
+        this(delegate, ConfigurationProvider.getConfiguration());
+    }
+
+    /**
+     * Create an asynchronous memento service.
+     *
+     * @param delegate the underlying memento service
+     * @param queueSize the maximum number of queued Memento writes
+     * @param journal the journal directory, or {@code null} if queued writes are not to be recorded
+     */
+    public AsyncMementoService(final MementoService delegate, final int queueSize, final String journal) {
+        this.delegate = requireNonNull(delegate, "Memento service may not be null!");
+        this.capacity = new Semaphore(Math.max(1, queueSize));
+        if (journal != null) {
+            this.journal = new File(journal).toPath();
+            this.journal.toFile().mkdirs();
+            LOGGER.info("Recording queued Memento writes at {}", journal);
+        } else {
+            this.journal = null;
+        }
+    }
+
+    private AsyncMementoService(final MementoService delegate, final Configuration config) {
+        this(delegate, config.getOrDefault(CONFIG_FILE_MEMENTO_QUEUE_SIZE, Integer.class, DEFAULT_QUEUE_SIZE),
+                config.get(CONFIG_FILE_MEMENTO_QUEUE_JOURNAL));
+    }
+
+    @Override
+    public CompletionStage<Void> put(final ResourceService resourceService, final IRI identifier) {
+        return enqueue(identifier, null, null, service -> service.put(resourceService, identifier));
+    }
+
+    @Override
+    public CompletionStage<Void> put(final ResourceService resourceService, final Metadata metadata,
+            final Dataset dataset) {
+        // Without a recorded modification time, the delegate captures the current state of the resource
+        final Instant time = resourceService.getModified(metadata).map(t -> t.truncatedTo(SECONDS)).orElse(null);
+        return enqueue(metadata.getIdentifier(), time, null,
+                service -> service.put(resourceService, metadata, dataset));
+    }
+
+    @Override
+    public CompletionStage<Void> put(final Resource resource) {
+        return enqueue(resource.getIdentifier(), resource.getModified().truncatedTo(SECONDS), resource,
+                service -> service.put(resource));
+    }
+
+    @Override
+    public CompletionStage<Resource> get(final IRI identifier, final Instant time) {
+        final Set<Entry> entries = unwritten.getOrDefault(identifier, emptySet());
+        if (entries.stream().anyMatch(entry -> entry.time == null)) {
+            return awaitWrites(identifier).thenCompose(x -> delegate.get(identifier, time));
+        }
+        // The latest queued version at or before the requested time is newer than any stored Memento
+        final Optional<Entry> queuedVersion = entries.stream().filter(entry -> !entry.time.isAfter(time))
+            .max(comparing(entry -> entry.time));
+        if (!queuedVersion.isPresent()) {
+            return delegate.get(identifier, time);
+        }
+        final Resource snapshot = queuedVersion.get().snapshot;
+        return snapshot != null ? completedFuture(snapshot) : queuedVersion.get().done.handle((x, err) -> null)
+            .thenCompose(x -> delegate.get(identifier, time));
+    }
+
+    @Override
+    public CompletionStage<SortedSet<Instant>> mementos(final IRI identifier) {
+        final Set<Instant> queuedVersions = unwritten.getOrDefault(identifier, emptySet()).stream()
+            .map(entry -> entry.time).filter(Objects::nonNull).collect(toSet());
+        return delegate.mementos(identifier).thenApply(mementos -> {
+            if (queuedVersions.isEmpty() || mementos.containsAll(queuedVersions)) {
+                return mementos;
+            }
+            final SortedSet<Instant> merged = new TreeSet<>(mementos);
+            merged.addAll(queuedVersions);
+            return unmodifiableSortedSet(merged);
+        });
+    }
+
+    /**
+     * Queue a new Memento for each resource whose write was recorded in the journal but did not complete.
+     *
+     * @param resourceService the resource service from which to fetch the resources
+     * @return the number of resources for which a Memento was queued
+     */
+    public long recover(final ResourceService resourceService) {
+        if (journal == null) {
+            return 0L;
+        }
+        long count = 0L;
+        try (final DirectoryStream<Path> markers = newDirectoryStream(journal, "*" + SUFFIX)) {
+            for (final Path marker : markers) {
+                final IRI identifier = getInstance().createIRI(new String(readAllBytes(marker), UTF_8));
+                put(resourceService, identifier);
+                deleteQuietly(marker);
+                count++;
+            }
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Error reading Memento journal at " + journal, ex);
+        }
+        LOGGER.info("Queued {} interrupted Memento writes", count);
+        return count;
+    }
+
+    /**
+     * Wait for all queued Memento writes.
+     *
+     * @return the completion stage that completes once the currently queued writes have completed
+     */
+    public CompletionStage<Void> flush() {
+        return allOf(writes.values().stream().map(write -> write.handle((x, err) -> null))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Get the number of Memento writes that are queued but not yet started.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return waiting.size();
+    }
+
+    /**
+     * Get the age of the oldest Memento write that is queued but not yet started.
+     *
+     * @return the queue lag, which is zero when nothing is queued
+     */
+    public Duration getLag() {
+        return waiting.stream().map(entry -> entry.created).min(Instant::compareTo)
+            .map(created -> Duration.between(created, now())).orElse(Duration.ZERO);
+    }
+
+    /**
+     * Get the number of Memento writes that have been queued.
+     *
+     * @return the number of queued writes, not counting those merged into a queued write
+     */
+    public long getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Get the number of Memento requests that were merged into a queued write for the same Memento.
+     *
+     * @return the number of merged requests
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * Get the number of Memento writes that have completed successfully.
+     *
+     * @return the number of completed writes
+     */
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    /**
+     * Get the number of Memento writes that have failed.
+     *
+     * @return the number of failed writes
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    private CompletionStage<Void> enqueue(final IRI identifier, final Instant time, final Resource snapshot,
+            final Function<MementoService, CompletionStage<Void>> write) {
+        final Entry created = new Entry(time, snapshot, write);
+        // A queued write that maps to a different Memento is left in place, and a new write is queued after it
+        final Entry entry = pending.compute(identifier, (id, current) ->
+                current != null && Objects.equals(current.time, time) ? current.replace(snapshot, write) : created);
+        if (entry != created) {
+            coalesced.incrementAndGet();
+            return entry.accepted();
+        }
+
+        unwritten.computeIfAbsent(identifier, id -> ConcurrentHashMap.newKeySet()).add(entry);
+        waiting.add(entry);
+        queued.incrementAndGet();
+        entry.queued = capacity.tryAcquire();
+        entry.marker = mark(identifier);
+        final CompletableFuture<Void> next = writes.compute(identifier, (id, previous) ->
+                (previous == null ? CompletableFuture.<Void>completedFuture(null) : previous.handle((x, err) -> null))
+                    .thenComposeAsync(x -> drain(id, entry), executor));
+        next.whenComplete((x, err) -> writes.remove(identifier, next));
+        return entry.accepted();
+    }
+
+    private CompletionStage<Void> drain(final IRI identifier, final Entry entry) {
+        // Once removed, the entry takes no more requests, and a new request for the resource queues a new write
+        pending.remove(identifier, entry);
+        waiting.remove(entry);
+        CompletionStage<Void> stage;
+        try {
+            stage = entry.write.apply(delegate);
+        } catch (final RuntimeException ex) {
+            final CompletableFuture<Void> failure = new CompletableFuture<>();
+            failure.completeExceptionally(ex);
+            stage = failure;
+        }
+        return stage.whenComplete((x, err) -> {
+            if (err != null) {
+                failed.incrementAndGet();
+                LOGGER.warn("Unable to store memento for {}: {}", identifier, err.getMessage());
+                entry.done.completeExceptionally(err);
+            } else {
+                completed.incrementAndGet();
+                entry.done.complete(null);
+            }
+            if (entry.queued) {
+                capacity.release();
+            }
+            if (entry.marker != null) {
+                deleteQuietly(entry.marker);
+            }
+            unwritten.computeIfPresent(identifier, (id, entries) -> {
+                entries.remove(entry);
+                return entries.isEmpty() ? null : entries;
+            });
+        });
+    }
+
+    private CompletionStage<Void> awaitWrites(final IRI identifier) {
+        final CompletableFuture<Void> write = writes.get(identifier);
+        return write == null ? completedFuture(null) : write.handle((x, err) -> null);
+    }
+
+    private Path mark(final IRI identifier) {
+        if (journal == null) {
+            return null;
+        }
+        final Path marker = journal.resolve(randomUUID() + SUFFIX);
+        try {
+            write(marker, identifier.getIRIString().getBytes(UTF_8));
+            return marker;
+        } catch (final IOException ex) {
+            LOGGER.warn("Unable to record queued Memento write for {}: {}", identifier, ex.getMessage());
+            return null;
+        }
+    }
+
+    private static final class Entry {
+        private final Instant created = now();
+        private final Instant time;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile Resource snapshot;
+        private volatile Function<MementoService, CompletionStage<Void>> write;
+        private volatile boolean queued;
+        private volatile Path marker;
+
+        Entry(final Instant time, final Resource snapshot,
+                final Function<MementoService, CompletionStage<Void>> write) {
+            this.time = time;
+            this.snapshot = snapshot;
+            this.write = write;
+        }
+
+        Entry replace(final Resource snapshot, final Function<MementoService, CompletionStage<Void>> write) {
+            this.snapshot = snapshot;
+            this.write = write;
+            return this;
+        }
+
+        CompletionStage<Void> accepted() {
+            // A write beyond the capacity of the queue holds its caller until it completes
+            return queued ? completedFuture(null) : done;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.io.File.separatorChar;
+import static java.nio.file.Files.getLastModifiedTime;
+import static java.nio.file.Files.size;
+import static java.time.Instant.now;
+import static java.util.Objects.requireNonNull;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.trellisldp.api.TrellisUtils.getInstance;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.tamaya.Configuration;
+import org.apache.tamaya.ConfigurationProvider;
+import org.slf4j.Logger;
+
+/**
+ * A background collector that purges stored binaries that are no longer referenced.
+ *
+ * <p>A binary is retained if any of the configured reference sources lists it. Typically, these are the
+ * binaries of the current resources, such as {@code TriplestoreResourceService::listBinaries}, and those
+ * of retained Mementos, such as {@link FileMementoService#listBinaries}. If any reference source fails,
+ * the collection run fails and nothing is purged.
+ *
+ * <p>Binaries modified within a grace period are never collected, since binary content is written before
+ * the resource that refers to it. Orphaned binaries are purged in batches, with a pause between batches
+ * to limit the load placed on the storage. In dry-run mode, which is the default, orphaned binaries are only
+ * logged and counted.
+ */
+public class BinaryGarbageCollector implements AutoCloseable {
+
+    /** The configuration key controlling the number of binaries purged in each batch. */
+    public static final String CONFIG_FILE_BINARY_GC_BATCH_SIZE = "trellis.file.binary.gc.batchsize";
+
+    /** The configuration key controlling the pause, in milliseconds, between batches. */
+    public static final String CONFIG_FILE_BINARY_GC_DELAY = "trellis.file.binary.gc.delay";
+
+    /** The configuration key controlling the age, in milliseconds, below which binaries are never purged. */
+    public static final String CONFIG_FILE_BINARY_GC_GRACE = "trellis.file.binary.gc.grace";
+
+    /** The configuration key controlling whether orphaned binaries are only reported, rather than purged. */
+    public static final String CONFIG_FILE_BINARY_GC_DRY_RUN = "trellis.file.binary.gc.dryrun";
+
+    /** The configuration key controlling the time, in milliseconds, between scheduled collection runs. */
+    public static final String CONFIG_FILE_BINARY_GC_INTERVAL = "trellis.file.binary.gc.interval";
+
+    /** The default time, in milliseconds, between scheduled collection runs. */
+    public static final long DEFAULT_INTERVAL = 86_400_000L;
+
+    private static final Logger LOGGER = getLogger(BinaryGarbageCollector.class);
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_DELAY = 1000L;
+    private static final long DEFAULT_GRACE = 3_600_000L;
+
+    private final FileBinaryService binaryService;
+    private final List<Supplier<Stream<IRI>>> references;
+    private final int batchSize;
+    private final long delay;
+    private final long grace;
+    private final boolean dryRun;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong orphaned = new AtomicLong();
+    private final AtomicLong purged = new AtomicLong();
+    private final AtomicLong purgedBytes = new AtomicLong();
+    private volatile Instant lastRun;
+
+    /**
+     * Create a binary garbage collector.
+     *
+     * @param binaryService the binary service
+     * @param references the sources of binary references
+     */
+    public BinaryGarbageCollector(final FileBinaryService binaryService,
+            final List<Supplier<Stream<IRI>>> references) {
+        this(binaryService, references, ConfigurationProvider.getConfiguration());
+    }
+
+    /**
+     * Create a binary garbage collector.
+     *
+     * @param binaryService the binary service
+     * @param references the sources of binary references
+     * @param batchSize the number of binaries purged in each batch
+     * @param delay the pause, in milliseconds, between batches
+     * @param grace the age, in milliseconds, below which binaries are never purged
+     * @param dryRun whether orphaned binaries are only reported, rather than purged
+     */
+    public BinaryGarbageCollector(final FileBinaryService binaryService,
+            final List<Supplier<Stream<IRI>>> references, final int batchSize, final long delay,
+            final long grace, final boolean dryRun) {
+        this.binaryService = requireNonNull(binaryService, "Binary service may not be null!");
+        this.references = requireNonNull(references, "Binary references may not be null!");
+        this.batchSize = Math.max(1, batchSize);
+        this.delay = Math.max(0L, delay);
+        this.grace = Math.max(0L, grace);
+        this.dryRun = dryRun;
+        this.scheduler = newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "trellis-binary-gc");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private BinaryGarbageCollector(final FileBinaryService binaryService,
+            final List<Supplier<Stream<IRI>>> references, final Configuration config) {
+        this(binaryService, references,
+                config.getOrDefault(CONFIG_FILE_BINARY_GC_BATCH_SIZE, Integer.class, DEFAULT_BATCH_SIZE),
+                config.getOrDefault(CONFIG_FILE_BINARY_GC_DELAY, Long.class, DEFAULT_DELAY),
+                config.getOrDefault(CONFIG_FILE_BINARY_GC_GRACE, Long.class, DEFAULT_GRACE),
+                config.getOrDefault(CONFIG_FILE_BINARY_GC_DRY_RUN, Boolean.class, Boolean.TRUE));
+    }
+
+    /**
+     * Run the collector periodically in the background.
+     *
+     * @param interval the time between the end of one run and the start of the next
+     * @param unit the unit of the interval
+     */
+    public void schedule(final long interval, final TimeUnit unit) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                collect();
+            } catch (final Exception ex) {
+                LOGGER.error("Error collecting orphaned binaries: {}", ex.getMessage());
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Run the collector once.
+     *
+     * @return the next stage of completion, with the number of orphaned binaries found
+     */
+    public CompletionStage<Long> run() {
+        return supplyAsync(this::collect, scheduler);
+    }
+
+    /**
+     * Get the number of completed collection runs.
+     *
+     * @return the number of runs
+     */
+    public long getRuns() {
+        return runs.get();
+    }
+
+    /**
+     * Get the number of stored binaries that have been examined.
+     *
+     * @return the number of binaries scanned
+     */
+    public long getScanned() {
+        return scanned.get();
+    }
+
+    /**
+     * Get the number of orphaned binaries that have been found.
+     *
+     * @return the number of orphaned binaries
+     */
+    public long getOrphaned() {
+        return orphaned.get();
+    }
+
+    /**
+     * Get the number of orphaned binaries that have been purged.
+     *
+     * @return the number of purged binaries
+     */
+    public long getPurged() {
+        return purged.get();
+    }
+
+    /**
+     * Get the size of the orphaned binaries that have been purged.
+     *
+     * @return the number of bytes purged
+     */
+    public long getPurgedBytes() {
+        return purgedBytes.get();
+    }
+
+    /**
+     * Get the time at which the last collection run completed.
+     *
+     * @return the time of the last run, if any
+     */
+    public Optional<Instant> getLastRun() {
+        return ofNullable(lastRun);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private long collect() {
+        if (!running.compareAndSet(false, true)) {
+            LOGGER.debug("Binary collection is already in progress");
+            return 0L;
+        }
+        try {
+            // References are gathered first: anything written since is protected by the grace period
+            final Set<Path> referenced = getReferencedFiles();
+            final Instant cutoff = now().minusMillis(grace);
+            final List<Path> batch = new ArrayList<>();
+            long count = 0L;
+            try (final Stream<Path> files = binaryService.listBinaryFiles()) {
+                final Iterator<Path> iter = files.iterator();
+                while (iter.hasNext()) {
+                    final Path file = iter.next();
+                    scanned.incrementAndGet();
+                    if (!referenced.contains(normalize(file)) && isExpired(file, cutoff)) {
+                        batch.add(file);
+                        count++;
+                        if (batch.size() >= batchSize && !purge(batch)) {
+                            return count;
+                        }
+                    }
+                }
+            }
+            purge(batch);
+            if (!dryRun) {
+                final long reclaimed = binaryService.reclaim().toCompletableFuture().join();
+                LOGGER.debug("Reclaimed {} unreferenced stored items", reclaimed);
+            }
+            LOGGER.info("Found {} orphaned binaries{}", count, dryRun ? " (dry run)" : "");
+            runs.incrementAndGet();
+            lastRun = now();
+            return count;
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Error listing stored binaries", ex);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean purge(final List<Path> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        orphaned.addAndGet(batch.size());
+        for (final Path file : batch) {
+            final IRI identifier = getIdentifier(file);
+            if (dryRun) {
+                LOGGER.info("Orphaned binary: {}", identifier);
+            } else {
+                final long bytes = getSize(file);
+                binaryService.purgeContent(identifier).toCompletableFuture().join();
+                purged.incrementAndGet();
+                purgedBytes.addAndGet(bytes);
+                LOGGER.debug("Purged orphaned binary: {}", identifier);
+            }
+        }
+        batch.clear();
+        return pause();
+    }
+
+    private boolean pause() {
+        if (delay > 0L) {
+            try {
+                Thread.sleep(delay);
+            } catch (final InterruptedException ex) {
+                LOGGER.warn("Binary collection interrupted");
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Set<Path> getReferencedFiles() {
+        final Set<Path> files = new HashSet<>();
+        for (final Supplier<Stream<IRI>> source : references) {
+            try (final Stream<IRI> identifiers = source.get()) {
+                identifiers.filter(iri -> iri.getIRIString().startsWith("file:"))
+                    .map(binaryService::getFileFromIdentifier).map(File::toPath).map(this::normalize)
+                    .forEach(files::add);
+            }
+        }
+        return files;
+    }
+
+    private IRI getIdentifier(final Path file) {
+        final Path base = normalize(new File(binaryService.getBasePath()).toPath());
+        final String path = base.relativize(normalize(file)).toString().replace(separatorChar, '/');
+        return getInstance().createIRI("file:///" + path);
+    }
+
+    private Path normalize(final Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private static boolean isExpired(final Path file, final Instant cutoff) {
+        try {
+            return !getLastModifiedTime(file).toInstant().isAfter(cutoff);
+        } catch (final IOException ex) {
+            LOGGER.warn("Could not read modification time of {}: {}", file, ex.getMessage());
+            return false;
+        }
+    }
+
+    private static long getSize(final Path file) {
+        try {
+            return size(file);
+        } catch (final IOException ex) {
+            return 0L;
+        }
+    }
+}
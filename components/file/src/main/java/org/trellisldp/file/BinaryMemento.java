@@ -0,0 +1,326 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+import static java.util.stream.StreamSupport.stream;
+import static org.apache.jena.graph.NodeFactory.createBlankNode;
+import static org.apache.jena.graph.NodeFactory.createLiteral;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.apache.jena.graph.NodeFactory.getType;
+import static org.apache.jena.sparql.core.Quad.create;
+import static org.apache.jena.sparql.core.Quad.defaultGraphIRI;
+import static org.trellisldp.vocabulary.XSD.string_;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterators.AbstractSpliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.Quad;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.jena.graph.Node;
+
+/**
+ * Reads and writes Mementos in a compact, dictionary-encoded binary form.
+ *
+ * <p>The file starts with an 8-byte signature and a flags byte, followed by two sections: a header holding the
+ * server-managed quads and a body holding all other quads. The body may be compressed with the DEFLATE algorithm;
+ * the header never is, so that the metadata of a Memento can be read without touching its body.
+ *
+ * <p>Each section is a sequence of quads, each a marker byte followed by the graph name, subject, predicate and
+ * object, and ends with a zero byte. A term is written in full the first time it appears in a section and as a
+ * reference to that first occurrence afterwards, so repeated terms are neither stored nor parsed more than once.
+ */
+final class BinaryMemento {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'T', 'R', 'L', 'Q', '\r', '\n', 0x1A};
+    private static final int FLAG_COMPRESSED = 1;
+
+    private static final int END = 0;
+    private static final int QUAD = 1;
+
+    // Term references: a new term follows, the default graph, or an earlier term (offset by REF_OFFSET)
+    private static final int REF_NEW = 0;
+    private static final int REF_DEFAULT_GRAPH = 1;
+    private static final int REF_OFFSET = 2;
+
+    private static final int KIND_IRI = 1;
+    private static final int KIND_BLANK_NODE = 2;
+    private static final int KIND_STRING = 3;
+    private static final int KIND_LANG_STRING = 4;
+    private static final int KIND_TYPED_LITERAL = 5;
+
+    /**
+     * Write a Memento in the binary form.
+     *
+     * @param target the file
+     * @param serverManaged the server-managed quads, which are written to the header
+     * @param quads the other quads
+     * @param compress whether to compress the body
+     * @throws IOException if the Memento could not be written
+     */
+    static void write(final Path target, final Stream<? extends Quad> serverManaged,
+            final Stream<? extends Quad> quads, final boolean compress) throws IOException {
+        try (final OutputStream file = new BufferedOutputStream(newOutputStream(target, CREATE, WRITE,
+                        TRUNCATE_EXISTING))) {
+            file.write(SIGNATURE);
+            file.write(compress ? FLAG_COMPRESSED : 0);
+            writeSection(new DataOutputStream(file), serverManaged.iterator());
+            final OutputStream body = compress ? new DeflaterOutputStream(file) : file;
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(body));
+            writeSection(output, quads.iterator());
+            output.flush();
+            if (body instanceof DeflaterOutputStream) {
+                ((DeflaterOutputStream) body).finish();
+            }
+        }
+    }
+
+    /**
+     * Read the quads of a Memento in the binary form.
+     *
+     * <p>The quads are decoded as the stream is consumed, and the file is closed when the stream is closed.
+     *
+     * @param file the file
+     * @param serverManagedOnly whether to read only the server-managed quads in the header
+     * @return the quads
+     * @throws IOException if the file could not be opened or is not a binary Memento
+     */
+    static Stream<org.apache.jena.sparql.core.Quad> read(final Path file, final boolean serverManagedOnly)
+            throws IOException {
+        final InputStream input = new BufferedInputStream(newInputStream(file));
+        try {
+            final byte[] signature = new byte[SIGNATURE.length + 1];
+            new DataInputStream(input).readFully(signature);
+            for (int i = 0; i < SIGNATURE.length; i++) {
+                if (signature[i] != SIGNATURE[i]) {
+                    throw new IOException("Not a binary Memento: " + file);
+                }
+            }
+            final boolean compressed = (signature[SIGNATURE.length] & FLAG_COMPRESSED) != 0;
+            final QuadReader reader = new QuadReader(input, compressed, serverManagedOnly);
+            return stream(reader, false).onClose(reader::close);
+        } catch (final IOException ex) {
+            input.close();
+            throw ex;
+        }
+    }
+
+    private static void writeSection(final DataOutputStream output, final Iterator<? extends Quad> quads)
+            throws IOException {
+        final Map<String, Integer> dictionary = new HashMap<>();
+        while (quads.hasNext()) {
+            final Quad quad = quads.next();
+            output.writeByte(QUAD);
+            if (quad.getGraphName().isPresent()) {
+                writeTerm(output, dictionary, quad.getGraphName().get());
+            } else {
+                writeVarInt(output, REF_DEFAULT_GRAPH);
+            }
+            writeTerm(output, dictionary, quad.getSubject());
+            writeTerm(output, dictionary, quad.getPredicate());
+            writeTerm(output, dictionary, quad.getObject());
+        }
+        output.writeByte(END);
+    }
+
+    private static void writeTerm(final DataOutputStream output, final Map<String, Integer> dictionary,
+            final RDFTerm term) throws IOException {
+        final String key = term.ntriplesString();
+        final Integer ref = dictionary.get(key);
+        if (ref != null) {
+            writeVarInt(output, ref + REF_OFFSET);
+            return;
+        }
+        dictionary.put(key, dictionary.size());
+        writeVarInt(output, REF_NEW);
+        if (term instanceof IRI) {
+            output.writeByte(KIND_IRI);
+            writeString(output, ((IRI) term).getIRIString());
+        } else if (term instanceof BlankNode) {
+            // The label matches what the N-Quads form of the Memento would hold
+            output.writeByte(KIND_BLANK_NODE);
+            writeString(output, key.substring(2));
+        } else {
+            final Literal literal = (Literal) term;
+            if (literal.getLanguageTag().isPresent()) {
+                output.writeByte(KIND_LANG_STRING);
+                writeString(output, literal.getLexicalForm());
+                writeString(output, literal.getLanguageTag().get());
+            } else if (string_.equals(literal.getDatatype())) {
+                output.writeByte(KIND_STRING);
+                writeString(output, literal.getLexicalForm());
+            } else {
+                output.writeByte(KIND_TYPED_LITERAL);
+                writeString(output, literal.getLexicalForm());
+                writeString(output, literal.getDatatype().getIRIString());
+            }
+        }
+    }
+
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(UTF_8);
+        writeVarInt(output, bytes.length);
+        output.write(bytes);
+    }
+
+    private static void writeVarInt(final DataOutputStream output, final int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            output.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        output.writeByte(remaining);
+    }
+
+    private static final class QuadReader extends AbstractSpliterator<org.apache.jena.sparql.core.Quad> {
+
+        private final InputStream file;
+        private final boolean compressed;
+        private final boolean serverManagedOnly;
+        private final List<Node> dictionary = new ArrayList<>();
+        private DataInputStream input;
+        private boolean header = true;
+        private boolean done;
+
+        QuadReader(final InputStream file, final boolean compressed, final boolean serverManagedOnly) {
+            super(Long.MAX_VALUE, ORDERED | NONNULL);
+            this.file = file;
+            this.compressed = compressed;
+            this.serverManagedOnly = serverManagedOnly;
+            this.input = new DataInputStream(file);
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super org.apache.jena.sparql.core.Quad> action) {
+            try {
+                while (!done) {
+                    if (input.readUnsignedByte() == QUAD) {
+                        final Node graph = readTerm();
+                        action.accept(create(graph, readTerm(), readTerm(), readTerm()));
+                        return true;
+                    }
+                    nextSection();
+                }
+                return false;
+            } catch (final IOException ex) {
+                throw new UncheckedIOException("Error reading binary Memento", ex);
+            }
+        }
+
+        void close() {
+            try {
+                input.close();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException("Error closing binary Memento", ex);
+            }
+        }
+
+        private void nextSection() {
+            if (header && !serverManagedOnly) {
+                // The body shares the underlying stream with the header, which it follows directly
+                header = false;
+                dictionary.clear();
+                input = new DataInputStream(compressed ? new BufferedInputStream(new InflaterInputStream(file))
+                        : file);
+            } else {
+                done = true;
+            }
+        }
+
+        private Node readTerm() throws IOException {
+            final int ref = readVarInt();
+            if (ref == REF_DEFAULT_GRAPH) {
+                return defaultGraphIRI;
+            } else if (ref >= REF_OFFSET) {
+                if (ref - REF_OFFSET >= dictionary.size()) {
+                    throw new IOException("Invalid term reference " + ref);
+                }
+                return dictionary.get(ref - REF_OFFSET);
+            }
+            final Node node;
+            final int kind = input.readUnsignedByte();
+            switch (kind) {
+                case KIND_IRI:
+                    node = createURI(readString());
+                    break;
+                case KIND_BLANK_NODE:
+                    node = createBlankNode(readString());
+                    break;
+                case KIND_STRING:
+                    node = createLiteral(readString());
+                    break;
+                case KIND_LANG_STRING:
+                    node = createLiteral(readString(), readString());
+                    break;
+                case KIND_TYPED_LITERAL:
+                    final String lexicalForm = readString();
+                    node = createLiteral(lexicalForm, getType(readString()));
+                    break;
+                default:
+                    throw new IOException("Invalid term kind " + kind);
+            }
+            dictionary.add(node);
+            return node;
+        }
+
+        private String readString() throws IOException {
+            final byte[] bytes = new byte[readVarInt()];
+            input.readFully(bytes);
+            return new String(bytes, UTF_8);
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+                final int b = input.readUnsignedByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Invalid variable-length integer");
+        }
+    }
+
+    private BinaryMemento() {
+        // prevent instantiation
+    }
+}
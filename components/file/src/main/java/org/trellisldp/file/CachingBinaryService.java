@@ -0,0 +1,649 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.channels.Channels.newChannel;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.size;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.trellisldp.api.ExecutorPool.BINARY_IO;
+import static org.trellisldp.file.FileBinaryService.deleteQuietly;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.tamaya.Configuration;
+import org.apache.tamaya.ConfigurationProvider;
+import org.slf4j.Logger;
+import org.trellisldp.api.Binary;
+import org.trellisldp.api.BinaryMetadata;
+import org.trellisldp.api.BinaryService;
+import org.trellisldp.api.ExecutorPool;
+
+/**
+ * A {@link BinaryService} that keeps recently read binaries from another, slower, binary service in a local cache.
+ *
+ * <p>Binaries are copied to a bounded cache directory when they are first read, and are evicted in
+ * least-recently-used order once the total size of the cached binaries exceeds its limit. Optionally, binaries
+ * no larger than a configured size are held off-heap in memory instead, within a separate limit. Concurrent reads
+ * of a binary that is not cached share a single load from the underlying service.
+ *
+ * <p>Cached binaries are invalidated when their content is set or purged through this service. Changes made
+ * directly to the underlying service are not detected. Binaries whose size is unknown, or larger than the cache
+ * itself, are always read from the underlying service.
+ *
+ * <p>The cache index is held in memory, so the cache directory is emptied when this service is created. Only
+ * files created by this class are removed.
+ */
+public class CachingBinaryService implements BinaryService {
+
+    /** The configuration key controlling the location of the cache directory. */
+    public static final String CONFIG_FILE_BINARY_CACHE_PATH = "trellis.file.binary.cache.path";
+
+    /** The configuration key controlling the maximum size, in bytes, of the cache directory. */
+    public static final String CONFIG_FILE_BINARY_CACHE_SIZE = "trellis.file.binary.cache.size";
+
+    /** The configuration key controlling the maximum size, in bytes, of the in-memory cache. */
+    public static final String CONFIG_FILE_BINARY_CACHE_MEMORY_SIZE = "trellis.file.binary.cache.memory.size";
+
+    /** The configuration key controlling the size, in bytes, of the largest binary cached in memory. */
+    public static final String CONFIG_FILE_BINARY_CACHE_MEMORY_OBJECT_SIZE =
+        "trellis.file.binary.cache.memory.objectsize";
+
+    private static final Logger LOGGER = getLogger(CachingBinaryService.class);
+    private static final long DEFAULT_SIZE = 1024L * 1024L * 1024L;
+    private static final int DEFAULT_MEMORY_OBJECT_SIZE = 64 * 1024;
+    private static final String PREFIX = "cache-";
+    private static final String SUFFIX = ".bin";
+
+    private final BinaryService delegate;
+    private final Path directory;
+    private final long maxBytes;
+    private final long maxMemoryBytes;
+    private final long maxMemoryObjectSize;
+    private final Executor executor = ExecutorPool.getInstance(BINARY_IO);
+    // Guarded by itself, in access order so that the eldest entry is the least recently used
+    private final Map<IRI, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<IRI, CompletableFuture<Binary>> loading = new ConcurrentHashMap<>();
+    private long bytes;
+    private long memoryBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Create a caching binary service.
+     *
+     * @param delegate the underlying binary service
+     */
+    public CachingBinaryService(final BinaryService delegate) {
+        this(delegate, ConfigurationProvider.getConfiguration());
+    }
+
+    /**
+     * Create a caching binary service, without an in-memory cache.
+     *
+     * @param delegate the underlying binary service
+     * @param directory the cache directory
+     * @param maxBytes the maximum size, in bytes, of the cache directory
+     */
+    public CachingBinaryService(final BinaryService delegate, final String directory, final long maxBytes) {
+        this(delegate, directory, maxBytes, 0L, 0L);
+    }
+
+    /**
+     * Create a caching binary service.
+     *
+     * @param delegate the underlying binary service
+     * @param directory the cache directory
+     * @param maxBytes the maximum size, in bytes, of the cache directory
+     * @param maxMemoryBytes the maximum size, in bytes, of the in-memory cache
+     * @param maxMemoryObjectSize the size, in bytes, of the largest binary cached in memory
+     */
+    public CachingBinaryService(final BinaryService delegate, final String directory, final long maxBytes,
+            final long maxMemoryBytes, final long maxMemoryObjectSize) {
+        this.delegate = requireNonNull(delegate, "Binary service may not be null!");
+        requireNonNull(directory, CONFIG_FILE_BINARY_CACHE_PATH + " configuration may not be null!");
+        this.directory = new File(directory).toPath();
+        this.maxBytes = max(0L, maxBytes);
+        this.maxMemoryBytes = max(0L, maxMemoryBytes);
+        // A direct buffer holds at most Integer.MAX_VALUE bytes
+        this.maxMemoryObjectSize = min(max(0L, maxMemoryObjectSize), Integer.MAX_VALUE);
+        LOGGER.info("Caching binaries at {}", directory);
+        removeCacheFiles();
+    }
+
+    private CachingBinaryService(final BinaryService delegate, final Configuration config) {
+        this(delegate, config.get(CONFIG_FILE_BINARY_CACHE_PATH),
+                config.getOrDefault(CONFIG_FILE_BINARY_CACHE_SIZE, Long.class, DEFAULT_SIZE),
+                config.getOrDefault(CONFIG_FILE_BINARY_CACHE_MEMORY_SIZE, Long.class, 0L),
+                config.getOrDefault(CONFIG_FILE_BINARY_CACHE_MEMORY_OBJECT_SIZE, Long.class,
+                    (long) DEFAULT_MEMORY_OBJECT_SIZE));
+    }
+
+    @Override
+    public CompletionStage<Binary> get(final IRI identifier) {
+        final Entry entry;
+        synchronized (entries) {
+            entry = entries.get(identifier);
+        }
+        if (entry != null) {
+            hits.incrementAndGet();
+            return completedFuture(getBinary(identifier, entry));
+        }
+        misses.incrementAndGet();
+        // Only one load of a binary runs at a time; concurrent readers share its result
+        final CompletableFuture<Binary> flight = new CompletableFuture<>();
+        final CompletableFuture<Binary> existing = loading.putIfAbsent(identifier, flight);
+        if (existing != null) {
+            return existing;
+        }
+        delegate.get(identifier).thenApplyAsync(binary -> load(identifier, binary, flight), executor)
+            .whenComplete((binary, err) -> {
+                loading.remove(identifier, flight);
+                if (err != null) {
+                    flight.completeExceptionally(err);
+                } else {
+                    flight.complete(binary);
+                }
+            });
+        return flight;
+    }
+
+    @Override
+    public CompletionStage<Void> setContent(final BinaryMetadata metadata, final InputStream stream) {
+        invalidate(metadata.getIdentifier());
+        return delegate.setContent(metadata, stream).whenComplete((x, err) -> invalidate(metadata.getIdentifier()));
+    }
+
+    @Override
+    public CompletionStage<MessageDigest> setContent(final BinaryMetadata metadata, final InputStream stream,
+            final MessageDigest algorithm) {
+        invalidate(metadata.getIdentifier());
+        return delegate.setContent(metadata, stream, algorithm)
+            .whenComplete((x, err) -> invalidate(metadata.getIdentifier()));
+    }
+
+    @Override
+    public CompletionStage<List<MessageDigest>> setContent(final BinaryMetadata metadata, final InputStream stream,
+            final List<MessageDigest> algorithms) {
+        invalidate(metadata.getIdentifier());
+        return delegate.setContent(metadata, stream, algorithms)
+            .whenComplete((x, err) -> invalidate(metadata.getIdentifier()));
+    }
+
+    @Override
+    public CompletionStage<Void> purgeContent(final IRI identifier) {
+        invalidate(identifier);
+        return delegate.purgeContent(identifier).whenComplete((x, err) -> invalidate(identifier));
+    }
+
+    @Override
+    public CompletionStage<MessageDigest> calculateDigest(final IRI identifier, final MessageDigest algorithm) {
+        return delegate.calculateDigest(identifier, algorithm);
+    }
+
+    @Override
+    public CompletionStage<List<MessageDigest>> calculateDigests(final IRI identifier,
+            final List<MessageDigest> algorithms) {
+        return delegate.calculateDigests(identifier, algorithms);
+    }
+
+    @Override
+    public boolean supportsUploads() {
+        return delegate.supportsUploads();
+    }
+
+    @Override
+    public CompletionStage<String> createUpload(final IRI identifier, final List<MessageDigest> algorithms) {
+        return delegate.createUpload(identifier, algorithms);
+    }
+
+    @Override
+    public CompletionStage<Long> writeUpload(final String uploadId, final IRI identifier, final long offset,
+            final InputStream stream) {
+        return delegate.writeUpload(uploadId, identifier, offset, stream);
+    }
+
+    @Override
+    public CompletionStage<Long> getUploadOffset(final String uploadId, final IRI identifier) {
+        return delegate.getUploadOffset(uploadId, identifier);
+    }
+
+    @Override
+    public CompletionStage<List<MessageDigest>> completeUpload(final String uploadId, final IRI identifier,
+            final BinaryMetadata metadata) {
+        invalidate(metadata.getIdentifier());
+        return delegate.completeUpload(uploadId, identifier, metadata)
+            .whenComplete((x, err) -> invalidate(metadata.getIdentifier()));
+    }
+
+    @Override
+    public CompletionStage<Void> abortUpload(final String uploadId, final IRI identifier) {
+        return delegate.abortUpload(uploadId, identifier);
+    }
+
+    @Override
+    public Set<String> supportedAlgorithms() {
+        return delegate.supportedAlgorithms();
+    }
+
+    @Override
+    public String generateIdentifier() {
+        return delegate.generateIdentifier();
+    }
+
+    /**
+     * Remove a binary from the cache.
+     *
+     * @param identifier the binary identifier
+     */
+    public void invalidate(final IRI identifier) {
+        final Entry entry;
+        synchronized (entries) {
+            // A load that is still running no longer belongs to the cache, so its result is not retained
+            loading.remove(identifier);
+            entry = entries.remove(identifier);
+            if (entry != null) {
+                release(entry);
+            }
+        }
+        if (entry != null) {
+            entry.discard();
+        }
+    }
+
+    /**
+     * Get the number of reads served from the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of reads that were not served from the cache.
+     *
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Get the number of binaries evicted from the cache to make room for others.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Get the total size of the binaries in the cache directory.
+     *
+     * @return the size in bytes
+     */
+    public long getSize() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    /**
+     * Get the total size of the binaries in the in-memory cache.
+     *
+     * @return the size in bytes
+     */
+    public long getMemorySize() {
+        synchronized (entries) {
+            return memoryBytes;
+        }
+    }
+
+    private Binary load(final IRI identifier, final Binary binary, final CompletableFuture<Binary> flight) {
+        final Optional<Long> size = binary.getSize();
+        if (!size.isPresent()) {
+            return binary;
+        }
+        final long length = size.get();
+        final Entry entry;
+        try {
+            if (length <= maxMemoryObjectSize && length <= maxMemoryBytes) {
+                entry = loadMemory(binary, length);
+            } else if (length <= maxBytes) {
+                entry = loadFile(binary, length);
+            } else {
+                return binary;
+            }
+        } catch (final IOException ex) {
+            LOGGER.warn("Could not cache binary {}: {}", identifier, ex.getMessage());
+            return binary;
+        }
+        if (entry == null) {
+            LOGGER.warn("Size of binary {} does not match its content; not caching it", identifier);
+            return binary;
+        }
+        if (!admit(identifier, entry, flight)) {
+            LOGGER.debug("Binary {} was modified while it was being cached", identifier);
+            entry.discard();
+            return binary;
+        }
+        return getBinary(identifier, entry);
+    }
+
+    private Entry loadMemory(final Binary binary, final long length) throws IOException {
+        final ByteBuffer buffer = allocateDirect((int) length);
+        try (final ReadableByteChannel channel = newChannel(binary.getContent())) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // continue reading until the buffer is full
+            }
+            if (buffer.hasRemaining() || channel.read(ByteBuffer.allocate(1)) >= 0) {
+                return null;
+            }
+        }
+        buffer.flip();
+        return new Entry(null, buffer.asReadOnlyBuffer(), length);
+    }
+
+    private Entry loadFile(final Binary binary, final long length) throws IOException {
+        directory.toFile().mkdirs();
+        final Path file = directory.resolve(PREFIX + randomUUID() + SUFFIX);
+        try {
+            try (final FileChannel channel = FileChannel.open(file, CREATE_NEW, WRITE)) {
+                binary.writeTo(channel);
+            }
+            if (size(file) == length) {
+                return new Entry(file, null, length);
+            }
+        } catch (final IOException ex) {
+            deleteQuietly(file);
+            throw ex;
+        }
+        deleteQuietly(file);
+        return null;
+    }
+
+    private boolean admit(final IRI identifier, final Entry entry, final CompletableFuture<Binary> flight) {
+        final List<Entry> evicted = new ArrayList<>();
+        synchronized (entries) {
+            if (loading.get(identifier) != flight) {
+                return false;
+            }
+            final Entry previous = entries.put(identifier, entry);
+            if (previous != null) {
+                release(previous);
+                evicted.add(previous);
+            }
+            if (entry.isMemory()) {
+                memoryBytes += entry.size;
+            } else {
+                bytes += entry.size;
+            }
+            final Iterator<Map.Entry<IRI, Entry>> iterator = entries.entrySet().iterator();
+            while ((bytes > maxBytes || memoryBytes > maxMemoryBytes) && iterator.hasNext()) {
+                final Entry eldest = iterator.next().getValue();
+                if (eldest != entry && (eldest.isMemory() ? memoryBytes > maxMemoryBytes : bytes > maxBytes)) {
+                    iterator.remove();
+                    release(eldest);
+                    evicted.add(eldest);
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        evicted.forEach(Entry::discard);
+        return true;
+    }
+
+    private void release(final Entry entry) {
+        if (entry.isMemory()) {
+            memoryBytes -= entry.size;
+        } else {
+            bytes -= entry.size;
+        }
+    }
+
+    private void removeCacheFiles() {
+        if (directory.toFile().isDirectory()) {
+            try (final DirectoryStream<Path> files = newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+                files.forEach(FileBinaryService::deleteQuietly);
+            } catch (final IOException ex) {
+                LOGGER.warn("Could not empty binary cache at {}: {}", directory, ex.getMessage());
+            }
+        }
+    }
+
+    private Binary getBinary(final IRI identifier, final Entry entry) {
+        return entry.isMemory() ? new BufferBinary(entry.getBuffer())
+            : new CachedFileBinary(identifier, entry.getFile().toFile());
+    }
+
+    private Binary reload(final IRI identifier) {
+        LOGGER.debug("Cached copy of {} was evicted; reading from the underlying service", identifier);
+        return delegate.get(identifier).toCompletableFuture().join();
+    }
+
+    private static final class Entry {
+
+        private final Path file;
+        private final ByteBuffer buffer;
+        private final long size;
+
+        Entry(final Path file, final ByteBuffer buffer, final long size) {
+            this.file = file;
+            this.buffer = buffer;
+            this.size = size;
+        }
+
+        boolean isMemory() {
+            return buffer != null;
+        }
+
+        Path getFile() {
+            return file;
+        }
+
+        ByteBuffer getBuffer() {
+            return buffer;
+        }
+
+        void discard() {
+            if (file != null) {
+                deleteQuietly(file);
+            }
+        }
+    }
+
+    /**
+     * A binary in the cache directory, which may be evicted after it has been handed out.
+     */
+    private final class CachedFileBinary implements Binary {
+
+        private final IRI identifier;
+        private final FileBinary binary;
+
+        CachedFileBinary(final IRI identifier, final File file) {
+            this.identifier = identifier;
+            this.binary = new FileBinary(file);
+        }
+
+        @Override
+        public InputStream getContent() {
+            try {
+                return binary.getContent();
+            } catch (final UncheckedIOException ex) {
+                return evicted(ex).getContent();
+            }
+        }
+
+        @Override
+        public InputStream getContent(final long from, final long to) {
+            try {
+                return binary.getContent(from, to);
+            } catch (final UncheckedIOException ex) {
+                return evicted(ex).getContent(from, to);
+            }
+        }
+
+        @Override
+        public Optional<Long> getSize() {
+            final Optional<Long> size = binary.getSize();
+            return size.isPresent() ? size : reload(identifier).getSize();
+        }
+
+        @Override
+        public long writeTo(final WritableByteChannel target) throws IOException {
+            try {
+                return binary.writeTo(target);
+            } catch (final NoSuchFileException ex) {
+                return reload(identifier).writeTo(target);
+            }
+        }
+
+        @Override
+        public long writeTo(final long from, final long to, final WritableByteChannel target) throws IOException {
+            try {
+                return binary.writeTo(from, to, target);
+            } catch (final NoSuchFileException ex) {
+                return reload(identifier).writeTo(from, to, target);
+            }
+        }
+
+        private Binary evicted(final UncheckedIOException ex) {
+            if (ex.getCause() instanceof NoSuchFileException || ex.getCause() instanceof FileNotFoundException) {
+                return reload(identifier);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * A binary held in memory.
+     */
+    private static final class BufferBinary implements Binary {
+
+        private final ByteBuffer buffer;
+
+        BufferBinary(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public InputStream getContent() {
+            return new BufferInputStream(buffer.duplicate());
+        }
+
+        @Override
+        public InputStream getContent(final long from, final long to) {
+            return new BufferInputStream(segment(from, to));
+        }
+
+        @Override
+        public Optional<Long> getSize() {
+            return Optional.of((long) buffer.limit());
+        }
+
+        @Override
+        public long writeTo(final WritableByteChannel target) throws IOException {
+            return write(buffer.duplicate(), target);
+        }
+
+        @Override
+        public long writeTo(final long from, final long to, final WritableByteChannel target) throws IOException {
+            return write(segment(from, to), target);
+        }
+
+        private ByteBuffer segment(final long from, final long to) {
+            final ByteBuffer segment = buffer.duplicate();
+            final int start = (int) min(max(0L, from), segment.limit());
+            segment.limit((int) max(start, min(to, segment.limit() - 1L) + 1L));
+            segment.position(start);
+            return segment;
+        }
+
+        private static long write(final ByteBuffer source, final WritableByteChannel target) throws IOException {
+            long written = 0L;
+            while (source.hasRemaining()) {
+                written += target.write(source);
+            }
+            return written;
+        }
+    }
+
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        BufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            final int count = min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
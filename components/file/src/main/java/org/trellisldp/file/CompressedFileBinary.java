@@ -0,0 +1,298 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Arrays.copyOf;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.trellisldp.api.Binary;
+
+/**
+ * Implements {@link Binary} for files that are stored in a seekable, compressed form.
+ *
+ * <p>The content is split into fixed-size blocks, each of which is compressed independently with the
+ * DEFLATE algorithm. The file has the following layout, with all numbers stored in big-endian order:
+ *
+ * <ul>
+ * <li>an 8-byte signature, followed by the uncompressed block size (4 bytes)</li>
+ * <li>the compressed blocks</li>
+ * <li>an index holding the file offset of each compressed block (8 bytes each)</li>
+ * <li>the uncompressed length (8 bytes), the offset of the index (8 bytes), the number of blocks (4 bytes)
+ * and the signature again</li>
+ * </ul>
+ *
+ * <p>Because the index gives the location of every block, a segment of the content is read by decompressing
+ * only the blocks that cover it.
+ */
+class CompressedFileBinary implements Binary {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'T', 'R', 'L', 'Z', '\r', '\n', 0x1A};
+    private static final int HEADER_SIZE = SIGNATURE.length + Integer.BYTES;
+    private static final int TRAILER_SIZE = 2 * Long.BYTES + Integer.BYTES + SIGNATURE.length;
+
+    private final File file;
+    private final int blockSize;
+    private final long length;
+    private final long[] offsets;
+
+    private CompressedFileBinary(final File file, final int blockSize, final long length, final long[] offsets) {
+        this.file = file;
+        this.blockSize = blockSize;
+        this.length = length;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Open a compressed file.
+     *
+     * @param file the file
+     * @return the binary, if the file exists and is compressed; otherwise, an empty value
+     * @throws IOException if the file could not be read
+     */
+    static Optional<Binary> open(final File file) throws IOException {
+        if (!file.isFile() || file.length() < HEADER_SIZE + TRAILER_SIZE) {
+            return empty();
+        }
+        try (final FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+            final ByteBuffer header = readFully(channel, 0L, HEADER_SIZE);
+            final ByteBuffer trailer = readFully(channel, channel.size() - TRAILER_SIZE, TRAILER_SIZE);
+            if (!hasSignature(header, 0) || !hasSignature(trailer, TRAILER_SIZE - SIGNATURE.length)) {
+                return empty();
+            }
+            final int blockSize = header.getInt(SIGNATURE.length);
+            final long length = trailer.getLong(0);
+            final long indexOffset = trailer.getLong(Long.BYTES);
+            final int blocks = trailer.getInt(2 * Long.BYTES);
+            // Uncompressed content could carry the signature by chance, so the whole layout is verified
+            if (blockSize <= 0 || length < 0L || blocks < 0 || blocks != (length + blockSize - 1) / blockSize
+                    || indexOffset < HEADER_SIZE
+                    || indexOffset + (long) blocks * Long.BYTES != channel.size() - TRAILER_SIZE) {
+                return empty();
+            }
+            final ByteBuffer index = readFully(channel, indexOffset, blocks * Long.BYTES);
+            final long[] offsets = new long[blocks + 1];
+            for (int i = 0; i < blocks; i++) {
+                offsets[i] = index.getLong();
+            }
+            offsets[blocks] = indexOffset;
+            return of(new CompressedFileBinary(file, blockSize, length, offsets));
+        }
+    }
+
+    /**
+     * Write content to a file in the compressed form.
+     *
+     * @param stream the content
+     * @param target the file, which must not exist
+     * @param blockSize the uncompressed block size
+     * @return the uncompressed length of the content
+     * @throws IOException if the content could not be written
+     */
+    static long write(final InputStream stream, final Path target, final int blockSize) throws IOException {
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try (final FileChannel channel = FileChannel.open(target, CREATE_NEW, WRITE)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).put(SIGNATURE).putInt(blockSize);
+            header.flip();
+            writeFully(channel, header);
+
+            final byte[] block = new byte[blockSize];
+            final byte[] compressed = new byte[blockSize + blockSize / 8 + 64];
+            long[] offsets = new long[16];
+            int blocks = 0;
+            long length = 0L;
+            int read;
+            while ((read = readBlock(stream, block)) > 0) {
+                if (blocks == offsets.length) {
+                    offsets = copyOf(offsets, blocks * 2);
+                }
+                offsets[blocks++] = channel.position();
+                length += read;
+                deflater.reset();
+                deflater.setInput(block, 0, read);
+                deflater.finish();
+                while (!deflater.finished()) {
+                    final int size = deflater.deflate(compressed);
+                    writeFully(channel, ByteBuffer.wrap(compressed, 0, size));
+                }
+            }
+
+            final long indexOffset = channel.position();
+            final ByteBuffer index = ByteBuffer.allocate(blocks * Long.BYTES);
+            Arrays.stream(offsets, 0, blocks).forEach(index::putLong);
+            index.flip();
+            writeFully(channel, index);
+            final ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE).putLong(length).putLong(indexOffset)
+                .putInt(blocks).put(SIGNATURE);
+            trailer.flip();
+            writeFully(channel, trailer);
+            return length;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public InputStream getContent() {
+        return getContent(0L, length - 1);
+    }
+
+    @Override
+    public InputStream getContent(final long from, final long to) {
+        try {
+            return new BlockInputStream(FileChannel.open(file.toPath(), READ), max(0L, from),
+                    min(to, length - 1) + 1);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public Optional<Long> getSize() {
+        return of(length);
+    }
+
+    private final class BlockInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final Inflater inflater = new Inflater(true);
+        private final byte[] block = new byte[blockSize];
+        private final long end;
+        private long position;
+        private int blockStart;
+        private int blockEnd;
+
+        BlockInputStream(final FileChannel channel, final long from, final long to) {
+            this.channel = channel;
+            this.position = from;
+            this.end = to;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] buffer = new byte[1];
+            return read(buffer, 0, 1) == 1 ? buffer[0] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] buffer, final int offset, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (blockStart == blockEnd && !nextBlock()) {
+                return -1;
+            }
+            final int count = min(len, blockEnd - blockStart);
+            System.arraycopy(block, blockStart, buffer, offset, count);
+            blockStart += count;
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return blockEnd - blockStart;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            channel.close();
+        }
+
+        private boolean nextBlock() throws IOException {
+            if (position >= end) {
+                return false;
+            }
+            final int index = (int) (position / blockSize);
+            final int size = (int) (offsets[index + 1] - offsets[index]);
+            final ByteBuffer compressed = readFully(channel, offsets[index], size);
+            inflater.reset();
+            inflater.setInput(compressed.array());
+            int inflated = 0;
+            try {
+                while (inflated < block.length && !inflater.finished()) {
+                    final int count = inflater.inflate(block, inflated, block.length - inflated);
+                    if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    inflated += count;
+                }
+            } catch (final DataFormatException ex) {
+                throw new IOException("Corrupt compressed block " + index + " in " + file, ex);
+            }
+            final long blockOffset = (long) index * blockSize;
+            if (inflated < min(blockSize, length - blockOffset)) {
+                throw new IOException("Truncated compressed block " + index + " in " + file);
+            }
+            blockStart = (int) (position - blockOffset);
+            blockEnd = (int) min(inflated, end - blockOffset);
+            return true;
+        }
+    }
+
+    private static boolean hasSignature(final ByteBuffer buffer, final int offset) {
+        for (int i = 0; i < SIGNATURE.length; i++) {
+            if (buffer.get(offset + i) != SIGNATURE[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ByteBuffer readFully(final FileChannel channel, final long position, final int size)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of compressed file at " + (position + buffer.position()));
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int readBlock(final InputStream stream, final byte[] block) throws IOException {
+        int size = 0;
+        int read;
+        while (size < block.length && (read = stream.read(block, size, block.length - size)) != -1) {
+            size += read;
+        }
+        return size;
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
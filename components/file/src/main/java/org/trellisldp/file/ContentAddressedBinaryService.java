@@ -0,0 +1,272 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.io.File.separator;
+import static java.nio.file.Files.copy;
+import static java.nio.file.Files.createLink;
+import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.exists;
+import static java.nio.file.Files.getAttribute;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.isSameFile;
+import static java.nio.file.Files.move;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.setLastModifiedTime;
+import static java.nio.file.Files.walk;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.time.Instant.now;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.stream.IntStream.range;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+import static org.apache.commons.codec.digest.DigestUtils.getSha256Digest;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
+import org.slf4j.Logger;
+import org.trellisldp.api.BinaryMetadata;
+import org.trellisldp.api.IdentifierService;
+
+/**
+ * A {@link FileBinaryService} that stores each distinct binary content only once.
+ *
+ * <p>Uploaded content is streamed to a staging file while its SHA-256 digest is computed. The staged file
+ * is then moved into a content-addressed object store, sharded by the leading characters of the digest,
+ * unless an object with the same digest already exists. Each binary identifier is a hard link to its
+ * object, so reads are served directly from the shared file and the filesystem link count acts as the
+ * reference count for an object.
+ *
+ * <p>Purging a binary removes only its link. Objects that are no longer linked from any binary identifier
+ * are reclaimed with {@link #prune()}. This service requires a filesystem that supports hard links;
+ * reclaiming unreferenced objects additionally requires access to POSIX link counts.
+ *
+ * <p>Stored objects are shared by binaries of any media type, so they are never compressed at rest, even
+ * when {@value FileBinaryService#CONFIG_FILE_BINARY_COMPRESS} is configured.
+ *
+ * <p>Staged content is held in hidden temporary files, so any that are abandoned by a crash are removed when
+ * the service next starts.
+ *
+ * <p>Unlike {@link FileBinaryService}, this class is not discovered automatically and must be configured
+ * explicitly.
+ */
+public class ContentAddressedBinaryService extends FileBinaryService {
+
+    /** The name of the directory, relative to the base path, that holds content-addressed objects. */
+    public static final String OBJECTS_DIRECTORY = "objects";
+
+    /** The name of the directory, relative to the base path, used to stage incoming content. */
+    public static final String STAGING_DIRECTORY = "staging";
+
+    private static final Logger LOGGER = getLogger(ContentAddressedBinaryService.class);
+    private static final String LINK_COUNT = "unix:nlink";
+    private static final int LOCK_STRIPES = 64;
+
+    private final File objects;
+    private final File staging;
+    private final int hierarchy;
+    private final int length;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    /**
+     * Create a content-addressed, file-based binary service.
+     *
+     * @param idService an identifier service
+     * @param basePath the base file path
+     * @param hierarchy the levels of hierarchy
+     * @param length the length of each level of hierarchy
+     */
+    public ContentAddressedBinaryService(final IdentifierService idService, final String basePath,
+            final int hierarchy, final int length) {
+        super(idService, basePath, hierarchy, length);
+        this.objects = new File(basePath, OBJECTS_DIRECTORY);
+        this.staging = new File(basePath, STAGING_DIRECTORY);
+        this.hierarchy = hierarchy;
+        this.length = length;
+        range(0, LOCK_STRIPES).forEach(i -> locks[i] = new Object());
+    }
+
+    @Override
+    public CompletionStage<Void> setContent(final BinaryMetadata metadata, final InputStream stream) {
+        requireNonNull(stream, "InputStream may not be null!");
+        return supplyAsync(() -> {
+            final File file = getFileFromIdentifier(metadata.getIdentifier());
+            Path staged = null;
+            try (final DigestInputStream input = new DigestInputStream(stream, getSha256Digest())) {
+                staging.mkdirs();
+                staged = createTempFile(staging.toPath(), ".upload-", ".tmp");
+                copy(input, staged, REPLACE_EXISTING);
+                sync(staged);
+                final String hash = encodeHexString(input.getMessageDigest().digest());
+                LOGGER.debug("Setting binary content for {} from object {}", metadata.getIdentifier(), hash);
+                synchronized (getLock(hash)) {
+                    final Path object = store(staged, hash);
+                    link(file.toPath(), object);
+                }
+            } catch (final IOException ex) {
+                throw new UncheckedIOException("Error while setting content for " + metadata.getIdentifier(), ex);
+            } finally {
+                deleteQuietly(staged);
+            }
+            return null;
+        }, getExecutor());
+    }
+
+    /**
+     * Remove any stored objects that are no longer referenced by a binary.
+     *
+     * @return the next stage of completion, with the number of objects removed
+     */
+    public CompletionStage<Long> prune() {
+        return supplyAsync(() -> {
+            if (!objects.exists()) {
+                return 0L;
+            }
+            try (final Stream<Path> paths = walk(objects.toPath())) {
+                return paths.filter(path -> isRegularFile(path)).filter(this::removeIfUnreferenced).count();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException("Error while pruning binary objects", ex);
+            }
+        }, getExecutor());
+    }
+
+    /**
+     * Get the number of binaries that refer to the content of a binary.
+     *
+     * @param identifier the binary identifier
+     * @return the number of references, or -1 if the filesystem does not report link counts
+     */
+    public int getReferenceCount(final IRI identifier) {
+        final Path path = getFileFromIdentifier(identifier).toPath();
+        if (!exists(path)) {
+            return 0;
+        }
+        final int count = getLinkCount(path);
+        // One of the links is held by the object store itself
+        return count < 0 ? count : count - 1;
+    }
+
+    @Override
+    Stream<Path> listBinaryFiles() throws IOException {
+        return super.listBinaryFiles().filter(path -> !path.startsWith(objects.toPath()))
+            .filter(path -> !path.startsWith(staging.toPath()));
+    }
+
+    @Override
+    void commitUpload(final Path staged, final BinaryMetadata metadata) throws IOException {
+        final IRI identifier = metadata.getIdentifier();
+        final String hash;
+        try (final InputStream input = newInputStream(staged)) {
+            hash = sha256Hex(input);
+        }
+        LOGGER.debug("Setting uploaded binary content for {} from object {}", identifier, hash);
+        sync(staged);
+        synchronized (getLock(hash)) {
+            link(getFileFromIdentifier(identifier).toPath(), store(staged, hash));
+        }
+        deleteQuietly(staged);
+    }
+
+    @Override
+    CompletionStage<Long> reclaim() {
+        return prune();
+    }
+
+    /**
+     * Get the location of an object in the content-addressed store.
+     *
+     * @param hash the hex-encoded SHA-256 digest of the content
+     * @return the file
+     */
+    File getObjectFile(final String hash) {
+        final StringJoiner joiner = new StringJoiner(separator);
+        range(0, hierarchy).filter(i -> (i + 1) * length < hash.length())
+            .forEach(i -> joiner.add(hash.substring(i * length, (i + 1) * length)));
+        joiner.add(hash);
+        return new File(objects, joiner.toString());
+    }
+
+    private Path store(final Path staged, final String hash) throws IOException {
+        final Path object = getObjectFile(hash).toPath();
+        if (!exists(object)) {
+            object.getParent().toFile().mkdirs();
+            try {
+                move(staged, object, ATOMIC_MOVE);
+                syncDirectory(object.getParent());
+            } catch (final FileAlreadyExistsException ex) {
+                LOGGER.debug("Binary object {} already exists", hash);
+            }
+        }
+        return object;
+    }
+
+    private void link(final Path file, final Path object) throws IOException {
+        if (exists(file) && isSameFile(file, object)) {
+            return;
+        }
+        file.getParent().toFile().mkdirs();
+        // Link under a temporary name so that readers never see a missing or partial binary
+        final Path link = getTemporaryFile(file);
+        try {
+            createLink(link, object);
+            // A new link does not change the modification time of the (possibly old) shared content
+            setLastModifiedTime(link, FileTime.from(now()));
+            move(link, file, ATOMIC_MOVE, REPLACE_EXISTING);
+            syncDirectory(file.getParent());
+        } finally {
+            deleteIfExists(link);
+        }
+    }
+
+    private boolean removeIfUnreferenced(final Path object) {
+        final String hash = object.getFileName().toString();
+        synchronized (getLock(hash)) {
+            if (getLinkCount(object) == 1) {
+                LOGGER.debug("Removing unreferenced binary object {}", hash);
+                return deleteQuietly(object);
+            }
+        }
+        return false;
+    }
+
+    private Object getLock(final String hash) {
+        return locks[Math.floorMod(hash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static int getLinkCount(final Path path) {
+        try {
+            return (Integer) getAttribute(path, LINK_COUNT);
+        } catch (final UnsupportedOperationException | IllegalArgumentException ex) {
+            LOGGER.warn("Link counts are not available for {}: {}", path, ex.getMessage());
+        } catch (final IOException ex) {
+            LOGGER.warn("Could not read link count for {}: {}", path, ex.getMessage());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.util.function.Predicate.isEqual;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.Dataset;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Quad;
+import org.trellisldp.api.BinaryMetadata;
+import org.trellisldp.api.Metadata;
+import org.trellisldp.api.Resource;
+import org.trellisldp.vocabulary.Trellis;
+
+/**
+ * A resource composed of the metadata and dataset that were persisted for it, as a source for a Memento.
+ *
+ * <p>The server-managed data of the resource is taken from the metadata; any server-managed quads in the dataset
+ * are ignored.
+ */
+final class DatasetResource implements Resource {
+
+    private final Metadata metadata;
+    private final Instant modified;
+    private final Dataset dataset;
+
+    /**
+     * Create a resource from persisted data.
+     * @param metadata the resource metadata
+     * @param modified the modification time
+     * @param dataset the resource dataset
+     */
+    DatasetResource(final Metadata metadata, final Instant modified, final Dataset dataset) {
+        this.metadata = metadata;
+        this.modified = modified;
+        this.dataset = dataset;
+    }
+
+    @Override
+    public IRI getIdentifier() {
+        return metadata.getIdentifier();
+    }
+
+    @Override
+    public IRI getInteractionModel() {
+        return metadata.getInteractionModel();
+    }
+
+    @Override
+    public Instant getModified() {
+        return modified;
+    }
+
+    @Override
+    public Optional<IRI> getContainer() {
+        return metadata.getContainer();
+    }
+
+    @Override
+    public Optional<IRI> getMembershipResource() {
+        return metadata.getMembershipResource();
+    }
+
+    @Override
+    public Optional<IRI> getMemberRelation() {
+        return metadata.getMemberRelation();
+    }
+
+    @Override
+    public Optional<IRI> getMemberOfRelation() {
+        return metadata.getMemberOfRelation();
+    }
+
+    @Override
+    public Optional<IRI> getInsertedContentRelation() {
+        return metadata.getInsertedContentRelation();
+    }
+
+    @Override
+    public Optional<BinaryMetadata> getBinaryMetadata() {
+        return metadata.getBinary();
+    }
+
+    @Override
+    public boolean hasAcl() {
+        return dataset.getGraph(Trellis.PreferAccessControl).filter(graph -> graph.size() > 0).isPresent();
+    }
+
+    @Override
+    public Stream<Quad> stream() {
+        return dataset.stream().filter(quad -> !quad.getGraphName().filter(isEqual(Trellis.PreferServerManaged))
+                    .isPresent()).map(Quad.class::cast);
+    }
+}
@@ -14,18 +14,33 @@
 
 package org.trellisldp.file;
 
+import static java.lang.Math.min;
+import static java.nio.channels.Channels.newInputStream;
+import static java.nio.channels.FileChannel.open;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Optional;
 
+import org.apache.commons.io.input.BoundedInputStream;
 import org.trellisldp.api.Binary;
 
 /**
  * Implements {@link Binary} for files on a filesystem.
  *
+ * <p>Content is written to a channel with {@link FileChannel#transferTo}, and segments are read from their
+ * offset directly, without reading any preceding content. Whether the data avoids a copy depends on the
+ * target: the operating system can move it directly to a file or socket channel, but a channel that wraps
+ * an {@link java.io.OutputStream}, such as an HTTP response, copies it through a buffer on the Java heap.
  */
 public class FileBinary implements Binary {
 
@@ -48,11 +63,55 @@ public class FileBinary implements Binary {
     }
 
     @Override
-    public InputStream getContent(final int from, final int to) {
+    public InputStream getContent(final long from, final long to) {
         try {
-            return FileUtils.getBoundedStream(new FileInputStream(file), from, to);
+            final FileChannel channel = open(file.toPath(), READ);
+            try {
+                return new BoundedInputStream(newInputStream(channel.position(from)), to < from ? 0L : to - from + 1);
+            } catch (final IOException | RuntimeException ex) {
+                // Until the stream is returned, the channel is not closed by anyone else
+                try {
+                    channel.close();
+                } catch (final IOException inner) {
+                    ex.addSuppressed(inner);
+                }
+                throw ex;
+            }
         } catch (final IOException ex) {
             throw new UncheckedIOException(ex);
         }
     }
+
+    @Override
+    public Optional<Long> getSize() {
+        return file.isFile() ? of(file.length()) : empty();
+    }
+
+    @Override
+    public long writeTo(final WritableByteChannel target) throws IOException {
+        try (final FileChannel channel = open(file.toPath(), READ)) {
+            return transfer(channel, 0L, channel.size(), target);
+        }
+    }
+
+    @Override
+    public long writeTo(final long from, final long to, final WritableByteChannel target) throws IOException {
+        try (final FileChannel channel = open(file.toPath(), READ)) {
+            final long end = min(to, channel.size() - 1);
+            return from <= end ? transfer(channel, from, end - from + 1, target) : 0L;
+        }
+    }
+
+    private static long transfer(final FileChannel channel, final long position, final long count,
+            final WritableByteChannel target) throws IOException {
+        long written = 0L;
+        while (written < count) {
+            final long transferred = channel.transferTo(position + written, count - written, target);
+            if (transferred <= 0L) {
+                break;
+            }
+            written += transferred;
+        }
+        return written;
+    }
 }
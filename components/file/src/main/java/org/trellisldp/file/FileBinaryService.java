@@ -14,12 +14,29 @@
 package org.trellisldp.file;
 
 import static java.nio.file.Files.copy;
+import static java.nio.file.Files.createFile;
 import static java.nio.file.Files.delete;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.exists;
+import static java.nio.file.Files.getLastModifiedTime;
+import static java.nio.file.Files.isRegularFile;
+import static java.nio.file.Files.move;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.walk;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.time.Instant.now;
 import static java.util.Arrays.asList;
+import static java.util.Arrays.stream;
+import static java.util.Locale.ROOT;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.of;
+import static java.util.Optional.ofNullable;
 import static java.util.ServiceLoader.load;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static java.util.stream.Collectors.toSet;
 import static org.apache.commons.codec.digest.DigestUtils.updateDigest;
@@ -33,19 +50,27 @@ import static org.apache.commons.codec.digest.MessageDigestAlgorithms.SHA_256;
 import static org.apache.commons.codec.digest.MessageDigestAlgorithms.SHA_384;
 import static org.apache.commons.codec.digest.MessageDigestAlgorithms.SHA_512;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.trellisldp.api.ExecutorPool.BINARY_IO;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import java.security.MessageDigest;
+import java.time.Instant;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
@@ -57,6 +82,7 @@ import org.trellisldp.api.Binary;
 import org.trellisldp.api.BinaryMetadata;
 import org.trellisldp.api.BinaryService;
 import org.trellisldp.api.DefaultIdentifierService;
+import org.trellisldp.api.ExecutorPool;
 import org.trellisldp.api.IdentifierService;
 
 /**
@@ -79,6 +105,23 @@ import org.trellisldp.api.IdentifierService;
  * <li>SHA3-384</li>
  * <li>SHA3-512</li>
  * </ul>
+ *
+ * <p>Binary content is first written to a hidden temporary file alongside its final location and then
+ * atomically renamed into place, so readers never observe a partially written binary. When
+ * {@value #CONFIG_FILE_BINARY_FSYNC} is enabled, the content and its directory are also flushed to the
+ * storage device, so that a binary survives a crash once it has been written.
+ *
+ * <p>Binaries whose media type is listed in {@value #CONFIG_FILE_BINARY_COMPRESS} are compressed at rest.
+ * The content is stored in independently compressed blocks, with an index of the block locations, so a range
+ * of the content can be read without decompressing the rest of it. Compressed and uncompressed binaries are
+ * read transparently, regardless of the current configuration.
+ *
+ * <p>Resumable uploads are staged in the {@value #UPLOADS_DIRECTORY} directory under the base path. Upload
+ * sessions are held in memory, so an upload that is in progress cannot be resumed after a restart. When the
+ * service starts, any temporary files and staged uploads left behind by an earlier process are removed. An
+ * upload that stays idle for longer than the time configured with {@value #CONFIG_FILE_BINARY_UPLOAD_TIMEOUT}
+ * (one day, by default, or never if it is 0) is aborted, and an upload can only be used through the resource
+ * for which it was created.
  */
 public class FileBinaryService implements BinaryService {
 
@@ -91,10 +134,37 @@ public class FileBinaryService implements BinaryService {
     /** The configuration key controlling the length of each level of hierarchy in a filesystem layout. */
     public static final String CONFIG_FILE_BINARY_LENGTH = "trellis.file.binary.length";
 
+    /** The configuration key controlling the number of threads used for binary I/O. */
+    public static final String CONFIG_FILE_BINARY_THREADS = "trellis.file.binary.threads";
+
+    /** The configuration key controlling whether binary content is flushed to the storage device. */
+    public static final String CONFIG_FILE_BINARY_FSYNC = "trellis.file.binary.fsync";
+
+    /**
+     * The configuration key listing the media types of binaries to compress at rest.
+     *
+     * <p>This is a comma-separated list of media types, such as {@code text/*, application/xml}.
+     * By default, no binaries are compressed.
+     */
+    public static final String CONFIG_FILE_BINARY_COMPRESS = "trellis.file.binary.compress";
+
+    /** The configuration key controlling the uncompressed size, in bytes, of each block of a compressed binary. */
+    public static final String CONFIG_FILE_BINARY_COMPRESS_BLOCK_SIZE = "trellis.file.binary.compress.blocksize";
+
+    /** The configuration key controlling the time, in milliseconds, after which an idle upload is aborted. */
+    public static final String CONFIG_FILE_BINARY_UPLOAD_TIMEOUT = "trellis.file.binary.upload.timeout";
+
+    /** The name of the directory, relative to the base path, used to stage resumable uploads. */
+    public static final String UPLOADS_DIRECTORY = "uploads";
+
     private static final Logger LOGGER = getLogger(FileBinaryService.class);
     private static final String SHA = "SHA";
     private static final int DEFAULT_HIERARCHY = 3;
     private static final int DEFAULT_LENGTH = 2;
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String WILDCARD = "*";
+    private static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    private static final long DEFAULT_UPLOAD_TIMEOUT = 86_400_000L;
 
     private static final Set<String> algorithms = asList(MD5, MD2, SHA, SHA_1, SHA_256, SHA_384, SHA_512,
             SHA3_256, SHA3_384, SHA3_512).stream()
@@ -102,6 +172,13 @@ public class FileBinaryService implements BinaryService {
 
     private final String basePath;
     private final Supplier<String> idSupplier;
+    private final Executor executor;
+    private final boolean fsync;
+    private final Set<String> compressTypes;
+    private final int blockSize;
+    private final long uploadTimeout;
+    private final Instant started = now();
+    private final Map<String, FileUpload> uploads = new ConcurrentHashMap<>();
 
     /**
      * Create a File-based Binary service.
@@ -134,6 +211,24 @@ public class FileBinaryService implements BinaryService {
         this.basePath = requireNonNull(basePath, CONFIG_FILE_BINARY_BASE_PATH + " configuration may not be null!");
         LOGGER.info("Storing binaries as files at {}", basePath);
         this.idSupplier = idService.getSupplier("file:///", hierarchy, length);
+        final Configuration config = ConfigurationProvider.getConfiguration();
+        final Integer threads = config.get(CONFIG_FILE_BINARY_THREADS, Integer.class);
+        this.executor = threads == null ? ExecutorPool.getInstance(BINARY_IO)
+            : ExecutorPool.getInstance(BINARY_IO, threads);
+        this.fsync = config.getOrDefault(CONFIG_FILE_BINARY_FSYNC, Boolean.class, Boolean.FALSE);
+        this.compressTypes = stream(config.getOrDefault(CONFIG_FILE_BINARY_COMPRESS, "").split(","))
+            .map(String::trim).map(type -> type.toLowerCase(ROOT)).filter(type -> !type.isEmpty()).collect(toSet());
+        this.blockSize = config.getOrDefault(CONFIG_FILE_BINARY_COMPRESS_BLOCK_SIZE, Integer.class,
+                DEFAULT_BLOCK_SIZE);
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException(CONFIG_FILE_BINARY_COMPRESS_BLOCK_SIZE + " must be positive!");
+        }
+        this.uploadTimeout = config.getOrDefault(CONFIG_FILE_BINARY_UPLOAD_TIMEOUT, Long.class,
+                DEFAULT_UPLOAD_TIMEOUT);
+        removeStaleFiles(started).exceptionally(ex -> {
+            LOGGER.warn("Could not remove stale temporary files from {}: {}", basePath, ex.getMessage());
+            return 0L;
+        });
     }
 
     private FileBinaryService(final IdentifierService idService, final Configuration config) {
@@ -144,7 +239,7 @@ public class FileBinaryService implements BinaryService {
 
     @Override
     public CompletionStage<Binary> get(final IRI identifier) {
-        return supplyAsync(() -> new FileBinary(getFileFromIdentifier(identifier)));
+        return supplyAsync(() -> getBinary(identifier), executor);
     }
 
     @Override
@@ -156,29 +251,120 @@ public class FileBinaryService implements BinaryService {
                 LOGGER.warn("File could not deleted {}: {}", identifier, ex.getMessage());
             }
             return null;
-        });
+        }, executor);
     }
 
     @Override
     public CompletionStage<Void> setContent(final BinaryMetadata metadata, final InputStream stream) {
         requireNonNull(stream, "InputStream may not be null!");
         return supplyAsync(() -> {
-            final File file = getFileFromIdentifier(metadata.getIdentifier());
-            LOGGER.debug("Setting binary content for {} at {}", metadata.getIdentifier(), file.getAbsolutePath());
+            final Path file = getFileFromIdentifier(metadata.getIdentifier()).toPath();
+            LOGGER.debug("Setting binary content for {} at {}", metadata.getIdentifier(), file.toAbsolutePath());
+            // Write to a sibling temporary file so that the binary is replaced atomically
+            final Path temp = getTemporaryFile(file);
             try (final InputStream input = stream) {
-                final File parent = file.getParentFile();
-                parent.mkdirs();
-                copy(stream, file.toPath(), REPLACE_EXISTING);
+                file.getParent().toFile().mkdirs();
+                if (shouldCompress(metadata)) {
+                    CompressedFileBinary.write(input, temp, blockSize);
+                } else {
+                    copy(input, temp);
+                }
+                sync(temp);
+                move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+                syncDirectory(file.getParent());
             } catch (final IOException ex) {
                 throw new UncheckedIOException("Error while setting content for " + metadata.getIdentifier(), ex);
+            } finally {
+                deleteQuietly(temp);
             }
             return null;
-        });
+        }, executor);
     }
 
     @Override
     public CompletionStage<MessageDigest> calculateDigest(final IRI identifier, final MessageDigest algorithm) {
-        return supplyAsync(() -> computeDigest(identifier, algorithm));
+        return supplyAsync(() -> computeDigest(identifier, algorithm), executor);
+    }
+
+    @Override
+    public boolean supportsUploads() {
+        return true;
+    }
+
+    @Override
+    public CompletionStage<String> createUpload(final IRI identifier, final List<MessageDigest> algorithms) {
+        requireNonNull(identifier, "Identifier may not be null!");
+        requireNonNull(algorithms, "Digest algorithms may not be null!");
+        return supplyAsync(() -> {
+            expireUploads();
+            final String uploadId = randomUUID().toString();
+            final File directory = new File(basePath, UPLOADS_DIRECTORY);
+            try {
+                directory.mkdirs();
+                final Path file = createFile(directory.toPath().resolve(uploadId));
+                uploads.put(uploadId, new FileUpload(file, identifier, algorithms));
+            } catch (final IOException ex) {
+                throw new UncheckedIOException("Error while creating upload", ex);
+            }
+            LOGGER.debug("Created upload {} for {}", uploadId, identifier);
+            return uploadId;
+        }, executor);
+    }
+
+    @Override
+    public CompletionStage<Long> writeUpload(final String uploadId, final IRI identifier, final long offset,
+            final InputStream stream) {
+        requireNonNull(stream, "InputStream may not be null!");
+        return supplyAsync(() -> {
+            final FileUpload upload = getUpload(uploadId, identifier);
+            if (offset < 0L) {
+                throw new IllegalArgumentException("Invalid upload offset: " + offset);
+            }
+            try (final InputStream input = stream) {
+                return upload.write(offset, input);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException("Error while writing to upload " + uploadId, ex);
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletionStage<Long> getUploadOffset(final String uploadId, final IRI identifier) {
+        return supplyAsync(() -> getUpload(uploadId, identifier).getOffset(), executor);
+    }
+
+    @Override
+    public CompletionStage<List<MessageDigest>> completeUpload(final String uploadId, final IRI identifier,
+            final BinaryMetadata metadata) {
+        return supplyAsync(() -> {
+            // Remove the session first, so that an upload cannot be completed twice
+            final FileUpload upload = removeUpload(uploadId, identifier);
+            try {
+                // Parts that are still being written must finish before the staged content is moved
+                upload.close();
+                if (!upload.isComplete()) {
+                    throw new IllegalStateException("Upload " + uploadId + " is missing some content");
+                }
+                final List<MessageDigest> digests = upload.getDigests();
+                LOGGER.debug("Completing upload {} as {}", uploadId, metadata.getIdentifier());
+                commitUpload(upload.getFile(), metadata);
+                return digests;
+            } catch (final IOException ex) {
+                restoreUpload(uploadId, upload);
+                throw new UncheckedIOException("Error while completing upload " + uploadId, ex);
+            } catch (final RuntimeException ex) {
+                restoreUpload(uploadId, upload);
+                throw ex;
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletionStage<Void> abortUpload(final String uploadId, final IRI identifier) {
+        return supplyAsync(() -> {
+            deleteUpload(uploadId, removeUpload(uploadId, identifier));
+            return null;
+        }, executor);
     }
 
     @Override
@@ -191,15 +377,269 @@ public class FileBinaryService implements BinaryService {
         return idSupplier.get();
     }
 
-    private File getFileFromIdentifier(final IRI identifier) {
+    /**
+     * Get the executor used for binary I/O.
+     *
+     * @return the executor
+     */
+    Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Get the base filesystem path for this service.
+     *
+     * @return the base path
+     */
+    String getBasePath() {
+        return basePath;
+    }
+
+    /**
+     * List the binary files stored by this service.
+     *
+     * <p>The returned stream reads the filesystem lazily, so it should be closed after use.
+     *
+     * @return the binary files
+     * @throws IOException if the base path could not be read
+     */
+    Stream<Path> listBinaryFiles() throws IOException {
+        final Path base = new File(basePath).toPath();
+        if (!exists(base)) {
+            return Stream.empty();
+        }
+        // Hidden files and staged uploads are transient and never hold committed binary content
+        final Path staging = base.resolve(UPLOADS_DIRECTORY);
+        return walk(base).filter(path -> isRegularFile(path)).filter(path -> !path.startsWith(staging))
+            .filter(path -> !path.getFileName().toString().startsWith("."));
+    }
+
+    /**
+     * Make the content of a completed upload available as a binary.
+     *
+     * @param staged the staged upload content
+     * @param metadata the binary metadata
+     * @throws IOException if the content could not be moved into place
+     */
+    void commitUpload(final Path staged, final BinaryMetadata metadata) throws IOException {
+        final Path file = getFileFromIdentifier(metadata.getIdentifier()).toPath();
+        file.getParent().toFile().mkdirs();
+        if (shouldCompress(metadata)) {
+            final Path temp = getTemporaryFile(file);
+            try (final InputStream input = newInputStream(staged)) {
+                CompressedFileBinary.write(input, temp, blockSize);
+                sync(temp);
+                move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+            } finally {
+                deleteQuietly(temp);
+            }
+            deleteQuietly(staged);
+        } else {
+            sync(staged);
+            move(staged, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        }
+        syncDirectory(file.getParent());
+    }
+
+    /**
+     * Test whether a binary should be compressed at rest.
+     *
+     * @param metadata the binary metadata
+     * @return true if the media type of the binary is configured for compression; false otherwise
+     */
+    boolean shouldCompress(final BinaryMetadata metadata) {
+        if (compressTypes.isEmpty()) {
+            return false;
+        }
+        // Media type parameters, such as the charset, do not affect compression
+        return metadata.getMimeType().map(type -> type.split(";")[0].trim().toLowerCase(ROOT))
+            .filter(type -> compressTypes.contains(type) || compressTypes.contains(WILDCARD + "/" + WILDCARD)
+                    || compressTypes.contains(type.split("/")[0] + "/" + WILDCARD)).isPresent();
+    }
+
+    /**
+     * Remove temporary files and staged uploads that were abandoned before a given time.
+     *
+     * @param before files last modified before this time are removed
+     * @return the next stage of completion, with the number of files removed
+     */
+    CompletionStage<Long> removeStaleFiles(final Instant before) {
+        return supplyAsync(() -> {
+            final Path base = new File(basePath).toPath();
+            if (!exists(base)) {
+                return 0L;
+            }
+            final Path staging = base.resolve(UPLOADS_DIRECTORY);
+            try (final Stream<Path> paths = walk(base)) {
+                final long count = paths.filter(path -> isRegularFile(path))
+                    .filter(path -> path.startsWith(staging) || isTemporaryFile(path))
+                    .filter(path -> isModifiedBefore(path, before)).filter(FileBinaryService::deleteQuietly)
+                    .count();
+                if (count > 0L) {
+                    LOGGER.info("Removed {} stale temporary files from {}", count, basePath);
+                }
+                return count;
+            } catch (final IOException ex) {
+                throw new UncheckedIOException("Error while removing stale files from " + basePath, ex);
+            }
+        }, executor);
+    }
+
+    /**
+     * Get a hidden, temporary sibling of a file, which is removed at startup if it is abandoned.
+     *
+     * @param file the file
+     * @return the temporary file
+     */
+    static Path getTemporaryFile(final Path file) {
+        return file.resolveSibling("." + file.getFileName() + "." + randomUUID() + TEMP_SUFFIX);
+    }
+
+    /**
+     * Flush the content of a file to the storage device, if so configured.
+     *
+     * @param file the file
+     * @throws IOException if the file could not be flushed
+     */
+    void sync(final Path file) throws IOException {
+        if (fsync) {
+            try (final FileChannel channel = FileChannel.open(file, WRITE)) {
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Flush a directory entry to the storage device, if so configured.
+     *
+     * @param directory the directory
+     */
+    void syncDirectory(final Path directory) {
+        if (fsync) {
+            // Not every platform allows a directory to be opened, in which case the rename is not flushed
+            try (final FileChannel channel = FileChannel.open(directory, READ)) {
+                channel.force(true);
+            } catch (final IOException ex) {
+                LOGGER.debug("Could not flush directory {}: {}", directory, ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Delete a file, if it exists, logging any error.
+     *
+     * @param path the file, may be {@code null}
+     * @return true if the file was deleted; false otherwise
+     */
+    static boolean deleteQuietly(final Path path) {
+        if (path != null) {
+            try {
+                return deleteIfExists(path);
+            } catch (final IOException ex) {
+                LOGGER.warn("Could not delete {}: {}", path, ex.getMessage());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reclaim any storage that is no longer referenced after binaries have been purged.
+     *
+     * @return the next stage of completion, with the number of stored items removed
+     */
+    CompletionStage<Long> reclaim() {
+        return completedFuture(0L);
+    }
+
+    /**
+     * Resolve a binary identifier to its location on the filesystem.
+     *
+     * @param identifier the binary identifier
+     * @return the file
+     */
+    File getFileFromIdentifier(final IRI identifier) {
         requireNonNull(identifier, "Identifier may not be null!");
         return of(identifier).map(IRI::getIRIString).filter(x -> x.startsWith("file:")).map(URI::create)
             .map(URI::getSchemeSpecificPart).map(x -> trimStart(x, "/")).map(x -> new File(basePath, x))
             .orElseThrow(() -> new IllegalArgumentException("Could not create File object from IRI: " + identifier));
     }
 
+    private FileUpload getUpload(final String uploadId, final IRI identifier) {
+        // An upload used through a different resource is treated as unknown, so that its existence is not revealed
+        final FileUpload upload = ofNullable(uploadId).map(uploads::get)
+            .filter(u -> u.getIdentifier().equals(identifier))
+            .orElseThrow(() -> new IllegalArgumentException("Unknown upload: " + uploadId));
+        if (isExpired(upload, now())) {
+            if (uploads.remove(uploadId, upload)) {
+                LOGGER.info("Aborting idle upload {} for {}", uploadId, identifier);
+                deleteUpload(uploadId, upload);
+            }
+            throw new IllegalArgumentException("Unknown upload: " + uploadId);
+        }
+        upload.touch();
+        return upload;
+    }
+
+    private void restoreUpload(final String uploadId, final FileUpload upload) {
+        upload.reopen();
+        uploads.put(uploadId, upload);
+    }
+
+    private FileUpload removeUpload(final String uploadId, final IRI identifier) {
+        final FileUpload upload = getUpload(uploadId, identifier);
+        if (!uploads.remove(uploadId, upload)) {
+            throw new IllegalArgumentException("Unknown upload: " + uploadId);
+        }
+        return upload;
+    }
+
+    private void expireUploads() {
+        final Instant time = now();
+        uploads.forEach((uploadId, upload) -> {
+            if (isExpired(upload, time) && uploads.remove(uploadId, upload)) {
+                LOGGER.info("Aborting idle upload {} for {}", uploadId, upload.getIdentifier());
+                deleteUpload(uploadId, upload);
+            }
+        });
+    }
+
+    private boolean isExpired(final FileUpload upload, final Instant time) {
+        return uploadTimeout > 0L && upload.isIdleSince(time.minusMillis(uploadTimeout));
+    }
+
+    private static void deleteUpload(final String uploadId, final FileUpload upload) {
+        try {
+            deleteIfExists(upload.getFile());
+        } catch (final IOException ex) {
+            LOGGER.warn("Staged upload could not be deleted {}: {}", uploadId, ex.getMessage());
+        }
+    }
+
+    private static boolean isTemporaryFile(final Path path) {
+        final String name = path.getFileName().toString();
+        return name.startsWith(".") && name.endsWith(TEMP_SUFFIX);
+    }
+
+    private static boolean isModifiedBefore(final Path path, final Instant time) {
+        try {
+            return getLastModifiedTime(path).toInstant().isBefore(time);
+        } catch (final IOException ex) {
+            LOGGER.debug("Could not read modification time of {}: {}", path, ex.getMessage());
+            return false;
+        }
+    }
+
+    private Binary getBinary(final IRI identifier) {
+        final File file = getFileFromIdentifier(identifier);
+        try {
+            return CompressedFileBinary.open(file).orElseGet(() -> new FileBinary(file));
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Error reading binary " + identifier, ex);
+        }
+    }
+
     private MessageDigest computeDigest(final IRI identifier, final MessageDigest algorithm) {
-        try (final InputStream input = new FileInputStream(getFileFromIdentifier(identifier))) {
+        try (final InputStream input = getBinary(identifier).getContent()) {
             return updateDigest(algorithm, input);
         } catch (final IOException ex) {
             throw new UncheckedIOException("Error computing digest", ex);
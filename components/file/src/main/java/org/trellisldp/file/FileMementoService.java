@@ -13,35 +13,87 @@
  */
 package org.trellisldp.file;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.lines;
+import static java.nio.file.Files.walk;
 import static java.time.temporal.ChronoUnit.SECONDS;
-import static java.util.Collections.emptySortedSet;
+import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableSortedSet;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.concurrent.CompletableFuture.runAsync;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.function.Predicate.isEqual;
+import static java.util.stream.Collectors.toCollection;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static java.util.stream.IntStream.range;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.trellisldp.api.ExecutorPool.MEMENTO_IO;
 import static org.trellisldp.api.Resource.SpecialResources.MISSING_RESOURCE;
+import static org.trellisldp.file.FileUtils.BINARY_EXTENSION;
+import static org.trellisldp.file.FileUtils.DELTA_ADD;
+import static org.trellisldp.file.FileUtils.DELTA_EXTENSION;
+import static org.trellisldp.file.FileUtils.NQUADS_EXTENSION;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
 import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 import javax.enterprise.inject.Alternative;
 import javax.inject.Inject;
 
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
+import org.apache.commons.rdf.api.Dataset;
 import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Quad;
 import org.apache.tamaya.ConfigurationProvider;
 import org.slf4j.Logger;
+import org.trellisldp.api.ExecutorPool;
 import org.trellisldp.api.MementoService;
+import org.trellisldp.api.Metadata;
 import org.trellisldp.api.Resource;
+import org.trellisldp.api.ResourceService;
+import org.trellisldp.vocabulary.DC;
+import org.trellisldp.vocabulary.LDP;
+import org.trellisldp.vocabulary.Trellis;
 
 /**
  * A file-based versioning system.
+ *
+ * <p>The Memento times of each resource are held in an in-memory index, so that listing the Mementos of a
+ * resource and selecting the Memento for a given time do not read the filesystem. The index for a resource is
+ * loaded from its directory when it is first needed, and is updated as Mementos are added through this service.
+ * Mementos written to the directory by other means are not seen once the index for a resource is loaded.
+ *
+ * <p>When {@value #CONFIG_FILE_MEMENTO_CHECKPOINT_INTERVAL} is greater than one, most Mementos are stored as a
+ * delta: the quads added and removed since the most recent full Memento, which acts as a checkpoint. A full
+ * Memento is written after the configured number of Mementos, or whenever a delta would not be much smaller than
+ * the resource itself. Reading a Memento therefore never requires more than one full Memento and one delta.
+ *
+ * <p>When {@value #CONFIG_FILE_MEMENTO_BINARY} is enabled, full Mementos are written in a compact binary form
+ * that is decoded much faster than N-Quads and whose server-managed metadata can be read on its own. Mementos
+ * already written as N-Quads remain readable either way.
+ *
+ * <p>A Memento holds the server-managed metadata of a resource along with all of its other graphs. A Memento is
+ * only created from the data that was just persisted when that data includes each of those graphs; otherwise the
+ * resource is fetched again, so that a Memento has the same content on either path.
  */
 @Alternative
 public class FileMementoService implements MementoService {
@@ -49,9 +101,30 @@ public class FileMementoService implements MementoService {
     /** The configuration key controlling the base filesystem path for memento storage. **/
     public static final String CONFIG_FILE_MEMENTO_BASE_PATH = "trellis.file.memento.basepath";
 
+    /** The configuration key controlling the number of threads used for memento I/O. **/
+    public static final String CONFIG_FILE_MEMENTO_THREADS = "trellis.file.memento.threads";
+
+    /** The configuration key controlling the number of Mementos between full Mementos. **/
+    public static final String CONFIG_FILE_MEMENTO_CHECKPOINT_INTERVAL = "trellis.file.memento.checkpoint.interval";
+
+    /** The configuration key controlling whether full Mementos are written in binary form. **/
+    public static final String CONFIG_FILE_MEMENTO_BINARY = "trellis.file.memento.binary";
+
+    /** The configuration key controlling whether binary Mementos are compressed. **/
+    public static final String CONFIG_FILE_MEMENTO_COMPRESS = "trellis.file.memento.compress";
+
     private static final Logger LOGGER = getLogger(FileMementoService.class);
+    private static final int LOCK_STRIPES = 64;
+    private static final List<IRI> VERSIONED_GRAPHS = asList(Trellis.PreferUserManaged, Trellis.PreferAccessControl,
+            Trellis.PreferAudit, LDP.PreferContainment, LDP.PreferMembership);
 
     private final File directory;
+    private final Executor executor;
+    private final int checkpointInterval;
+    private final boolean binary;
+    private final boolean compress;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Map<IRI, NavigableSet<Instant>> index = new ConcurrentHashMap<>();
 
     /**
      * Create a file-based memento service.
@@ -66,12 +139,56 @@ public class FileMementoService implements MementoService {
      * @param path the file path
      */
     public FileMementoService(final String path) {
+        this(path, ConfigurationProvider.getConfiguration()
+                .getOrDefault(CONFIG_FILE_MEMENTO_CHECKPOINT_INTERVAL, Integer.class, 1));
+    }
+
+    /**
+     * Create a file-based memento service.
+     * @param path the file path
+     * @param checkpointInterval the number of Mementos between full Mementos
+     */
+    public FileMementoService(final String path, final int checkpointInterval) {
+        this(path, checkpointInterval,
+                ConfigurationProvider.getConfiguration().getOrDefault(CONFIG_FILE_MEMENTO_BINARY, Boolean.class, false),
+                ConfigurationProvider.getConfiguration()
+                    .getOrDefault(CONFIG_FILE_MEMENTO_COMPRESS, Boolean.class, false));
+    }
+
+    /**
+     * Create a file-based memento service.
+     * @param path the file path
+     * @param checkpointInterval the number of Mementos between full Mementos
+     * @param binary whether to write full Mementos in binary form
+     * @param compress whether to compress binary Mementos
+     */
+    public FileMementoService(final String path, final int checkpointInterval, final boolean binary,
+            final boolean compress) {
         requireNonNull(path, "Memento base path is undefined!");
         LOGGER.info("Storing Mementos as files at {}", path);
         this.directory = new File(path);
+        final Integer threads = ConfigurationProvider.getConfiguration().get(CONFIG_FILE_MEMENTO_THREADS,
+                Integer.class);
+        this.executor = threads == null ? ExecutorPool.getInstance(MEMENTO_IO)
+            : ExecutorPool.getInstance(MEMENTO_IO, threads);
+        this.checkpointInterval = Math.max(1, checkpointInterval);
+        this.binary = binary;
+        this.compress = compress;
+        range(0, LOCK_STRIPES).forEach(i -> locks[i] = new Object());
         init();
     }
 
+    @Override
+    public CompletionStage<Void> put(final ResourceService resourceService, final Metadata metadata,
+            final Dataset dataset) {
+        // Without the modification time recorded by the persistence layer, or without every versioned graph,
+        // the resource must be fetched again
+        final Set<BlankNodeOrIRI> graphs = dataset.getGraphNames().collect(toSet());
+        return resourceService.getModified(metadata).filter(modified -> graphs.containsAll(VERSIONED_GRAPHS))
+            .map(modified -> put(new DatasetResource(metadata, modified, dataset)))
+            .orElseGet(() -> put(resourceService, metadata.getIdentifier()));
+    }
+
     @Override
     public CompletionStage<Void> put(final Resource resource) {
         return put(resource, resource.getModified());
@@ -89,30 +206,60 @@ public class FileMementoService implements MementoService {
             if (!resourceDir.exists()) {
                 resourceDir.mkdirs();
             }
-            FileUtils.writeMemento(resourceDir, resource, time.truncatedTo(SECONDS));
-        });
+            final Instant mementoTime = time.truncatedTo(SECONDS);
+            if (checkpointInterval > 1) {
+                // Deltas depend on the other Mementos of the resource, so those writes must not interleave
+                synchronized (getLock(resource.getIdentifier())) {
+                    final NavigableSet<Instant> instants = getIndex(resource.getIdentifier());
+                    writeMemento(resourceDir, resource, mementoTime, instants);
+                    instants.add(mementoTime);
+                }
+            } else {
+                writeFullMemento(resourceDir, resource, mementoTime);
+                // An index that has not been loaded yet will find the new Memento when it reads the directory
+                index.computeIfPresent(resource.getIdentifier(), (id, instants) -> {
+                    instants.add(mementoTime);
+                    return instants;
+                });
+            }
+        }, executor);
     }
 
     @Override
     public CompletionStage<Resource> get(final IRI identifier, final Instant time) {
         return supplyAsync(() -> {
-            final Instant mementoTime = time.truncatedTo(SECONDS);
-            final File resourceDir = FileUtils.getResourceDirectory(directory, identifier);
-            final File file = FileUtils.getNquadsFile(resourceDir, mementoTime);
-            if (file.exists()) {
-                return new FileResource(identifier, file);
-            }
-            final SortedSet<Instant> possible = listMementos(identifier).headSet(mementoTime);
-            if (possible.isEmpty()) {
+            final Instant mementoTime = getIndex(identifier).floor(time.truncatedTo(SECONDS));
+            if (mementoTime == null) {
                 return MISSING_RESOURCE;
             }
-            return new FileResource(identifier, FileUtils.getNquadsFile(resourceDir, possible.last()));
-        });
+            final File resourceDir = FileUtils.getResourceDirectory(directory, identifier);
+            return new FileResource(identifier, FileUtils.getMementoFile(resourceDir, mementoTime));
+        }, executor);
     }
 
     @Override
     public CompletionStage<SortedSet<Instant>> mementos(final IRI identifier) {
-        return supplyAsync(() -> listMementos(identifier));
+        final NavigableSet<Instant> instants = index.get(identifier);
+        if (instants != null) {
+            return completedFuture(unmodifiableSortedSet(instants));
+        }
+        return supplyAsync(() -> unmodifiableSortedSet(getIndex(identifier)), executor);
+    }
+
+    /**
+     * List the binaries that are referenced by any stored Memento.
+     *
+     * <p>The returned stream reads the stored Mementos lazily, so it should be closed after use.
+     *
+     * @return the binary identifiers
+     */
+    public Stream<IRI> listBinaries() {
+        try {
+            return walk(directory.toPath()).filter(FileMementoService::isMemento)
+                .flatMap(FileMementoService::readBinaries).distinct();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Error listing Mementos at " + directory, ex);
+        }
     }
 
     private void init() {
@@ -121,19 +268,123 @@ public class FileMementoService implements MementoService {
         }
     }
 
-    private SortedSet<Instant> listMementos(final IRI identifier) {
+    private void writeMemento(final File resourceDir, final Resource resource, final Instant time,
+            final NavigableSet<Instant> instants) {
+        try {
+            // Later deltas based on a full Memento that is being replaced must be kept intact
+            if (instants.contains(time) && instants.higher(time) != null) {
+                for (final Instant later : instants.tailSet(time, false)) {
+                    final File file = FileUtils.getMementoFile(resourceDir, later);
+                    if (file.getName().endsWith(DELTA_EXTENSION)
+                            && FileUtils.getMementoBase(file).filter(isEqual(time)).isPresent()) {
+                        writeCheckpoint(resourceDir, file, later);
+                    }
+                }
+            }
+
+            final Instant previous = instants.lower(time);
+            final Optional<Instant> base = previous == null ? Optional.empty()
+                : FileUtils.getMementoBase(FileUtils.getMementoFile(resourceDir, previous));
+            final File checkpoint = base.map(t -> FileUtils.getFullMementoFile(resourceDir, t)).orElse(null);
+            if (checkpoint != null && checkpoint.exists()
+                    && instants.subSet(base.get(), false, time, false).size() + 1 < checkpointInterval) {
+                final Set<String> baseLines;
+                try (final Stream<String> lines = FileUtils.readMemento(checkpoint)) {
+                    baseLines = lines.collect(toCollection(LinkedHashSet::new));
+                }
+                final Set<String> lines;
+                try (final Stream<String> quads = FileUtils.serializeResource(resource)) {
+                    lines = quads.collect(toCollection(LinkedHashSet::new));
+                }
+                final List<String> added = lines.stream().filter(line -> !baseLines.contains(line)).collect(toList());
+                final List<String> removed = baseLines.stream().filter(line -> !lines.contains(line))
+                    .collect(toList());
+                // A delta that is not much smaller than the resource is not worth the cost of reading it back
+                if (2 * (added.size() + removed.size()) < lines.size()) {
+                    FileUtils.writeMementoDelta(resourceDir, base.get(), time, added, removed);
+                    return;
+                }
+            }
+            writeFullMemento(resourceDir, resource, time);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Error writing resource version for " + resource.getIdentifier(), ex);
+        }
+    }
+
+    private void writeFullMemento(final File resourceDir, final Resource resource, final Instant time) {
+        if (binary) {
+            FileUtils.writeBinaryMemento(resourceDir, resource, time, compress);
+        } else {
+            FileUtils.writeMemento(resourceDir, resource, time);
+        }
+    }
+
+    private void writeCheckpoint(final File resourceDir, final File delta, final Instant time) throws IOException {
+        if (binary) {
+            final List<Quad> quads;
+            try (final Stream<Quad> stream = FileUtils.readQuads(delta)) {
+                quads = stream.collect(toList());
+            }
+            FileUtils.writeBinaryMemento(resourceDir, time, quads, compress);
+            return;
+        }
+        final File file = FileUtils.getNquadsFile(resourceDir, time);
+        try (final Stream<String> lines = FileUtils.readMemento(delta)) {
+            Files.write(file.toPath(), (Iterable<String>) lines::iterator, UTF_8);
+        }
+        Files.delete(delta.toPath());
+    }
+
+    private Object getLock(final IRI identifier) {
+        return locks[Math.floorMod(identifier.hashCode(), LOCK_STRIPES)];
+    }
+
+    private NavigableSet<Instant> getIndex(final IRI identifier) {
+        // Loading under the map's lock ensures that a concurrent put is never missed by a directory scan
+        return index.computeIfAbsent(identifier, this::listMementos);
+    }
+
+    private NavigableSet<Instant> listMementos(final IRI identifier) {
+        final NavigableSet<Instant> instants = new ConcurrentSkipListSet<>();
         final File resourceDir = FileUtils.getResourceDirectory(directory, identifier);
         if (!resourceDir.exists()) {
-            return emptySortedSet();
+            return instants;
         }
 
-        final SortedSet<Instant> instants = new TreeSet<>();
         try (final Stream<Path> files = FileUtils.uncheckedList(resourceDir.toPath())) {
-            files.map(Path::toString).filter(path -> path.endsWith(".nq")).map(FilenameUtils::getBaseName)
+            files.filter(FileMementoService::isMemento).map(Path::toString).map(FilenameUtils::getBaseName)
                 .map(Long::parseLong).map(Instant::ofEpochSecond).map(t -> t.truncatedTo(SECONDS))
                 .forEach(instants::add);
         }
 
-        return unmodifiableSortedSet(instants);
+        return instants;
+    }
+
+    private static boolean isMemento(final Path path) {
+        final String name = path.toString();
+        return name.endsWith(NQUADS_EXTENSION) || name.endsWith(BINARY_EXTENSION) || name.endsWith(DELTA_EXTENSION);
+    }
+
+    private static Stream<IRI> readBinaries(final Path file) {
+        final String hasPart = DC.hasPart.getIRIString();
+        // A binary Memento holds its binary reference in the header, with the other server-managed quads
+        final boolean binary = file.toString().endsWith(BINARY_EXTENSION);
+        // A delta refers to a binary only in the quads it adds; any others are also in its full Memento
+        final boolean delta = file.toString().endsWith(DELTA_EXTENSION);
+        try {
+            if (binary) {
+                return FileUtils.readServerManaged(file.toFile()).filter(quad -> DC.hasPart.equals(quad.getPredicate()))
+                    .map(Quad::getObject).filter(IRI.class::isInstance).map(IRI.class::cast);
+            }
+            // Only parse the lines that may contain a binary reference
+            return lines(file).filter(line -> !delta || line.startsWith(DELTA_ADD))
+                .map(line -> delta ? line.substring(DELTA_ADD.length()) : line)
+                .filter(line -> line.contains(hasPart)).flatMap(FileUtils::parseQuad)
+                .filter(quad -> DC.hasPart.equals(quad.getPredicate()))
+                .filter(quad -> quad.getGraphName().filter(isEqual(Trellis.PreferServerManaged)).isPresent())
+                .map(Quad::getObject).filter(IRI.class::isInstance).map(IRI.class::cast);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Error reading Memento at " + file, ex);
+        }
     }
 }
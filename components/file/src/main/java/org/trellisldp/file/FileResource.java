@@ -13,17 +13,17 @@
  */
 package org.trellisldp.file;
 
-import static java.nio.file.Files.lines;
 import static java.util.Optional.ofNullable;
 import static java.util.function.Predicate.isEqual;
-import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Stream.empty;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.trellisldp.api.TrellisUtils.parseDigestIRI;
 import static org.trellisldp.vocabulary.RDF.type;
 
 import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -38,6 +38,7 @@ import org.trellisldp.api.BinaryMetadata;
 import org.trellisldp.api.Resource;
 import org.trellisldp.vocabulary.DC;
 import org.trellisldp.vocabulary.LDP;
+import org.trellisldp.vocabulary.PREMIS;
 import org.trellisldp.vocabulary.Time;
 import org.trellisldp.vocabulary.Trellis;
 
@@ -50,17 +51,18 @@ public class FileResource implements Resource {
 
     private final File file;
     private final IRI identifier;
-    private final Map<IRI, RDFTerm> data;
+    private final Map<IRI, RDFTerm> data = new HashMap<>();
+    private final Map<String, String> digests = new HashMap<>();
 
     /**
-     * Create a resource backed by an NQuads file.
+     * Create a resource backed by a Memento file, in any of the forms written by {@link FileUtils}.
      * @param identifier the resource identifier
      * @param file the file
      */
     public FileResource(final IRI identifier, final File file) {
         this.identifier = identifier;
         this.file = file;
-        this.data = init(identifier, file);
+        init(identifier, file, data, digests);
     }
 
     @Override
@@ -86,7 +88,7 @@ public class FileResource implements Resource {
     @Override
     public Optional<BinaryMetadata> getBinaryMetadata() {
         return asIRI(DC.hasPart).map(id ->
-                BinaryMetadata.builder(id).mimeType(asLiteral(DC.format).orElse(null)).build());
+                BinaryMetadata.builder(id).mimeType(asLiteral(DC.format).orElse(null)).digests(digests).build());
     }
 
     @Override
@@ -130,18 +132,35 @@ public class FileResource implements Resource {
             .map(Literal::getLexicalForm);
     }
 
-    private static Map<IRI, RDFTerm> init(final IRI identifier, final File file) {
-        try (final Stream<Triple> triples = fetchContent(identifier, file).filter(q ->
+    private static void init(final IRI identifier, final File file, final Map<IRI, RDFTerm> data,
+            final Map<String, String> digests) {
+        try (final Stream<Triple> triples = fetchServerManaged(identifier, file).filter(q ->
                     q.getGraphName().filter(isEqual(Trellis.PreferServerManaged)).isPresent()).map(Quad::asTriple)) {
-            return triples.collect(toMap(t -> !t.getSubject().equals(identifier) && DC.modified.equals(t.getPredicate())
-                        ? Time.hasTime : t.getPredicate(), Triple::getObject));
+            triples.forEachOrdered(t -> {
+                if (PREMIS.hasMessageDigest.equals(t.getPredicate()) && t.getObject() instanceof IRI) {
+                    parseDigestIRI((IRI) t.getObject()).ifPresent(d -> digests.put(d.getKey(), d.getValue()));
+                } else {
+                    data.put(!t.getSubject().equals(identifier) && DC.modified.equals(t.getPredicate())
+                            ? Time.hasTime : t.getPredicate(), t.getObject());
+                }
+            });
         }
     }
 
     private static Stream<Quad> fetchContent(final IRI identifier, final File file) {
         LOGGER.trace("Streaming quads for {}", identifier);
         try {
-            return lines(file.toPath()).flatMap(FileUtils::parseQuad);
+            return FileUtils.readQuads(file);
+        } catch (final IOException ex) {
+            LOGGER.warn("Could not read file at {}: {}", file, ex.getMessage());
+        }
+        return empty();
+    }
+
+    private static Stream<Quad> fetchServerManaged(final IRI identifier, final File file) {
+        LOGGER.trace("Streaming server-managed quads for {}", identifier);
+        try {
+            return FileUtils.readServerManaged(file);
         } catch (final IOException ex) {
             LOGGER.warn("Could not read file at {}: {}", file, ex.getMessage());
         }
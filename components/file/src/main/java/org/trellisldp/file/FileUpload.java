@@ -0,0 +1,262 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.unmodifiableList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.rdf.api.IRI;
+
+/**
+ * The staged state of a resumable upload.
+ *
+ * <p>Parts are written directly to their position in a staging file, so they may arrive in any order and
+ * from several threads at once. The ranges that have been received are tracked so that the digests can be
+ * updated incrementally, in order, as soon as the content from the start of the file is contiguous. A part
+ * may not overwrite content that has been received, or that another part is writing, since the digests would
+ * then no longer match the staged content.
+ *
+ * <p>An upload belongs to the resource for which it was created, and records when it was last used, so that
+ * an abandoned upload can be expired.
+ */
+class FileUpload {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Path file;
+    private final IRI identifier;
+    private final List<MessageDigest> digests;
+    // Received ranges, keyed by start offset, with the (exclusive) end offset as the value
+    private final TreeMap<Long, Long> ranges = new TreeMap<>();
+    // Parts being written, keyed by start offset, with the end offset claimed so far as the value
+    private final TreeMap<Long, Long> parts = new TreeMap<>();
+    private long digested;
+    private boolean closed;
+    private volatile Instant accessed = Instant.now();
+
+    /**
+     * Create a resumable upload.
+     *
+     * @param file the staging file, which must already exist
+     * @param identifier the identifier of the resource for which the content is uploaded
+     * @param digests the digests to update as content is received
+     */
+    FileUpload(final Path file, final IRI identifier, final List<MessageDigest> digests) {
+        this.file = file;
+        this.identifier = identifier;
+        this.digests = new ArrayList<>(digests);
+    }
+
+    /**
+     * Get the identifier of the resource for which the content is uploaded.
+     *
+     * @return the resource identifier
+     */
+    IRI getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * Record that the upload has been used.
+     */
+    void touch() {
+        accessed = Instant.now();
+    }
+
+    /**
+     * Test whether the upload has not been used since a given time.
+     *
+     * @param time the time
+     * @return true if the upload was last used before the given time and no part is being written; false otherwise
+     */
+    synchronized boolean isIdleSince(final Instant time) {
+        return parts.isEmpty() && accessed.isBefore(time);
+    }
+
+    /**
+     * Stop accepting parts, so that the staged content can be committed.
+     *
+     * @throws IllegalStateException if a part is still being written
+     */
+    synchronized void close() {
+        if (!parts.isEmpty()) {
+            throw new IllegalStateException("Upload has parts that are still being written");
+        }
+        closed = true;
+    }
+
+    /**
+     * Accept parts again, after the staged content could not be committed.
+     */
+    synchronized void reopen() {
+        closed = false;
+    }
+
+    /**
+     * Get the staging file.
+     *
+     * @return the staging file
+     */
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Write part of the upload.
+     *
+     * @param offset the offset of the part
+     * @param stream the content of the part
+     * @return the length of the content received, without gaps, from the start of the upload
+     * @throws IOException if the part could not be written
+     * @throws IllegalStateException if the part overlaps content that has been received or is being written
+     * @throws IllegalArgumentException if the upload has been closed
+     */
+    long write(final long offset, final InputStream stream) throws IOException {
+        begin(offset);
+        long position = offset;
+        try (final FileChannel channel = FileChannel.open(file, WRITE)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                // Claim the range before writing it, so that no other part can write there
+                claim(offset, position + read);
+                final ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                while (bytes.hasRemaining()) {
+                    position += channel.write(bytes, position);
+                }
+            }
+        } catch (final IOException | RuntimeException ex) {
+            abandon(offset);
+            throw ex;
+        }
+        return received(offset, position);
+    }
+
+    /**
+     * Get the length of the content received, without gaps, from the start of the upload.
+     *
+     * @return the contiguous length
+     */
+    synchronized long getOffset() {
+        final Map.Entry<Long, Long> first = ranges.firstEntry();
+        return first != null && first.getKey() == 0L ? first.getValue() : 0L;
+    }
+
+    /**
+     * Test whether the upload has been received without any gaps.
+     *
+     * @return true if there are no gaps; false otherwise
+     */
+    synchronized boolean isComplete() {
+        return ranges.isEmpty() || ranges.size() == 1 && ranges.firstKey() == 0L;
+    }
+
+    /**
+     * Get the digests of the complete upload.
+     *
+     * @return the digests, in the order they were given
+     * @throws IOException if the staged content could not be read
+     */
+    synchronized List<MessageDigest> getDigests() throws IOException {
+        updateDigests();
+        return unmodifiableList(digests);
+    }
+
+    private synchronized void begin(final long offset) {
+        if (closed) {
+            throw new IllegalArgumentException("Upload is no longer available");
+        } else if (covers(ranges, offset) || covers(parts, offset) || parts.containsKey(offset)) {
+            throw new IllegalStateException("Content at offset " + offset + " has already been received");
+        }
+        parts.put(offset, offset);
+    }
+
+    private synchronized void claim(final long start, final long end) {
+        final long limit = Math.min(following(ranges, start), following(parts, start));
+        if (end > limit) {
+            throw new IllegalStateException("Part at offset " + start + " overlaps content received at " + limit);
+        }
+        parts.put(start, end);
+    }
+
+    private synchronized void abandon(final long start) {
+        parts.remove(start);
+    }
+
+    private synchronized long received(final long start, final long end) throws IOException {
+        parts.remove(start);
+        if (end > start) {
+            long from = start;
+            long to = end;
+            // Merge with any range that overlaps or abuts the new one
+            final Map.Entry<Long, Long> before = ranges.floorEntry(from);
+            if (before != null && before.getValue() >= from) {
+                from = before.getKey();
+                to = Math.max(to, before.getValue());
+            }
+            Map.Entry<Long, Long> after = ranges.ceilingEntry(from);
+            while (after != null && after.getKey() <= to) {
+                to = Math.max(to, after.getValue());
+                ranges.remove(after.getKey());
+                after = ranges.ceilingEntry(from);
+            }
+            ranges.put(from, to);
+        }
+        updateDigests();
+        return getOffset();
+    }
+
+    private static boolean covers(final TreeMap<Long, Long> map, final long offset) {
+        final Map.Entry<Long, Long> entry = map.floorEntry(offset);
+        return entry != null && entry.getValue() > offset;
+    }
+
+    private static long following(final TreeMap<Long, Long> map, final long offset) {
+        final Long next = map.higherKey(offset);
+        return next != null ? next : Long.MAX_VALUE;
+    }
+
+    private void updateDigests() throws IOException {
+        final long end = getOffset();
+        if (end > digested && !digests.isEmpty()) {
+            try (final FileChannel channel = FileChannel.open(file, READ)) {
+                final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                while (digested < end) {
+                    buffer.clear().limit((int) Math.min(BUFFER_SIZE, end - digested));
+                    final int read = channel.read(buffer, digested);
+                    if (read < 0) {
+                        throw new IOException("Unexpected end of staged content at " + digested);
+                    }
+                    buffer.flip();
+                    digests.forEach(digest -> digest.update(buffer.duplicate()));
+                    digested += read;
+                }
+            }
+        }
+        digested = Math.max(digested, end);
+    }
+}
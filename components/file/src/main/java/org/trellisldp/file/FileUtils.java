@@ -20,37 +20,44 @@ import static java.nio.file.Files.newBufferedWriter;
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import static java.nio.file.StandardOpenOption.WRITE;
+import static java.time.Instant.ofEpochSecond;
 import static java.util.Objects.requireNonNull;
 import static java.util.function.Predicate.isEqual;
+import static java.util.stream.Collectors.toCollection;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.IntStream.range;
+import static java.util.stream.Stream.concat;
 import static java.util.stream.Stream.empty;
 import static java.util.stream.Stream.of;
 import static org.apache.commons.codec.digest.DigestUtils.md5Hex;
+import static org.apache.commons.io.FilenameUtils.getBaseName;
 import static org.apache.jena.riot.tokens.TokenizerFactory.makeTokenizerString;
 import static org.apache.jena.sparql.core.Quad.create;
 import static org.apache.jena.sparql.core.Quad.defaultGraphIRI;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.trellisldp.api.TrellisUtils.getDigestIRI;
 import static org.trellisldp.vocabulary.RDF.type;
 import static org.trellisldp.vocabulary.Trellis.PreferServerManaged;
 
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.StringJoiner;
 import java.util.stream.Stream;
 import java.util.zip.CRC32;
 
-import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.Quad;
 import org.apache.commons.rdf.jena.JenaRDF;
@@ -60,6 +67,7 @@ import org.slf4j.Logger;
 import org.trellisldp.api.Resource;
 import org.trellisldp.vocabulary.DC;
 import org.trellisldp.vocabulary.LDP;
+import org.trellisldp.vocabulary.PREMIS;
 import org.trellisldp.vocabulary.XSD;
 
 /**
@@ -75,6 +83,16 @@ public final class FileUtils {
     public static final int LENGTH = 2;
     public static final int MAX = 3;
 
+    // The file extensions of full Mementos, in N-Quads or binary form, and of Memento deltas
+    static final String NQUADS_EXTENSION = ".nq";
+    static final String BINARY_EXTENSION = ".nqb";
+    static final String DELTA_EXTENSION = ".nqd";
+
+    // The line prefixes of a Memento delta
+    static final String DELTA_BASE = "B ";
+    static final String DELTA_ADD = "A ";
+    static final String DELTA_DELETE = "D ";
+
     /**
      * Get a directory for a given resource identifier.
      * @param baseDirectory the base directory
@@ -134,30 +152,40 @@ public final class FileUtils {
 
     /**
      * Write a Memento to a particular resource directory.
+     *
+     * <p>The full Memento replaces any other form of Memento at the same time.
+     *
      * @param resourceDir the resource directory
      * @param resource the resource
      * @param time the time for the memento
      */
     public static void writeMemento(final File resourceDir, final Resource resource,
             final Instant time) {
-        try (final BufferedWriter writer = newBufferedWriter(
-                        getNquadsFile(resourceDir, time).toPath(), UTF_8, CREATE, WRITE,
-                        TRUNCATE_EXISTING)) {
-
-            try (final Stream<String> quads = generateServerManaged(resource).map(FileUtils::serializeQuad)) {
-                final Iterator<String> lineIter = quads.iterator();
-                while (lineIter.hasNext()) {
-                    writer.write(lineIter.next() + lineSeparator());
-                }
-            }
+        try (final Stream<String> lines = serializeResource(resource)) {
+            writeLines(getNquadsFile(resourceDir, time), lines);
+            Files.deleteIfExists(getBinaryMementoFile(resourceDir, time).toPath());
+            Files.deleteIfExists(getDeltaFile(resourceDir, time).toPath());
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(
+                            "Error writing resource version for " + resource.getIdentifier().getIRIString(), ex);
+        }
+    }
 
-            try (final Stream<String> quads = resource.stream().filter(FileUtils::notServerManaged)
-                    .map(FileUtils::serializeQuad)) {
-                final Iterator<String> lineiter = quads.iterator();
-                while (lineiter.hasNext()) {
-                    writer.write(lineiter.next() + lineSeparator());
-                }
-            }
+    /**
+     * Write a Memento to a particular resource directory in a compact binary form.
+     *
+     * <p>The full Memento replaces any other form of Memento at the same time.
+     *
+     * @param resourceDir the resource directory
+     * @param resource the resource
+     * @param time the time for the memento
+     * @param compress whether to compress the quads that are not server-managed
+     */
+    public static void writeBinaryMemento(final File resourceDir, final Resource resource, final Instant time,
+            final boolean compress) {
+        try (final Stream<Quad> serverManaged = generateServerManaged(resource);
+                final Stream<? extends Quad> quads = resource.stream().filter(FileUtils::notServerManaged)) {
+            writeBinaryMemento(resourceDir, time, serverManaged, quads, compress);
         } catch (final IOException ex) {
             throw new UncheckedIOException(
                             "Error writing resource version for " + resource.getIdentifier().getIRIString(), ex);
@@ -165,18 +193,131 @@ public final class FileUtils {
     }
 
     /**
-     * Get a bounded inputstream.
-     * @param stream the input stream
-     * @param from the byte from which to start
-     * @param to the byte to which to read
-     * @throws IOException if an error occurs when skipping forward
-     * @return the bounded inputstream
+     * Write quads to a particular resource directory as a binary Memento.
+     * @param resourceDir the resource directory
+     * @param time the time for the memento
+     * @param quads the quads
+     * @param compress whether to compress the quads that are not server-managed
+     * @throws IOException if the Memento could not be written
      */
-    public static InputStream getBoundedStream(final InputStream stream, final int from, final int to)
-            throws IOException {
-        final long skipped = stream.skip(from);
-        LOGGER.debug("Skipped {} bytes", skipped);
-        return new BoundedInputStream(stream, (long) to - from);
+    static void writeBinaryMemento(final File resourceDir, final Instant time, final Collection<? extends Quad> quads,
+            final boolean compress) throws IOException {
+        writeBinaryMemento(resourceDir, time, quads.stream().filter(quad -> !notServerManaged(quad)),
+                quads.stream().filter(FileUtils::notServerManaged), compress);
+    }
+
+    /**
+     * Write a Memento to a particular resource directory as the changes from a full Memento.
+     *
+     * <p>The delta replaces any full Memento at the same time.
+     *
+     * @param resourceDir the resource directory
+     * @param base the time of the full Memento on which the delta is based
+     * @param time the time for the memento
+     * @param added the serialized quads added since the full Memento
+     * @param removed the serialized quads removed since the full Memento
+     */
+    public static void writeMementoDelta(final File resourceDir, final Instant base, final Instant time,
+            final Collection<String> added, final Collection<String> removed) {
+        final Stream<String> lines = concat(of(DELTA_BASE + base.getEpochSecond()),
+                concat(added.stream().map(DELTA_ADD::concat), removed.stream().map(DELTA_DELETE::concat)));
+        try {
+            writeLines(getDeltaFile(resourceDir, time), lines);
+            Files.deleteIfExists(getNquadsFile(resourceDir, time).toPath());
+            Files.deleteIfExists(getBinaryMementoFile(resourceDir, time).toPath());
+        } catch (final IOException ex) {
+            throw new UncheckedIOException("Error writing resource version delta at " + resourceDir, ex);
+        }
+    }
+
+    /**
+     * Serialize the quads of a resource, as they are stored in a Memento.
+     * @param resource the resource
+     * @return the serialized quads, server-managed quads first
+     */
+    public static Stream<String> serializeResource(final Resource resource) {
+        return concat(generateServerManaged(resource),
+                resource.stream().filter(FileUtils::notServerManaged).map(Quad.class::cast))
+            .map(FileUtils::serializeQuad);
+    }
+
+    /**
+     * Read the serialized quads of a Memento.
+     *
+     * <p>A Memento delta is applied to the full Memento on which it is based.
+     *
+     * @param file the Memento file
+     * @return the serialized quads
+     * @throws IOException if the Memento could not be read
+     */
+    public static Stream<String> readMemento(final File file) throws IOException {
+        if (file.getName().endsWith(BINARY_EXTENSION)) {
+            return readQuads(file).map(FileUtils::serializeQuad);
+        } else if (!file.getName().endsWith(DELTA_EXTENSION)) {
+            return Files.lines(file.toPath(), UTF_8);
+        }
+        final Set<String> lines;
+        final List<String> delta = Files.readAllLines(file.toPath(), UTF_8);
+        final Optional<Instant> base = getDeltaBase(delta);
+        if (!base.isPresent()) {
+            throw new IOException("Missing base of Memento delta at " + file);
+        }
+        try (final Stream<String> quads = readMemento(getFullMementoFile(file.getParentFile(), base.get()))) {
+            lines = quads.collect(toCollection(LinkedHashSet::new));
+        }
+        delta.stream().filter(line -> line.startsWith(DELTA_DELETE)).map(line -> line.substring(DELTA_DELETE.length()))
+            .forEach(lines::remove);
+        delta.stream().filter(line -> line.startsWith(DELTA_ADD)).map(line -> line.substring(DELTA_ADD.length()))
+            .forEach(lines::add);
+        return lines.stream();
+    }
+
+    /**
+     * Read the quads of a Memento.
+     *
+     * <p>A binary Memento is decoded as the stream is consumed; other forms are parsed line by line.
+     *
+     * @param file the Memento file
+     * @return the quads
+     * @throws IOException if the Memento could not be read
+     */
+    public static Stream<Quad> readQuads(final File file) throws IOException {
+        if (file.getName().endsWith(BINARY_EXTENSION)) {
+            return BinaryMemento.read(file.toPath(), false).<Quad>map(rdf::asQuad);
+        }
+        return readMemento(file).flatMap(FileUtils::parseQuad);
+    }
+
+    /**
+     * Read the server-managed quads of a Memento.
+     *
+     * <p>Only the header of a binary Memento is read; other forms are read in full.
+     *
+     * @param file the Memento file
+     * @return the server-managed quads
+     * @throws IOException if the Memento could not be read
+     */
+    public static Stream<Quad> readServerManaged(final File file) throws IOException {
+        if (file.getName().endsWith(BINARY_EXTENSION)) {
+            return BinaryMemento.read(file.toPath(), true).<Quad>map(rdf::asQuad);
+        }
+        return readQuads(file).filter(quad -> !notServerManaged(quad));
+    }
+
+    /**
+     * Get the time of the full Memento on which a Memento is based.
+     * @param file the Memento file
+     * @return the time of the full Memento, which is the time of the Memento itself if it is not a delta
+     * @throws IOException if the Memento could not be read
+     */
+    public static Optional<Instant> getMementoBase(final File file) throws IOException {
+        if (!file.getName().endsWith(DELTA_EXTENSION)) {
+            return file.exists()
+                ? Optional.of(ofEpochSecond(Long.parseLong(getBaseName(file.getName())))) : Optional.empty();
+        }
+        try (final Stream<String> lines = Files.lines(file.toPath(), UTF_8)) {
+            return getDeltaBase(lines.limit(1).collect(toList()));
+        }
     }
 
     /**
@@ -196,7 +337,72 @@ public final class FileUtils {
      * @return the file
      */
     public static File getNquadsFile(final File dir, final Instant time) {
-        return new File(dir, Long.toString(time.getEpochSecond()) + ".nq");
+        return new File(dir, Long.toString(time.getEpochSecond()) + NQUADS_EXTENSION);
+    }
+
+    /**
+     * Get the Memento delta file for a given moment in time.
+     * @param dir the directory
+     * @param time the time
+     * @return the file
+     */
+    public static File getDeltaFile(final File dir, final Instant time) {
+        return new File(dir, Long.toString(time.getEpochSecond()) + DELTA_EXTENSION);
+    }
+
+    /**
+     * Get the binary Memento file for a given moment in time.
+     * @param dir the directory
+     * @param time the time
+     * @return the file
+     */
+    public static File getBinaryMementoFile(final File dir, final Instant time) {
+        return new File(dir, Long.toString(time.getEpochSecond()) + BINARY_EXTENSION);
+    }
+
+    /**
+     * Get the full Memento file for a given moment in time, which may be in either N-Quads or binary form.
+     * @param dir the directory
+     * @param time the time
+     * @return the file
+     */
+    public static File getFullMementoFile(final File dir, final Instant time) {
+        final File binary = getBinaryMementoFile(dir, time);
+        return binary.exists() ? binary : getNquadsFile(dir, time);
+    }
+
+    /**
+     * Get the Memento file for a given moment in time, which may be either a full Memento or a delta.
+     * @param dir the directory
+     * @param time the time
+     * @return the file
+     */
+    public static File getMementoFile(final File dir, final Instant time) {
+        final File delta = getDeltaFile(dir, time);
+        return delta.exists() ? delta : getFullMementoFile(dir, time);
+    }
+
+    private static void writeBinaryMemento(final File resourceDir, final Instant time,
+            final Stream<? extends Quad> serverManaged, final Stream<? extends Quad> quads, final boolean compress)
+            throws IOException {
+        BinaryMemento.write(getBinaryMementoFile(resourceDir, time).toPath(), serverManaged, quads, compress);
+        Files.deleteIfExists(getNquadsFile(resourceDir, time).toPath());
+        Files.deleteIfExists(getDeltaFile(resourceDir, time).toPath());
+    }
+
+    private static void writeLines(final File file, final Stream<String> lines) throws IOException {
+        try (final BufferedWriter writer = newBufferedWriter(file.toPath(), UTF_8, CREATE, WRITE,
+                    TRUNCATE_EXISTING)) {
+            final Iterator<String> lineIter = lines.iterator();
+            while (lineIter.hasNext()) {
+                writer.write(lineIter.next() + lineSeparator());
+            }
+        }
+    }
+
+    private static Optional<Instant> getDeltaBase(final List<String> delta) {
+        return delta.stream().findFirst().filter(line -> line.startsWith(DELTA_BASE))
+            .map(line -> ofEpochSecond(Long.parseLong(line.substring(DELTA_BASE.length()).trim())));
     }
 
     private static Stream<Quad> generateServerManaged(final Resource resource) {
@@ -210,6 +416,8 @@ public final class FileUtils {
             quads.add(rdf.createQuad(PreferServerManaged, resource.getIdentifier(), DC.hasPart, b.getIdentifier()));
             b.getMimeType().map(mimeType -> rdf.createQuad(PreferServerManaged, b.getIdentifier(), DC.format,
                 rdf.createLiteral(mimeType))).ifPresent(quads::add);
+            b.getDigests().forEach((algorithm, value) -> quads.add(rdf.createQuad(PreferServerManaged,
+                        b.getIdentifier(), PREMIS.hasMessageDigest, getDigestIRI(algorithm, value))));
         });
 
         resource.getContainer()
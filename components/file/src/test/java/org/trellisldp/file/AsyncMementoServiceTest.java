@@ -0,0 +1,290 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.nio.file.Files.createTempDirectory;
+import static java.time.Instant.now;
+import static java.time.Instant.parse;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySortedSet;
+import static java.util.Collections.singleton;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.commons.rdf.api.Dataset;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.trellisldp.api.MementoService;
+import org.trellisldp.api.Metadata;
+import org.trellisldp.api.Resource;
+import org.trellisldp.api.ResourceService;
+import org.trellisldp.vocabulary.LDP;
+
+/**
+ * Test the asynchronous memento service.
+ */
+public class AsyncMementoServiceTest {
+
+    private static final RDF rdf = new SimpleRDF();
+    private static final IRI identifier = rdf.createIRI("trellis:data/resource");
+    private static final IRI other = rdf.createIRI("trellis:data/other");
+
+    private File journal;
+    private MementoService mockDelegate;
+    private ResourceService mockResourceService;
+    private CompletableFuture<Void> write;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        journal = createTempDirectory("trellis-journal").toFile();
+        mockDelegate = mock(MementoService.class);
+        mockResourceService = mock(ResourceService.class);
+        write = new CompletableFuture<>();
+        when(mockDelegate.put(any(ResourceService.class), any(IRI.class))).thenReturn(write);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        deleteDirectory(journal);
+    }
+
+    @Test
+    public void testPutDoesNotWait() {
+        final AsyncMementoService service = new AsyncMementoService(mockDelegate, 10, null);
+        assertTrue(service.put(mockResourceService, identifier).toCompletableFuture().isDone(),
+                "Put waited for the Memento write!");
+        await().until(() -> mockingDetails(mockDelegate).getInvocations().size() == 1);
+        assertFalse(service.flush().toCompletableFuture().isDone(), "Flush completed before the write!");
+
+        write.complete(null);
+        service.flush().toCompletableFuture().join();
+        assertEquals(1L, service.getQueued(), "Incorrect queued count!");
+        assertEquals(1L, service.getCompleted(), "Incorrect completed count!");
+        assertEquals(0, service.getQueueDepth(), "Incorrect queue depth!");
+        assertEquals(Duration.ZERO, service.getLag(), "Incorrect lag!");
+    }
+
+    @Test
+    public void testCoalescedWrites() {
+        final AsyncMementoService service = new AsyncMementoService(mockDelegate, 10, null);
+        service.put(mockResourceService, identifier);
+        await().until(() -> mockingDetails(mockDelegate).getInvocations().size() == 1);
+
+        // Requests that arrive while a write is running are merged into a single follow-up write
+        service.put(mockResourceService, identifier);
+        service.put(mockResourceService, identifier);
+        service.put(mockResourceService, identifier);
+        assertEquals(1, service.getQueueDepth(), "Incorrect queue depth!");
+        assertEquals(2L, service.getCoalesced(), "Incorrect coalesced count!");
+        assertFalse(service.getLag().isNegative(), "Incorrect lag!");
+
+        write.complete(null);
+        service.flush().toCompletableFuture().join();
+        verify(mockDelegate, times(2)).put(mockResourceService, identifier);
+        assertEquals(2L, service.getCompleted(), "Incorrect completed count!");
+        assertEquals(0, service.getQueueDepth(), "Incorrect queue depth!");
+    }
+
+    @Test
+    public void testReadsWaitForUnknownVersions() {
+        final SortedSet<Instant> mementos = emptySortedSet();
+        final Resource mockResource = mock(Resource.class);
+        when(mockDelegate.mementos(identifier)).thenReturn(completedFuture(mementos));
+        doReturn(completedFuture(mockResource)).when(mockDelegate).get(any(IRI.class), any());
+
+        // The version of a queued request for the current state of a resource is not known until it is written
+        final AsyncMementoService service = new AsyncMementoService(mockDelegate, 10, null);
+        service.put(mockResourceService, identifier);
+        final CompletionStage<Resource> memento = service.get(identifier, now());
+        assertEquals(mementos, service.mementos(identifier).toCompletableFuture().getNow(null),
+                "Mementos listing waited for the write!");
+        assertFalse(memento.toCompletableFuture().isDone(), "Memento fetched before the write!");
+        assertTrue(service.get(other, now()).toCompletableFuture().isDone(), "Unrelated read waited for a write!");
+
+        write.complete(null);
+        assertEquals(mockResource, memento.toCompletableFuture().join(), "Incorrect Memento!");
+    }
+
+    @Test
+    public void testReadsMergeQueuedVersions() {
+        final Instant time = parse("2019-01-15T10:00:00Z");
+        final Instant stored = time.minusSeconds(60);
+        final Metadata metadata = Metadata.builder(identifier).interactionModel(LDP.RDFSource).modified(time).build();
+        final Resource mockResource = mock(Resource.class);
+        when(mockResourceService.getModified(any(Metadata.class)))
+            .thenAnswer(inv -> inv.<Metadata>getArgument(0).getModified());
+        when(mockDelegate.put(any(ResourceService.class), any(Metadata.class), any(Dataset.class))).thenReturn(write);
+        when(mockDelegate.mementos(identifier)).thenReturn(completedFuture(new TreeSet<>(singleton(stored))));
+        doReturn(completedFuture(mockResource)).when(mockDelegate).get(any(IRI.class), any());
+
+        final AsyncMementoService service = new AsyncMementoService(mockDelegate, 10, null);
+        service.put(mockResourceService, metadata, rdf.createDataset());
+        assertEquals(new TreeSet<>(asList(stored, time)), service.mementos(identifier).toCompletableFuture()
+                .getNow(null), "Queued version missing from the Mementos listing!");
+        assertEquals(mockResource, service.get(identifier, stored).toCompletableFuture().getNow(null),
+                "Read of a stored Memento waited for a write!");
+        final CompletionStage<Resource> memento = service.get(identifier, time.plusSeconds(5));
+        assertFalse(memento.toCompletableFuture().isDone(), "Queued Memento fetched before the write!");
+
+        write.complete(null);
+        assertEquals(mockResource, memento.toCompletableFuture().join(), "Incorrect Memento!");
+    }
+
+    @Test
+    public void testReadsQueuedResource() {
+        final Resource mockResource = mock(Resource.class);
+        when(mockResource.getIdentifier()).thenReturn(identifier);
+        when(mockResource.getModified()).thenReturn(parse("2019-01-15T10:00:00Z"));
+        when(mockDelegate.put(any(Resource.class))).thenReturn(write);
+
+        final AsyncMementoService service = new AsyncMementoService(mockDelegate, 10, null);
+        service.put(mockResource);
+        assertEquals(mockResource, service.get(identifier, now()).toCompletableFuture().getNow(null),
+                "Queued resource not returned as its Memento!");
+        verify(mockDelegate, never()).get(any(IRI.class), any());
+        write.complete(null);
+    }
+
+    @Test
+    public void testBackpressure() {
+        final CompletableFuture<Void> otherWrite = new CompletableFuture<>();
+        when(mockDelegate.put(mockResourceService, other)).thenReturn(otherWrite);
+
+        final AsyncMementoService service = new AsyncMementoService(mockDelegate, 1, null);
+        assertTrue(service.put(mockResourceService, identifier).toCompletableFuture().isDone(),
+                "Put waited for a Memento write!");
+        final CompletionStage<Void> overflow = service.put(mockResourceService, other);
+        await().until(() -> mockingDetails(mockDelegate).getInvocations().size() == 2);
+        assertFalse(overflow.toCompletableFuture().isDone(), "A put beyond the queue size did not wait!");
+
+        otherWrite.complete(null);
+        overflow.toCompletableFuture().join();
+
+        // Capacity is released once the queued write completes
+        write.complete(null);
+        service.flush().toCompletableFuture().join();
+        assertTrue(service.put(mockResourceService, other).toCompletableFuture().isDone(),
+                "Put waited for a Memento write!");
+    }
+
+    @Test
+    public void testFailedWrite() {
+        final AsyncMementoService service = new AsyncMementoService(mockDelegate, 1, journal.getAbsolutePath());
+        service.put(mockResourceService, identifier);
+        final CompletionStage<Void> overflow = service.put(mockResourceService, other);
+        write.completeExceptionally(new IOException("Expected"));
+        assertThrows(CompletionException.class, overflow.toCompletableFuture()::join,
+                "No exception for a failed write beyond the queue size!");
+        service.flush().toCompletableFuture().join();
+        assertEquals(2L, service.getFailed(), "Incorrect failed count!");
+        assertEquals(0, journal.list().length, "Journal not cleared after failed writes!");
+    }
+
+    @Test
+    public void testPutResource() {
+        final Resource mockResource = mock(Resource.class);
+        when(mockResource.getIdentifier()).thenReturn(identifier);
+        when(mockResource.getModified()).thenReturn(now());
+        when(mockDelegate.put(any(Resource.class))).thenReturn(write);
+
+        final AsyncMementoService service = new AsyncMementoService(mockDelegate, 10, null);
+        assertTrue(service.put(mockResource).toCompletableFuture().isDone(), "Put waited for the Memento write!");
+        write.complete(null);
+        service.flush().toCompletableFuture().join();
+        verify(mockDelegate).put(mockResource);
+    }
+
+    @Test
+    public void testPutPersistedData() {
+        final Metadata metadata = Metadata.builder(identifier).interactionModel(LDP.RDFSource).modified(now()).build();
+        final Dataset dataset = rdf.createDataset();
+        when(mockDelegate.put(any(ResourceService.class), any(Metadata.class), any(Dataset.class))).thenReturn(write);
+
+        final AsyncMementoService service = new AsyncMementoService(mockDelegate, 10, null);
+        assertTrue(service.put(mockResourceService, metadata, dataset).toCompletableFuture().isDone(),
+                "Put waited for the Memento write!");
+        write.complete(null);
+        service.flush().toCompletableFuture().join();
+        verify(mockDelegate).put(mockResourceService, metadata, dataset);
+    }
+
+    @Test
+    public void testDistinctVersionsNotCoalesced() {
+        final Instant time = parse("2019-01-15T10:00:00Z");
+        final Metadata first = Metadata.builder(identifier).interactionModel(LDP.RDFSource).modified(time).build();
+        final Metadata second = Metadata.builder(identifier).interactionModel(LDP.RDFSource)
+            .modified(time.plusMillis(300)).build();
+        final Metadata third = Metadata.builder(identifier).interactionModel(LDP.RDFSource)
+            .modified(time.plusSeconds(2)).build();
+        final Dataset dataset = rdf.createDataset();
+        when(mockResourceService.getModified(any(Metadata.class)))
+            .thenAnswer(inv -> inv.<Metadata>getArgument(0).getModified());
+        when(mockDelegate.put(any(ResourceService.class), any(Metadata.class), any(Dataset.class))).thenReturn(write);
+
+        final AsyncMementoService service = new AsyncMementoService(mockDelegate, 10, null);
+        service.put(mockResourceService, identifier);
+        await().until(() -> mockingDetails(mockDelegate).getInvocations().size() == 1);
+
+        // Versions within the same second map to the same Memento; a later second is a distinct Memento
+        service.put(mockResourceService, first, dataset);
+        service.put(mockResourceService, second, dataset);
+        service.put(mockResourceService, third, dataset);
+        assertEquals(2, service.getQueueDepth(), "Incorrect queue depth!");
+        assertEquals(1L, service.getCoalesced(), "Incorrect coalesced count!");
+
+        write.complete(null);
+        service.flush().toCompletableFuture().join();
+        verify(mockDelegate, never()).put(mockResourceService, first, dataset);
+        verify(mockDelegate).put(mockResourceService, second, dataset);
+        verify(mockDelegate).put(mockResourceService, third, dataset);
+        assertEquals(0, service.getQueueDepth(), "Incorrect queue depth!");
+    }
+
+    @Test
+    public void testRecover() {
+        final AsyncMementoService service = new AsyncMementoService(mockDelegate, 10, journal.getAbsolutePath());
+        service.put(mockResourceService, identifier);
+        await().until(() -> mockingDetails(mockDelegate).getInvocations().size() == 1);
+        assertEquals(1, journal.list().length, "Queued write not recorded!");
+
+        // A new service, as after a restart, requeues the interrupted write
+        final MementoService mockDelegate2 = mock(MementoService.class);
+        when(mockDelegate2.put(any(ResourceService.class), any(IRI.class))).thenReturn(completedFuture(null));
+        final AsyncMementoService service2 = new AsyncMementoService(mockDelegate2, 10, journal.getAbsolutePath());
+        assertEquals(1L, service2.recover(mockResourceService), "Incorrect number of recovered writes!");
+        service2.flush().toCompletableFuture().join();
+        verify(mockDelegate2).put(mockResourceService, identifier);
+        await().until(() -> journal.list().length == 0);
+        assertEquals(0L, new AsyncMementoService(mockDelegate2, 10, null).recover(mockResourceService),
+                "Unexpected recovery without a journal!");
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.trellisldp.api.BinaryMetadata;
+import org.trellisldp.api.DefaultIdentifierService;
+
+/**
+ * Test the binary garbage collector.
+ */
+public class BinaryGarbageCollectorTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private File directory;
+    private FileBinaryService service;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = createTempDirectory("trellis-binaries").toFile();
+        service = new FileBinaryService(new DefaultIdentifierService(), directory.getAbsolutePath(), 2, 2);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        deleteDirectory(directory);
+    }
+
+    @Test
+    public void testCollect() {
+        final IRI referenced = createBinary(service, "Referenced");
+        final IRI orphan1 = createBinary(service, "Orphan 1");
+        final IRI orphan2 = createBinary(service, "Orphan 2");
+        final IRI orphan3 = createBinary(service, "Orphan 3");
+
+        try (final BinaryGarbageCollector gc = new BinaryGarbageCollector(service,
+                    singletonList(() -> Stream.of(referenced, rdf.createIRI("http://example.com/binary"))),
+                    2, 1L, 0L, false)) {
+            assertEquals((Long) 3L, gc.run().toCompletableFuture().join(), "Incorrect number of orphans!");
+            assertTrue(exists(referenced), "Referenced binary was purged!");
+            assertFalse(exists(orphan1), "Orphaned binary was not purged!");
+            assertFalse(exists(orphan2), "Orphaned binary was not purged!");
+            assertFalse(exists(orphan3), "Orphaned binary was not purged!");
+            assertEquals(1L, gc.getRuns(), "Incorrect run count!");
+            assertEquals(4L, gc.getScanned(), "Incorrect scanned count!");
+            assertEquals(3L, gc.getOrphaned(), "Incorrect orphaned count!");
+            assertEquals(3L, gc.getPurged(), "Incorrect purged count!");
+            assertEquals(24L, gc.getPurgedBytes(), "Incorrect purged byte count!");
+            assertTrue(gc.getLastRun().isPresent(), "Missing last run time!");
+        }
+    }
+
+    @Test
+    public void testDryRun() {
+        final IRI orphan = createBinary(service, "Orphan");
+        try (final BinaryGarbageCollector gc = new BinaryGarbageCollector(service, singletonList(Stream::empty),
+                    10, 0L, 0L, true)) {
+            assertEquals((Long) 1L, gc.run().toCompletableFuture().join(), "Incorrect number of orphans!");
+            assertTrue(exists(orphan), "Binary was purged in a dry run!");
+            assertEquals(1L, gc.getOrphaned(), "Incorrect orphaned count!");
+            assertEquals(0L, gc.getPurged(), "Incorrect purged count!");
+        }
+    }
+
+    @Test
+    public void testGracePeriod() {
+        final IRI recent = createBinary(service, "Recent");
+        try (final BinaryGarbageCollector gc = new BinaryGarbageCollector(service, singletonList(Stream::empty),
+                    10, 0L, 60_000L, false)) {
+            assertEquals((Long) 0L, gc.run().toCompletableFuture().join(), "Unexpected orphans!");
+            assertTrue(exists(recent), "Recently written binary was purged!");
+        }
+    }
+
+    @Test
+    public void testReferenceError() {
+        final IRI orphan = createBinary(service, "Orphan");
+        final List<Supplier<Stream<IRI>>> references = asList(Stream::empty, () -> {
+            throw new IllegalStateException("Expected error");
+        });
+        try (final BinaryGarbageCollector gc = new BinaryGarbageCollector(service, references, 10, 0L, 0L, false)) {
+            assertThrows(CompletionException.class, () -> gc.run().toCompletableFuture().join(),
+                    "No exception when references could not be read!");
+            assertTrue(exists(orphan), "Binary was purged despite a reference error!");
+            assertEquals(0L, gc.getRuns(), "Incorrect run count!");
+        }
+    }
+
+    @Test
+    public void testScheduledCollection() {
+        final IRI orphan = createBinary(service, "Orphan");
+        try (final BinaryGarbageCollector gc = new BinaryGarbageCollector(service, singletonList(Stream::empty),
+                    10, 0L, 0L, false)) {
+            gc.schedule(10L, MILLISECONDS);
+            await().until(() -> !exists(orphan));
+            assertTrue(gc.getRuns() > 0L, "Incorrect run count!");
+        }
+    }
+
+    @Test
+    public void testContentAddressedCollection() {
+        final ContentAddressedBinaryService casService = new ContentAddressedBinaryService(
+                new DefaultIdentifierService(), directory.getAbsolutePath(), 2, 2);
+        final IRI referenced = createBinary(casService, "Shared");
+        final IRI orphan = createBinary(casService, "Shared");
+
+        try (final BinaryGarbageCollector gc = new BinaryGarbageCollector(casService,
+                    singletonList(() -> Stream.of(referenced)), 10, 0L, 0L, false)) {
+            assertEquals((Long) 1L, gc.run().toCompletableFuture().join(), "Incorrect number of orphans!");
+            assertEquals(2L, gc.getScanned(), "Stored objects should not be scanned!");
+            assertFalse(exists(orphan), "Orphaned binary was not purged!");
+            assertTrue(exists(referenced), "Referenced binary was purged!");
+            assertTrue(casService.getObjectFile(sha256Hex("Shared")).exists(), "Shared content was removed!");
+        }
+    }
+
+    private boolean exists(final IRI identifier) {
+        return service.getFileFromIdentifier(identifier).exists();
+    }
+
+    private static IRI createBinary(final FileBinaryService svc, final String content) {
+        final IRI identifier = rdf.createIRI(svc.generateIdentifier());
+        svc.setContent(BinaryMetadata.builder(identifier).build(), new ByteArrayInputStream(content.getBytes(UTF_8)))
+            .toCompletableFuture().join();
+        return identifier;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.nio.file.Files.createTempDirectory;
+import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.readAllLines;
+import static java.nio.file.Files.write;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.Quad;
+import org.apache.commons.rdf.jena.JenaRDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.trellisldp.vocabulary.Trellis;
+
+/**
+ * Test the binary Memento format.
+ */
+public class BinaryMementoTest {
+
+    private static final JenaRDF rdf = new JenaRDF();
+
+    private File directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = createTempDirectory("trellis-binary-memento").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        deleteDirectory(directory);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        assertRoundTrip(false);
+    }
+
+    @Test
+    public void testCompressedRoundTrip() throws IOException {
+        assertRoundTrip(true);
+    }
+
+    @Test
+    public void testCompression() throws IOException {
+        final List<Quad> quads = range(0, 500).mapToObj(i -> rdf.createQuad(Trellis.PreferUserManaged,
+                    rdf.createIRI("trellis:data/resource"), rdf.createIRI("http://example.org/value"),
+                    rdf.createLiteral("A repetitive value " + i % 10))).collect(toList());
+        final Path plain = directory.toPath().resolve("plain");
+        final Path compressed = directory.toPath().resolve("compressed");
+        BinaryMemento.write(plain, Stream.empty(), quads.stream(), false);
+        BinaryMemento.write(compressed, Stream.empty(), quads.stream(), true);
+        assertTrue(compressed.toFile().length() < plain.toFile().length() / 2, "Body was not compressed!");
+        assertEquals(serialize(quads), serialize(read(compressed, false)), "Incorrect compressed quads!");
+    }
+
+    @Test
+    public void testNotBinary() {
+        final Path file = Paths.get(getClass().getResource("/resource.nq").getFile());
+        assertThrows(IOException.class, () -> BinaryMemento.read(file, false), "N-Quads read as binary!");
+        assertThrows(IOException.class, () -> BinaryMemento.read(directory.toPath().resolve("missing"), false),
+                "Missing file read as binary!");
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        final Path file = directory.toPath().resolve("memento");
+        final List<Quad> quads = readResource();
+        BinaryMemento.write(file, quads.stream().limit(2), quads.stream().skip(2), false);
+        final byte[] data = readAllBytes(file);
+        write(file, Arrays.copyOf(data, data.length - 10));
+        assertThrows(UncheckedIOException.class, () -> read(file, false), "No exception for a truncated file!");
+        assertEquals(2, read(file, true).size(), "Incorrect header of a truncated file!");
+    }
+
+    private void assertRoundTrip(final boolean compress) throws IOException {
+        final List<Quad> quads = readResource();
+        final List<Quad> serverManaged = quads.stream().filter(quad -> quad.getGraphName()
+                    .filter(Trellis.PreferServerManaged::equals).isPresent()).collect(toList());
+        final List<Quad> others = new ArrayList<>(quads);
+        others.removeAll(serverManaged);
+        final String longValue = range(0, 100).mapToObj(i -> "été " + i).collect(joining(" "));
+        Stream.of("_:b1 <http://example.org/p> \"value\"^^<http://example.org/type> .",
+                "_:b1 <http://example.org/p> \"" + longValue + "\"@fr <http://example.org/graph> .",
+                "<trellis:data/resource> <http://example.org/p> _:b1 <http://example.org/graph> .")
+            .flatMap(FileUtils::parseQuad).forEach(others::add);
+
+        final Path file = directory.toPath().resolve("memento");
+        BinaryMemento.write(file, serverManaged.stream(), others.stream(), compress);
+
+        // Terms are read back exactly as they would be from the N-Quads form of the Memento
+        final List<Quad> expected = new ArrayList<>(serverManaged);
+        expected.addAll(others);
+        assertEquals(reparse(expected), serialize(read(file, false)), "Incorrect quads!");
+        assertEquals(reparse(serverManaged), serialize(read(file, true)), "Incorrect server-managed quads!");
+    }
+
+    private List<Quad> readResource() throws IOException {
+        return readAllLines(Paths.get(getClass().getResource("/resource.nq").getFile())).stream()
+            .flatMap(FileUtils::parseQuad).collect(toList());
+    }
+
+    private static List<Quad> read(final Path file, final boolean serverManagedOnly) throws IOException {
+        try (final Stream<org.apache.jena.sparql.core.Quad> quads = BinaryMemento.read(file, serverManagedOnly)) {
+            return quads.map(rdf::asQuad).collect(toList());
+        }
+    }
+
+    private static List<String> reparse(final List<Quad> quads) {
+        return serialize(quads.stream().map(FileUtils::serializeQuad).flatMap(FileUtils::parseQuad).collect(toList()));
+    }
+
+    private static List<String> serialize(final List<Quad> quads) {
+        return quads.stream().map(FileUtils::serializeQuad).collect(toList());
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.nio.channels.Channels.newChannel;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.Collections.singleton;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.trellisldp.api.Binary;
+import org.trellisldp.api.BinaryMetadata;
+import org.trellisldp.api.BinaryService;
+import org.trellisldp.api.DefaultIdentifierService;
+
+/**
+ * Test the caching binary service.
+ */
+public class CachingBinaryServiceTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private File backend;
+    private File cache;
+    private FileBinaryService slowService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        backend = createTempDirectory("trellis-backend").toFile();
+        cache = createTempDirectory("trellis-cache").toFile();
+        slowService = spy(new FileBinaryService(new DefaultIdentifierService(), backend.getAbsolutePath(), 2, 2));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        deleteDirectory(backend);
+        deleteDirectory(cache);
+    }
+
+    @Test
+    public void testCachedRead() throws IOException {
+        final CachingBinaryService service = new CachingBinaryService(slowService, cache.getAbsolutePath(), 100L);
+        final IRI identifier = createBinary(service, "Some data");
+
+        assertEquals("Some data", read(service.get(identifier)), "Incorrect content!");
+        assertEquals("Some data", read(service.get(identifier)), "Incorrect cached content!");
+        assertEquals("me da", toString(service.get(identifier).toCompletableFuture().join().getContent(2, 6)),
+                "Incorrect cached segment!");
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(4L, service.get(identifier).toCompletableFuture().join().writeTo(5, 8, newChannel(output)),
+                "Incorrect number of bytes written!");
+        assertEquals("data", new String(output.toByteArray(), UTF_8), "Incorrect cached segment written!");
+
+        verify(slowService, times(1)).get(identifier);
+        assertEquals(1L, service.getMisses(), "Incorrect number of misses!");
+        assertEquals(3L, service.getHits(), "Incorrect number of hits!");
+        assertEquals(9L, service.getSize(), "Incorrect cache size!");
+        assertEquals(1, cache.list().length, "Binary not cached on disk!");
+    }
+
+    @Test
+    public void testInvalidation() {
+        final CachingBinaryService service = new CachingBinaryService(slowService, cache.getAbsolutePath(), 100L);
+        final IRI identifier = createBinary(service, "Some data");
+        assertEquals("Some data", read(service.get(identifier)), "Incorrect content!");
+
+        service.setContent(BinaryMetadata.builder(identifier).build(), stream("Other data")).toCompletableFuture()
+            .join();
+        assertEquals(0L, service.getSize(), "Stale binary not removed from the cache!");
+        assertEquals("Other data", read(service.get(identifier)), "Stale content read from the cache!");
+
+        service.purgeContent(identifier).toCompletableFuture().join();
+        assertEquals(0, cache.list().length, "Purged binary remains in the cache!");
+        assertThrows(UncheckedIOException.class, () -> service.get(identifier).toCompletableFuture().join()
+                .getContent(), "Purged binary was read from the cache!");
+    }
+
+    @Test
+    public void testEviction() {
+        final CachingBinaryService service = new CachingBinaryService(slowService, cache.getAbsolutePath(), 20L);
+        final IRI first = createBinary(service, "First data");
+        final IRI second = createBinary(service, "Second data");
+        final IRI large = createBinary(service, "A binary too large for the cache");
+
+        read(service.get(first));
+        read(service.get(second));
+        assertEquals(1L, service.getEvictions(), "Incorrect number of evictions!");
+        assertEquals(11L, service.getSize(), "Incorrect cache size!");
+        read(service.get(second));
+        read(service.get(first));
+        verify(slowService, times(2)).get(first);
+        verify(slowService, times(1)).get(second);
+
+        assertEquals("A binary too large for the cache", read(service.get(large)), "Incorrect large content!");
+        assertEquals("A binary too large for the cache", read(service.get(large)), "Incorrect large content!");
+        verify(slowService, times(2)).get(large);
+    }
+
+    @Test
+    public void testEvictedWhileReading() {
+        final CachingBinaryService service = new CachingBinaryService(slowService, cache.getAbsolutePath(), 100L);
+        final IRI identifier = createBinary(service, "Some data");
+        read(service.get(identifier));
+        final Binary binary = service.get(identifier).toCompletableFuture().join();
+        service.invalidate(identifier);
+        assertEquals("Some data", toString(binary.getContent()), "Incorrect content after eviction!");
+        assertEquals("data", toString(binary.getContent(5, 8)), "Incorrect segment after eviction!");
+    }
+
+    @Test
+    public void testMemoryTier() {
+        final CachingBinaryService service = new CachingBinaryService(slowService, cache.getAbsolutePath(), 100L,
+                10L, 5L);
+        final IRI small = createBinary(service, "Tiny");
+        final IRI other = createBinary(service, "Small");
+        final IRI medium = createBinary(service, "Some data");
+
+        assertEquals("Tiny", read(service.get(small)), "Incorrect content!");
+        assertEquals("Small", read(service.get(other)), "Incorrect content!");
+        assertEquals("Some data", read(service.get(medium)), "Incorrect content!");
+        assertEquals(9L, service.getMemorySize(), "Incorrect memory size!");
+        assertEquals(9L, service.getSize(), "Incorrect disk size!");
+        assertEquals(1, cache.list().length, "Small binaries should not be cached on disk!");
+
+        final Binary binary = service.get(small).toCompletableFuture().join();
+        assertEquals("Tiny", toString(binary.getContent()), "Incorrect cached content!");
+        assertEquals("in", toString(binary.getContent(1, 2)), "Incorrect cached segment!");
+        assertEquals("", toString(binary.getContent(10, 20)), "Incorrect segment beyond the end!");
+        assertEquals((Long) 4L, binary.getSize().orElse(0L), "Incorrect cached size!");
+        verify(slowService, times(1)).get(small);
+    }
+
+    @Test
+    public void testSingleFlight() {
+        final BinaryService mockService = mock(BinaryService.class);
+        final CompletableFuture<Binary> pending = new CompletableFuture<>();
+        final IRI identifier = rdf.createIRI("file:///binary");
+        doReturn(pending).when(mockService).get(identifier);
+        final CachingBinaryService service = new CachingBinaryService(mockService, cache.getAbsolutePath(), 100L);
+
+        final CompletionStage<Binary> first = service.get(identifier);
+        final CompletionStage<Binary> second = service.get(identifier);
+        pending.complete(new FileBinary(new File(getClass().getResource("/test.txt").getPath())));
+
+        assertEquals("A test document.\n", read(first), "Incorrect content!");
+        assertEquals("A test document.\n", read(second), "Incorrect content!");
+        assertEquals("A test document.\n", read(service.get(identifier)), "Incorrect cached content!");
+        verify(mockService, times(1)).get(identifier);
+    }
+
+    @Test
+    public void testLoadError() {
+        final BinaryService mockService = mock(BinaryService.class);
+        final IRI identifier = rdf.createIRI("file:///binary");
+        final CompletableFuture<Binary> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("Expected error"));
+        doReturn(failed).when(mockService).get(identifier);
+        final CachingBinaryService service = new CachingBinaryService(mockService, cache.getAbsolutePath(), 100L);
+
+        assertThrows(Exception.class, () -> service.get(identifier).toCompletableFuture().join(),
+                "No exception when the underlying service fails!");
+        assertThrows(Exception.class, () -> service.get(identifier).toCompletableFuture().join(),
+                "Failed load should not be cached!");
+        verify(mockService, times(2)).get(identifier);
+    }
+
+    @Test
+    public void testDelegation() {
+        final BinaryService mockService = mock(BinaryService.class);
+        when(mockService.supportedAlgorithms()).thenReturn(singleton("MD5"));
+        when(mockService.generateIdentifier()).thenReturn("file:///id");
+        when(mockService.supportsUploads()).thenReturn(true);
+        when(mockService.abortUpload(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        final CachingBinaryService service = new CachingBinaryService(mockService, cache.getAbsolutePath(), 100L);
+
+        assertEquals(singleton("MD5"), service.supportedAlgorithms(), "Incorrect algorithms!");
+        assertEquals("file:///id", service.generateIdentifier(), "Incorrect identifier!");
+        assertTrue(service.supportsUploads(), "Uploads should be supported!");
+        final IRI resource = rdf.createIRI("trellis:data/resource");
+        service.abortUpload("upload", resource).toCompletableFuture().join();
+        verify(mockService).abortUpload("upload", resource);
+    }
+
+    @Test
+    public void testStaleCacheFiles() throws IOException {
+        final File stale = new File(cache, "cache-1234.bin");
+        final File other = new File(cache, "other.txt");
+        assertTrue(stale.createNewFile(), "Could not create a stale cache file!");
+        assertTrue(other.createNewFile(), "Could not create an unrelated file!");
+        new CachingBinaryService(slowService, cache.getAbsolutePath(), 100L);
+        assertFalse(stale.exists(), "Stale cache file was not removed!");
+        assertTrue(other.exists(), "Unrelated file was removed!");
+    }
+
+    private static IRI createBinary(final BinaryService service, final String content) {
+        final IRI identifier = rdf.createIRI(service.generateIdentifier());
+        service.setContent(BinaryMetadata.builder(identifier).build(), stream(content)).toCompletableFuture().join();
+        return identifier;
+    }
+
+    private static String read(final CompletionStage<Binary> binary) {
+        return toString(binary.toCompletableFuture().join().getContent());
+    }
+
+    private static String toString(final InputStream input) {
+        try (final InputStream stream = input) {
+            return IOUtils.toString(stream, UTF_8);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static InputStream stream(final String data) {
+        return new ByteArrayInputStream(data.getBytes(UTF_8));
+    }
+}
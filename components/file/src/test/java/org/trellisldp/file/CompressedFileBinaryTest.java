@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.nio.channels.Channels.newChannel;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
+import static java.nio.file.Files.readAllBytes;
+import static java.nio.file.Files.write;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.IntStream.range;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.trellisldp.api.Binary;
+
+/**
+ * Test the compressed file binary format.
+ */
+public class CompressedFileBinaryTest {
+
+    private static final byte[] CONTENT = range(0, 2000).mapToObj(i -> "Line " + i + " of some text\n")
+        .collect(joining()).getBytes(UTF_8);
+
+    private File directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = createTempDirectory("trellis-compressed").toFile();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        deleteDirectory(directory);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final Path file = directory.toPath().resolve("binary");
+        assertEquals(CONTENT.length, CompressedFileBinary.write(new ByteArrayInputStream(CONTENT), file, 1000),
+                "Incorrect uncompressed length!");
+        assertTrue(file.toFile().length() < CONTENT.length / 2, "Content was not compressed!");
+
+        final Binary binary = CompressedFileBinary.open(file.toFile()).orElseThrow(AssertionError::new);
+        assertEquals((Long) (long) CONTENT.length, binary.getSize().orElse(0L), "Incorrect size!");
+        try (final InputStream input = binary.getContent()) {
+            assertArrayEquals(CONTENT, toByteArray(input), "Incorrect content!");
+        }
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        binary.writeTo(newChannel(output));
+        assertArrayEquals(CONTENT, output.toByteArray(), "Incorrect content written to a channel!");
+    }
+
+    @Test
+    public void testSegments() throws IOException {
+        final Path file = directory.toPath().resolve("binary");
+        CompressedFileBinary.write(new ByteArrayInputStream(CONTENT), file, 1000);
+        final Binary binary = CompressedFileBinary.open(file.toFile()).orElseThrow(AssertionError::new);
+
+        assertSegment(binary, 0L, 10L);
+        assertSegment(binary, 995L, 1005L);
+        assertSegment(binary, 1000L, 3000L);
+        assertSegment(binary, 1500L, 7500L);
+        assertSegment(binary, CONTENT.length - 5L, CONTENT.length);
+        try (final InputStream input = binary.getContent(CONTENT.length - 5L, CONTENT.length + 100L)) {
+            assertEquals(5, toByteArray(input).length, "Incorrect segment beyond the end of the content!");
+        }
+        try (final InputStream input = binary.getContent(CONTENT.length + 5L, CONTENT.length + 100L)) {
+            assertEquals(-1, input.read(), "Unexpected content beyond the end!");
+        }
+    }
+
+    @Test
+    public void testEmptyContent() throws IOException {
+        final Path file = directory.toPath().resolve("binary");
+        assertEquals(0L, CompressedFileBinary.write(new ByteArrayInputStream(new byte[0]), file, 1000),
+                "Incorrect uncompressed length!");
+        final Binary binary = CompressedFileBinary.open(file.toFile()).orElseThrow(AssertionError::new);
+        assertEquals((Long) 0L, binary.getSize().orElse(-1L), "Incorrect size!");
+        try (final InputStream input = binary.getContent()) {
+            assertEquals(-1, input.read(), "Unexpected content!");
+        }
+    }
+
+    @Test
+    public void testUncompressedFile() throws IOException {
+        final Path file = directory.toPath().resolve("binary");
+        write(file, CONTENT);
+        assertFalse(CompressedFileBinary.open(file.toFile()).isPresent(), "Plain file opened as compressed!");
+        assertFalse(CompressedFileBinary.open(new File(directory, "missing")).isPresent(),
+                "Missing file opened as compressed!");
+    }
+
+    @Test
+    public void testTruncatedFile() throws IOException {
+        final Path file = directory.toPath().resolve("binary");
+        CompressedFileBinary.write(new ByteArrayInputStream(CONTENT), file, 1000);
+        final byte[] data = readAllBytes(file);
+        write(file, Arrays.copyOf(data, data.length - 1));
+        assertFalse(CompressedFileBinary.open(file.toFile()).isPresent(), "Truncated file opened as compressed!");
+    }
+
+    @Test
+    public void testCorruptBlock() throws IOException {
+        final Path file = directory.toPath().resolve("binary");
+        CompressedFileBinary.write(new ByteArrayInputStream(CONTENT), file, 1000);
+        final byte[] data = readAllBytes(file);
+        Arrays.fill(data, 12, 40, (byte) 0xFF);
+        write(file, data);
+        final Binary binary = CompressedFileBinary.open(file.toFile()).orElseThrow(AssertionError::new);
+        assertThrows(IOException.class, () -> {
+            try (final InputStream input = binary.getContent(0L, 10L)) {
+                toByteArray(input);
+            }
+        }, "No exception reading a corrupt block!");
+        file.toFile().delete();
+        assertThrows(UncheckedIOException.class, () -> binary.getContent(0L, 10L), "No exception for missing file!");
+    }
+
+    private static void assertSegment(final Binary binary, final long from, final long to) throws IOException {
+        try (final InputStream input = binary.getContent(from, to - 1)) {
+            assertArrayEquals(Arrays.copyOfRange(CONTENT, (int) from, (int) to), toByteArray(input),
+                    "Incorrect segment from " + from + " to " + to);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.file;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
+import static java.nio.file.Files.isSameFile;
+import static java.nio.file.Files.walk;
+import static java.util.Collections.emptyList;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.trellisldp.api.Binary;
+import org.trellisldp.api.BinaryMetadata;
+import org.trellisldp.api.DefaultIdentifierService;
+
+/**
+ * Test the content-addressed binary service.
+ */
+public class ContentAddressedBinaryServiceTest {
+
+    private static final RDF rdf = new SimpleRDF();
+
+    private File directory;
+    private ContentAddressedBinaryService service;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = createTempDirectory("trellis-binaries").toFile();
+        service = new ContentAddressedBinaryService(new DefaultIdentifierService(), directory.getAbsolutePath(),
+                2, 2);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        deleteDirectory(directory);
+    }
+
+    @Test
+    public void testDeduplicatedContent() throws IOException {
+        final IRI first = rdf.createIRI(service.generateIdentifier());
+        final IRI second = rdf.createIRI(service.generateIdentifier());
+        setContent(first, "Shared content");
+        setContent(second, "Shared content");
+
+        assertEquals("Shared content", getContent(first), "Incorrect content for the first binary!");
+        assertEquals("Shared content", getContent(second), "Incorrect content for the second binary!");
+        assertTrue(isSameFile(service.getFileFromIdentifier(first).toPath(),
+                    service.getFileFromIdentifier(second).toPath()), "Content was not deduplicated!");
+        assertTrue(service.getObjectFile(sha256Hex("Shared content")).exists(), "Missing content object!");
+        assertEquals(1L, countObjects(), "Incorrect number of stored objects!");
+        assertEquals(2, service.getReferenceCount(first), "Incorrect reference count!");
+        assertEquals(0L, countStaged(), "Staging files were not removed!");
+    }
+
+    @Test
+    public void testReplaceContent() throws IOException {
+        final IRI identifier = rdf.createIRI(service.generateIdentifier());
+        setContent(identifier, "Old content");
+        setContent(identifier, "Old content");
+        assertEquals(1, service.getReferenceCount(identifier), "Incorrect reference count after a re-upload!");
+
+        setContent(identifier, "New content");
+        assertEquals("New content", getContent(identifier), "Incorrect content after replacement!");
+        assertEquals(2L, countObjects(), "Incorrect number of stored objects!");
+        assertEquals((Long) 1L, service.prune().toCompletableFuture().join(), "Old content was not pruned!");
+        assertFalse(service.getObjectFile(sha256Hex("Old content")).exists(), "Old content was not removed!");
+        assertEquals("New content", getContent(identifier), "Incorrect content after pruning!");
+    }
+
+    @Test
+    public void testPurgeAndPrune() throws IOException {
+        final IRI first = rdf.createIRI(service.generateIdentifier());
+        final IRI second = rdf.createIRI(service.generateIdentifier());
+        setContent(first, "Some data");
+        setContent(second, "Some data");
+
+        service.purgeContent(first).toCompletableFuture().join();
+        assertEquals((Long) 0L, service.prune().toCompletableFuture().join(), "Referenced content was pruned!");
+        assertEquals("Some data", getContent(second), "Incorrect content for the remaining binary!");
+        assertEquals(1, service.getReferenceCount(second), "Incorrect reference count!");
+        assertEquals(0, service.getReferenceCount(first), "Incorrect reference count for a purged binary!");
+
+        service.purgeContent(second).toCompletableFuture().join();
+        assertEquals((Long) 1L, service.prune().toCompletableFuture().join(), "Unreferenced content was not pruned!");
+        assertEquals(0L, countObjects(), "Unexpected stored objects!");
+    }
+
+    @Test
+    public void testPruneEmpty() {
+        assertEquals((Long) 0L, service.prune().toCompletableFuture().join(), "Unexpected pruned objects!");
+    }
+
+    @Test
+    public void testSetContentError() {
+        final InputStream throwingMockInputStream = mock(InputStream.class, inv -> {
+                throw new IOException("Expected error");
+        });
+        final IRI identifier = rdf.createIRI(service.generateIdentifier());
+        assertThrows(Exception.class, () -> service.setContent(BinaryMetadata.builder(identifier).build(),
+                    throwingMockInputStream).toCompletableFuture().join(), "No exception with a bad input stream!");
+        assertFalse(service.getFileFromIdentifier(identifier).exists(), "Unexpected binary after an error!");
+        assertEquals(0L, countStaged(), "Staging files were not removed!");
+    }
+
+    @Test
+    public void testDeduplicatedUpload() throws IOException {
+        final IRI first = rdf.createIRI(service.generateIdentifier());
+        final IRI second = rdf.createIRI(service.generateIdentifier());
+        setContent(first, "Shared content");
+
+        final IRI resource = rdf.createIRI("trellis:data/resource");
+        final String uploadId = service.createUpload(resource, emptyList()).toCompletableFuture().join();
+        service.writeUpload(uploadId, resource, 7L, new ByteArrayInputStream("content".getBytes(UTF_8)))
+            .toCompletableFuture().join();
+        service.writeUpload(uploadId, resource, 0L, new ByteArrayInputStream("Shared ".getBytes(UTF_8)))
+            .toCompletableFuture().join();
+        service.completeUpload(uploadId, resource, BinaryMetadata.builder(second).build()).toCompletableFuture()
+            .join();
+
+        assertEquals("Shared content", getContent(second), "Incorrect content for the uploaded binary!");
+        assertEquals(1L, countObjects(), "Uploaded content was not deduplicated!");
+        assertEquals(2, service.getReferenceCount(second), "Incorrect reference count!");
+        assertFalse(new File(new File(directory, FileBinaryService.UPLOADS_DIRECTORY), uploadId).exists(),
+                "Staged upload was not removed!");
+    }
+
+    private void setContent(final IRI identifier, final String content) {
+        service.setContent(BinaryMetadata.builder(identifier).build(),
+                new ByteArrayInputStream(content.getBytes(UTF_8))).toCompletableFuture().join();
+    }
+
+    private String getContent(final IRI identifier) throws IOException {
+        try (final InputStream input = service.get(identifier).thenApply(Binary::getContent)
+                .toCompletableFuture().join()) {
+            return IOUtils.toString(input, UTF_8);
+        }
+    }
+
+    private long countObjects() throws IOException {
+        return countFiles(new File(directory, ContentAddressedBinaryService.OBJECTS_DIRECTORY));
+    }
+
+    private long countStaged() {
+        final File staging = new File(directory, ContentAddressedBinaryService.STAGING_DIRECTORY);
+        return staging.exists() ? staging.list().length : 0L;
+    }
+
+    private static long countFiles(final File dir) throws IOException {
+        try (final Stream<Path> paths = walk(dir.toPath())) {
+            return paths.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -13,21 +13,47 @@
  */
 package org.trellisldp.file;
 
+import static java.nio.channels.Channels.newChannel;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.createTempDirectory;
+import static java.nio.file.Files.setLastModifiedTime;
+import static java.nio.file.Files.walk;
+import static java.time.Instant.now;
+import static java.util.Arrays.asList;
 import static java.util.Base64.getEncoder;
+import static java.util.Collections.emptyList;
+import static java.util.Optional.of;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
 import static org.apache.commons.codec.digest.DigestUtils.getDigest;
+import static org.apache.commons.codec.digest.DigestUtils.md5;
+import static org.apache.commons.codec.digest.DigestUtils.sha256;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.condition.JRE.JAVA_8;
 import static org.mockito.Mockito.mock;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.security.MessageDigest;
 import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.rdf.api.IRI;
@@ -40,6 +66,7 @@ import org.junit.jupiter.api.condition.DisabledOnJre;
 import org.trellisldp.api.Binary;
 import org.trellisldp.api.BinaryMetadata;
 import org.trellisldp.api.BinaryService;
+import org.trellisldp.api.DefaultIdentifierService;
 
 /**
  * Test the file-based binary service.
@@ -54,6 +81,7 @@ public class FileBinaryServiceTest {
         .getParent();
 
     private static final IRI file = rdf.createIRI("file:///" + testDoc);
+    private static final IRI resource = rdf.createIRI("trellis:data/resource");
 
     @BeforeAll
     public static void setUpEverything() {
@@ -109,10 +137,10 @@ public class FileBinaryServiceTest {
     public void testFileContentSegment() {
         final BinaryService service = new FileBinaryService();
         assertEquals(" tes",
-                        service.get(file).thenApply(b -> b.getContent(1, 5)).thenApply(this::uncheckedToString)
+                        service.get(file).thenApply(b -> b.getContent(1, 4)).thenApply(this::uncheckedToString)
                         .toCompletableFuture().join(), "Incorrect segment when fetching from a file!");
         assertEquals("oc",
-                        service.get(file).thenApply(b -> b.getContent(8, 10)).thenApply(this::uncheckedToString)
+                        service.get(file).thenApply(b -> b.getContent(8, 9)).thenApply(this::uncheckedToString)
                         .toCompletableFuture().join(), "Incorrect segment when fetching from a file!");
     }
 
@@ -123,6 +151,64 @@ public class FileBinaryServiceTest {
                         .toCompletableFuture().join(), "Incorrect out-of-range segment when fetching from a file!");
     }
 
+    @Test
+    public void testFileContentSegmentInvalid() {
+        final Binary binary = new FileBinaryService().get(file).toCompletableFuture().join();
+        assertThrows(IllegalArgumentException.class, () -> binary.getContent(-1L, 5L),
+                "No exception with a negative offset!");
+    }
+
+    @Test
+    public void testFileWriteTo() throws IOException {
+        final Binary binary = new FileBinaryService().get(file).toCompletableFuture().join();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(17L, binary.writeTo(newChannel(out)), "Incorrect number of bytes written!");
+        assertEquals("A test document.\n", out.toString("UTF-8"), "Incorrect content when writing a file!");
+    }
+
+    @Test
+    public void testFileSize() {
+        final BinaryService service = new FileBinaryService();
+        assertEquals(of(17L), service.get(file).thenApply(Binary::getSize).toCompletableFuture().join(),
+                "Incorrect binary size!");
+        assertFalse(service.get(rdf.createIRI("file:///" + randomFilename())).thenApply(Binary::getSize)
+                .toCompletableFuture().join().isPresent(), "Unexpected size for a missing binary!");
+    }
+
+    @Test
+    public void testLargeFileContentSegment() {
+        final BinaryService service = new FileBinaryService();
+        assertEquals("", service.get(file).thenApply(b -> b.getContent(5_000_000_000L, 5_000_000_010L))
+                .thenApply(this::uncheckedToString).toCompletableFuture().join(),
+                "Incorrect segment beyond 2 GiB when fetching from a file!");
+    }
+
+    @Test
+    public void testFileWriteToSegment() throws IOException {
+        final Binary binary = new FileBinaryService().get(file).toCompletableFuture().join();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(4L, binary.writeTo(1L, 4L, newChannel(out)), "Incorrect number of bytes written!");
+        assertEquals(" tes", out.toString("UTF-8"), "Incorrect segment when writing a file!");
+
+        out.reset();
+        assertEquals(2L, binary.writeTo(15L, 1000L, newChannel(out)), "Incorrect number of bytes written!");
+        assertEquals(".\n", out.toString("UTF-8"), "Incorrect final segment when writing a file!");
+
+        out.reset();
+        assertEquals(0L, binary.writeTo(1000L, 1005L, newChannel(out)), "Unexpected out-of-range content!");
+        assertEquals(0, out.size(), "Unexpected out-of-range content!");
+    }
+
+    @Test
+    public void testFileWriteToError() {
+        final Binary binary = new FileBinaryService().get(rdf.createIRI("file:///" + randomFilename()))
+            .toCompletableFuture().join();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThrows(IOException.class, () -> binary.writeTo(newChannel(out)), "No exception with a missing file!");
+        assertThrows(IOException.class, () -> binary.writeTo(0L, 4L, newChannel(out)),
+                "No exception with a missing file!");
+    }
+
     @Test
     public void testSetFileContent() {
         final String contents = "A new file";
@@ -211,6 +297,347 @@ public class FileBinaryServiceTest {
                         "Shouldn't be able to fetch content from a bad IRI!");
     }
 
+    @Test
+    public void testResumableUpload() {
+        final BinaryService service = new FileBinaryService();
+        final IRI fileIRI = rdf.createIRI("file:///" + randomFilename());
+        assertTrue(service.supportsUploads(), "Resumable uploads should be supported!");
+        final String uploadId = service.createUpload(resource, asList(getDigest("SHA-256"), getDigest("MD5")))
+            .toCompletableFuture().join();
+        assertEquals((Long) 0L, service.getUploadOffset(uploadId, resource).toCompletableFuture().join(),
+                "Incorrect offset for a new upload!");
+        assertEquals((Long) 0L, service.writeUpload(uploadId, resource, 4L, stream(" data"))
+                .toCompletableFuture().join(), "Incorrect offset after an out-of-order part!");
+        assertEquals((Long) 9L, service.writeUpload(uploadId, resource, 0L, stream("Some"))
+                .toCompletableFuture().join(), "Incorrect offset after filling the gap!");
+        assertEquals((Long) 9L, service.getUploadOffset(uploadId, resource).toCompletableFuture().join(),
+                "Incorrect upload offset!");
+
+        final List<MessageDigest> digests = service.completeUpload(uploadId, resource, BinaryMetadata.builder(fileIRI)
+                .build()).toCompletableFuture().join();
+        assertArrayEquals(sha256("Some data"), digests.get(0).digest(), "Incorrect SHA-256 digest!");
+        assertArrayEquals(md5("Some data"), digests.get(1).digest(), "Incorrect MD5 digest!");
+        assertEquals("Some data", uncheckedToString(service.get(fileIRI).thenApply(Binary::getContent)
+                .toCompletableFuture().join()), "Incorrect content for a completed upload!");
+        assertThrows(CompletionException.class, () -> service.getUploadOffset(uploadId, resource).toCompletableFuture()
+                .join(), "A completed upload should no longer exist!");
+        service.purgeContent(fileIRI).toCompletableFuture().join();
+    }
+
+    @Test
+    public void testParallelUpload() {
+        final BinaryService service = new FileBinaryService();
+        final IRI fileIRI = rdf.createIRI("file:///" + randomFilename());
+        final String uploadId = service.createUpload(resource, asList(getDigest("SHA-256"))).toCompletableFuture()
+            .join();
+        final String part = "0123456789";
+        final List<CompletableFuture<Long>> parts = range(0, 20).mapToObj(i -> service.writeUpload(uploadId, resource,
+                    i * 10L, stream(part)).toCompletableFuture()).collect(toList());
+        allOf(parts.toArray(new CompletableFuture[0])).join();
+        assertEquals((Long) 200L, service.getUploadOffset(uploadId, resource).toCompletableFuture().join(),
+                "Incorrect offset after parallel parts!");
+
+        final StringBuilder expected = new StringBuilder();
+        range(0, 20).forEach(i -> expected.append(part));
+        final List<MessageDigest> digests = service.completeUpload(uploadId, resource, BinaryMetadata.builder(fileIRI)
+                .build()).toCompletableFuture().join();
+        assertArrayEquals(sha256(expected.toString()), digests.get(0).digest(), "Incorrect SHA-256 digest!");
+        assertEquals(expected.toString(), uncheckedToString(service.get(fileIRI).thenApply(Binary::getContent)
+                .toCompletableFuture().join()), "Incorrect content for a parallel upload!");
+        service.purgeContent(fileIRI).toCompletableFuture().join();
+    }
+
+    @Test
+    public void testIncompleteUpload() {
+        final BinaryService service = new FileBinaryService();
+        final IRI fileIRI = rdf.createIRI("file:///" + randomFilename());
+        final String uploadId = service.createUpload(resource, emptyList()).toCompletableFuture().join();
+        service.writeUpload(uploadId, resource, 4L, stream(" data")).toCompletableFuture().join();
+
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                service.completeUpload(uploadId, resource, BinaryMetadata.builder(fileIRI).build())
+                .toCompletableFuture().join(), "An upload with a gap should not be completed!");
+        assertTrue(err.getCause() instanceof IllegalStateException, "Incorrect exception for a gap!");
+        assertFalse(new File(directory, fileIRI.getIRIString().substring(8)).exists(), "Unexpected binary!");
+
+        service.writeUpload(uploadId, resource, 0L, stream("Some")).toCompletableFuture().join();
+        assertTrue(service.completeUpload(uploadId, resource, BinaryMetadata.builder(fileIRI).build())
+                .toCompletableFuture().join().isEmpty(), "Unexpected digests!");
+        assertEquals("Some data", uncheckedToString(service.get(fileIRI).thenApply(Binary::getContent)
+                .toCompletableFuture().join()), "Incorrect content for a resumed upload!");
+        service.purgeContent(fileIRI).toCompletableFuture().join();
+    }
+
+    @Test
+    public void testOverlappingUpload() {
+        final BinaryService service = new FileBinaryService();
+        final IRI fileIRI = rdf.createIRI("file:///" + randomFilename());
+        final String uploadId = service.createUpload(resource, asList(getDigest("SHA-256"))).toCompletableFuture()
+            .join();
+        service.writeUpload(uploadId, resource, 4L, stream(" data")).toCompletableFuture().join();
+
+        // Parts may not overwrite content that has already been received
+        final CompletionException err1 = assertThrows(CompletionException.class, () ->
+                service.writeUpload(uploadId, resource, 6L, stream("ta")).toCompletableFuture().join(),
+                "A part within received content should be rejected!");
+        assertTrue(err1.getCause() instanceof IllegalStateException, "Incorrect exception for an overlap!");
+        final CompletionException err2 = assertThrows(CompletionException.class, () ->
+                service.writeUpload(uploadId, resource, 0L, stream("Some other data")).toCompletableFuture().join(),
+                "A part running into received content should be rejected!");
+        assertTrue(err2.getCause() instanceof IllegalStateException, "Incorrect exception for an overlap!");
+
+        assertEquals((Long) 9L, service.writeUpload(uploadId, resource, 0L, stream("Some"))
+                .toCompletableFuture().join(), "Incorrect offset after filling the gap!");
+        final List<MessageDigest> digests = service.completeUpload(uploadId, resource, BinaryMetadata.builder(fileIRI)
+                .build()).toCompletableFuture().join();
+        assertArrayEquals(sha256("Some data"), digests.get(0).digest(), "Incorrect SHA-256 digest!");
+        assertEquals("Some data", uncheckedToString(service.get(fileIRI).thenApply(Binary::getContent)
+                .toCompletableFuture().join()), "Incorrect content after rejected parts!");
+        service.purgeContent(fileIRI).toCompletableFuture().join();
+    }
+
+    @Test
+    public void testCompleteUploadInFlight() throws Exception {
+        final BinaryService service = new FileBinaryService();
+        final IRI fileIRI = rdf.createIRI("file:///" + randomFilename());
+        final String uploadId = service.createUpload(resource, emptyList()).toCompletableFuture().join();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final InputStream blocking = new SequenceInputStream(new InputStream() {
+            @Override
+            public int read() throws IOException {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                }
+                return -1;
+            }
+        }, stream("Some data"));
+        final CompletableFuture<Long> write = service.writeUpload(uploadId, resource, 0L, blocking)
+            .toCompletableFuture();
+        started.await();
+
+        // An upload cannot be completed while a part is still being written
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                service.completeUpload(uploadId, resource, BinaryMetadata.builder(fileIRI).build())
+                .toCompletableFuture().join(), "An upload with a part in progress should not be completed!");
+        assertTrue(err.getCause() instanceof IllegalStateException, "Incorrect exception for a part in progress!");
+
+        release.countDown();
+        assertEquals((Long) 9L, write.join(), "Incorrect offset after the part was written!");
+        service.completeUpload(uploadId, resource, BinaryMetadata.builder(fileIRI).build()).toCompletableFuture()
+            .join();
+        assertEquals("Some data", uncheckedToString(service.get(fileIRI).thenApply(Binary::getContent)
+                .toCompletableFuture().join()), "Incorrect content for a completed upload!");
+        service.purgeContent(fileIRI).toCompletableFuture().join();
+    }
+
+    @Test
+    public void testAbortUpload() {
+        final BinaryService service = new FileBinaryService();
+        final String uploadId = service.createUpload(resource, emptyList()).toCompletableFuture().join();
+        service.writeUpload(uploadId, resource, 0L, stream("Some data")).toCompletableFuture().join();
+        assertTrue(new File(new File(directory, FileBinaryService.UPLOADS_DIRECTORY), uploadId).exists(),
+                "Missing staged upload!");
+        assertNull(service.abortUpload(uploadId, resource).toCompletableFuture().join(),
+                "abortUpload didn't complete!");
+        assertFalse(new File(new File(directory, FileBinaryService.UPLOADS_DIRECTORY), uploadId).exists(),
+                "Staged upload was not removed!");
+        assertThrows(CompletionException.class, () -> service.writeUpload(uploadId, resource, 0L, stream("More data"))
+                .toCompletableFuture().join(), "An aborted upload should no longer exist!");
+    }
+
+    @Test
+    public void testUnknownUpload() {
+        final BinaryService service = new FileBinaryService();
+        final IRI fileIRI = rdf.createIRI("file:///" + randomFilename());
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                service.writeUpload("unknown", resource, 0L, stream("Some data")).toCompletableFuture().join(),
+                "No exception writing to an unknown upload!");
+        assertTrue(err.getCause() instanceof IllegalArgumentException, "Incorrect exception for unknown upload!");
+        assertThrows(CompletionException.class, () -> service.completeUpload("unknown", resource,
+                    BinaryMetadata.builder(fileIRI).build()).toCompletableFuture().join(),
+                "No exception completing an unknown upload!");
+        assertThrows(CompletionException.class, () -> service.abortUpload("unknown", resource)
+                .toCompletableFuture().join(), "No exception aborting an unknown upload!");
+    }
+
+    @Test
+    public void testUploadOtherResource() {
+        final BinaryService service = new FileBinaryService();
+        final IRI other = rdf.createIRI("trellis:data/other");
+        final IRI fileIRI = rdf.createIRI("file:///" + randomFilename());
+        final String uploadId = service.createUpload(resource, emptyList()).toCompletableFuture().join();
+
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                service.writeUpload(uploadId, other, 0L, stream("Some data")).toCompletableFuture().join(),
+                "No exception writing to an upload through another resource!");
+        assertTrue(err.getCause() instanceof IllegalArgumentException, "Incorrect exception for another resource!");
+        assertThrows(CompletionException.class, () -> service.completeUpload(uploadId, other,
+                    BinaryMetadata.builder(fileIRI).build()).toCompletableFuture().join(),
+                "No exception completing an upload through another resource!");
+        assertThrows(CompletionException.class, () -> service.abortUpload(uploadId, other)
+                .toCompletableFuture().join(), "No exception aborting an upload through another resource!");
+
+        // The upload is unaffected by the rejected operations
+        assertEquals((Long) 0L, service.getUploadOffset(uploadId, resource).toCompletableFuture().join(),
+                "Incorrect offset for the upload!");
+        assertNull(service.abortUpload(uploadId, resource).toCompletableFuture().join(),
+                "abortUpload didn't complete!");
+    }
+
+    @Test
+    public void testIdleUpload() throws Exception {
+        System.setProperty(FileBinaryService.CONFIG_FILE_BINARY_UPLOAD_TIMEOUT, "1");
+        try {
+            final BinaryService service = new FileBinaryService();
+            final String uploadId = service.createUpload(resource, emptyList()).toCompletableFuture().join();
+            final File staged = new File(new File(directory, FileBinaryService.UPLOADS_DIRECTORY), uploadId);
+            assertTrue(staged.exists(), "Missing staged upload!");
+            Thread.sleep(10L);
+
+            // Creating an upload aborts any idle uploads
+            final String other = service.createUpload(resource, emptyList()).toCompletableFuture().join();
+            assertFalse(staged.exists(), "Idle upload was not removed!");
+            assertThrows(CompletionException.class, () -> service.getUploadOffset(uploadId, resource)
+                    .toCompletableFuture().join(), "An idle upload should no longer exist!");
+            Thread.sleep(10L);
+            assertThrows(CompletionException.class, () -> service.writeUpload(other, resource, 0L,
+                        stream("Some data")).toCompletableFuture().join(), "An idle upload should be aborted!");
+        } finally {
+            System.clearProperty(FileBinaryService.CONFIG_FILE_BINARY_UPLOAD_TIMEOUT);
+        }
+    }
+
+    @Test
+    public void testAtomicFileContent() throws IOException {
+        final File base = createTempDirectory("trellis-binaries").toFile();
+        System.setProperty(FileBinaryService.CONFIG_FILE_BINARY_FSYNC, "true");
+        try {
+            final FileBinaryService service = new FileBinaryService(new DefaultIdentifierService(),
+                    base.getAbsolutePath(), 2, 2);
+            final IRI fileIRI = rdf.createIRI(service.generateIdentifier());
+            service.setContent(BinaryMetadata.builder(fileIRI).build(), stream("Some data")).toCompletableFuture()
+                .join();
+            service.setContent(BinaryMetadata.builder(fileIRI).build(), stream("Other data")).toCompletableFuture()
+                .join();
+            assertEquals("Other data", uncheckedToString(service.get(fileIRI).thenApply(Binary::getContent)
+                    .toCompletableFuture().join()), "Incorrect content after replacing a binary!");
+
+            final InputStream throwingMockInputStream = mock(InputStream.class, inv -> {
+                    throw new IOException("Expected error");
+            });
+            assertThrows(CompletionException.class, () -> service.setContent(BinaryMetadata.builder(fileIRI)
+                        .build(), throwingMockInputStream).toCompletableFuture().join(), "No exception on error!");
+            assertEquals("Other data", uncheckedToString(service.get(fileIRI).thenApply(Binary::getContent)
+                    .toCompletableFuture().join()), "A failed write replaced the binary!");
+            try (final Stream<Path> files = walk(base.toPath())) {
+                assertEquals(1L, files.filter(Files::isRegularFile).count(), "Temporary files were left behind!");
+            }
+        } finally {
+            System.clearProperty(FileBinaryService.CONFIG_FILE_BINARY_FSYNC);
+            deleteDirectory(base);
+        }
+    }
+
+    @Test
+    public void testRemoveStaleFiles() throws IOException {
+        final File base = createTempDirectory("trellis-binaries").toFile();
+        try {
+            final Instant now = now();
+            final Path binary = createFile(base, "ab/cd/binary", now.minusSeconds(60));
+            final Path temp = createFile(base, "ab/cd/.binary.1234.tmp", now.minusSeconds(60));
+            final Path upload = createFile(base, FileBinaryService.UPLOADS_DIRECTORY + "/1234", now.minusSeconds(60));
+            final Path active = createFile(base, "ab/cd/.binary.5678.tmp", now.plusSeconds(60));
+
+            // Stale files are removed in the background when the service starts
+            final FileBinaryService service = new FileBinaryService(new DefaultIdentifierService(),
+                    base.getAbsolutePath(), 2, 2);
+            await().until(() -> !Files.exists(temp) && !Files.exists(upload));
+            assertEquals((Long) 0L, service.removeStaleFiles(now).toCompletableFuture().join(),
+                    "Incorrect number of stale files!");
+            assertTrue(Files.exists(binary), "A binary was removed!");
+            assertTrue(Files.exists(active), "A recent temporary file was removed!");
+            assertFalse(Files.exists(temp), "A stale temporary file was not removed!");
+            assertFalse(Files.exists(upload), "A stale upload was not removed!");
+        } finally {
+            deleteDirectory(base);
+        }
+    }
+
+    @Test
+    public void testCompressedContent() throws IOException {
+        final File base = createTempDirectory("trellis-binaries").toFile();
+        System.setProperty(FileBinaryService.CONFIG_FILE_BINARY_COMPRESS, "text/*, application/XML");
+        System.setProperty(FileBinaryService.CONFIG_FILE_BINARY_COMPRESS_BLOCK_SIZE, "100");
+        try {
+            final FileBinaryService service = new FileBinaryService(new DefaultIdentifierService(),
+                    base.getAbsolutePath(), 2, 2);
+            final StringBuilder builder = new StringBuilder();
+            range(0, 100).forEach(i -> builder.append("<line>").append(i).append("</line>\n"));
+            final String contents = builder.toString();
+
+            final IRI textIRI = rdf.createIRI(service.generateIdentifier());
+            final IRI xmlIRI = rdf.createIRI(service.generateIdentifier());
+            final IRI dataIRI = rdf.createIRI(service.generateIdentifier());
+            service.setContent(BinaryMetadata.builder(textIRI).mimeType("text/plain; charset=UTF-8").build(),
+                    stream(contents)).toCompletableFuture().join();
+            service.setContent(BinaryMetadata.builder(xmlIRI).mimeType("application/xml").build(),
+                    stream(contents)).toCompletableFuture().join();
+            service.setContent(BinaryMetadata.builder(dataIRI).mimeType("application/octet-stream").build(),
+                    stream(contents)).toCompletableFuture().join();
+
+            final long length = contents.getBytes(UTF_8).length;
+            assertTrue(service.getFileFromIdentifier(textIRI).length() < length, "Text was not compressed!");
+            assertTrue(service.getFileFromIdentifier(xmlIRI).length() < length, "XML was not compressed!");
+            assertEquals(length, service.getFileFromIdentifier(dataIRI).length(), "Data was compressed!");
+
+            for (final IRI identifier : asList(textIRI, xmlIRI, dataIRI)) {
+                final Binary binary = service.get(identifier).toCompletableFuture().join();
+                assertEquals(of(length), binary.getSize(), "Incorrect binary size!");
+                assertEquals(contents, uncheckedToString(binary.getContent()), "Incorrect binary content!");
+                assertEquals(contents.substring(250, 1050), uncheckedToString(binary.getContent(250, 1049)),
+                        "Incorrect binary segment!");
+                assertEquals(getEncoder().encodeToString(sha256(contents)), getEncoder().encodeToString(service
+                            .calculateDigest(identifier, getDigest("SHA-256")).toCompletableFuture().join()
+                            .digest()), "Incorrect digest of binary content!");
+            }
+        } finally {
+            System.clearProperty(FileBinaryService.CONFIG_FILE_BINARY_COMPRESS);
+            System.clearProperty(FileBinaryService.CONFIG_FILE_BINARY_COMPRESS_BLOCK_SIZE);
+            deleteDirectory(base);
+        }
+    }
+
+    @Test
+    public void testCompressedUpload() throws IOException {
+        final File base = createTempDirectory("trellis-binaries").toFile();
+        System.setProperty(FileBinaryService.CONFIG_FILE_BINARY_COMPRESS, "text/csv");
+        try {
+            final FileBinaryService service = new FileBinaryService(new DefaultIdentifierService(),
+                    base.getAbsolutePath(), 2, 2);
+            final IRI identifier = rdf.createIRI(service.generateIdentifier());
+            final String uploadId = service.createUpload(resource, emptyList()).toCompletableFuture().join();
+            service.writeUpload(uploadId, resource, 0L, stream("a,b,c\na,b,c\na,b,c\na,b,c\na,b,c\na,b,c\n"))
+                .toCompletableFuture().join();
+            service.completeUpload(uploadId, resource, BinaryMetadata.builder(identifier).mimeType("text/csv").build())
+                .toCompletableFuture().join();
+            assertTrue(CompressedFileBinary.open(service.getFileFromIdentifier(identifier)).isPresent(),
+                    "Upload was not compressed!");
+            assertEquals("a,b,c\na,b,c\n", uncheckedToString(service.get(identifier).toCompletableFuture().join()
+                        .getContent(24, 35)), "Incorrect uploaded segment!");
+            try (final Stream<Path> files = walk(base.toPath())) {
+                assertEquals(1L, files.filter(Files::isRegularFile).count(), "Staged files were left behind!");
+            }
+        } finally {
+            System.clearProperty(FileBinaryService.CONFIG_FILE_BINARY_COMPRESS);
+            deleteDirectory(base);
+        }
+    }
+
     private boolean checkError(final Object asyncValue, final Throwable err) {
         assertNull(asyncValue, "The async value should be null!");
         assertNotNull(err, "There should be an async error!");
@@ -225,6 +652,18 @@ public class FileBinaryServiceTest {
         }
     }
 
+    private static InputStream stream(final String data) {
+        return new ByteArrayInputStream(data.getBytes(UTF_8));
+    }
+
+    private static Path createFile(final File base, final String name, final Instant modified) throws IOException {
+        final Path path = new File(base, name).toPath();
+        createDirectories(path.getParent());
+        Files.write(path, "data".getBytes(UTF_8));
+        setLastModifiedTime(path, FileTime.from(modified));
+        return path;
+    }
+
     private static String randomFilename() {
         final SecureRandom random = new SecureRandom();
         final String filename = new BigInteger(50, random).toString(32);
@@ -16,11 +16,19 @@ package org.trellisldp.file;
 import static java.time.Instant.MAX;
 import static java.time.Instant.now;
 import static java.time.Instant.parse;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.Collections.singletonMap;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.IntStream.range;
 import static org.apache.commons.io.FileUtils.deleteDirectory;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.trellisldp.api.Resource.SpecialResources.MISSING_RESOURCE;
 import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
@@ -28,8 +36,11 @@ import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
 import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
+import java.util.SortedSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
+import org.apache.commons.rdf.api.Dataset;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.RDF;
 import org.apache.commons.rdf.jena.JenaRDF;
@@ -37,7 +48,9 @@ import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 import org.trellisldp.api.BinaryMetadata;
 import org.trellisldp.api.MementoService;
+import org.trellisldp.api.Metadata;
 import org.trellisldp.api.Resource;
+import org.trellisldp.api.ResourceService;
 import org.trellisldp.vocabulary.DC;
 import org.trellisldp.vocabulary.FOAF;
 import org.trellisldp.vocabulary.LDP;
@@ -73,7 +86,7 @@ public class FileMementoServiceTest {
 
             final MementoService svc = new FileMementoService();
 
-            assertEquals(2L, svc.mementos(identifier).toCompletableFuture().join().size(),
+            assertEquals(3L, svc.mementos(identifier).toCompletableFuture().join().size(),
                     "Incorrect count of Mementos!");
             svc.get(identifier, now()).thenAccept(res -> assertEquals(time2, res.getModified(), "Incorrect date!"))
                 .toCompletableFuture().join();
@@ -110,7 +123,8 @@ public class FileMementoServiceTest {
                     rdf.createQuad(Trellis.PreferUserManaged, identifier, DC.title, rdf.createLiteral("Title")),
                     rdf.createQuad(Trellis.PreferServerManaged, identifier, DC.isPartOf, root)));
         when(mockResource.getBinaryMetadata())
-            .thenReturn(of(BinaryMetadata.builder(binaryId).mimeType(mimeType).build()));
+            .thenReturn(of(BinaryMetadata.builder(binaryId).mimeType(mimeType)
+                        .digests(singletonMap("SHA-1", "2aae6c35c94fcfb415dbe95f408b9ce91ee846ed")).build()));
         when(mockResource.getMemberOfRelation()).thenReturn(empty());
         when(mockResource.getMemberRelation()).thenReturn(empty());
         when(mockResource.getMembershipResource()).thenReturn(empty());
@@ -127,12 +141,17 @@ public class FileMementoServiceTest {
         res.getBinaryMetadata().ifPresent(b -> {
             assertEquals(binaryId, b.getIdentifier());
             assertEquals(of(mimeType), b.getMimeType());
+            assertEquals(singletonMap("SHA-1", "2aae6c35c94fcfb415dbe95f408b9ce91ee846ed"), b.getDigests());
         });
         assertFalse(res.getMemberOfRelation().isPresent());
         assertFalse(res.getMemberRelation().isPresent());
         assertFalse(res.getMembershipResource().isPresent());
         assertFalse(res.getInsertedContentRelation().isPresent());
         assertEquals(1L, res.stream(Trellis.PreferUserManaged).count());
+
+        try (final Stream<IRI> binaries = ((FileMementoService) svc).listBinaries()) {
+            assertTrue(binaries.anyMatch(binaryId::equals), "Missing binary reference!");
+        }
     }
 
     @Test
@@ -174,6 +193,65 @@ public class FileMementoServiceTest {
         assertEquals(1L, res.stream(Trellis.PreferUserManaged).count());
     }
 
+    @Test
+    public void testPutPersistedData() throws IOException {
+        final IRI identifier = rdf.createIRI(TRELLIS_DATA_PREFIX + "persisted");
+        final IRI root = rdf.createIRI(TRELLIS_DATA_PREFIX);
+        final File dir = createTempDirectory("trellis-mementos").toFile();
+        try {
+            final FileMementoService svc = new FileMementoService(dir.getAbsolutePath());
+            final ResourceService mockResourceService = mock(ResourceService.class);
+            final Instant time = parse("2017-02-16T11:15:01Z");
+            final Dataset dataset = rdf.createDataset();
+            dataset.add(Trellis.PreferUserManaged, identifier, DC.title, rdf.createLiteral("Title"));
+            dataset.add(Trellis.PreferAccessControl, identifier, DC.subject, rdf.createLiteral("Subject"));
+            dataset.add(Trellis.PreferServerManaged, identifier, DC.modified, rdf.createLiteral("Ignored"));
+            dataset.add(Trellis.PreferAudit, rdf.createBlankNode(), DC.subject, identifier);
+            final IRI child = rdf.createIRI(identifier.getIRIString() + "/child");
+            dataset.add(LDP.PreferContainment, identifier, LDP.contains, child);
+            dataset.add(LDP.PreferMembership, identifier, DC.relation, child);
+            final Metadata metadata = Metadata.builder(identifier).interactionModel(LDP.RDFSource).container(root)
+                .modified(time).build();
+            when(mockResourceService.getModified(metadata)).thenReturn(of(time));
+
+            svc.put(mockResourceService, metadata, dataset).toCompletableFuture().join();
+            verify(mockResourceService, never()).get(any(IRI.class));
+
+            final Resource res = svc.get(identifier, time).toCompletableFuture().join();
+            assertEquals(time, res.getModified(), "Incorrect date!");
+            assertEquals(LDP.RDFSource, res.getInteractionModel(), "Incorrect interaction model!");
+            assertEquals(of(root), res.getContainer(), "Incorrect container!");
+            assertTrue(res.hasAcl(), "Missing ACL!");
+            assertEquals(1L, res.stream(Trellis.PreferUserManaged).count(), "Incorrect user-managed triples!");
+            assertFalse(res.stream(Trellis.PreferServerManaged).anyMatch(triple ->
+                        rdf.createLiteral("Ignored").equals(triple.getObject())), "Unexpected server-managed data!");
+            assertEquals(1L, res.stream(Trellis.PreferAudit).count(), "Incorrect audit triples!");
+            assertEquals(1L, res.stream(LDP.PreferContainment).count(), "Incorrect containment triples!");
+            assertEquals(1L, res.stream(LDP.PreferMembership).count(), "Incorrect membership triples!");
+
+            // Without every versioned graph, the resource is fetched from the resource service
+            final Resource fetched = mockResource(identifier, time.plusSeconds(1), "Fetched", 1);
+            final Dataset partial = rdf.createDataset();
+            partial.add(Trellis.PreferUserManaged, identifier, DC.title, rdf.createLiteral("Title"));
+            final Metadata later = Metadata.builder(identifier).interactionModel(LDP.RDFSource).container(root)
+                .modified(time.plusSeconds(1)).build();
+            when(mockResourceService.getModified(later)).thenReturn(of(time.plusSeconds(1)));
+            when(mockResourceService.get(identifier)).thenAnswer(inv -> completedFuture(fetched));
+            svc.put(mockResourceService, later, partial).toCompletableFuture().join();
+            verify(mockResourceService).get(identifier);
+
+            // Without a recorded modification time, the resource is fetched from the resource service
+            final Resource mockResource = mockResource(identifier, time.plusSeconds(2), "Fetched", 1);
+            when(mockResourceService.get(identifier)).thenAnswer(inv -> completedFuture(mockResource));
+            svc.put(mockResourceService, Metadata.builder(identifier).interactionModel(LDP.RDFSource).build(),
+                    dataset).toCompletableFuture().join();
+            assertEquals(3L, svc.mementos(identifier).toCompletableFuture().join().size(),
+                    "Incorrect count of Mementos!");
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
     @Test
     public void testListNonExistent() {
         final File dir = new File(getClass().getResource("/versions").getFile());
@@ -240,10 +318,177 @@ public class FileMementoServiceTest {
             assertEquals(1L, svc.mementos(identifier).toCompletableFuture().join().size(),
                     "Incorrect count of Mementos!");
             svc.put(res, res.getModified().plusSeconds(10)).toCompletableFuture().join();
-            assertEquals(2L, svc.mementos(identifier).toCompletableFuture().join().size(),
+            assertEquals(3L, svc.mementos(identifier).toCompletableFuture().join().size(),
                     "Incorrect count of Mementos!");
         } finally {
             System.clearProperty(FileMementoService.CONFIG_FILE_MEMENTO_BASE_PATH);
         }
     }
+
+    @Test
+    public void testMementoIndex() throws IOException {
+        final IRI identifier = rdf.createIRI(TRELLIS_DATA_PREFIX + "indexed");
+        final File dir = createTempDirectory("trellis-mementos").toFile();
+        try {
+            final FileMementoService svc = new FileMementoService(dir.getAbsolutePath());
+            final Instant time = parse("2017-02-16T11:15:01Z");
+            allOf(range(0, 20).mapToObj(i -> time.plusSeconds(10L * i))
+                    .map(t -> svc.put(mockResource(identifier, t)).toCompletableFuture())
+                    .toArray(CompletableFuture[]::new)).join();
+
+            final SortedSet<Instant> mementos = svc.mementos(identifier).toCompletableFuture().join();
+            assertEquals(20L, mementos.size(), "Incorrect count of Mementos!");
+            assertEquals(time, mementos.first(), "Incorrect first Memento!");
+            assertEquals(MISSING_RESOURCE, svc.get(identifier, time.minusSeconds(1)).toCompletableFuture().join(),
+                    "Wrong response before the first Memento!");
+            assertEquals(time.plusSeconds(50), svc.get(identifier, time.plusSeconds(55)).toCompletableFuture()
+                    .join().getModified(), "Incorrect Memento between two times!");
+
+            // A new service reads the existing Mementos from the filesystem
+            final FileMementoService svc2 = new FileMementoService(dir.getAbsolutePath());
+            assertEquals(mementos, svc2.mementos(identifier).toCompletableFuture().join(),
+                    "Incorrect Mementos read from the filesystem!");
+            svc2.put(mockResource(identifier, time.plusSeconds(1000))).toCompletableFuture().join();
+            assertEquals(21L, svc2.mementos(identifier).toCompletableFuture().join().size(),
+                    "Index not updated by a new Memento!");
+            assertEquals(time.plusSeconds(1000), svc2.get(identifier, MAX).toCompletableFuture().join()
+                    .getModified(), "Incorrect latest Memento!");
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testDeltaMementos() throws IOException {
+        final IRI identifier = rdf.createIRI(TRELLIS_DATA_PREFIX + "delta");
+        final IRI binaryId = rdf.createIRI("file:///delta-binary");
+        final File dir = createTempDirectory("trellis-mementos").toFile();
+        try {
+            final FileMementoService svc = new FileMementoService(dir.getAbsolutePath(), 5);
+            final Instant time = parse("2017-02-16T11:15:01Z");
+            for (int i = 0; i < 12; i++) {
+                svc.put(mockResource(identifier, time.plusSeconds(i), "Version " + i, 20)).toCompletableFuture()
+                    .join();
+            }
+            final Resource binary = mockResource(identifier, time.plusSeconds(12), "Version 12", 20);
+            when(binary.getBinaryMetadata()).thenReturn(of(BinaryMetadata.builder(binaryId).build()));
+            svc.put(binary).toCompletableFuture().join();
+
+            final File resourceDir = FileUtils.getResourceDirectory(dir, identifier);
+            assertEquals(3L, countFiles(resourceDir, ".nq"), "Incorrect number of full Mementos!");
+            assertEquals(10L, countFiles(resourceDir, ".nqd"), "Incorrect number of Memento deltas!");
+            assertEquals(13L, svc.mementos(identifier).toCompletableFuture().join().size(),
+                    "Incorrect count of Mementos!");
+            for (int i = 0; i < 13; i++) {
+                assertVersion(svc.get(identifier, time.plusSeconds(i)).toCompletableFuture().join(), i);
+            }
+            assertTrue(svc.get(identifier, MAX).toCompletableFuture().join().getBinaryMetadata().isPresent(),
+                    "Missing binary in a Memento delta!");
+            try (final Stream<IRI> binaries = svc.listBinaries()) {
+                assertTrue(binaries.anyMatch(binaryId::equals), "Missing binary reference in a Memento delta!");
+            }
+
+            // Replacing a full Memento keeps the deltas that were based on it
+            svc.put(mockResource(identifier, time, "Replaced", 1)).toCompletableFuture().join();
+            assertEquals(1L, svc.get(identifier, time).toCompletableFuture().join()
+                    .stream(Trellis.PreferUserManaged).count(), "Incorrect replaced Memento!");
+            for (int i = 1; i < 13; i++) {
+                assertVersion(svc.get(identifier, time.plusSeconds(i)).toCompletableFuture().join(), i);
+            }
+
+            // A new service reads the stored deltas
+            final FileMementoService svc2 = new FileMementoService(dir.getAbsolutePath());
+            assertVersion(svc2.get(identifier, time.plusSeconds(7)).toCompletableFuture().join(), 7);
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testBinaryMementos() throws IOException {
+        final IRI identifier = rdf.createIRI(TRELLIS_DATA_PREFIX + "binary-memento");
+        final IRI binaryId = rdf.createIRI("file:///memento-binary");
+        final File dir = createTempDirectory("trellis-mementos").toFile();
+        try {
+            final FileMementoService svc = new FileMementoService(dir.getAbsolutePath(), 5, true, true);
+            final Instant time = parse("2017-02-16T11:15:01Z");
+            for (int i = 0; i < 7; i++) {
+                svc.put(mockResource(identifier, time.plusSeconds(i), "Version " + i, 20)).toCompletableFuture()
+                    .join();
+            }
+            final Resource binary = mockResource(identifier, time.plusSeconds(7), "Version 7", 20);
+            when(binary.getBinaryMetadata()).thenReturn(of(BinaryMetadata.builder(binaryId).build()));
+            svc.put(binary).toCompletableFuture().join();
+
+            final File resourceDir = FileUtils.getResourceDirectory(dir, identifier);
+            assertEquals(0L, countFiles(resourceDir, ".nq"), "Unexpected N-Quads Mementos!");
+            assertEquals(2L, countFiles(resourceDir, ".nqb"), "Incorrect number of binary Mementos!");
+            assertEquals(6L, countFiles(resourceDir, ".nqd"), "Incorrect number of Memento deltas!");
+            for (int i = 0; i < 8; i++) {
+                assertVersion(svc.get(identifier, time.plusSeconds(i)).toCompletableFuture().join(), i);
+            }
+            final Resource res = svc.get(identifier, time.plusSeconds(5)).toCompletableFuture().join();
+            assertEquals(LDP.RDFSource, res.getInteractionModel(), "Incorrect interaction model!");
+            assertEquals(of(rdf.createIRI(TRELLIS_DATA_PREFIX)), res.getContainer(), "Incorrect container!");
+            try (final Stream<IRI> binaries = svc.listBinaries()) {
+                assertTrue(binaries.anyMatch(binaryId::equals), "Missing binary reference!");
+            }
+
+            // Replacing a binary Memento keeps the deltas that were based on it in binary form
+            svc.put(mockResource(identifier, time, "Replaced", 1)).toCompletableFuture().join();
+            assertEquals(6L, countFiles(resourceDir, ".nqb"), "Incorrect number of binary Mementos!");
+            for (int i = 1; i < 8; i++) {
+                assertVersion(svc.get(identifier, time.plusSeconds(i)).toCompletableFuture().join(), i);
+            }
+
+            // A service writing N-Quads still reads binary Mementos, and vice versa
+            final FileMementoService svc2 = new FileMementoService(dir.getAbsolutePath(), 1, false, false);
+            assertVersion(svc2.get(identifier, time.plusSeconds(3)).toCompletableFuture().join(), 3);
+            svc2.put(mockResource(identifier, time.plusSeconds(8), "Version 8", 20)).toCompletableFuture().join();
+            assertEquals(1L, countFiles(resourceDir, ".nq"), "Incorrect number of N-Quads Mementos!");
+            final FileMementoService svc3 = new FileMementoService(dir.getAbsolutePath(), 1, true, false);
+            assertVersion(svc3.get(identifier, time.plusSeconds(8)).toCompletableFuture().join(), 8);
+        } finally {
+            deleteDirectory(dir);
+        }
+    }
+
+    private static void assertVersion(final Resource res, final int version) {
+        assertEquals(parse("2017-02-16T11:15:01Z").plusSeconds(version), res.getModified(), "Incorrect date!");
+        assertEquals(20L, res.stream(Trellis.PreferUserManaged).count(), "Incorrect number of triples!");
+        assertTrue(res.stream(Trellis.PreferUserManaged).anyMatch(triple -> DC.title.equals(triple.getPredicate())
+                    && rdf.createLiteral("Version " + version).equals(triple.getObject())), "Incorrect title!");
+    }
+
+    private static long countFiles(final File dir, final String extension) {
+        return Stream.of(dir.list()).filter(name -> name.endsWith(extension)).count();
+    }
+
+    private static Resource mockResource(final IRI identifier, final Instant time, final String title,
+            final int size) {
+        final Resource mockResource = mockResource(identifier, time);
+        when(mockResource.stream()).thenAnswer(inv -> Stream.concat(
+                    Stream.of(rdf.createQuad(Trellis.PreferUserManaged, identifier, DC.title,
+                            rdf.createLiteral(title))),
+                    range(1, size).mapToObj(i -> rdf.createQuad(Trellis.PreferUserManaged, identifier,
+                            DC.description, rdf.createLiteral("Description " + i)))));
+        return mockResource;
+    }
+
+    private static Resource mockResource(final IRI identifier, final Instant time) {
+        final IRI root = rdf.createIRI(TRELLIS_DATA_PREFIX);
+        final Resource mockResource = mock(Resource.class);
+        when(mockResource.getIdentifier()).thenReturn(identifier);
+        when(mockResource.getInteractionModel()).thenReturn(LDP.RDFSource);
+        when(mockResource.getModified()).thenReturn(time);
+        when(mockResource.getContainer()).thenReturn(of(root));
+        when(mockResource.stream()).thenAnswer(inv -> Stream.of(
+                    rdf.createQuad(Trellis.PreferUserManaged, identifier, DC.title, rdf.createLiteral("Title"))));
+        when(mockResource.getBinaryMetadata()).thenReturn(empty());
+        when(mockResource.getMemberOfRelation()).thenReturn(empty());
+        when(mockResource.getMemberRelation()).thenReturn(empty());
+        when(mockResource.getMembershipResource()).thenReturn(empty());
+        when(mockResource.getInsertedContentRelation()).thenReturn(empty());
+        return mockResource;
+    }
 }
@@ -15,12 +15,9 @@ package org.trellisldp.file;
 
 import static java.time.Instant.now;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.mock;
 import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
 
 import java.io.File;
-import java.io.IOException;
-import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.util.Optional;
 
@@ -116,14 +113,6 @@ public class FileUtilsTest {
         assertThrows(UncheckedIOException.class, () -> FileUtils.uncheckedList(dir.toPath()));
     }
 
-    @Test
-    public void testBadBoundedStream() throws IOException {
-        final InputStream badInput = mock(InputStream.class, inv -> {
-                throw new IOException("Expected exception");
-            });
-        assertThrows(IOException.class, () -> FileUtils.getBoundedStream(badInput, 4, 10));
-    }
-
     @Test
     public void testWriteMementoBadDirectory() {
         final IRI identifier = rdf.createIRI(TRELLIS_DATA_PREFIX + "resource");
@@ -236,9 +236,9 @@ public class JenaIOService implements IOService {
         requireNonNull(output, "The output stream may not be null!");
         requireNonNull(syntax, "The RDF syntax value may not be null!");
 
-        try {
+        try (final Stream<Triple> stream = triples) {
             if (RDFA.equals(syntax)) {
-                writeHTML(triples, output, profiles.length > 0 ? profiles[0].getIRIString() : null);
+                writeHTML(stream, output, profiles.length > 0 ? profiles[0].getIRIString() : null);
             } else {
                 final Lang lang = rdf.asJenaLang(syntax).orElseThrow(() ->
                         new RuntimeTrellisException("Invalid content type: " + syntax.mediaType()));
@@ -247,17 +247,17 @@ public class JenaIOService implements IOService {
 
                 if (nonNull(format)) {
                     LOGGER.debug("Writing stream-based RDF: {}", format);
-                    final StreamRDF stream = getWriterStream(output, format);
-                    stream.start();
-                    ofNullable(nsService).ifPresent(svc -> svc.getNamespaces().forEach(stream::prefix));
-                    triples.map(rdf::asJenaTriple).forEachOrdered(stream::triple);
-                    stream.finish();
+                    final StreamRDF writer = getWriterStream(output, format);
+                    writer.start();
+                    ofNullable(nsService).ifPresent(svc -> svc.getNamespaces().forEach(writer::prefix));
+                    stream.map(rdf::asJenaTriple).forEachOrdered(writer::triple);
+                    writer.finish();
                 } else {
                     LOGGER.debug("Writing buffered RDF: {}", lang);
                     final org.apache.jena.graph.Graph graph = createDefaultGraph();
                     ofNullable(nsService).map(NamespaceService::getNamespaces)
                         .ifPresent(graph.getPrefixMapping()::setNsPrefixes);
-                    triples.map(rdf::asJenaTriple).forEachOrdered(graph::add);
+                    stream.map(rdf::asJenaTriple).forEachOrdered(graph::add);
                     if (JSONLD.equals(lang)) {
                         writeJsonLd(output, DatasetGraphFactory.create(graph), profiles);
                     } else {
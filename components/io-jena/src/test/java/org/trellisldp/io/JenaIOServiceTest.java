@@ -52,6 +52,7 @@ import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -135,6 +136,13 @@ public class JenaIOServiceTest {
         assertAll("Check compact serialization", checkCompactSerialization(output, graph));
     }
 
+    @Test
+    public void testWriteClosesStream() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        service.write(getTriples().onClose(() -> closed.set(true)), new ByteArrayOutputStream(), TURTLE);
+        assertTrue(closed.get(), "Triple stream not closed!");
+    }
+
     @Test
     public void testJsonLdExpandedSerializer() throws UnsupportedEncodingException {
         final ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -151,9 +151,9 @@ public class HtmlSerializer implements RDFaWriterService {
     @Override
     public void write(final Stream<Triple> triples, final OutputStream out, final String subject) {
         final Writer writer = new OutputStreamWriter(out, UTF_8);
-        try {
+        try (final Stream<Triple> stream = triples) {
             template
-                .execute(writer, new HtmlData(namespaceService, subject, triples.collect(toList()), css, js, icon))
+                .execute(writer, new HtmlData(namespaceService, subject, stream.collect(toList()), css, js, icon))
                 .flush();
         } catch (final IOException ex) {
             throw new UncheckedIOException(ex);
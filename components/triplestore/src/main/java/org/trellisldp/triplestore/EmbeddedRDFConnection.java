@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.triplestore;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.jena.query.DatasetFactory.wrap;
+
+import org.apache.jena.rdfconnection.RDFConnectionLocal;
+import org.apache.jena.sparql.core.DatasetGraph;
+
+/**
+ * A connection to an embedded (in-memory or TDB2) dataset.
+ *
+ * <p>In addition to the SPARQL operations of an {@link RDFConnectionLocal}, this connection exposes
+ * the underlying {@link DatasetGraph}, so that simple patterns can be read directly, without compiling
+ * and evaluating a SPARQL query.
+ */
+class EmbeddedRDFConnection extends RDFConnectionLocal {
+
+    private final DatasetGraph datasetGraph;
+
+    /**
+     * Create a connection to an embedded dataset.
+     *
+     * @param datasetGraph the dataset
+     */
+    public EmbeddedRDFConnection(final DatasetGraph datasetGraph) {
+        super(wrap(requireNonNull(datasetGraph, "DatasetGraph may not be null!")));
+        this.datasetGraph = datasetGraph;
+    }
+
+    /**
+     * Get the underlying dataset.
+     *
+     * @return the dataset
+     */
+    public DatasetGraph getDatasetGraph() {
+        return datasetGraph;
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.triplestore;
+
+import static java.lang.System.nanoTime;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.jena.rdfconnection.RDFConnection;
+import org.apache.jena.update.UpdateRequest;
+import org.slf4j.Logger;
+import org.trellisldp.api.RuntimeTrellisException;
+
+/**
+ * A writer that coalesces concurrently submitted updates into a single write operation.
+ *
+ * <p>Updates are queued and applied by a single writer thread. Once an update is available, the writer
+ * waits up to the configured window for additional updates, up to the configured batch size, and then
+ * applies the entire batch as one {@link UpdateRequest}, in submission order. Each caller's
+ * {@link CompletionStage} is completed once its batch has been committed. If a batch fails, its
+ * updates are retried individually, so that one invalid update does not cause others to fail.
+ *
+ * <p>An update may also be built on the writer thread, immediately before it joins a batch, so that it
+ * can be computed against the current state of the datastore. Such an update is only built once every
+ * earlier update submitted with the same key has been committed.
+ *
+ * <p>Once the writer is closed, it rejects new updates, commits those already queued, and stops its thread.
+ */
+final class GroupCommitWriter implements AutoCloseable {
+
+    private static final Logger LOGGER = getLogger(GroupCommitWriter.class);
+    private static final long CLOSE_TIMEOUT = 30L;
+    private static final AtomicInteger CALLBACK_THREADS = new AtomicInteger();
+
+    // Marks the end of the queue once the writer is closed
+    private final PendingUpdate stop = new PendingUpdate(null, () -> null, false);
+    private final RDFConnection rdfConnection;
+    private final Executor callbackExecutor;
+    private final boolean ownsCallbackExecutor;
+    private final ExecutorService executor;
+    private final BlockingQueue<PendingUpdate> queue = new LinkedBlockingQueue<>();
+    private final int batchSize;
+    private final long window;
+    private volatile boolean closed;
+
+    /**
+     * Create a group commit writer.
+     *
+     * <p>Submitted updates are completed on threads that belong to the writer.
+     *
+     * @param rdfConnection the connection to an RDF datastore
+     * @param batchSize the maximum number of updates in a single batch
+     * @param window the time, in milliseconds, to wait for additional updates before committing a batch
+     */
+    public GroupCommitWriter(final RDFConnection rdfConnection, final int batchSize, final long window) {
+        this(rdfConnection, batchSize, window, newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable,
+                    "trellis-triplestore-callback-" + CALLBACK_THREADS.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }), true);
+    }
+
+    /**
+     * Create a group commit writer.
+     *
+     * @param rdfConnection the connection to an RDF datastore
+     * @param batchSize the maximum number of updates in a single batch
+     * @param window the time, in milliseconds, to wait for additional updates before committing a batch
+     * @param callbackExecutor the executor on which submitted updates are completed, which must never run a
+     *                         task on the calling thread, as a pool that runs rejected tasks on the caller does
+     */
+    public GroupCommitWriter(final RDFConnection rdfConnection, final int batchSize, final long window,
+            final Executor callbackExecutor) {
+        this(rdfConnection, batchSize, window, callbackExecutor, false);
+    }
+
+    private GroupCommitWriter(final RDFConnection rdfConnection, final int batchSize, final long window,
+            final Executor callbackExecutor, final boolean ownsCallbackExecutor) {
+        this.rdfConnection = requireNonNull(rdfConnection, "RDFConnection may not be null!");
+        this.callbackExecutor = requireNonNull(callbackExecutor, "Callback executor may not be null!");
+        this.ownsCallbackExecutor = ownsCallbackExecutor;
+        this.batchSize = Math.max(1, batchSize);
+        this.window = Math.max(0L, window);
+
+        this.executor = newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "trellis-triplestore-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::run);
+        executor.shutdown();
+    }
+
+    /**
+     * Submit an update.
+     *
+     * @param update the update
+     * @return the next stage of completion, which completes once the update has been committed
+     */
+    public CompletionStage<Void> submit(final UpdateRequest update) {
+        return submit(null, update);
+    }
+
+    /**
+     * Submit an update that affects the data identified by a key.
+     *
+     * @param key the key, may be null
+     * @param update the update
+     * @return the next stage of completion, which completes once the update has been committed
+     */
+    public CompletionStage<Void> submit(final Object key, final UpdateRequest update) {
+        requireNonNull(update, "UpdateRequest may not be null!");
+        return submit(key, () -> update, false);
+    }
+
+    /**
+     * Submit an update that is built against the current state of the datastore.
+     *
+     * @param key the key that identifies the data on which the update depends
+     * @param builder a builder for the update, which is called on the writer thread
+     * @return the next stage of completion, which completes once the update has been committed, or
+     *         exceptionally with any exception thrown by the builder
+     */
+    public CompletionStage<Void> submit(final Object key, final Supplier<UpdateRequest> builder) {
+        requireNonNull(key, "Key may not be null!");
+        return submit(key, builder, true);
+    }
+
+    /**
+     * Close the writer, once the updates already submitted have been committed.
+     *
+     * <p>Updates submitted after the writer is closed complete exceptionally.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            queue.add(stop);
+        }
+        try {
+            if (!executor.awaitTermination(CLOSE_TIMEOUT, SECONDS)) {
+                LOGGER.warn("Triplestore writer did not finish within {} seconds", CLOSE_TIMEOUT);
+            }
+        } catch (final InterruptedException ex) {
+            LOGGER.warn("Interrupted while closing the triplestore writer");
+            Thread.currentThread().interrupt();
+        }
+        // Completions that have already been handed off still run
+        if (ownsCallbackExecutor) {
+            ((ExecutorService) callbackExecutor).shutdown();
+        }
+    }
+
+    private CompletionStage<Void> submit(final Object key, final Supplier<UpdateRequest> builder,
+            final boolean deferred) {
+        final PendingUpdate pending = new PendingUpdate(key, builder, deferred);
+        if (closed) {
+            pending.future.completeExceptionally(new RuntimeTrellisException("Triplestore writer is closed"));
+        } else {
+            queue.add(pending);
+        }
+        return pending.future;
+    }
+
+    private void run() {
+        final List<PendingUpdate> batch = new ArrayList<>();
+        try {
+            boolean running = true;
+            while (running) {
+                final PendingUpdate next = queue.take();
+                if (next == stop) {
+                    break;
+                }
+                add(batch, next);
+                running = collect(batch);
+                commit(batch);
+                batch.clear();
+            }
+        } catch (final InterruptedException ex) {
+            LOGGER.warn("Triplestore writer interrupted with {} pending updates", batch.size() + queue.size());
+            Thread.currentThread().interrupt();
+        }
+        // Any update that raced with closing the writer is rejected
+        final List<PendingUpdate> remaining = new ArrayList<>(batch);
+        queue.drainTo(remaining);
+        remaining.stream().filter(pending -> pending != stop).forEach(pending ->
+                complete(pending, new RuntimeTrellisException("Triplestore writer is closed")));
+    }
+
+    private boolean collect(final List<PendingUpdate> batch) throws InterruptedException {
+        final long deadline = nanoTime() + MILLISECONDS.toNanos(window);
+        while (batch.size() < batchSize) {
+            final PendingUpdate next = window == 0L ? queue.poll() : queue.poll(deadline - nanoTime(), NANOSECONDS);
+            if (next == null) {
+                return true;
+            } else if (next == stop) {
+                return false;
+            }
+            add(batch, next);
+        }
+        return true;
+    }
+
+    private void add(final List<PendingUpdate> batch, final PendingUpdate pending) {
+        // A deferred update must observe the effects of any earlier update with the same key
+        if (pending.deferred && batch.stream().anyMatch(p -> pending.key.equals(p.key))) {
+            commit(batch);
+            batch.clear();
+        }
+        try {
+            pending.update = requireNonNull(pending.builder.get(), "UpdateRequest may not be null!");
+            batch.add(pending);
+        } catch (final Exception ex) {
+            LOGGER.debug("Could not build triplestore update: {}", ex.getMessage());
+            complete(pending, ex);
+        }
+    }
+
+    private void commit(final List<PendingUpdate> batch) {
+        if (batch.isEmpty()) {
+            return;
+        } else if (batch.size() == 1) {
+            apply(batch.get(0));
+            return;
+        }
+
+        LOGGER.debug("Committing {} triplestore updates as a single batch", batch.size());
+        final UpdateRequest request = new UpdateRequest();
+        batch.forEach(pending -> pending.update.getOperations().forEach(request::add));
+        try {
+            rdfConnection.update(request);
+            batch.forEach(pending -> complete(pending, null));
+        } catch (final Exception ex) {
+            LOGGER.warn("Batched triplestore update failed, retrying individually: {}", ex.getMessage());
+            batch.forEach(this::apply);
+        }
+    }
+
+    private void apply(final PendingUpdate pending) {
+        try {
+            rdfConnection.update(pending.update);
+            complete(pending, null);
+        } catch (final Exception ex) {
+            complete(pending, new RuntimeTrellisException("Could not apply update", ex));
+        }
+    }
+
+    private void complete(final PendingUpdate pending, final Throwable error) {
+        // Dependent stages must not run on (and potentially block) the writer thread
+        runAsync(() -> {
+            if (error == null) {
+                pending.future.complete(null);
+            } else {
+                pending.future.completeExceptionally(error);
+            }
+        }, callbackExecutor);
+    }
+
+    private static final class PendingUpdate {
+        private final Object key;
+        private final Supplier<UpdateRequest> builder;
+        private final boolean deferred;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private UpdateRequest update;
+
+        private PendingUpdate(final Object key, final Supplier<UpdateRequest> builder, final boolean deferred) {
+            this.key = key;
+            this.builder = requireNonNull(builder, "Update builder may not be null!");
+            this.deferred = deferred;
+        }
+    }
+}
@@ -0,0 +1,504 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.triplestore;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Optional.of;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.apache.jena.graph.Triple.create;
+import static org.apache.jena.sparql.expr.NodeValue.makeNode;
+import static org.apache.jena.sparql.expr.NodeValue.makeString;
+import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
+import static org.trellisldp.triplestore.TriplestoreUtils.OBJECT;
+import static org.trellisldp.triplestore.TriplestoreUtils.PREDICATE;
+import static org.trellisldp.triplestore.TriplestoreUtils.SUBJECT;
+import static org.trellisldp.triplestore.TriplestoreUtils.getBaseIRI;
+import static org.trellisldp.triplestore.TriplestoreUtils.getInstance;
+import static org.trellisldp.vocabulary.Trellis.DeletedResource;
+import static org.trellisldp.vocabulary.Trellis.PreferServerManaged;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.apache.commons.rdf.api.Dataset;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.jena.JenaRDF;
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.Query;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.expr.E_IRI;
+import org.apache.jena.sparql.expr.E_NotEquals;
+import org.apache.jena.sparql.expr.E_NotExists;
+import org.apache.jena.sparql.expr.E_Str;
+import org.apache.jena.sparql.expr.E_StrConcat;
+import org.apache.jena.sparql.expr.ExprList;
+import org.apache.jena.sparql.expr.ExprVar;
+import org.apache.jena.sparql.modify.request.QuadAcc;
+import org.apache.jena.sparql.modify.request.QuadDataAcc;
+import org.apache.jena.sparql.modify.request.UpdateDataInsert;
+import org.apache.jena.sparql.modify.request.UpdateDeleteInsert;
+import org.apache.jena.sparql.modify.request.UpdateDeleteWhere;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementBind;
+import org.apache.jena.sparql.syntax.ElementFilter;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.ElementNamedGraph;
+import org.apache.jena.sparql.syntax.ElementPathBlock;
+import org.apache.jena.sparql.syntax.ElementUnion;
+import org.apache.jena.update.Update;
+import org.apache.jena.update.UpdateRequest;
+import org.trellisldp.vocabulary.DC;
+import org.trellisldp.vocabulary.LDP;
+import org.trellisldp.vocabulary.RDF;
+
+/**
+ * Maintenance operations for the materialized membership index.
+ *
+ * <p>The membership triples of a resource are stored in a named graph, {@code IDENTIFIER?ext=membership},
+ * so that reading them does not require a join across the server-managed graph and the graph of each
+ * child resource. The index is kept current by the updates below, which are added to the same
+ * {@link UpdateRequest} that persists a resource.
+ *
+ * <p>Once the index has been built for an existing dataset, its version is recorded in the server-managed
+ * graph as {@code <trellis:data/?ext=membership> dc:hasVersion "1"}, so that it is only built once.
+ */
+final class MembershipIndex {
+
+    private static final JenaRDF rdf = getInstance();
+    private static final String EXT = "?ext=membership";
+    private static final String VERSION = "1";
+
+    private static final Var INDEX = Var.alloc("index");
+    private static final Var MEMBER = Var.alloc("member");
+    private static final Var CONTAINER = Var.alloc("container");
+    private static final Var CHILD = Var.alloc("child");
+    private static final Var SIBLING = Var.alloc("sibling");
+    private static final Var RELATION = Var.alloc("relation");
+
+    /**
+     * Remove the membership triples that a resource contributes as the child of a container.
+     *
+     * <p>This code is equivalent to the SPARQL update below. Triples that are also contributed by
+     * a sibling resource are retained.
+     *
+     * <p><pre><code>
+     * DELETE { GRAPH ?index { ?subject ?predicate ?object } }
+     * WHERE {
+     *   { DIRECT_PATTERN(?member, ?container, IDENTIFIER) }
+     *   UNION
+     *   { INDIRECT_PATTERN(?member, ?container, IDENTIFIER)
+     *     FILTER NOT EXISTS {
+     *       GRAPH trellis:PreferServerManaged { ?sibling dc:isPartOf ?container }
+     *       GRAPH ?sibling { ?sibling ?relation ?object }
+     *       FILTER(?sibling != IDENTIFIER) } }
+     *   BIND(IRI(CONCAT(STR(?member), "?ext=membership")) AS ?index)
+     * }
+     * </code></pre>
+     *
+     * @param identifier the resource identifier
+     * @return the update
+     */
+    public static Update removeChild(final IRI identifier) {
+        final Node child = rdf.asJenaNode(identifier);
+
+        final ElementPathBlock siblings = new ElementPathBlock();
+        siblings.addTriple(create(SIBLING, rdf.asJenaNode(DC.isPartOf), CONTAINER));
+        final ElementPathBlock content = new ElementPathBlock();
+        content.addTriple(create(SIBLING, RELATION, OBJECT));
+
+        final ElementGroup sibling = new ElementGroup();
+        sibling.addElement(new ElementNamedGraph(rdf.asJenaNode(PreferServerManaged), siblings));
+        sibling.addElement(new ElementNamedGraph(SIBLING, content));
+        sibling.addElementFilter(new ElementFilter(new E_NotEquals(new ExprVar(SIBLING), makeNode(child))));
+
+        final ElementGroup indirect = indirectPattern(MEMBER, CONTAINER, child);
+        indirect.addElementFilter(new ElementFilter(new E_NotExists(sibling)));
+
+        final UpdateDeleteInsert update = new UpdateDeleteInsert();
+        update.getDeleteAcc().addQuad(new Quad(INDEX, SUBJECT, PREDICATE, OBJECT));
+        update.setElement(withIndex(union(directPattern(MEMBER, CONTAINER, child), indirect)));
+        return update;
+    }
+
+    /**
+     * Add the membership triples that a resource contributes as the child of a container.
+     *
+     * <p>This code is equivalent to the SPARQL update below.
+     *
+     * <p><pre><code>
+     * INSERT { GRAPH ?index { ?subject ?predicate ?object } }
+     * WHERE {
+     *   { DIRECT_PATTERN(?member, ?container, IDENTIFIER) }
+     *   UNION
+     *   { INDIRECT_PATTERN(?member, ?container, IDENTIFIER) }
+     *   BIND(IRI(CONCAT(STR(?member), "?ext=membership")) AS ?index)
+     * }
+     * </code></pre>
+     *
+     * @param identifier the resource identifier
+     * @return the update
+     */
+    public static Update addChild(final IRI identifier) {
+        final Node child = rdf.asJenaNode(identifier);
+        final UpdateDeleteInsert update = new UpdateDeleteInsert();
+        update.getInsertAcc().addQuad(new Quad(INDEX, SUBJECT, PREDICATE, OBJECT));
+        update.setElement(withIndex(union(directPattern(MEMBER, CONTAINER, child),
+                        indirectPattern(MEMBER, CONTAINER, child))));
+        return update;
+    }
+
+    /**
+     * Remove the membership triples that the children of a container contribute, unless the container's
+     * membership configuration is unchanged by the new server-managed data.
+     *
+     * <p>This code is equivalent to the SPARQL update below. When the container is no longer a
+     * Direct or Indirect container, the filter is omitted.
+     *
+     * <p><pre><code>
+     * DELETE { GRAPH ?index { ?subject ?predicate ?object } }
+     * WHERE {
+     *   { DIRECT_PATTERN(?member, IDENTIFIER, ?object) }
+     *   UNION
+     *   { INDIRECT_PATTERN(?member, IDENTIFIER, ?child) }
+     *   BIND(IRI(CONCAT(STR(?member), "?ext=membership")) AS ?index)
+     *   FILTER NOT EXISTS { UNCHANGED_CONFIGURATION }
+     * }
+     * </code></pre>
+     *
+     * @param identifier the container identifier
+     * @param dataset the new server-managed data
+     * @return the update
+     */
+    public static Update removeContainer(final IRI identifier, final Dataset dataset) {
+        final Node container = rdf.asJenaNode(identifier);
+        final ElementGroup elg = withIndex(union(directPattern(MEMBER, container, OBJECT),
+                    indirectPattern(MEMBER, container, CHILD)));
+        configuration(identifier, dataset).ifPresent(config ->
+                elg.addElementFilter(new ElementFilter(new E_NotExists(config))));
+
+        final UpdateDeleteInsert update = new UpdateDeleteInsert();
+        update.getDeleteAcc().addQuad(new Quad(INDEX, SUBJECT, PREDICATE, OBJECT));
+        update.setElement(elg);
+        return update;
+    }
+
+    /**
+     * Add the membership triples that the children of a container contribute, if the container's
+     * membership configuration is changed by the new server-managed data.
+     *
+     * <p>This must be evaluated before the previous server-managed data is removed. It is equivalent to
+     * the SPARQL update below.
+     *
+     * <p><pre><code>
+     * INSERT { GRAPH MEMBER?ext=membership { MEMBERSHIP_RESOURCE MEMBER_RELATION ?object } }
+     * WHERE {
+     *   { GRAPH trellis:PreferServerManaged { ?object dc:isPartOf IDENTIFIER } }
+     *   UNION
+     *   { GRAPH trellis:PreferServerManaged { ?child dc:isPartOf IDENTIFIER }
+     *     GRAPH ?child { ?child INSERTED_CONTENT_RELATION ?object } }
+     *   FILTER NOT EXISTS { UNCHANGED_CONFIGURATION }
+     * }
+     * </code></pre>
+     *
+     * @param identifier the container identifier
+     * @param dataset the new server-managed data
+     * @return the update, if the new data describes a Direct or Indirect container
+     */
+    public static Optional<Update> addContainer(final IRI identifier, final Dataset dataset) {
+        return configuration(identifier, dataset).map(config -> {
+            final Node container = rdf.asJenaNode(identifier);
+            final IRI membershipResource = getValue(identifier, LDP.membershipResource, dataset).get();
+            final IRI relation = getValue(identifier, LDP.insertedContentRelation, dataset).get();
+            final ElementUnion union = new ElementUnion();
+
+            if (LDP.MemberSubject.equals(relation)) {
+                final ElementPathBlock epb = new ElementPathBlock();
+                epb.addTriple(create(OBJECT, rdf.asJenaNode(DC.isPartOf), container));
+                union.addElement(new ElementNamedGraph(rdf.asJenaNode(PreferServerManaged), epb));
+            }
+            if (getValue(identifier, RDF.type, dataset).filter(LDP.IndirectContainer::equals).isPresent()) {
+                final ElementPathBlock epb1 = new ElementPathBlock();
+                epb1.addTriple(create(CHILD, rdf.asJenaNode(DC.isPartOf), container));
+                final ElementPathBlock epb2 = new ElementPathBlock();
+                epb2.addTriple(create(CHILD, rdf.asJenaNode(relation), OBJECT));
+
+                final ElementGroup elg = new ElementGroup();
+                elg.addElement(new ElementNamedGraph(rdf.asJenaNode(PreferServerManaged), epb1));
+                elg.addElement(new ElementNamedGraph(CHILD, epb2));
+                union.addElement(elg);
+            }
+
+            final ElementGroup elg = new ElementGroup();
+            elg.addElement(union);
+            elg.addElementFilter(new ElementFilter(new E_NotExists(config)));
+
+            final UpdateDeleteInsert update = new UpdateDeleteInsert();
+            update.getInsertAcc().addQuad(new Quad(getIndexIRI(getBaseIRI(membershipResource)),
+                        rdf.asJenaNode(membershipResource),
+                        rdf.asJenaNode(getValue(identifier, LDP.hasMemberRelation, dataset).get()), OBJECT));
+            update.setElement(elg);
+            return update;
+        });
+    }
+
+    /**
+     * Remove the membership index of a deleted resource.
+     *
+     * <p>This code is equivalent to the SPARQL update below.
+     *
+     * <p><pre><code>
+     * DELETE WHERE { GRAPH IDENTIFIER?ext=membership { ?s ?p ?o } }
+     * </code></pre>
+     *
+     * @param identifier the resource identifier
+     * @return the update
+     */
+    public static Update removeMember(final IRI identifier) {
+        return new UpdateDeleteWhere(new QuadAcc(singletonList(new Quad(getIndexIRI(identifier), SUBJECT,
+                            PREDICATE, OBJECT))));
+    }
+
+    /**
+     * Rebuild the membership index of a resource that is being recreated after it was deleted.
+     *
+     * <p>This must be evaluated before the previous server-managed data is removed. It is equivalent to
+     * the SPARQL update below.
+     *
+     * <p><pre><code>
+     * INSERT { GRAPH IDENTIFIER?ext=membership { ?subject ?predicate ?object } }
+     * WHERE {
+     *   GRAPH trellis:PreferServerManaged { IDENTIFIER dc:type trellis:DeletedResource }
+     *   { DIRECT_PATTERN(IDENTIFIER, ?container, ?object) }
+     *   UNION
+     *   { INDIRECT_PATTERN(IDENTIFIER, ?container, ?child) }
+     * }
+     * </code></pre>
+     *
+     * @param identifier the resource identifier
+     * @return the update
+     */
+    public static Update restoreMember(final IRI identifier) {
+        final Node member = rdf.asJenaNode(identifier);
+        final ElementPathBlock epb = new ElementPathBlock();
+        epb.addTriple(create(member, rdf.asJenaNode(DC.type), rdf.asJenaNode(DeletedResource)));
+
+        final ElementGroup elg = new ElementGroup();
+        elg.addElement(new ElementNamedGraph(rdf.asJenaNode(PreferServerManaged), epb));
+        elg.addElement(union(directPattern(member, CONTAINER, OBJECT), indirectPattern(member, CONTAINER, CHILD)));
+
+        final UpdateDeleteInsert update = new UpdateDeleteInsert();
+        update.getInsertAcc().addQuad(new Quad(getIndexIRI(identifier), SUBJECT, PREDICATE, OBJECT));
+        update.setElement(elg);
+        return update;
+    }
+
+    /**
+     * Check whether the current version of the membership index has been built.
+     *
+     * <p>This code is equivalent to the SPARQL query below.
+     *
+     * <p><pre><code>
+     * ASK { GRAPH trellis:PreferServerManaged { trellis:data/?ext=membership dc:hasVersion "1" } }
+     * </code></pre>
+     *
+     * @return the query
+     */
+    public static Query isBuilt() {
+        final ElementPathBlock epb = new ElementPathBlock();
+        epb.addTriple(create(getVersionIRI(), rdf.asJenaNode(DC.hasVersion),
+                    rdf.asJenaNode(rdf.createLiteral(VERSION))));
+
+        final ElementGroup elg = new ElementGroup();
+        elg.addElement(new ElementNamedGraph(rdf.asJenaNode(PreferServerManaged), epb));
+
+        final Query q = new Query();
+        q.setQueryAskType();
+        q.setQueryPattern(elg);
+        return q;
+    }
+
+    /**
+     * Build the membership index for any resource that does not yet have one.
+     *
+     * <p>This code is equivalent to the SPARQL update below.
+     *
+     * <p><pre><code>
+     * INSERT { GRAPH ?index { ?subject ?predicate ?object } }
+     * WHERE {
+     *   { DIRECT_PATTERN(?member, ?container, ?object) }
+     *   UNION
+     *   { INDIRECT_PATTERN(?member, ?container, ?child) }
+     *   BIND(IRI(CONCAT(STR(?member), "?ext=membership")) AS ?index)
+     *   FILTER NOT EXISTS { GRAPH ?index { ?s ?p ?o } }
+     * };
+     * DELETE WHERE { GRAPH trellis:PreferServerManaged { trellis:data/?ext=membership dc:hasVersion ?version } };
+     * INSERT DATA { GRAPH trellis:PreferServerManaged { trellis:data/?ext=membership dc:hasVersion "1" } }
+     * </code></pre>
+     *
+     * @return the update request
+     */
+    public static UpdateRequest build() {
+        final ElementPathBlock epb = new ElementPathBlock();
+        epb.addTriple(create(Var.alloc("s"), Var.alloc("p"), Var.alloc("o")));
+
+        final ElementGroup elg = withIndex(union(directPattern(MEMBER, CONTAINER, OBJECT),
+                    indirectPattern(MEMBER, CONTAINER, CHILD)));
+        elg.addElementFilter(new ElementFilter(new E_NotExists(new ElementNamedGraph(INDEX, epb))));
+
+        final UpdateDeleteInsert update = new UpdateDeleteInsert();
+        update.getInsertAcc().addQuad(new Quad(INDEX, SUBJECT, PREDICATE, OBJECT));
+        update.setElement(elg);
+
+        final Node graph = rdf.asJenaNode(PreferServerManaged);
+        final QuadDataAcc version = new QuadDataAcc();
+        version.addQuad(new Quad(graph, getVersionIRI(), rdf.asJenaNode(DC.hasVersion),
+                    rdf.asJenaNode(rdf.createLiteral(VERSION))));
+
+        final UpdateRequest req = new UpdateRequest(update);
+        req.add(new UpdateDeleteWhere(new QuadAcc(singletonList(new Quad(graph, getVersionIRI(),
+                                rdf.asJenaNode(DC.hasVersion), Var.alloc("version"))))));
+        req.add(new UpdateDataInsert(version));
+        return req;
+    }
+
+    /**
+     * This code is equivalent to the SPARQL pattern below.
+     *
+     * <p><pre><code>
+     * GRAPH trellis:PreferServerManaged {
+     *    CONTAINER ldp:member MEMBER
+     *    AND CONTAINER ldp:membershipResource ?subject
+     *    AND CONTAINER ldp:hasMemberRelation ?predicate
+     *    AND CONTAINER ldp:insertedContentRelation ldp:MemberSubject
+     *    AND CHILD dc:isPartOf CONTAINER
+     * }
+     * BIND(CHILD AS ?object)
+     * </code></pre>
+     */
+    private static ElementGroup directPattern(final Node member, final Node container, final Node child) {
+        final ElementPathBlock epb = new ElementPathBlock();
+        epb.addTriple(create(container, rdf.asJenaNode(LDP.member), member));
+        epb.addTriple(create(container, rdf.asJenaNode(LDP.membershipResource), SUBJECT));
+        epb.addTriple(create(container, rdf.asJenaNode(LDP.hasMemberRelation), PREDICATE));
+        epb.addTriple(create(container, rdf.asJenaNode(LDP.insertedContentRelation),
+                    rdf.asJenaNode(LDP.MemberSubject)));
+        epb.addTriple(create(child, rdf.asJenaNode(DC.isPartOf), container));
+
+        final ElementGroup elg = new ElementGroup();
+        elg.addElement(new ElementNamedGraph(rdf.asJenaNode(PreferServerManaged), epb));
+        if (!OBJECT.equals(child)) {
+            elg.addElement(new ElementBind(OBJECT, makeNode(child)));
+        }
+        return elg;
+    }
+
+    /**
+     * This code is equivalent to the SPARQL pattern below.
+     *
+     * <p><pre><code>
+     * GRAPH trellis:PreferServerManaged {
+     *    CONTAINER ldp:member MEMBER
+     *    AND CONTAINER ldp:membershipResource ?subject
+     *    AND CONTAINER rdf:type ldp:IndirectContainer
+     *    AND CONTAINER ldp:hasMemberRelation ?predicate
+     *    AND CONTAINER ldp:insertedContentRelation ?relation
+     *    AND CHILD dc:isPartOf CONTAINER .
+     * }
+     * GRAPH CHILD { CHILD ?relation ?object }
+     * </code></pre>
+     */
+    private static ElementGroup indirectPattern(final Node member, final Node container, final Node child) {
+        final ElementPathBlock epb1 = new ElementPathBlock();
+        epb1.addTriple(create(container, rdf.asJenaNode(LDP.member), member));
+        epb1.addTriple(create(container, rdf.asJenaNode(LDP.membershipResource), SUBJECT));
+        epb1.addTriple(create(container, rdf.asJenaNode(RDF.type), rdf.asJenaNode(LDP.IndirectContainer)));
+        epb1.addTriple(create(container, rdf.asJenaNode(LDP.hasMemberRelation), PREDICATE));
+        epb1.addTriple(create(container, rdf.asJenaNode(LDP.insertedContentRelation), RELATION));
+        epb1.addTriple(create(child, rdf.asJenaNode(DC.isPartOf), container));
+
+        final ElementPathBlock epb2 = new ElementPathBlock();
+        epb2.addTriple(create(child, RELATION, OBJECT));
+
+        final ElementGroup elg = new ElementGroup();
+        elg.addElement(new ElementNamedGraph(rdf.asJenaNode(PreferServerManaged), epb1));
+        elg.addElement(new ElementNamedGraph(child, epb2));
+        return elg;
+    }
+
+    /**
+     * Build a pattern that matches the existing membership configuration of a container, if the new
+     * server-managed data describes a Direct or Indirect container. This code is equivalent to the
+     * SPARQL pattern below.
+     *
+     * <p><pre><code>
+     * GRAPH trellis:PreferServerManaged {
+     *    IDENTIFIER rdf:type TYPE
+     *    AND IDENTIFIER ldp:membershipResource MEMBERSHIP_RESOURCE
+     *    AND IDENTIFIER ldp:hasMemberRelation MEMBER_RELATION
+     *    AND IDENTIFIER ldp:insertedContentRelation INSERTED_CONTENT_RELATION
+     * }
+     * </code></pre>
+     */
+    private static Optional<Element> configuration(final IRI identifier, final Dataset dataset) {
+        final Optional<IRI> type = getValue(identifier, RDF.type, dataset)
+            .filter(t -> LDP.DirectContainer.equals(t) || LDP.IndirectContainer.equals(t));
+        final List<IRI> predicates = asList(LDP.membershipResource, LDP.hasMemberRelation,
+                LDP.insertedContentRelation);
+        if (!type.isPresent() || !predicates.stream().allMatch(p -> getValue(identifier, p, dataset).isPresent())) {
+            return Optional.empty();
+        }
+
+        final Node container = rdf.asJenaNode(identifier);
+        final ElementPathBlock epb = new ElementPathBlock();
+        epb.addTriple(create(container, rdf.asJenaNode(RDF.type), rdf.asJenaNode(type.get())));
+        predicates.forEach(p -> epb.addTriple(create(container, rdf.asJenaNode(p),
+                        rdf.asJenaNode(getValue(identifier, p, dataset).get()))));
+        return of(new ElementNamedGraph(rdf.asJenaNode(PreferServerManaged), epb));
+    }
+
+    private static Optional<IRI> getValue(final IRI identifier, final IRI predicate, final Dataset dataset) {
+        return dataset.stream(of(PreferServerManaged), identifier, predicate, null)
+            .map(org.apache.commons.rdf.api.Quad::getObject).filter(IRI.class::isInstance).map(IRI.class::cast)
+            .findFirst();
+    }
+
+    private static ElementUnion union(final Element... elements) {
+        final ElementUnion union = new ElementUnion();
+        asList(elements).forEach(union::addElement);
+        return union;
+    }
+
+    private static ElementGroup withIndex(final Element pattern) {
+        final ElementGroup elg = new ElementGroup();
+        elg.addElement(pattern);
+        elg.addElement(new ElementBind(INDEX, new E_IRI(new E_StrConcat(new ExprList(asList(
+                                new E_Str(new ExprVar(MEMBER)), makeString(EXT)))))));
+        return elg;
+    }
+
+    private static Node getIndexIRI(final RDFTerm member) {
+        return createURI(((IRI) member).getIRIString() + EXT);
+    }
+
+    private static Node getVersionIRI() {
+        return createURI(TRELLIS_DATA_PREFIX + EXT);
+    }
+
+    private MembershipIndex() {
+        // prevent instantiation
+    }
+}
@@ -17,50 +17,80 @@ import static java.util.Objects.nonNull;
 import static java.util.Optional.ofNullable;
 import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static java.util.function.Predicate.isEqual;
-import static java.util.stream.Stream.builder;
-import static java.util.stream.Stream.concat;
+import static java.util.stream.Collectors.toList;
+import static org.apache.jena.graph.Node.ANY;
 import static org.apache.jena.graph.NodeFactory.createURI;
 import static org.apache.jena.graph.Triple.create;
+import static org.apache.jena.sparql.expr.NodeValue.makeNode;
+import static org.apache.jena.sparql.expr.NodeValue.makeString;
+import static org.apache.jena.system.Txn.executeRead;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.trellisldp.api.ExecutorPool.RESOURCE_READ;
 import static org.trellisldp.api.Resource.SpecialResources.DELETED_RESOURCE;
 import static org.trellisldp.api.Resource.SpecialResources.MISSING_RESOURCE;
+import static org.trellisldp.api.TrellisUtils.parseDigestIRI;
+import static org.trellisldp.triplestore.TriplestoreUtils.GRAPH;
 import static org.trellisldp.triplestore.TriplestoreUtils.OBJECT;
 import static org.trellisldp.triplestore.TriplestoreUtils.PREDICATE;
 import static org.trellisldp.triplestore.TriplestoreUtils.SUBJECT;
+import static org.trellisldp.triplestore.TriplestoreUtils.find;
+import static org.trellisldp.triplestore.TriplestoreUtils.getGraph;
 import static org.trellisldp.triplestore.TriplestoreUtils.getInstance;
 import static org.trellisldp.triplestore.TriplestoreUtils.getObject;
 import static org.trellisldp.triplestore.TriplestoreUtils.getPredicate;
 import static org.trellisldp.triplestore.TriplestoreUtils.getSubject;
 import static org.trellisldp.triplestore.TriplestoreUtils.nodesToTriple;
+import static org.trellisldp.triplestore.TriplestoreUtils.select;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.Literal;
 import org.apache.commons.rdf.api.Quad;
 import org.apache.commons.rdf.api.RDFTerm;
 import org.apache.commons.rdf.api.Triple;
 import org.apache.commons.rdf.jena.JenaRDF;
+import org.apache.jena.atlas.iterator.Iter;
+import org.apache.jena.graph.Node;
 import org.apache.jena.query.Query;
 import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdfconnection.RDFConnection;
+import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.expr.E_GreaterThan;
+import org.apache.jena.sparql.expr.E_LessThan;
+import org.apache.jena.sparql.expr.E_Str;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprVar;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.ElementBind;
+import org.apache.jena.sparql.syntax.ElementFilter;
 import org.apache.jena.sparql.syntax.ElementGroup;
 import org.apache.jena.sparql.syntax.ElementNamedGraph;
 import org.apache.jena.sparql.syntax.ElementOptional;
 import org.apache.jena.sparql.syntax.ElementPathBlock;
+import org.apache.jena.sparql.syntax.ElementSubQuery;
+import org.apache.jena.sparql.syntax.ElementUnion;
 import org.slf4j.Logger;
 import org.trellisldp.api.BinaryMetadata;
+import org.trellisldp.api.ExecutorPool;
 import org.trellisldp.api.Resource;
 import org.trellisldp.vocabulary.DC;
 import org.trellisldp.vocabulary.LDP;
+import org.trellisldp.vocabulary.PREMIS;
 import org.trellisldp.vocabulary.RDF;
 import org.trellisldp.vocabulary.Trellis;
 
@@ -75,7 +105,12 @@ public class TriplestoreResource implements Resource {
     private final IRI identifier;
     private final RDFConnection rdfConnection;
     private final Map<IRI, RDFTerm> data = new HashMap<>();
-    private final Map<IRI, Supplier<Stream<Quad>>> graphMapper = new HashMap<>();
+    private final Map<String, String> digests = new HashMap<>();
+    private final Map<IRI, Supplier<Stream<Element>>> graphMapper = new HashMap<>();
+    private final Map<IRI, Supplier<Iterator<Quad>>> graphFinder = new HashMap<>();
+    private final DatasetGraph datasetGraph;
+
+    private boolean hasAcl = false;
 
     /**
      * Create a Triplestore-based Resource.
@@ -85,11 +120,19 @@ public class TriplestoreResource implements Resource {
     public TriplestoreResource(final RDFConnection rdfConnection, final IRI identifier) {
         this.identifier = identifier;
         this.rdfConnection = rdfConnection;
-        graphMapper.put(Trellis.PreferUserManaged, this::fetchUserQuads);
-        graphMapper.put(Trellis.PreferAudit, this::fetchAuditQuads);
-        graphMapper.put(Trellis.PreferAccessControl, this::fetchAclQuads);
-        graphMapper.put(LDP.PreferContainment, this::fetchContainmentQuads);
-        graphMapper.put(LDP.PreferMembership, this::fetchMembershipQuads);
+        graphMapper.put(Trellis.PreferUserManaged, this::userPatterns);
+        graphMapper.put(Trellis.PreferAudit, this::auditPatterns);
+        graphMapper.put(Trellis.PreferAccessControl, this::aclPatterns);
+        graphMapper.put(LDP.PreferContainment, this::containmentPatterns);
+        graphMapper.put(LDP.PreferMembership, this::membershipPatterns);
+        graphFinder.put(Trellis.PreferUserManaged, this::findUserQuads);
+        graphFinder.put(Trellis.PreferAudit, this::findAuditQuads);
+        graphFinder.put(Trellis.PreferAccessControl, this::findAclQuads);
+        graphFinder.put(LDP.PreferContainment, this::findContainmentQuads);
+        graphFinder.put(LDP.PreferMembership, this::findMembershipQuads);
+        // Embedded datasets are read directly, rather than via SPARQL
+        this.datasetGraph = rdfConnection instanceof EmbeddedRDFConnection
+            ? ((EmbeddedRDFConnection) rdfConnection).getDatasetGraph() : null;
     }
 
     /**
@@ -97,12 +140,27 @@ public class TriplestoreResource implements Resource {
      *
      * @implSpec This method will load a {@link Resource}, initializing the object with all resource metadata
      *           used with {@link #getModified}, {@link #getInteractionModel} and other data fetched by the accessors.
-     *           The resource content is fetched on demand via the {@link #stream} method.
+     *           The resource content is fetched on demand via the {@link #stream} method, such that all of the
+     *           requested graphs are retrieved with a single query. The query runs on the shared
+     *           {@link ExecutorPool#RESOURCE_READ} pool, which is looked up without fixing its size.
      * @param rdfConnection the triplestore connector
      * @param identifier the identifier
      * @return a new completion stage with a {@link Resource}, if one exists
      */
     public static CompletableFuture<Resource> findResource(final RDFConnection rdfConnection, final IRI identifier) {
+        return findResource(rdfConnection, identifier, ExecutorPool.getInstance(RESOURCE_READ));
+    }
+
+    /**
+     * Try to load a Trellis resource, using the provided executor.
+     *
+     * @param rdfConnection the triplestore connector
+     * @param identifier the identifier
+     * @param executor the executor used to run the query
+     * @return a new completion stage with a {@link Resource}, if one exists
+     */
+    public static CompletableFuture<Resource> findResource(final RDFConnection rdfConnection, final IRI identifier,
+            final Executor executor) {
         return supplyAsync(() -> {
             final TriplestoreResource res = new TriplestoreResource(rdfConnection, identifier);
             res.fetchData();
@@ -112,7 +170,7 @@ public class TriplestoreResource implements Resource {
                 return DELETED_RESOURCE;
             }
             return res;
-        });
+        }, executor);
     }
 
     /**
@@ -129,26 +187,63 @@ public class TriplestoreResource implements Resource {
 
     /**
      * Fetch data for this resource.
+     */
+    protected void fetchData() {
+        LOGGER.debug("Fetching data from RDF datastore for: {}", identifier);
+        if (nonNull(datasetGraph)) {
+            executeRead(datasetGraph, this::findData);
+        } else {
+            queryData();
+        }
+    }
+
+    /**
+     * Read the server-managed metadata and the presence of an ACL directly from an embedded dataset.
+     */
+    private void findData() {
+        final Node graph = rdf.asJenaNode(Trellis.PreferServerManaged);
+        final Node subject = rdf.asJenaNode(identifier);
+        findIn(graph, subject, ANY, ANY).forEachRemaining(q ->
+                data.put((IRI) rdf.asRDFTerm(q.getPredicate()), rdf.asRDFTerm(q.getObject())));
+        if (containedIn(graph, subject, rdf.asJenaNode(RDF.type), rdf.asJenaNode(LDP.NonRDFSource))) {
+            findIn(graph, subject, rdf.asJenaNode(DC.hasPart), ANY).forEachRemaining(part ->
+                    findIn(graph, part.getObject(), ANY, ANY).forEachRemaining(q ->
+                        addBinaryData((IRI) rdf.asRDFTerm(q.getPredicate()), rdf.asRDFTerm(q.getObject()))));
+        }
+        hasAcl = containedIn(createURI(identifier.getIRIString() + "?ext=acl"), ANY, ANY, ANY);
+    }
+
+    /**
+     * Query the data for this resource.
      *
-     * <p>This is equivalent to the following SPARQL query:
+     * <p>The server-managed metadata and the presence of an ACL are retrieved with a single query.
+     * This is equivalent to the following SPARQL query:
      * <pre><code>
-     * SELECT ?predicate ?object ?binarySubject ?binaryPredicate ?binaryObject
+     * SELECT ?predicate ?object ?binarySubject ?binaryPredicate ?binaryObject ?aclSubject
      * WHERE {
-     *   GRAPH trellis:PreferServerManaged {
-     *     IDENTIFIER ?predicate ?object
-     *     OPTIONAL {
-     *       IDENTIFIER dc:hasPart ?binarySubject .
-     *       ?binarySubject ?binaryPredicate ?binaryObject
+     *   {
+     *     GRAPH trellis:PreferServerManaged {
+     *       IDENTIFIER ?predicate ?object
+     *       OPTIONAL {
+     *         IDENTIFIER dc:hasPart ?binarySubject .
+     *         ?binarySubject ?binaryPredicate ?binaryObject
+     *       }
      *     }
      *   }
+     *   UNION
+     *   {
+     *     SELECT ?aclSubject
+     *     WHERE { GRAPH IDENTIFIER?ext=acl { ?aclSubject ?aclPredicate ?aclObject } }
+     *     LIMIT 1
+     *   }
      * }
      * </code></pre>
      */
-    protected void fetchData() {
-        LOGGER.debug("Fetching data from RDF datastore for: {}", identifier);
+    private void queryData() {
         final Var binarySubject = Var.alloc("binarySubject");
         final Var binaryPredicate = Var.alloc("binaryPredicate");
         final Var binaryObject = Var.alloc("binaryObject");
+        final Var aclSubject = Var.alloc("aclSubject");
         final Query q = new Query();
         q.setQuerySelectType();
         q.addResultVar(PREDICATE);
@@ -156,6 +251,7 @@ public class TriplestoreResource implements Resource {
         q.addResultVar(binarySubject);
         q.addResultVar(binaryPredicate);
         q.addResultVar(binaryObject);
+        q.addResultVar(aclSubject);
 
         final ElementPathBlock epb1 = new ElementPathBlock();
         epb1.addTriple(create(rdf.asJenaNode(identifier), PREDICATE, OBJECT));
@@ -170,17 +266,43 @@ public class TriplestoreResource implements Resource {
         elg.addElement(epb1);
         elg.addElement(new ElementOptional(epb2));
 
-        q.setQueryPattern(new ElementNamedGraph(rdf.asJenaNode(Trellis.PreferServerManaged), elg));
+        final ElementPathBlock epb3 = new ElementPathBlock();
+        epb3.addTriple(create(aclSubject, Var.alloc("aclPredicate"), Var.alloc("aclObject")));
+
+        final Query aclQuery = new Query();
+        aclQuery.setQuerySelectType();
+        aclQuery.addResultVar(aclSubject);
+        aclQuery.setQueryPattern(new ElementNamedGraph(createURI(identifier.getIRIString() + "?ext=acl"), epb3));
+        aclQuery.setLimit(1L);
+
+        final ElementUnion union = new ElementUnion();
+        union.addElement(new ElementNamedGraph(rdf.asJenaNode(Trellis.PreferServerManaged), elg));
+        union.addElement(new ElementSubQuery(aclQuery));
+
+        q.setQueryPattern(union);
 
         rdfConnection.querySelect(q, qs -> {
-            final RDFNode s = qs.get("binarySubject");
-            final RDFNode p = qs.get("binaryPredicate");
-            final RDFNode o = qs.get("binaryObject");
-            nodesToTriple(s, p, o).ifPresent(t -> data.put(t.getPredicate(), t.getObject()));
-            data.put(getPredicate(qs), getObject(qs));
+            if (qs.contains(aclSubject.getVarName())) {
+                hasAcl = true;
+            } else {
+                final RDFNode s = qs.get("binarySubject");
+                final RDFNode p = qs.get("binaryPredicate");
+                final RDFNode o = qs.get("binaryObject");
+                nodesToTriple(s, p, o).ifPresent(t -> addBinaryData(t.getPredicate(), t.getObject()));
+                data.put(getPredicate(qs), getObject(qs));
+            }
         });
     }
 
+    private void addBinaryData(final IRI predicate, final RDFTerm object) {
+        // A binary may have several digests, so these are not kept with the single-valued metadata
+        if (PREMIS.hasMessageDigest.equals(predicate) && object instanceof IRI) {
+            parseDigestIRI((IRI) object).ifPresent(digest -> digests.put(digest.getKey(), digest.getValue()));
+        } else {
+            data.putIfAbsent(predicate, object);
+        }
+    }
+
     @Override
     public Optional<IRI> getContainer() {
         return asIRI(DC.isPartOf);
@@ -188,13 +310,12 @@ public class TriplestoreResource implements Resource {
 
     @Override
     public Stream<Quad> stream() {
-        return graphMapper.values().stream().flatMap(Supplier::get);
+        return fetchQuads(graphMapper.keySet());
     }
 
     @Override
     public Stream<Triple> stream(final Collection<IRI> graphNames) {
-        return graphNames.stream().filter(graphMapper::containsKey).map(graphMapper::get).flatMap(Supplier::get)
-            .map(Quad::asTriple);
+        return fetchQuads(graphNames).map(Quad::asTriple);
     }
 
     @Override
@@ -230,7 +351,7 @@ public class TriplestoreResource implements Resource {
     @Override
     public Optional<BinaryMetadata> getBinaryMetadata() {
         return asIRI(DC.hasPart).map(id ->
-                BinaryMetadata.builder(id).mimeType(asLiteral(DC.format).orElse(null)).build());
+                BinaryMetadata.builder(id).mimeType(asLiteral(DC.format).orElse(null)).digests(digests).build());
     }
 
     @Override
@@ -240,245 +361,291 @@ public class TriplestoreResource implements Resource {
 
     @Override
     public boolean hasAcl() {
-        return fetchAclQuads().findAny().isPresent();
+        return hasAcl;
     }
 
     /**
+     * Fetch a window of child resources with a keyset query.
+     *
+     * <p>Rather than skipping over an offset, the window begins just after (or before) the cursor,
+     * so that the cost of retrieving any page of children is the same as retrieving the first page.
      * This code is equivalent to the SPARQL query below.
      *
+     * <p>Note: the triplestore has no index on the string value of the child IRIs, so each page still
+     * filters and sorts the remaining children of the container, which is O(n log n) in the number of children.
+     * Only the page itself is returned.
+     *
      * <p><pre><code>
-     * SELECT ?subject ?predicate ?object
-     * WHERE { GRAPH fromGraphName { ?subject ?predicate ?object } }
+     * SELECT ?object
+     * WHERE {
+     *   GRAPH trellis:PreferServerManaged { ?object dc:isPartOf IDENTIFIER }
+     *   FILTER(STR(?object) &gt; "CURSOR")
+     * }
+     * ORDER BY ASC(STR(?object))
+     * LIMIT SIZE
      * </code></pre>
      */
-    private Stream<Quad> fetchAllFromGraph(final String fromGraphName, final IRI toGraphName) {
+    @Override
+    public Stream<Triple> stream(final IRI graphName, final IRI cursor, final boolean descending, final int limit) {
+        if (!LDP.PreferContainment.equals(graphName)) {
+            return Resource.super.stream(graphName, cursor, descending, limit);
+        } else if (!isContainer()) {
+            return Stream.empty();
+        }
+
         final Query q = new Query();
         q.setQuerySelectType();
-        q.addResultVar(SUBJECT);
-        q.addResultVar(PREDICATE);
         q.addResultVar(OBJECT);
 
         final ElementPathBlock epb = new ElementPathBlock();
-        epb.addTriple(create(SUBJECT, PREDICATE, OBJECT));
+        epb.addTriple(create(OBJECT, rdf.asJenaNode(DC.isPartOf), rdf.asJenaNode(identifier)));
 
         final ElementGroup elg = new ElementGroup();
-        elg.addElement(new ElementNamedGraph(createURI(fromGraphName), epb));
+        elg.addElement(new ElementNamedGraph(rdf.asJenaNode(Trellis.PreferServerManaged), epb));
+
+        final Expr child = new E_Str(new ExprVar(OBJECT));
+        if (nonNull(cursor)) {
+            final Expr boundary = makeString(cursor.getIRIString());
+            elg.addElementFilter(new ElementFilter(descending ? new E_LessThan(child, boundary)
+                        : new E_GreaterThan(child, boundary)));
+        }
 
         q.setQueryPattern(elg);
+        q.addOrderBy(child, descending ? Query.ORDER_DESCENDING : Query.ORDER_ASCENDING);
+        q.setLimit(limit);
 
-        final Stream.Builder<Quad> builder = builder();
-        rdfConnection.querySelect(q, qs -> builder.accept(rdf.createQuad(toGraphName,
-                        getSubject(qs), getPredicate(qs), getObject(qs))));
-        return builder.build();
+        return select(rdfConnection, q).map(qs -> rdf.createTriple(identifier, LDP.contains, getObject(qs)));
     }
 
     /**
+     * Fetch the content of the requested graphs with a single query.
+     *
+     * <p>Each named graph is translated into a graph pattern that binds the variables
+     * {@code ?subject ?predicate ?object}, along with a {@code ?graph} constant that is used to
+     * demultiplex the results. The results are streamed lazily from the underlying query execution,
+     * so the returned stream should be closed once it has been consumed.
      * This code is equivalent to the SPARQL query below.
      *
      * <p><pre><code>
-     * SELECT ?subject ?predicate ?object
-     * WHERE { GRAPH IDENTIFIER?ext=audit { ?subject ?predicate ?object } }
+     * SELECT ?graph ?subject ?predicate ?object
+     * WHERE {
+     *   { GRAPH_PATTERN_1 BIND(GRAPH_NAME_1 AS ?graph) }
+     *   UNION
+     *   { GRAPH_PATTERN_2 BIND(GRAPH_NAME_2 AS ?graph) }
+     *   ...
+     * }
      * </code></pre>
-    */
-    private Stream<Quad> fetchAuditQuads() {
-        return fetchAllFromGraph(identifier.getIRIString() + "?ext=audit", Trellis.PreferAudit);
+     */
+    private Stream<Quad> fetchQuads(final Collection<IRI> graphNames) {
+        final List<IRI> graphs = graphNames.stream().distinct().filter(graphMapper::containsKey)
+            .filter(graphName -> !LDP.PreferContainment.equals(graphName) || isContainer()).collect(toList());
+        if (graphs.isEmpty()) {
+            return Stream.empty();
+        } else if (nonNull(datasetGraph)) {
+            return find(datasetGraph, () -> graphs.stream().map(graphFinder::get).map(Supplier::get)
+                    .reduce(Iter::concat).orElseGet(Collections::emptyIterator));
+        }
+
+        final Query q = new Query();
+        q.setQuerySelectType();
+        q.addResultVar(GRAPH);
+        q.addResultVar(SUBJECT);
+        q.addResultVar(PREDICATE);
+        q.addResultVar(OBJECT);
+
+        final ElementUnion union = new ElementUnion();
+        graphs.forEach(graphName -> graphMapper.get(graphName).get().forEach(pattern -> {
+            final ElementGroup elg = new ElementGroup();
+            elg.addElement(pattern);
+            elg.addElement(new ElementBind(GRAPH, makeNode(rdf.asJenaNode(graphName))));
+            union.addElement(elg);
+        }));
+        q.setQueryPattern(union);
+
+        return select(rdfConnection, q).map(qs ->
+                rdf.createQuad(getGraph(qs), getSubject(qs), getPredicate(qs), getObject(qs)));
     }
 
     /**
-     * This code is equivalent to the SPARQL query below.
+     * This code is equivalent to the SPARQL pattern below.
+     *
+     * <p><pre><code>
+     * GRAPH fromGraphName { ?subject ?predicate ?object }
+     * </code></pre>
+     */
+    private static Element allFromGraph(final String fromGraphName) {
+        final ElementPathBlock epb = new ElementPathBlock();
+        epb.addTriple(create(SUBJECT, PREDICATE, OBJECT));
+        return new ElementNamedGraph(createURI(fromGraphName), epb);
+    }
+
+    /**
+     * This code is equivalent to the SPARQL pattern below.
      *
      * <p><pre><code>
-     * SELECT ?subject ?predicate ?object
-     * WHERE { GRAPH IDENTIFIER?ext=acl { ?subject ?predicate ?object } }
+     * GRAPH IDENTIFIER?ext=audit { ?subject ?predicate ?object }
      * </code></pre>
     */
-    private Stream<Quad> fetchAclQuads() {
-        return fetchAllFromGraph(identifier.getIRIString() + "?ext=acl", Trellis.PreferAccessControl);
+    private Stream<Element> auditPatterns() {
+        return Stream.of(allFromGraph(identifier.getIRIString() + "?ext=audit"));
     }
 
-    private Stream<Quad> fetchMembershipQuads() {
-        return concat(fetchIndirectMemberQuads(),
-                concat(fetchDirectMemberQuads(), fetchDirectMemberQuadsInverse()));
+    /**
+     * This code is equivalent to the SPARQL pattern below.
+     *
+     * <p><pre><code>
+     * GRAPH IDENTIFIER?ext=acl { ?subject ?predicate ?object }
+     * </code></pre>
+    */
+    private Stream<Element> aclPatterns() {
+        return Stream.of(allFromGraph(identifier.getIRIString() + "?ext=acl"));
     }
 
     /**
-     * This code is equivalent to the SPARQL query below.
+     * This code is equivalent to the SPARQL pattern below, along with the inverse membership pattern.
      *
      * <p><pre><code>
-     * SELECT ?subject ?predicate ?object
-     * WHERE {
-     *   GRAPH trellis:PreferServerManaged {
-     *      ?s ldp:member IDENTIFIER
-     *      ?s ldp:membershipResource ?subject
-     *      AND ?s rdf:type ldp:IndirectContainer
-     *      AND ?s ldp:membershipRelation ?predicate
-     *      AND ?s ldp:insertedContentRelation ?o
-     *      AND ?res dc:isPartOf ?s .
-     *   }
-     *   GRAPH ?res { ?res ?o ?object }
-     * }
+     * GRAPH IDENTIFIER?ext=membership { ?subject ?predicate ?object }
      * </code></pre>
+     *
+     * @see MembershipIndex
      */
-    private Stream<Quad> fetchIndirectMemberQuads() {
-        final Var s = Var.alloc("s");
-        final Var o = Var.alloc("o");
-        final Var res = Var.alloc("res");
-
-        final Query q = new Query();
-        q.setQuerySelectType();
-        q.addResultVar(SUBJECT);
-        q.addResultVar(PREDICATE);
-        q.addResultVar(OBJECT);
-
-        final ElementPathBlock epb1 = new ElementPathBlock();
-        epb1.addTriple(create(s, rdf.asJenaNode(LDP.member), rdf.asJenaNode(identifier)));
-        epb1.addTriple(create(s, rdf.asJenaNode(LDP.membershipResource), SUBJECT));
-        epb1.addTriple(create(s, rdf.asJenaNode(RDF.type), rdf.asJenaNode(LDP.IndirectContainer)));
-        epb1.addTriple(create(s, rdf.asJenaNode(LDP.hasMemberRelation), PREDICATE));
-        epb1.addTriple(create(s, rdf.asJenaNode(LDP.insertedContentRelation), o));
-        epb1.addTriple(create(res, rdf.asJenaNode(DC.isPartOf), s));
-
-        final ElementPathBlock epb2 = new ElementPathBlock();
-        epb2.addTriple(create(res, o, OBJECT));
-
-        final ElementGroup elg = new ElementGroup();
-        elg.addElement(new ElementNamedGraph(rdf.asJenaNode(Trellis.PreferServerManaged), epb1));
-        elg.addElement(new ElementNamedGraph(res, epb2));
-
-        q.setQueryPattern(elg);
-
-        final Stream.Builder<Quad> builder = builder();
-        rdfConnection.querySelect(q, qs ->
-            builder.accept(rdf.createQuad(LDP.PreferMembership, getSubject(qs), getPredicate(qs), getObject(qs))));
-        return builder.build();
+    private Stream<Element> membershipPatterns() {
+        return Stream.of(allFromGraph(identifier.getIRIString() + "?ext=membership"), directMemberInversePattern());
     }
 
     /**
-     * This code is equivalent to the SPARQL query below.
+     * This code is equivalent to the SPARQL pattern below.
      *
      * <p><pre><code>
-     * SELECT ?subject ?predicate ?object
-     * WHERE {
-     *   GRAPH trellis:PreferServerManaged {
-     *      ?s ldp:member IDENTIFIER
-     *      ?s ldp:membershipResource ?subject
-     *      AND ?s ldp:hasMemberRelation ?predicate
-     *      AND ?s ldp:insertedContentRelation ldp:MemberSubject
-     *      AND ?object dc:isPartOf ?s }
+     * GRAPH trellis:PreferServerManaged {
+     *    IDENTIFIER dc:isPartOf ?s .
+     *    ?s ldp:isMemberOfRelation ?predicate .
+     *    ?s ldp:membershipResource ?object .
+     *    ?s ldp:insertedContentRelation ldp:MemberSubject .
      * }
+     * BIND(IDENTIFIER AS ?subject)
      * </code></pre>
      */
-    private Stream<Quad> fetchDirectMemberQuads() {
-        final Query q = new Query();
-        q.setQuerySelectType();
-        q.addResultVar(SUBJECT);
-        q.addResultVar(PREDICATE);
-        q.addResultVar(OBJECT);
+    private Element directMemberInversePattern() {
         final Var s = Var.alloc("s");
 
         final ElementPathBlock epb = new ElementPathBlock();
-        epb.addTriple(create(s, rdf.asJenaNode(LDP.member), rdf.asJenaNode(identifier)));
-        epb.addTriple(create(s, rdf.asJenaNode(LDP.membershipResource), SUBJECT));
-        epb.addTriple(create(s, rdf.asJenaNode(LDP.hasMemberRelation), PREDICATE));
+        epb.addTriple(create(rdf.asJenaNode(identifier), rdf.asJenaNode(DC.isPartOf), s));
+        epb.addTriple(create(s, rdf.asJenaNode(LDP.isMemberOfRelation), PREDICATE));
+        epb.addTriple(create(s, rdf.asJenaNode(LDP.membershipResource), OBJECT));
         epb.addTriple(create(s, rdf.asJenaNode(LDP.insertedContentRelation), rdf.asJenaNode(LDP.MemberSubject)));
-        epb.addTriple(create(OBJECT, rdf.asJenaNode(DC.isPartOf), s));
-
-        final ElementNamedGraph ng = new ElementNamedGraph(rdf.asJenaNode(Trellis.PreferServerManaged), epb);
 
         final ElementGroup elg = new ElementGroup();
-        elg.addElement(ng);
-
-        q.setQueryPattern(elg);
-
-        final Stream.Builder<Quad> builder = builder();
-        rdfConnection.querySelect(q, qs -> builder.accept(rdf.createQuad(LDP.PreferMembership, getSubject(qs),
-                        getPredicate(qs), getObject(qs))));
-        return builder.build();
+        elg.addElement(new ElementNamedGraph(rdf.asJenaNode(Trellis.PreferServerManaged), epb));
+        elg.addElement(new ElementBind(SUBJECT, makeNode(rdf.asJenaNode(identifier))));
+        return elg;
     }
 
     /**
-     * This code is equivalent to the SPARQL query below.
+     * This code is equivalent to the SPARQL pattern below.
      *
      * <p><pre><code>
-     * SELECT ?predicate ?object
-     * WHERE {
-     *   GRAPH trellis:PreferServerManaged {
-     *      IDENTIFIER dc:isPartOf ?subject .
-     *      ?subject ldp:isMemberOfRelation ?predicate .
-     *      ?subject ldp:membershipResource ?object .
-     *      ?subject ldp:insertedContentRelation ldp:MemberSubject .
-     *   }
-     * }
+     * GRAPH trellis:PreferServerManaged { ?object dc:isPartOf IDENTIFIER }
+     * BIND(IDENTIFIER AS ?subject)
+     * BIND(ldp:contains AS ?predicate)
      * </code></pre>
      */
-    private Stream<Quad> fetchDirectMemberQuadsInverse() {
-        final Query q = new Query();
-        q.setQuerySelectType();
-        q.addResultVar(PREDICATE);
-        q.addResultVar(OBJECT);
-
+    private Stream<Element> containmentPatterns() {
         final ElementPathBlock epb = new ElementPathBlock();
-        epb.addTriple(create(rdf.asJenaNode(identifier), rdf.asJenaNode(DC.isPartOf), SUBJECT));
-        epb.addTriple(create(SUBJECT, rdf.asJenaNode(LDP.isMemberOfRelation), PREDICATE));
-        epb.addTriple(create(SUBJECT, rdf.asJenaNode(LDP.membershipResource), OBJECT));
-        epb.addTriple(create(SUBJECT, rdf.asJenaNode(LDP.insertedContentRelation), rdf.asJenaNode(LDP.MemberSubject)));
-
-        final ElementNamedGraph ng = new ElementNamedGraph(rdf.asJenaNode(Trellis.PreferServerManaged), epb);
+        epb.addTriple(create(OBJECT, rdf.asJenaNode(DC.isPartOf), rdf.asJenaNode(identifier)));
 
         final ElementGroup elg = new ElementGroup();
-        elg.addElement(ng);
-
-        q.setQueryPattern(elg);
-
-        final Stream.Builder<Quad> builder = builder();
-        rdfConnection.querySelect(q, qs -> builder.accept(rdf.createQuad(LDP.PreferMembership, identifier,
-                        getPredicate(qs), getObject(qs))));
-        return builder.build();
+        elg.addElement(new ElementNamedGraph(rdf.asJenaNode(Trellis.PreferServerManaged), epb));
+        elg.addElement(new ElementBind(SUBJECT, makeNode(rdf.asJenaNode(identifier))));
+        elg.addElement(new ElementBind(PREDICATE, makeNode(rdf.asJenaNode(LDP.contains))));
+        return Stream.of(elg);
     }
 
     /**
-     * This code is equivalent to the SPARQL query below.
+     * This code is equivalent to the SPARQL pattern below.
      *
      * <p><pre><code>
-     * SELECT ?object
-     * WHERE {
-     *   GRAPH trellis:PreferServerManaged { ?object dc:isPartOf IDENTIFIER }
-     * }
+     * GRAPH IDENTIFIER { ?subject ?predicate ?object }
      * </code></pre>
      */
-    private Stream<Quad> fetchContainmentQuads() {
-        if (getInteractionModel().getIRIString().endsWith("Container")) {
-            final Query q = new Query();
-            q.setQuerySelectType();
-            q.addResultVar(OBJECT);
+    private Stream<Element> userPatterns() {
+        return Stream.of(allFromGraph(identifier.getIRIString()));
+    }
 
-            final ElementPathBlock epb = new ElementPathBlock();
-            epb.addTriple(create(OBJECT, rdf.asJenaNode(DC.isPartOf), rdf.asJenaNode(identifier)));
+    /**
+     * Read all of the triples in a named graph directly from an embedded dataset.
+     */
+    private Iterator<Quad> findAll(final String fromGraphName, final IRI graphName) {
+        return Iter.map(findIn(createURI(fromGraphName), ANY, ANY, ANY), q ->
+                rdf.createQuad(graphName, (BlankNodeOrIRI) rdf.asRDFTerm(q.getSubject()),
+                    (IRI) rdf.asRDFTerm(q.getPredicate()), rdf.asRDFTerm(q.getObject())));
+    }
 
-            final ElementNamedGraph ng = new ElementNamedGraph(rdf.asJenaNode(Trellis.PreferServerManaged), epb);
+    private Iterator<Quad> findUserQuads() {
+        return findAll(identifier.getIRIString(), Trellis.PreferUserManaged);
+    }
 
-            final ElementGroup elg = new ElementGroup();
-            elg.addElement(ng);
-            q.setQueryPattern(elg);
+    private Iterator<Quad> findAuditQuads() {
+        return findAll(identifier.getIRIString() + "?ext=audit", Trellis.PreferAudit);
+    }
 
-            final Stream.Builder<Quad> builder = builder();
-            rdfConnection.querySelect(q, qs -> builder.accept(rdf.createQuad(LDP.PreferContainment,
-                            identifier, LDP.contains, getObject(qs))));
-            return builder.build();
-        }
-        return Stream.empty();
+    private Iterator<Quad> findAclQuads() {
+        return findAll(identifier.getIRIString() + "?ext=acl", Trellis.PreferAccessControl);
     }
 
     /**
-     * This code is equivalent to the SPARQL query below.
+     * Read the containment triples directly from an embedded dataset.
      *
-     * <p><pre><code>
-     * SELECT ?subject ?predicate ?object
-     * WHERE { GRAPH IDENTIFIER { ?subject ?predicate ?object } }
-     * </code></pre>
+     * @see #containmentPatterns
+     */
+    private Iterator<Quad> findContainmentQuads() {
+        return Iter.map(findIn(rdf.asJenaNode(Trellis.PreferServerManaged), ANY,
+                    rdf.asJenaNode(DC.isPartOf), rdf.asJenaNode(identifier)), q ->
+                rdf.createQuad(LDP.PreferContainment, identifier, LDP.contains, rdf.asRDFTerm(q.getSubject())));
+    }
+
+    /**
+     * Read the membership triples directly from an embedded dataset.
+     *
+     * @see #membershipPatterns
      */
-    private Stream<Quad> fetchUserQuads() {
-        return fetchAllFromGraph(identifier.getIRIString(), Trellis.PreferUserManaged);
+    private Iterator<Quad> findMembershipQuads() {
+        final Node graph = rdf.asJenaNode(Trellis.PreferServerManaged);
+        final List<Quad> inverse = new ArrayList<>();
+        findIn(graph, rdf.asJenaNode(identifier), rdf.asJenaNode(DC.isPartOf), ANY)
+            .forEachRemaining(parent -> {
+                final Node s = parent.getObject();
+                if (containedIn(graph, s, rdf.asJenaNode(LDP.insertedContentRelation),
+                            rdf.asJenaNode(LDP.MemberSubject))) {
+                    findIn(graph, s, rdf.asJenaNode(LDP.isMemberOfRelation), ANY).forEachRemaining(p ->
+                        findIn(graph, s, rdf.asJenaNode(LDP.membershipResource), ANY).forEachRemaining(o ->
+                            inverse.add(rdf.createQuad(LDP.PreferMembership, identifier,
+                                    (IRI) rdf.asRDFTerm(p.getObject()), rdf.asRDFTerm(o.getObject())))));
+                }
+            });
+        return Iter.concat(findAll(identifier.getIRIString() + "?ext=membership", LDP.PreferMembership),
+                inverse.iterator());
+    }
+
+    /**
+     * Find quads in a named graph, without implicitly creating that graph.
+     */
+    private Iterator<org.apache.jena.sparql.core.Quad> findIn(final Node graph, final Node subject,
+            final Node predicate, final Node object) {
+        if (datasetGraph.containsGraph(graph)) {
+            return datasetGraph.find(graph, subject, predicate, object);
+        }
+        return Collections.emptyIterator();
+    }
+
+    private boolean containedIn(final Node graph, final Node subject, final Node predicate, final Node object) {
+        return datasetGraph.containsGraph(graph) && datasetGraph.contains(graph, subject, predicate, object);
+    }
+
+    private boolean isContainer() {
+        return ofNullable(getInteractionModel()).map(IRI::getIRIString).filter(m -> m.endsWith("Container"))
+            .isPresent();
     }
 
     private Optional<IRI> asIRI(final IRI predicate) {
@@ -18,26 +18,32 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static java.util.Collections.synchronizedList;
 import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.of;
 import static java.util.ServiceLoader.load;
-import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 import static java.util.stream.Stream.builder;
+import static java.util.stream.Stream.concat;
 import static org.apache.jena.graph.NodeFactory.createURI;
-import static org.apache.jena.query.DatasetFactory.createTxnMem;
-import static org.apache.jena.query.DatasetFactory.wrap;
 import static org.apache.jena.rdfconnection.RDFConnectionFactory.connect;
-import static org.apache.jena.system.Txn.executeWrite;
+import static org.apache.jena.sparql.core.DatasetGraphFactory.createTxnMem;
 import static org.apache.jena.tdb2.DatabaseMgr.connectDatasetGraph;
 import static org.apache.tamaya.ConfigurationProvider.getConfiguration;
 import static org.slf4j.LoggerFactory.getLogger;
+import static org.trellisldp.api.ExecutorPool.RESOURCE_READ;
+import static org.trellisldp.api.ExecutorPool.RESOURCE_WRITE;
 import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
+import static org.trellisldp.api.TrellisUtils.getDigestIRI;
+import static org.trellisldp.triplestore.TriplestoreUtils.GRAPH;
 import static org.trellisldp.triplestore.TriplestoreUtils.OBJECT;
 import static org.trellisldp.triplestore.TriplestoreUtils.PREDICATE;
 import static org.trellisldp.triplestore.TriplestoreUtils.SUBJECT;
-import static org.trellisldp.triplestore.TriplestoreUtils.asJenaDataset;
 import static org.trellisldp.triplestore.TriplestoreUtils.getBaseIRI;
 import static org.trellisldp.triplestore.TriplestoreUtils.getInstance;
 import static org.trellisldp.triplestore.TriplestoreUtils.getObject;
@@ -49,36 +55,59 @@ import static org.trellisldp.vocabulary.Trellis.PreferUserManaged;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
 import org.apache.commons.rdf.api.Dataset;
+import org.apache.commons.rdf.api.Graph;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.Literal;
 import org.apache.commons.rdf.api.RDFTerm;
+import org.apache.commons.rdf.api.Triple;
 import org.apache.commons.rdf.jena.JenaRDF;
 import org.apache.jena.graph.Node;
+import org.apache.jena.graph.compose.Delta;
+import org.apache.jena.graph.compose.Difference;
 import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryParseException;
 import org.apache.jena.rdfconnection.RDFConnection;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.DatasetGraphOne;
 import org.apache.jena.sparql.core.Quad;
 import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
 import org.apache.jena.sparql.modify.request.QuadAcc;
 import org.apache.jena.sparql.modify.request.QuadDataAcc;
+import org.apache.jena.sparql.modify.request.UpdateDataDelete;
 import org.apache.jena.sparql.modify.request.UpdateDataInsert;
 import org.apache.jena.sparql.modify.request.UpdateDeleteInsert;
 import org.apache.jena.sparql.modify.request.UpdateDeleteWhere;
+import org.apache.jena.sparql.syntax.ElementData;
 import org.apache.jena.sparql.syntax.ElementGroup;
 import org.apache.jena.sparql.syntax.ElementNamedGraph;
 import org.apache.jena.sparql.syntax.ElementPathBlock;
+import org.apache.jena.system.Txn;
+import org.apache.jena.update.UpdateAction;
+import org.apache.jena.update.UpdateException;
+import org.apache.jena.update.UpdateFactory;
 import org.apache.jena.update.UpdateRequest;
 import org.slf4j.Logger;
 import org.trellisldp.api.DefaultIdentifierService;
+import org.trellisldp.api.ExecutorPool;
 import org.trellisldp.api.IdentifierService;
 import org.trellisldp.api.Metadata;
 import org.trellisldp.api.Resource;
@@ -89,17 +118,33 @@ import org.trellisldp.vocabulary.ACL;
 import org.trellisldp.vocabulary.DC;
 import org.trellisldp.vocabulary.FOAF;
 import org.trellisldp.vocabulary.LDP;
+import org.trellisldp.vocabulary.PREMIS;
 import org.trellisldp.vocabulary.RDF;
 import org.trellisldp.vocabulary.XSD;
 
 /**
  * A triplestore-based implementation of the Trellis ResourceService API.
  */
-public class TriplestoreResourceService extends DefaultAuditService implements ResourceService {
+public class TriplestoreResourceService extends DefaultAuditService implements ResourceService, AutoCloseable {
 
     /** The configuration key used to set where the RDF is stored. **/
     public static final String CONFIG_TRIPLESTORE_RDF_LOCATION = "trellis.triplestore.rdf.location";
 
+    /** The configuration key used to set the maximum number of updates committed in a single batch. **/
+    public static final String CONFIG_TRIPLESTORE_BATCH_SIZE = "trellis.triplestore.batch.size";
+
+    /** The configuration key used to set how long, in milliseconds, to wait for updates to join a batch. **/
+    public static final String CONFIG_TRIPLESTORE_BATCH_WINDOW = "trellis.triplestore.batch.window";
+
+    /** The configuration key used to set the number of threads used for reading resources. **/
+    public static final String CONFIG_TRIPLESTORE_READ_THREADS = "trellis.triplestore.read.threads";
+
+    /** The configuration key used to set the number of threads used for preparing resource writes. **/
+    public static final String CONFIG_TRIPLESTORE_WRITE_THREADS = "trellis.triplestore.write.threads";
+
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final long DEFAULT_BATCH_WINDOW = 0L;
+
     private static final String MODIFIED = "modified";
 
     private static final Logger LOGGER = getLogger(TriplestoreResourceService.class);
@@ -107,6 +152,9 @@ public class TriplestoreResourceService extends DefaultAuditService implements R
 
     private final Supplier<String> supplier;
     private final RDFConnection rdfConnection;
+    private final GroupCommitWriter writer;
+    private final Executor readExecutor;
+    private final Executor writeExecutor;
     private final Set<IRI> supportedIxnModels;
 
     /**
@@ -135,34 +183,118 @@ public class TriplestoreResourceService extends DefaultAuditService implements R
         super();
         this.rdfConnection = requireNonNull(rdfConnection, "RDFConnection may not be null!");
         this.supplier = requireNonNull(identifierService, "IdentifierService may not be null!").getSupplier();
+        this.readExecutor = getExecutor(RESOURCE_READ, CONFIG_TRIPLESTORE_READ_THREADS);
+        this.writeExecutor = getExecutor(RESOURCE_WRITE, CONFIG_TRIPLESTORE_WRITE_THREADS);
+        this.writer = new GroupCommitWriter(rdfConnection,
+                getConfiguration().getOrDefault(CONFIG_TRIPLESTORE_BATCH_SIZE, Integer.class, DEFAULT_BATCH_SIZE),
+                getConfiguration().getOrDefault(CONFIG_TRIPLESTORE_BATCH_WINDOW, Long.class, DEFAULT_BATCH_WINDOW));
         this.supportedIxnModels = unmodifiableSet(asList(LDP.Resource, LDP.RDFSource, LDP.NonRDFSource, LDP.Container,
                 LDP.BasicContainer, LDP.DirectContainer, LDP.IndirectContainer).stream().collect(toSet()));
     }
 
+    /**
+     * Close the resource service, once the updates already submitted to the triplestore have been committed.
+     */
+    @Override
+    public void close() {
+        writer.close();
+    }
+
     @Override
     public CompletionStage<Void> delete(final Metadata metadata) {
         LOGGER.debug("Deleting: {}", metadata.getIdentifier());
-        return runAsync(() -> {
+        return supplyAsync(() -> {
             try (final Dataset dataset = rdf.createDataset()) {
                 final Instant eventTime = now();
                 dataset.add(PreferServerManaged, metadata.getIdentifier(), DC.type, DeletedResource);
                 dataset.add(PreferServerManaged, metadata.getIdentifier(), RDF.type, LDP.Resource);
-                storeResource(metadata.getIdentifier(), dataset, eventTime, OperationType.DELETE);
+                return storeResource(metadata.getIdentifier(), dataset, eventTime, OperationType.DELETE, null);
             } catch (final Exception ex) {
                 throw new RuntimeTrellisException("Error deleting resource: " + metadata.getIdentifier(), ex);
             }
-        });
+        }, writeExecutor).thenCompose(update -> writer.submit(metadata.getIdentifier(), update));
     }
 
     @Override
     public CompletionStage<Void> replace(final Metadata metadata, final Dataset dataset) {
         LOGGER.debug("Persisting: {}", metadata.getIdentifier());
-        return runAsync(() ->
-                createOrReplace(metadata, dataset, OperationType.REPLACE));
+        // The changes are computed by the writer, against the latest stored state of the resource
+        return supplyAsync(() -> createOrReplace(metadata, dataset), writeExecutor)
+            .thenCompose(eventTime -> writer.submit(metadata.getIdentifier(), () ->
+                        storeResource(metadata.getIdentifier(), dataset, eventTime, OperationType.REPLACE,
+                            getChanges(metadata.getIdentifier(), dataset))));
     }
 
-    private void createOrReplace(final Metadata metadata, final Dataset dataset, final OperationType type) {
-        final Instant eventTime = now();
+    @Override
+    public CompletionStage<Void> replace(final Metadata metadata, final Dataset dataset, final Dataset removed,
+            final Dataset added) {
+        LOGGER.debug("Persisting changes to: {}", metadata.getIdentifier());
+        // The changes are checked by the writer, against the latest stored state of the resource
+        return supplyAsync(() -> createOrReplace(metadata, dataset), writeExecutor)
+            .thenCompose(eventTime -> writer.submit(metadata.getIdentifier(), () ->
+                        storeResource(metadata.getIdentifier(), dataset, eventTime, OperationType.REPLACE,
+                            getChanges(metadata.getIdentifier(), dataset, removed, added))));
+    }
+
+    @Override
+    public Optional<Instant> getModified(final Metadata metadata) {
+        // The modification time in the metadata, if any, is the one recorded
+        return metadata.getModified();
+    }
+
+    @Override
+    public boolean supportsUpdate() {
+        return rdfConnection instanceof EmbeddedRDFConnection;
+    }
+
+    @Override
+    public CompletionStage<Void> update(final Metadata metadata, final IRI graphName, final String update,
+            final String base, final UnaryOperator<Graph> handler) {
+        if (!supportsUpdate()) {
+            return ResourceService.super.update(metadata, graphName, update, base, handler);
+        }
+        LOGGER.debug("Updating in place: {}", metadata.getIdentifier());
+        final UpdateRequest request;
+        try {
+            request = UpdateFactory.create(update, base);
+        } catch (final QueryParseException ex) {
+            throw new RuntimeTrellisException("Invalid SPARQL Update: " + ex.getMessage(), ex);
+        }
+        return update(metadata, graphName, request, handler);
+    }
+
+    /*
+     * The handler is applied on the write pool, and the writer re-evaluates the update against the latest stored
+     * state of the resource. If a concurrent write has changed the triples that the update adds, the update is
+     * prepared again.
+     */
+    private CompletionStage<Void> update(final Metadata metadata, final IRI graphName, final UpdateRequest request,
+            final UnaryOperator<Graph> handler) {
+        return supplyAsync(() -> prepareUpdate(metadata, graphName, request, handler), writeExecutor)
+            .thenCompose(prepared -> writer.submit(metadata.getIdentifier(), () -> {
+                final Dataset dataset = rdf.createDataset();
+                final Changes changes = applyUpdate(metadata, graphName, request, prepared, dataset);
+                return storeResource(metadata.getIdentifier(), dataset, now(), OperationType.REPLACE, changes);
+            }))
+            .handle((result, err) -> {
+                final Throwable cause = err instanceof CompletionException ? err.getCause() : err;
+                if (cause instanceof ConcurrentModificationException) {
+                    LOGGER.debug("Preparing the update again: {}", metadata.getIdentifier());
+                    return update(metadata, graphName, request, handler);
+                }
+                final CompletableFuture<Void> future = new CompletableFuture<>();
+                if (err == null) {
+                    future.complete(result);
+                } else {
+                    future.completeExceptionally(err);
+                }
+                return future;
+            }).thenCompose(identity());
+    }
+
+    private Instant createOrReplace(final Metadata metadata, final Dataset dataset) {
+        // Record the modification time chosen by the caller, if any, so that it can reuse that time
+        final Instant eventTime = metadata.getModified().orElseGet(Instant::now);
 
         // Set the LDP type
         dataset.add(PreferServerManaged, metadata.getIdentifier(), RDF.type, metadata.getInteractionModel());
@@ -192,21 +324,204 @@ public class TriplestoreResourceService extends DefaultAuditService implements R
             dataset.add(PreferServerManaged, metadata.getIdentifier(), DC.hasPart, binary.getIdentifier());
             binary.getMimeType().map(rdf::createLiteral).ifPresent(mimeType ->
                     dataset.add(PreferServerManaged, binary.getIdentifier(), DC.format, mimeType));
+            binary.getDigests().forEach((algorithm, value) -> dataset.add(PreferServerManaged,
+                        binary.getIdentifier(), PREMIS.hasMessageDigest, getDigestIRI(algorithm, value)));
         });
 
-        storeResource(metadata.getIdentifier(), dataset, eventTime, type);
+        return eventTime;
     }
 
-    private void storeResource(final IRI identifier, final Dataset dataset,
-            final Instant eventTime, final OperationType type) {
+    private UpdateRequest storeResource(final IRI identifier, final Dataset dataset,
+            final Instant eventTime, final OperationType type, final Changes changes) {
         final Literal time = rdf.createLiteral(eventTime.toString(), XSD.dateTime);
         try {
-            rdfConnection.update(buildUpdateRequest(identifier, time, dataset, type));
+            return buildUpdateRequest(identifier, time, dataset, type, changes);
         } catch (final Exception ex) {
             throw new RuntimeTrellisException("Could not update data for " + identifier, ex);
         }
     }
 
+    /*
+     * Compare the user-managed and access control quads of a dataset with those already stored.
+     * If the stored data contain blank nodes, which cannot be deleted as data, this returns null.
+     */
+    private Changes getChanges(final IRI identifier, final Dataset dataset) {
+        final Set<Quad> stored = new HashSet<>();
+        rdfConnection.querySelect(buildResourceQuadsQuery(identifier), qs -> stored.add(new Quad(
+                        qs.get(GRAPH.getVarName()).asNode(), qs.get(SUBJECT.getVarName()).asNode(),
+                        qs.get(PREDICATE.getVarName()).asNode(), qs.get(OBJECT.getVarName()).asNode())));
+        if (stored.stream().anyMatch(TriplestoreResourceService::hasBlankNode)) {
+            return null;
+        }
+        final Set<Quad> quads = getResourceQuads(identifier, dataset).collect(toSet());
+        return new Changes(stored.stream().filter(quad -> !quads.contains(quad)).collect(toList()),
+                quads.stream().filter(quad -> !stored.contains(quad)).collect(toList()));
+    }
+
+    /*
+     * Convert a set of supplied changes. If any removed quad contains a blank node, this returns null. If any
+     * removed quad is no longer stored, the changes were computed against an earlier state of the resource, and
+     * the dataset is compared with the stored data instead.
+     */
+    private Changes getChanges(final IRI identifier, final Dataset dataset, final Dataset removed,
+            final Dataset added) {
+        final List<Quad> deletions = getResourceQuads(identifier, removed).collect(toList());
+        if (deletions.stream().anyMatch(TriplestoreResourceService::hasBlankNode)) {
+            return null;
+        } else if (!deletions.isEmpty() && !rdfConnection.queryAsk(buildStoredQuadsQuery(deletions))) {
+            LOGGER.debug("Stored data changed, comparing the full dataset: {}", identifier);
+            return getChanges(identifier, dataset);
+        }
+        return new Changes(deletions, getResourceQuads(identifier, added).collect(toList()));
+    }
+
+    /*
+     * Evaluate an update against the stored graph, without modifying it, and apply the handler to the additions.
+     */
+    private PreparedUpdate prepareUpdate(final Metadata metadata, final IRI graphName, final UpdateRequest request,
+            final UnaryOperator<Graph> handler) {
+        final Node graph = getUpdateGraph(metadata.getIdentifier(), graphName);
+        final DatasetGraph dsg = ((EmbeddedRDFConnection) rdfConnection).getDatasetGraph();
+        final org.apache.jena.graph.Graph additions = Txn.calculateRead(dsg, () ->
+                evaluate(metadata.getIdentifier(), dsg.getGraph(graph), request).getAdditions());
+        return new PreparedUpdate(additions, handler.apply(rdf.asGraph(additions)));
+    }
+
+    /*
+     * Evaluate an update against the stored graph, without modifying it, and collect the resulting changes.
+     * The server-managed data, including any membership properties, are added to the supplied dataset.
+     */
+    private Changes applyUpdate(final Metadata metadata, final IRI graphName, final UpdateRequest request,
+            final PreparedUpdate prepared, final Dataset dataset) {
+        final IRI identifier = metadata.getIdentifier();
+        final Node userGraph = rdf.asJenaNode(identifier);
+        final Node graph = getUpdateGraph(identifier, graphName);
+        final DatasetGraph dsg = ((EmbeddedRDFConnection) rdfConnection).getDatasetGraph();
+        return Txn.calculateRead(dsg, () -> {
+            final org.apache.jena.graph.Graph stored = dsg.getGraph(graph);
+            final Delta delta = evaluate(identifier, stored, request);
+            if (!delta.getAdditions().isIsomorphicWith(prepared.additions)) {
+                throw new ConcurrentModificationException("Stored graph changed: " + identifier);
+            }
+            final Graph added = prepared.added;
+
+            // Membership properties are read from the updated user-managed graph
+            final Graph remaining = rdf.asGraph(userGraph.equals(graph)
+                    ? new Difference(stored, delta.getDeletions()) : dsg.getGraph(userGraph));
+            final Graph members = userGraph.equals(graph) ? added : rdf.createGraph();
+            final Metadata.Builder builder = Metadata.builder(identifier)
+                .interactionModel(metadata.getInteractionModel())
+                .membershipResource(getMembershipValue(identifier, LDP.membershipResource, members, remaining))
+                .memberRelation(getMembershipValue(identifier, LDP.hasMemberRelation, members, remaining))
+                .memberOfRelation(getMembershipValue(identifier, LDP.isMemberOfRelation, members, remaining))
+                .insertedContentRelation(getMembershipValue(identifier, LDP.insertedContentRelation, members,
+                            remaining));
+            metadata.getContainer().ifPresent(builder::container);
+            metadata.getBinary().ifPresent(builder::binary);
+            createOrReplace(builder.build(), dataset);
+
+            return new Changes(delta.getDeletions().find().mapWith(t -> new Quad(graph, t)).toList(),
+                    added.stream().map(t -> new Quad(graph, rdf.asJenaTriple(t))).collect(toList()));
+        });
+    }
+
+    private Node getUpdateGraph(final IRI identifier, final IRI graphName) {
+        return PreferAccessControl.equals(graphName) ? getAclIRI(identifier) : rdf.asJenaNode(identifier);
+    }
+
+    private static Delta evaluate(final IRI identifier, final org.apache.jena.graph.Graph stored,
+            final UpdateRequest request) {
+        final Delta delta = new Delta(stored);
+        try {
+            UpdateAction.execute(request, DatasetGraphOne.create(delta));
+        } catch (final UpdateException | UnsupportedOperationException ex) {
+            throw new RuntimeTrellisException("Could not update " + identifier, ex);
+        }
+        return delta;
+    }
+
+    private static IRI getMembershipValue(final IRI identifier, final IRI predicate, final Graph added,
+            final Graph remaining) {
+        return concat(added.stream(identifier, predicate, null), remaining.stream(identifier, predicate, null))
+            .map(Triple::getObject).filter(IRI.class::isInstance).map(IRI.class::cast).findFirst().orElse(null);
+    }
+
+    private Stream<Quad> getResourceQuads(final IRI identifier, final Dataset dataset) {
+        return concat(
+                dataset.getGraph(PreferUserManaged).map(g -> g.stream()
+                    .map(t -> new Quad(rdf.asJenaNode(identifier), rdf.asJenaTriple(t)))).orElseGet(Stream::empty),
+                dataset.getGraph(PreferAccessControl).map(g -> g.stream()
+                    .map(t -> new Quad(getAclIRI(identifier), rdf.asJenaTriple(t)))).orElseGet(Stream::empty));
+    }
+
+    /*
+     * Only size the pool when a size is configured, so that pools sized at startup are shared as-is.
+     */
+    private static ExecutorPool getExecutor(final String name, final String key) {
+        final Integer threads = getConfiguration().get(key, Integer.class);
+        return threads == null ? ExecutorPool.getInstance(name) : ExecutorPool.getInstance(name, threads);
+    }
+
+    private static boolean hasBlankNode(final Quad quad) {
+        return quad.getSubject().isBlank() || quad.getObject().isBlank();
+    }
+
+    /**
+     * This code is equivalent to the SPARQL query below.
+     *
+     * <p><pre><code>
+     * SELECT ?graph ?subject ?predicate ?object WHERE {
+     *   VALUES ?graph { IDENTIFIER IDENTIFIER?ext=acl }
+     *   GRAPH ?graph { ?subject ?predicate ?object }
+     * }
+     * </code></pre></p>
+     */
+    private Query buildResourceQuadsQuery(final IRI identifier) {
+        final Query q = new Query();
+        q.setQuerySelectType();
+        q.addResultVar(GRAPH);
+        q.addResultVar(SUBJECT);
+        q.addResultVar(PREDICATE);
+        q.addResultVar(OBJECT);
+
+        final ElementData data = new ElementData();
+        data.add(GRAPH);
+        data.add(BindingFactory.binding(GRAPH, rdf.asJenaNode(identifier)));
+        data.add(BindingFactory.binding(GRAPH, getAclIRI(identifier)));
+
+        final ElementPathBlock epb = new ElementPathBlock();
+        epb.addTriple(triple(SUBJECT, PREDICATE, OBJECT));
+
+        final ElementGroup elg = new ElementGroup();
+        elg.addElement(data);
+        elg.addElement(new ElementNamedGraph(GRAPH, epb));
+
+        q.setQueryPattern(elg);
+        return q;
+    }
+
+    /**
+     * This is equivalent to the SPARQL below.
+     *
+     * <p><pre><code>
+     * ASK { GRAPH GRAPH1 { SUBJECT1 PREDICATE1 OBJECT1 } GRAPH GRAPH2 { SUBJECT2 PREDICATE2 OBJECT2 } ... }
+     * </code></pre></p>
+     */
+    private static Query buildStoredQuadsQuery(final List<Quad> quads) {
+        final Query q = new Query();
+        q.setQueryAskType();
+
+        final ElementGroup elg = new ElementGroup();
+        quads.stream().collect(groupingBy(Quad::getGraph)).forEach((graph, group) -> {
+            final ElementPathBlock epb = new ElementPathBlock();
+            group.forEach(quad -> epb.addTriple(quad.asTriple()));
+            elg.addElement(new ElementNamedGraph(graph, epb));
+        });
+
+        q.setQueryPattern(elg);
+        return q;
+    }
+
     private Node getAclIRI(final IRI identifier) {
         return createURI(identifier.getIRIString() + "?ext=acl");
     }
@@ -219,8 +534,35 @@ public class TriplestoreResourceService extends DefaultAuditService implements R
         DELETE, CREATE, REPLACE;
     }
 
+    /*
+     * The triples that an update adds, as evaluated on the write pool, and as returned by the update handler.
+     */
+    private static final class PreparedUpdate {
+        private final org.apache.jena.graph.Graph additions;
+        private final Graph added;
+
+        private PreparedUpdate(final org.apache.jena.graph.Graph additions, final Graph added) {
+            this.additions = additions;
+            this.added = added;
+        }
+    }
+
+    /*
+     * The user-managed and access control quads to remove and to add, relative to the stored state.
+     */
+    private static final class Changes {
+        private final List<Quad> removed;
+        private final List<Quad> added;
+
+        private Changes(final List<Quad> removed, final List<Quad> added) {
+            this.removed = removed;
+            this.added = added;
+        }
+    }
+
     /**
-     * This is equivalent to the SPARQL below.
+     * This is equivalent to the SPARQL below, along with the membership index maintenance
+     * described in {@link MembershipIndex}.
      *
      * <p><pre><code>
      * DELETE WHERE { GRAPH IDENTIFIER { ?s ?p ?o } };
@@ -238,18 +580,43 @@ public class TriplestoreResourceService extends DefaultAuditService implements R
      *   GRAPH IDENTIFIER?ext=audit { ... }
      * }
      * </code></pre></p>
+     *
+     * <p>When the changes to the user-managed and access control graphs are known, only those quads
+     * are written, in place of the first two operations and the corresponding inserted data:
+     *
+     * <p><pre><code>
+     * DELETE DATA {
+     *   GRAPH IDENTIFIER { ... }
+     *   GRAPH IDENTIFIER?ext=acl { ... }
+     * };
+     * </code></pre></p>
      */
     private UpdateRequest buildUpdateRequest(final IRI identifier, final Literal time, final Dataset dataset,
-            final OperationType type) {
+            final OperationType type, final Changes changes) {
 
         // Set the time
         dataset.add(PreferServerManaged, identifier, DC.modified, time);
 
         final UpdateRequest req = new UpdateRequest();
-        req.add(new UpdateDeleteWhere(new QuadAcc(singletonList(new Quad(rdf.asJenaNode(identifier),
-                                SUBJECT, PREDICATE, OBJECT)))));
-        req.add(new UpdateDeleteWhere(new QuadAcc(singletonList(new Quad(
-                                getAclIRI(identifier), SUBJECT, PREDICATE, OBJECT)))));
+
+        // Remove any stale entries from the membership index, before the previous data is removed
+        req.add(MembershipIndex.removeChild(identifier));
+        req.add(MembershipIndex.removeContainer(identifier, dataset));
+        MembershipIndex.addContainer(identifier, dataset).ifPresent(req::add);
+        if (type == OperationType.DELETE) {
+            req.add(MembershipIndex.removeMember(identifier));
+        } else {
+            req.add(MembershipIndex.restoreMember(identifier));
+        }
+
+        if (isNull(changes)) {
+            req.add(new UpdateDeleteWhere(new QuadAcc(singletonList(new Quad(rdf.asJenaNode(identifier),
+                                    SUBJECT, PREDICATE, OBJECT)))));
+            req.add(new UpdateDeleteWhere(new QuadAcc(singletonList(new Quad(
+                                    getAclIRI(identifier), SUBJECT, PREDICATE, OBJECT)))));
+        } else if (!changes.removed.isEmpty()) {
+            req.add(new UpdateDataDelete(new QuadDataAcc(changes.removed)));
+        }
         req.add(new UpdateDeleteWhere(new QuadAcc(asList(
                             new Quad(rdf.asJenaNode(PreferServerManaged), rdf.asJenaNode(identifier),
                                 rdf.asJenaNode(RDF.type), rdf.asJenaNode(LDP.NonRDFSource)),
@@ -260,21 +627,22 @@ public class TriplestoreResourceService extends DefaultAuditService implements R
                                 rdf.asJenaNode(identifier), PREDICATE, OBJECT)))));
 
         final QuadDataAcc sink = new QuadDataAcc(synchronizedList(new ArrayList<>()));
-        if (type == OperationType.DELETE) {
-            dataset.stream().filter(q -> q.getGraphName().filter(PreferServerManaged::equals).isPresent())
-                    .map(rdf::asJenaQuad).forEach(sink::addQuad);
-        } else {
-            dataset.stream().filter(q -> q.getGraphName().filter(PreferServerManaged::equals).isPresent())
-                    .map(rdf::asJenaQuad).forEach(sink::addQuad);
-            dataset.getGraph(PreferUserManaged).ifPresent(g -> g.stream()
-                    .map(t -> new Quad(rdf.asJenaNode(identifier), rdf.asJenaTriple(t))).forEach(sink::addQuad));
-            dataset.getGraph(PreferAccessControl).ifPresent(g -> g.stream()
-                    .map(t -> new Quad(getAclIRI(identifier), rdf.asJenaTriple(t))).forEach(sink::addQuad));
+        dataset.stream().filter(q -> q.getGraphName().filter(PreferServerManaged::equals).isPresent())
+                .map(rdf::asJenaQuad).forEach(sink::addQuad);
+        if (type != OperationType.DELETE) {
+            if (isNull(changes)) {
+                getResourceQuads(identifier, dataset).forEach(sink::addQuad);
+            } else {
+                changes.added.forEach(sink::addQuad);
+            }
             dataset.getGraph(PreferAudit).ifPresent(g -> g.stream()
                     .map(t -> new Quad(getAuditIRI(identifier), rdf.asJenaTriple(t))).forEach(sink::addQuad));
         }
         req.add(new UpdateDataInsert(sink));
 
+        // Add the resource's own entries to the membership index, now that its data is in place
+        req.add(MembershipIndex.addChild(identifier));
+
         return req;
     }
 
@@ -331,6 +699,10 @@ public class TriplestoreResourceService extends DefaultAuditService implements R
      * }
      *
      * </code></pre>
+     *
+     * <p>If the dataset does not yet record that its membership index has been built, such as one persisted
+     * by an earlier version of this service, any membership resource without a materialized membership
+     * index has its index built as well.
      */
     public void initialize() {
         final IRI root = rdf.createIRI(TRELLIS_DATA_PREFIX);
@@ -375,11 +747,15 @@ public class TriplestoreResourceService extends DefaultAuditService implements R
             update.add(new UpdateDataInsert(sink));
             rdfConnection.update(update);
         }
+        if (!rdfConnection.queryAsk(MembershipIndex.isBuilt())) {
+            LOGGER.info("Building the membership index");
+            rdfConnection.update(MembershipIndex.build());
+        }
     }
 
     @Override
     public CompletionStage<Resource> get(final IRI identifier) {
-        return TriplestoreResource.findResource(rdfConnection, identifier);
+        return TriplestoreResource.findResource(rdfConnection, identifier, readExecutor);
     }
 
     @Override
@@ -389,28 +765,47 @@ public class TriplestoreResourceService extends DefaultAuditService implements R
 
     @Override
     public CompletionStage<Void> add(final IRI id, final Dataset dataset) {
-        return runAsync(() -> {
-            final IRI graphName = rdf.createIRI(id.getIRIString() + "?ext=audit");
-            try (final Dataset data = rdf.createDataset()) {
-                dataset.getGraph(PreferAudit).ifPresent(g ->
-                        g.stream().forEach(t -> data.add(graphName, t.getSubject(), t.getPredicate(), t.getObject())));
-                executeWrite(rdfConnection, () -> rdfConnection.loadDataset(asJenaDataset(data)));
+        return supplyAsync(() -> {
+            try {
+                final QuadDataAcc sink = new QuadDataAcc();
+                dataset.getGraph(PreferAudit).ifPresent(g -> g.stream()
+                        .map(t -> new Quad(getAuditIRI(id), rdf.asJenaTriple(t))).forEach(sink::addQuad));
+                return new UpdateRequest(new UpdateDataInsert(sink));
             } catch (final Exception ex) {
                 throw new RuntimeTrellisException("Error storing audit dataset for " + id, ex);
             }
-        });
+        }, writeExecutor).thenCompose(writer::submit);
     }
 
     @Override
     public CompletionStage<Void> touch(final IRI identifier) {
         final Literal time = rdf.createLiteral(now().toString(), XSD.dateTime);
-        return runAsync(() -> {
-            try {
-                rdfConnection.update(buildUpdateModificationRequest(identifier, time));
-            } catch (final Exception ex) {
-                throw new RuntimeTrellisException("Could not update data for " + identifier, ex);
-            }
-        });
+        return writer.submit(buildUpdateModificationRequest(identifier, time));
+    }
+
+    /**
+     * List the binaries that are referenced by any current resource.
+     *
+     * <p>This may be used to identify stored binary content that is no longer in use.
+     *
+     * @return the binary identifiers
+     */
+    public Stream<IRI> listBinaries() {
+        final Query q = new Query();
+        q.setQuerySelectType();
+        q.setDistinct(true);
+        q.addResultVar(OBJECT);
+
+        final ElementPathBlock epb = new ElementPathBlock();
+        epb.addTriple(triple(SUBJECT, rdf.asJenaNode(DC.hasPart), OBJECT));
+
+        final ElementGroup elg = new ElementGroup();
+        elg.addElement(new ElementNamedGraph(rdf.asJenaNode(PreferServerManaged), epb));
+        q.setQueryPattern(elg);
+
+        final Stream.Builder<RDFTerm> builder = builder();
+        rdfConnection.querySelect(q, qs -> builder.accept(getObject(qs)));
+        return builder.build().filter(IRI.class::isInstance).map(IRI.class::cast);
     }
 
     @Override
@@ -422,7 +817,8 @@ public class TriplestoreResourceService extends DefaultAuditService implements R
      * Build an RDF connection from a location value.
      *
      * @implNote A null value will create an in-memory RDF store, a file path will create
-     *           a TDB2 RDF store, and a URL will use a remote triplestore.
+     *           a TDB2 RDF store, and a URL will use a remote triplestore. Connections to in-memory
+     *           and TDB2 stores read simple patterns directly from the underlying dataset.
      * @param location the location of the RDF
      * @return a connection to the RDF store
      */
@@ -435,11 +831,11 @@ public class TriplestoreResourceService extends DefaultAuditService implements R
             }
             // TDB2
             LOGGER.info("Using local TDB2 database at {}", location);
-            return connect(wrap(connectDatasetGraph(location)));
+            return new EmbeddedRDFConnection(connectDatasetGraph(location));
         }
         // in-memory
         LOGGER.info("Using an in-memory dataset for resources");
-        return connect(createTxnMem());
+        return new EmbeddedRDFConnection(createTxnMem());
     }
 
     /**
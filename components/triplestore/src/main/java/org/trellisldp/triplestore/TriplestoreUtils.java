@@ -16,9 +16,20 @@ package org.trellisldp.triplestore;
 import static java.util.Objects.nonNull;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
+import static java.util.stream.StreamSupport.stream;
 import static org.apache.jena.query.DatasetFactory.wrap;
+import static org.apache.jena.query.ReadWrite.READ;
 
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import org.apache.commons.rdf.api.BlankNodeOrIRI;
 import org.apache.commons.rdf.api.Dataset;
@@ -27,10 +38,16 @@ import org.apache.commons.rdf.api.RDFTerm;
 import org.apache.commons.rdf.api.Triple;
 import org.apache.commons.rdf.jena.JenaDataset;
 import org.apache.commons.rdf.jena.JenaRDF;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
 import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
 import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdfconnection.RDFConnection;
+import org.apache.jena.rdfconnection.RDFConnectionRemote;
 import org.apache.jena.sparql.core.DatasetGraph;
 import org.apache.jena.sparql.core.DatasetGraphFactory;
+import org.apache.jena.sparql.core.Transactional;
 import org.apache.jena.sparql.core.Var;
 
 /**
@@ -40,6 +57,7 @@ final class TriplestoreUtils {
 
     private static final JenaRDF rdf = new JenaRDF();
 
+    public static final Var GRAPH = Var.alloc("graph");
     public static final Var SUBJECT = Var.alloc("subject");
     public static final Var PREDICATE = Var.alloc("predicate");
     public static final Var OBJECT = Var.alloc("object");
@@ -48,6 +66,10 @@ final class TriplestoreUtils {
         return rdf;
     }
 
+    public static IRI getGraph(final QuerySolution qs) {
+        return (IRI) rdf.asRDFTerm(qs.get("graph").asNode());
+    }
+
     public static BlankNodeOrIRI getSubject(final QuerySolution qs) {
         return (BlankNodeOrIRI) rdf.asRDFTerm(qs.get("subject").asNode());
     }
@@ -93,6 +115,251 @@ final class TriplestoreUtils {
         return wrap(dsg);
     }
 
+    /**
+     * Execute a SELECT query, streaming the solutions as they are consumed.
+     *
+     * <p>The query is not executed until the first solution is requested, which means that the
+     * stream may be consumed on a different thread than the one that created it. If the connection
+     * is not already in a transaction, a read transaction is started by the consuming thread and held
+     * until the results are exhausted, an error is raised or the stream is closed. Streams open on the
+     * same thread share that transaction, which ends once all of them are released. For that reason,
+     * a stream that is not consumed to the end must be closed by the thread that consumes it. Remote
+     * connections are queried without a local transaction.
+     *
+     * @param rdfConnection the RDF connection
+     * @param query the SELECT query
+     * @return a stream of query solutions
+     */
+    public static Stream<QuerySolution> select(final RDFConnection rdfConnection, final Query query) {
+        final SolutionIterator iterator = new SolutionIterator(rdfConnection, query);
+        return stream(spliteratorUnknownSize(iterator, ORDERED | NONNULL), false).onClose(iterator::close);
+    }
+
+    /**
+     * Read directly from a dataset, streaming the results as they are consumed.
+     *
+     * <p>As with {@link #select}, the iterator is not created until the first element is requested.
+     * If the dataset is not already in a transaction, a read transaction is started by the consuming
+     * thread, or shared with the other streams open on that thread, and held until the results are
+     * exhausted, an error is raised or the stream is closed.
+     *
+     * @param <T> the type of results
+     * @param dataset the dataset
+     * @param supplier a supplier of an iterator over the dataset
+     * @return a stream of results
+     */
+    public static <T> Stream<T> find(final DatasetGraph dataset, final Supplier<Iterator<T>> supplier) {
+        final DatasetIterator<T> iterator = new DatasetIterator<>(dataset, supplier);
+        return stream(spliteratorUnknownSize(iterator, ORDERED | NONNULL), false).onClose(iterator::close);
+    }
+
+    /**
+     * An iterator over a dataset, evaluated within a read transaction.
+     */
+    static final class DatasetIterator<T> implements Iterator<T> {
+
+        private final DatasetGraph dataset;
+        private final Supplier<Iterator<T>> supplier;
+
+        private Iterator<T> iterator;
+        private boolean leased = false;
+        private boolean closed = false;
+
+        DatasetIterator(final DatasetGraph dataset, final Supplier<Iterator<T>> supplier) {
+            this.dataset = dataset;
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            if (iterator == null) {
+                open();
+            }
+            try {
+                if (iterator.hasNext()) {
+                    return true;
+                }
+            } catch (final RuntimeException ex) {
+                close();
+                throw ex;
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return iterator.next();
+            } catch (final RuntimeException ex) {
+                close();
+                throw ex;
+            }
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                if (leased) {
+                    ReadTransactions.release(dataset);
+                }
+            }
+        }
+
+        private void open() {
+            leased = ReadTransactions.acquire(dataset);
+            try {
+                iterator = supplier.get();
+            } catch (final RuntimeException ex) {
+                close();
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * An iterator backed by a live {@link ResultSet}.
+     */
+    static final class SolutionIterator implements Iterator<QuerySolution> {
+
+        private final RDFConnection rdfConnection;
+        private final Query query;
+
+        private QueryExecution execution;
+        private ResultSet results;
+        private boolean leased = false;
+        private boolean closed = false;
+
+        SolutionIterator(final RDFConnection rdfConnection, final Query query) {
+            this.rdfConnection = rdfConnection;
+            this.query = query;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            if (results == null) {
+                open();
+            }
+            try {
+                if (results.hasNext()) {
+                    return true;
+                }
+            } catch (final RuntimeException ex) {
+                close();
+                throw ex;
+            }
+            close();
+            return false;
+        }
+
+        @Override
+        public QuerySolution next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return results.next();
+            } catch (final RuntimeException ex) {
+                close();
+                throw ex;
+            }
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                try {
+                    if (execution != null) {
+                        execution.close();
+                    }
+                } finally {
+                    if (leased) {
+                        ReadTransactions.release(rdfConnection);
+                    }
+                }
+            }
+        }
+
+        private void open() {
+            // A local transaction on a remote connection only serializes access to it
+            if (!(rdfConnection instanceof RDFConnectionRemote)) {
+                leased = ReadTransactions.acquire(rdfConnection);
+            }
+            try {
+                execution = rdfConnection.query(query);
+                results = execution.execSelect();
+            } catch (final RuntimeException ex) {
+                close();
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * The read transactions begun by the iterators on the current thread.
+     *
+     * <p>Each transaction is counted by the iterators that use it, so that the iterator that began a
+     * transaction does not end it under another one. A transaction that was begun by the caller is
+     * left for the caller to end.
+     */
+    static final class ReadTransactions {
+
+        private static final ThreadLocal<Map<Transactional, Integer>> leases =
+            ThreadLocal.withInitial(IdentityHashMap::new);
+
+        /**
+         * Begin or join a read transaction.
+         *
+         * @param transactional the dataset or connection
+         * @return true if the transaction must be released; false if it belongs to the caller
+         */
+        static boolean acquire(final Transactional transactional) {
+            final Map<Transactional, Integer> active = leases.get();
+            final Integer count = active.get(transactional);
+            if (count != null) {
+                active.put(transactional, count + 1);
+                return true;
+            } else if (transactional.isInTransaction()) {
+                return false;
+            }
+            transactional.begin(READ);
+            active.put(transactional, 1);
+            return true;
+        }
+
+        /**
+         * Release a read transaction, ending it if no other iterator uses it.
+         *
+         * @param transactional the dataset or connection
+         */
+        static void release(final Transactional transactional) {
+            final Map<Transactional, Integer> active = leases.get();
+            final Integer count = active.get(transactional);
+            if (count == null) {
+                // Transactions are bound to a thread, so there is nothing to end on this one
+                return;
+            } else if (count > 1) {
+                active.put(transactional, count - 1);
+            } else {
+                active.remove(transactional);
+                transactional.end();
+            }
+        }
+
+        private ReadTransactions() {
+            // prevent instantiation
+        }
+    }
+
     private TriplestoreUtils() {
         // prevent instantiation
     }
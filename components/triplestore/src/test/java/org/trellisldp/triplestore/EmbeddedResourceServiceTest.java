@@ -0,0 +1,32 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.triplestore;
+
+import static org.trellisldp.triplestore.TriplestoreResourceService.buildRDFConnection;
+
+import org.trellisldp.api.ResourceService;
+import org.trellisldp.test.AbstractResourceServiceTests;
+
+/**
+ * ResourceService tests, using direct access to an embedded dataset.
+ */
+public class EmbeddedResourceServiceTest extends AbstractResourceServiceTests {
+
+    private final ResourceService svc = new TriplestoreResourceService(buildRDFConnection(null));
+
+    @Override
+    public ResourceService getResourceService() {
+        return svc;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.triplestore;
+
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.rdfconnection.RDFConnection;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.modify.request.QuadDataAcc;
+import org.apache.jena.sparql.modify.request.UpdateDataInsert;
+import org.apache.jena.update.Update;
+import org.apache.jena.update.UpdateRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.trellisldp.api.RuntimeTrellisException;
+
+/**
+ * Test the GroupCommitWriter class.
+ */
+public class GroupCommitWriterTest {
+
+    private static final Node graph = createURI("trellis:data/graph");
+    private static final Node predicate = createURI("http://example.com/value");
+
+    @Mock
+    private RDFConnection mockRdfConnection;
+
+    @BeforeEach
+    public void setUp() {
+        initMocks(this);
+    }
+
+    @Test
+    public void testCoalesceUpdates() throws Exception {
+        final GroupCommitWriter writer = new GroupCommitWriter(mockRdfConnection, 10, 500L);
+        final CompletableFuture<Void> first = writer.submit(insert("1")).toCompletableFuture();
+        final CompletableFuture<Void> second = writer.submit(insert("2")).toCompletableFuture();
+        final CompletableFuture<Void> third = writer.submit(insert("3")).toCompletableFuture();
+
+        CompletableFuture.allOf(first, second, third).get();
+
+        final ArgumentCaptor<UpdateRequest> captor = ArgumentCaptor.forClass(UpdateRequest.class);
+        verify(mockRdfConnection).update(captor.capture());
+        assertEquals(3, captor.getValue().getOperations().size(), "Incorrect number of batched operations!");
+    }
+
+    @Test
+    public void testBatchSize() throws Exception {
+        final GroupCommitWriter writer = new GroupCommitWriter(mockRdfConnection, 2, 500L);
+        final CompletableFuture<Void> first = writer.submit(insert("1")).toCompletableFuture();
+        final CompletableFuture<Void> second = writer.submit(insert("2")).toCompletableFuture();
+        final CompletableFuture<Void> third = writer.submit(insert("3")).toCompletableFuture();
+
+        CompletableFuture.allOf(first, second, third).get();
+
+        verify(mockRdfConnection, times(2)).update(any(UpdateRequest.class));
+    }
+
+    @Test
+    public void testBatchFailure() throws Exception {
+        final Update bad = insert("bad").getOperations().get(0);
+        doThrow(new RuntimeException("Expected exception")).when(mockRdfConnection)
+            .update(argThat((UpdateRequest req) -> req.getOperations().contains(bad)));
+
+        final GroupCommitWriter writer = new GroupCommitWriter(mockRdfConnection, 10, 500L);
+        final CompletableFuture<Void> first = writer.submit(insert("1")).toCompletableFuture();
+        final CompletableFuture<Void> failure = writer.submit(new UpdateRequest(bad)).toCompletableFuture();
+        final CompletableFuture<Void> third = writer.submit(insert("3")).toCompletableFuture();
+
+        first.get();
+        third.get();
+        final ExecutionException ex = assertThrows(ExecutionException.class, failure::get,
+                "No exception with a failed update!");
+        assertTrue(ex.getCause() instanceof RuntimeTrellisException, "Incorrect exception type!");
+        verify(mockRdfConnection, times(4)).update(any(UpdateRequest.class));
+    }
+
+    @Test
+    public void testNoWindow() throws Exception {
+        final GroupCommitWriter writer = new GroupCommitWriter(mockRdfConnection, 10, 0L);
+        writer.submit(insert("1")).toCompletableFuture().get();
+        writer.submit(insert("2")).toCompletableFuture().get();
+
+        verify(mockRdfConnection, times(2)).update(any(UpdateRequest.class));
+    }
+
+    @Test
+    public void testDeferredUpdates() throws Exception {
+        final AtomicInteger commits = new AtomicInteger();
+        final AtomicInteger secondBuilt = new AtomicInteger(-1);
+        final AtomicInteger thirdBuilt = new AtomicInteger(-1);
+        doAnswer(inv -> commits.incrementAndGet()).when(mockRdfConnection).update(any(UpdateRequest.class));
+
+        final GroupCommitWriter writer = new GroupCommitWriter(mockRdfConnection, 10, 500L);
+        final CompletableFuture<Void> first = writer.submit("a", insert("1")).toCompletableFuture();
+        final CompletableFuture<Void> second = writer.submit("b", () -> {
+            secondBuilt.set(commits.get());
+            return insert("2");
+        }).toCompletableFuture();
+        final CompletableFuture<Void> third = writer.submit("a", () -> {
+            thirdBuilt.set(commits.get());
+            return insert("3");
+        }).toCompletableFuture();
+
+        CompletableFuture.allOf(first, second, third).get();
+
+        assertEquals(0, secondBuilt.get(), "An unrelated update should join the current batch!");
+        assertEquals(1, thirdBuilt.get(), "Update built before an earlier update with the same key committed!");
+        final ArgumentCaptor<UpdateRequest> captor = ArgumentCaptor.forClass(UpdateRequest.class);
+        verify(mockRdfConnection, times(2)).update(captor.capture());
+        assertEquals(2, captor.getAllValues().get(0).getOperations().size(), "Incorrect size of first batch!");
+        assertEquals(1, captor.getAllValues().get(1).getOperations().size(), "Incorrect size of second batch!");
+    }
+
+    @Test
+    public void testDeferredFailure() throws Exception {
+        final GroupCommitWriter writer = new GroupCommitWriter(mockRdfConnection, 10, 500L);
+        final CompletableFuture<Void> first = writer.submit(insert("1")).toCompletableFuture();
+        final CompletableFuture<Void> failure = writer.submit("a", () -> {
+            throw new IllegalStateException("Expected exception");
+        }).toCompletableFuture();
+        final CompletableFuture<Void> third = writer.submit(insert("3")).toCompletableFuture();
+
+        first.get();
+        third.get();
+        final ExecutionException ex = assertThrows(ExecutionException.class, failure::get,
+                "No exception with a failed update!");
+        assertTrue(ex.getCause() instanceof IllegalStateException, "Builder exception not passed through!");
+        final ArgumentCaptor<UpdateRequest> captor = ArgumentCaptor.forClass(UpdateRequest.class);
+        verify(mockRdfConnection).update(captor.capture());
+        assertEquals(2, captor.getValue().getOperations().size(), "Incorrect number of batched operations!");
+    }
+
+    @Test
+    public void testCompletionThread() throws Exception {
+        final CountDownLatch committing = new CountDownLatch(1);
+        doAnswer(inv -> {
+            committing.await();
+            return null;
+        }).when(mockRdfConnection).update(any(UpdateRequest.class));
+        final GroupCommitWriter writer = new GroupCommitWriter(mockRdfConnection, 10, 0L);
+        final CompletableFuture<String> thread = writer.submit(insert("1"))
+            .thenApply(x -> Thread.currentThread().getName()).toCompletableFuture();
+        committing.countDown();
+
+        // Dependent stages never run on the writer thread
+        assertTrue(thread.get().startsWith("trellis-triplestore-callback-"), "Update completed on " + thread.get());
+        writer.close();
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final AtomicInteger callbacks = new AtomicInteger();
+        final Executor executor = runnable -> {
+            callbacks.incrementAndGet();
+            ForkJoinPool.commonPool().execute(runnable);
+        };
+        final GroupCommitWriter writer = new GroupCommitWriter(mockRdfConnection, 10, 500L, executor);
+        final CompletableFuture<Void> first = writer.submit(insert("1")).toCompletableFuture();
+        final CompletableFuture<Void> second = writer.submit(insert("2")).toCompletableFuture();
+        writer.close();
+
+        // Queued updates are committed before the writer stops
+        CompletableFuture.allOf(first, second).get();
+        verify(mockRdfConnection).update(any(UpdateRequest.class));
+        assertEquals(2, callbacks.get(), "Updates not completed on the callback executor!");
+
+        final ExecutionException ex = assertThrows(ExecutionException.class,
+                writer.submit(insert("3")).toCompletableFuture()::get, "No exception once the writer is closed!");
+        assertTrue(ex.getCause() instanceof RuntimeTrellisException, "Incorrect exception type!");
+        verify(mockRdfConnection).update(any(UpdateRequest.class));
+    }
+
+    private static UpdateRequest insert(final String value) {
+        final QuadDataAcc sink = new QuadDataAcc();
+        sink.addQuad(new Quad(graph, createURI("trellis:data/" + value), predicate, createURI("trellis:data/")));
+        return new UpdateRequest(new UpdateDataInsert(sink));
+    }
+}
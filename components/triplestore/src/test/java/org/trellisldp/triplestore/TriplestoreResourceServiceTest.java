@@ -14,9 +14,13 @@
 package org.trellisldp.triplestore;
 
 import static java.time.Instant.now;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.Optional.of;
 import static java.util.concurrent.CompletableFuture.allOf;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.function.Predicate.isEqual;
+import static java.util.stream.Collectors.toList;
 import static org.apache.jena.query.DatasetFactory.wrap;
 import static org.apache.jena.rdfconnection.RDFConnectionFactory.connect;
 import static org.awaitility.Awaitility.await;
@@ -32,27 +36,42 @@ import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
 
 import java.io.File;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.apache.commons.rdf.api.BlankNode;
 import org.apache.commons.rdf.api.Dataset;
+import org.apache.commons.rdf.api.Graph;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.Triple;
 import org.apache.commons.rdf.jena.JenaDataset;
 import org.apache.commons.rdf.jena.JenaRDF;
+import org.apache.jena.query.Query;
 import org.apache.jena.rdfconnection.RDFConnection;
 import org.apache.jena.rdfconnection.RDFConnectionLocal;
 import org.apache.jena.rdfconnection.RDFConnectionRemote;
+import org.apache.jena.sparql.modify.request.UpdateDataDelete;
+import org.apache.jena.sparql.modify.request.UpdateDataInsert;
+import org.apache.jena.sparql.modify.request.UpdateDeleteWhere;
+import org.apache.jena.update.Update;
 import org.apache.jena.update.UpdateRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.trellisldp.api.BinaryMetadata;
+import org.trellisldp.api.Metadata;
 import org.trellisldp.api.Resource;
 import org.trellisldp.api.ResourceService;
+import org.trellisldp.api.RuntimeTrellisException;
 import org.trellisldp.vocabulary.AS;
 import org.trellisldp.vocabulary.DC;
 import org.trellisldp.vocabulary.LDP;
@@ -236,6 +255,392 @@ public class TriplestoreResourceServiceTest {
             svc.get(root).thenAccept(checkRoot(later, 1L)).toCompletableFuture()).join();
     }
 
+    @Test
+    public void testReplaceChanges() throws Exception {
+        final RDFConnection rdfConnection = spy(connect(wrap(rdf.createDataset().asJenaDatasetGraph())));
+        final TriplestoreResourceService svc = new TriplestoreResourceService(rdfConnection);
+        svc.initialize();
+
+        final Literal title = rdf.createLiteral("title");
+        final Dataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferUserManaged, resource, DC.title, title);
+        dataset.add(Trellis.PreferUserManaged, resource, DC.description, rdf.createLiteral("description"));
+        dataset.add(Trellis.PreferUserManaged, resource, DC.subject, SKOS.Concept);
+        dataset.add(Trellis.PreferAccessControl, resource, RDF.type, SKOS.Concept);
+        svc.create(builder(resource).interactionModel(LDP.RDFSource).container(root).build(), dataset)
+            .toCompletableFuture().join();
+
+        final Literal description = rdf.createLiteral("A new description");
+        final Dataset replacement = rdf.createDataset();
+        replacement.add(Trellis.PreferUserManaged, resource, DC.title, title);
+        replacement.add(Trellis.PreferUserManaged, resource, DC.description, description);
+        replacement.add(Trellis.PreferUserManaged, resource, DC.subject, SKOS.Concept);
+        replacement.add(Trellis.PreferAccessControl, resource, RDF.type, SKOS.Concept);
+        clearInvocations(rdfConnection);
+        svc.replace(builder(resource).interactionModel(LDP.RDFSource).container(root).build(), replacement)
+            .toCompletableFuture().join();
+
+        final ArgumentCaptor<UpdateRequest> captor = ArgumentCaptor.forClass(UpdateRequest.class);
+        verify(rdfConnection).update(captor.capture());
+        final List<Update> operations = captor.getValue().getOperations();
+        assertFalse(operations.stream().filter(UpdateDeleteWhere.class::isInstance).map(UpdateDeleteWhere.class::cast)
+                    .flatMap(op -> op.getQuads().stream()).anyMatch(q -> q.getGraph().equals(rdf.asJenaNode(resource))),
+                "Unexpected deletion of the entire user-managed graph!");
+        assertEquals(1L, operations.stream().filter(UpdateDataDelete.class::isInstance)
+                .map(UpdateDataDelete.class::cast).mapToLong(op -> op.getQuads().size()).sum(),
+                "Incorrect number of deleted quads!");
+        assertEquals(1L, operations.stream().filter(UpdateDataInsert.class::isInstance)
+                .map(UpdateDataInsert.class::cast).flatMap(op -> op.getQuads().stream())
+                .filter(q -> q.getGraph().equals(rdf.asJenaNode(resource))).count(),
+                "Incorrect number of inserted user-managed quads!");
+
+        final Resource res = svc.get(resource).toCompletableFuture().join();
+        assertTrue(containsTriple(res, Trellis.PreferUserManaged, rdf.createTriple(resource, DC.title, title)),
+                "Missing unchanged triple!");
+        assertTrue(containsTriple(res, Trellis.PreferUserManaged,
+                    rdf.createTriple(resource, DC.description, description)), "Missing new triple!");
+        assertTrue(containsTriple(res, Trellis.PreferAccessControl,
+                    rdf.createTriple(resource, RDF.type, SKOS.Concept)), "Missing unchanged ACL triple!");
+        assertAll("Check the resource stream", checkResourceStream(res, 3L, 1L, 0L, 0L, 0L));
+    }
+
+    @Test
+    public void testSuppliedModificationTime() throws Exception {
+        final TriplestoreResourceService svc = new TriplestoreResourceService(
+                connect(wrap(rdf.createDataset().asJenaDatasetGraph())));
+        svc.initialize();
+
+        final Instant time = now().minusSeconds(60L);
+        final Dataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferUserManaged, resource, DC.title, rdf.createLiteral("title"));
+        final Metadata metadata = builder(resource).interactionModel(LDP.RDFSource).container(root).modified(time)
+            .build();
+        assertEquals(of(time), svc.getModified(metadata), "Recorded modification time not reported!");
+        svc.create(metadata, dataset).toCompletableFuture().join();
+        assertEquals(time, svc.get(resource).toCompletableFuture().join().getModified(),
+                "Supplied modification time not recorded!");
+
+        final Instant later = now();
+        svc.replace(builder(resource).interactionModel(LDP.RDFSource).container(root).modified(later).build(),
+                dataset).toCompletableFuture().join();
+        assertEquals(later, svc.get(resource).toCompletableFuture().join().getModified(),
+                "Supplied modification time not recorded on replace!");
+    }
+
+    @Test
+    public void testReplaceSuppliedChanges() throws Exception {
+        final RDFConnection rdfConnection = spy(connect(wrap(rdf.createDataset().asJenaDatasetGraph())));
+        final TriplestoreResourceService svc = new TriplestoreResourceService(rdfConnection);
+        svc.initialize();
+
+        final Literal title = rdf.createLiteral("title");
+        final Dataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferUserManaged, resource, DC.title, title);
+        dataset.add(Trellis.PreferUserManaged, resource, DC.description, rdf.createLiteral("description"));
+        svc.create(builder(resource).interactionModel(LDP.RDFSource).container(root).build(), dataset)
+            .toCompletableFuture().join();
+
+        final Dataset replacement = rdf.createDataset();
+        replacement.add(Trellis.PreferUserManaged, resource, DC.title, title);
+        replacement.add(Trellis.PreferUserManaged, resource, DC.subject, SKOS.Concept);
+        final Dataset removed = rdf.createDataset();
+        removed.add(Trellis.PreferUserManaged, resource, DC.description, rdf.createLiteral("description"));
+        final Dataset added = rdf.createDataset();
+        added.add(Trellis.PreferUserManaged, resource, DC.subject, SKOS.Concept);
+        clearInvocations(rdfConnection);
+        svc.replace(builder(resource).interactionModel(LDP.RDFSource).container(root).build(), replacement,
+                removed, added).toCompletableFuture().join();
+
+        verify(rdfConnection, never().description("Stored data read when changes are supplied"))
+            .querySelect(any(Query.class), any());
+        final Resource res = svc.get(resource).toCompletableFuture().join();
+        assertTrue(containsTriple(res, Trellis.PreferUserManaged, rdf.createTriple(resource, DC.title, title)),
+                "Missing unchanged triple!");
+        assertTrue(containsTriple(res, Trellis.PreferUserManaged,
+                    rdf.createTriple(resource, DC.subject, SKOS.Concept)), "Missing new triple!");
+        assertAll("Check the resource stream", checkResourceStream(res, 2L, 0L, 0L, 0L, 0L));
+    }
+
+    @Test
+    public void testReplaceStaleChanges() throws Exception {
+        final RDFConnection rdfConnection = spy(connect(wrap(rdf.createDataset().asJenaDatasetGraph())));
+        final TriplestoreResourceService svc = new TriplestoreResourceService(rdfConnection);
+        svc.initialize();
+
+        final Literal title = rdf.createLiteral("title");
+        final Dataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferUserManaged, resource, DC.title, title);
+        dataset.add(Trellis.PreferUserManaged, resource, DC.description, rdf.createLiteral("other"));
+        svc.create(builder(resource).interactionModel(LDP.RDFSource).container(root).build(), dataset)
+            .toCompletableFuture().join();
+
+        // The changes were computed against a description that is no longer stored
+        final Dataset replacement = rdf.createDataset();
+        replacement.add(Trellis.PreferUserManaged, resource, DC.title, title);
+        replacement.add(Trellis.PreferUserManaged, resource, DC.subject, SKOS.Concept);
+        final Dataset removed = rdf.createDataset();
+        removed.add(Trellis.PreferUserManaged, resource, DC.description, rdf.createLiteral("description"));
+        final Dataset added = rdf.createDataset();
+        added.add(Trellis.PreferUserManaged, resource, DC.subject, SKOS.Concept);
+        clearInvocations(rdfConnection);
+        svc.replace(builder(resource).interactionModel(LDP.RDFSource).container(root).build(), replacement,
+                removed, added).toCompletableFuture().join();
+
+        verify(rdfConnection, description("Stored data not compared with stale changes"))
+            .querySelect(any(Query.class), any());
+        final Resource res = svc.get(resource).toCompletableFuture().join();
+        assertTrue(containsTriple(res, Trellis.PreferUserManaged, rdf.createTriple(resource, DC.title, title)),
+                "Missing unchanged triple!");
+        assertTrue(containsTriple(res, Trellis.PreferUserManaged,
+                    rdf.createTriple(resource, DC.subject, SKOS.Concept)), "Missing new triple!");
+        assertAll("Check the resource stream", checkResourceStream(res, 2L, 0L, 0L, 0L, 0L));
+    }
+
+    @Test
+    public void testReplaceBlankNodes() throws Exception {
+        final RDFConnection rdfConnection = spy(connect(wrap(rdf.createDataset().asJenaDatasetGraph())));
+        final TriplestoreResourceService svc = new TriplestoreResourceService(rdfConnection);
+        svc.initialize();
+
+        final Literal title = rdf.createLiteral("title");
+        final Dataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferUserManaged, resource, DC.title, title);
+        dataset.add(Trellis.PreferUserManaged, resource, DC.relation, rdf.createBlankNode());
+        svc.create(builder(resource).interactionModel(LDP.RDFSource).container(root).build(), dataset)
+            .toCompletableFuture().join();
+
+        final Dataset replacement = rdf.createDataset();
+        replacement.add(Trellis.PreferUserManaged, resource, DC.title, title);
+        clearInvocations(rdfConnection);
+        svc.replace(builder(resource).interactionModel(LDP.RDFSource).container(root).build(), replacement)
+            .toCompletableFuture().join();
+
+        final ArgumentCaptor<UpdateRequest> captor = ArgumentCaptor.forClass(UpdateRequest.class);
+        verify(rdfConnection).update(captor.capture());
+        assertTrue(captor.getValue().getOperations().stream().filter(UpdateDeleteWhere.class::isInstance)
+                .map(UpdateDeleteWhere.class::cast).flatMap(op -> op.getQuads().stream())
+                .anyMatch(q -> q.getGraph().equals(rdf.asJenaNode(resource))),
+                "Stored blank nodes should cause the entire user-managed graph to be replaced!");
+        final Resource res = svc.get(resource).toCompletableFuture().join();
+        assertAll("Check the resource stream", checkResourceStream(res, 1L, 0L, 0L, 0L, 0L));
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        final TriplestoreResourceService svc = new TriplestoreResourceService(
+                TriplestoreResourceService.buildRDFConnection(null));
+        svc.initialize();
+        assertTrue(svc.supportsUpdate(), "In-place updates should be supported by an embedded dataset!");
+
+        final Dataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferUserManaged, resource, DC.title, rdf.createLiteral("title"));
+        dataset.add(Trellis.PreferUserManaged, resource, DC.subject, SKOS.Concept);
+        dataset.add(Trellis.PreferAccessControl, resource, RDF.type, SKOS.Concept);
+        svc.create(builder(resource).interactionModel(LDP.RDFSource).container(root).build(), dataset)
+            .toCompletableFuture().join();
+
+        final Literal description = rdf.createLiteral("description");
+        final List<Triple> added = new ArrayList<>();
+        svc.update(builder(resource).interactionModel(LDP.RDFSource).container(root).build(),
+                Trellis.PreferUserManaged, "DELETE WHERE { <> <http://purl.org/dc/terms/title> ?o };"
+                + "INSERT DATA { <> <http://purl.org/dc/terms/description> \"description\" ;"
+                + " <http://purl.org/dc/terms/subject> <http://www.w3.org/2004/02/skos/core#Concept> }",
+                resource.getIRIString(), graph -> {
+                    graph.stream().forEach(added::add);
+                    return graph;
+                }).toCompletableFuture().join();
+
+        assertEquals(asList(rdf.createTriple(resource, DC.description, description)), added,
+                "Only the added triples should be passed to the handler!");
+        final Resource res = svc.get(resource).toCompletableFuture().join();
+        assertEquals(LDP.RDFSource, res.getInteractionModel(), "Incorrect interaction model!");
+        assertEquals(of(root), res.getContainer(), "Incorrect container!");
+        assertFalse(containsTriple(res, Trellis.PreferUserManaged,
+                    rdf.createTriple(resource, DC.title, rdf.createLiteral("title"))), "Unexpected deleted triple!");
+        assertTrue(containsTriple(res, Trellis.PreferUserManaged,
+                    rdf.createTriple(resource, DC.description, description)), "Missing new triple!");
+        assertTrue(containsTriple(res, Trellis.PreferAccessControl,
+                    rdf.createTriple(resource, RDF.type, SKOS.Concept)), "Missing unchanged ACL triple!");
+        assertAll("Check the resource stream", checkResourceStream(res, 2L, 1L, 0L, 0L, 0L));
+    }
+
+    @Test
+    public void testUpdateAccessControl() throws Exception {
+        final TriplestoreResourceService svc = new TriplestoreResourceService(
+                TriplestoreResourceService.buildRDFConnection(null));
+        svc.initialize();
+
+        final Dataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferUserManaged, resource, DC.title, rdf.createLiteral("title"));
+        svc.create(builder(resource).interactionModel(LDP.RDFSource).container(root).build(), dataset)
+            .toCompletableFuture().join();
+
+        svc.update(builder(resource).interactionModel(LDP.RDFSource).container(root).build(),
+                Trellis.PreferAccessControl, "INSERT DATA { <> a <http://www.w3.org/2004/02/skos/core#Concept> }",
+                resource.getIRIString(), graph -> graph).toCompletableFuture().join();
+
+        final Resource res = svc.get(resource).toCompletableFuture().join();
+        assertTrue(containsTriple(res, Trellis.PreferAccessControl,
+                    rdf.createTriple(resource, RDF.type, SKOS.Concept)), "Missing new ACL triple!");
+        assertAll("Check the resource stream", checkResourceStream(res, 1L, 1L, 0L, 0L, 0L));
+    }
+
+    @Test
+    public void testUpdateMembership() throws Exception {
+        final TriplestoreResourceService svc = new TriplestoreResourceService(
+                TriplestoreResourceService.buildRDFConnection(null));
+        svc.initialize();
+
+        final Dataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferUserManaged, resource, LDP.membershipResource, members);
+        dataset.add(Trellis.PreferUserManaged, resource, LDP.hasMemberRelation, DC.subject);
+        svc.create(builder(resource).interactionModel(LDP.DirectContainer).container(root)
+                .membershipResource(members).memberRelation(DC.subject).build(), dataset)
+            .toCompletableFuture().join();
+
+        svc.update(builder(resource).interactionModel(LDP.DirectContainer).container(root).build(),
+                Trellis.PreferUserManaged, "DELETE DATA { <> <http://www.w3.org/ns/ldp#hasMemberRelation> "
+                + "<http://purl.org/dc/terms/subject> }; INSERT DATA { <> "
+                + "<http://www.w3.org/ns/ldp#hasMemberRelation> <http://purl.org/dc/terms/relation> }",
+                resource.getIRIString(), graph -> graph).toCompletableFuture().join();
+
+        final Resource res = svc.get(resource).toCompletableFuture().join();
+        assertEquals(of(members), res.getMembershipResource(), "Incorrect membership resource!");
+        assertEquals(of(DC.relation), res.getMemberRelation(), "Incorrect member relation!");
+        assertEquals(of(LDP.MemberSubject), res.getInsertedContentRelation(), "Incorrect inserted content relation!");
+    }
+
+    @Test
+    public void testUpdateHandlerFailure() throws Exception {
+        final TriplestoreResourceService svc = new TriplestoreResourceService(
+                TriplestoreResourceService.buildRDFConnection(null));
+        svc.initialize();
+
+        final Literal title = rdf.createLiteral("title");
+        final Dataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferUserManaged, resource, DC.title, title);
+        svc.create(builder(resource).interactionModel(LDP.RDFSource).container(root).build(), dataset)
+            .toCompletableFuture().join();
+
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                svc.update(builder(resource).interactionModel(LDP.RDFSource).container(root).build(),
+                    Trellis.PreferUserManaged, "DELETE WHERE { <> ?p ?o }; INSERT DATA { <> a <ex:Type> }",
+                    resource.getIRIString(), graph -> {
+                        throw new IllegalStateException("Expected exception");
+                    }).toCompletableFuture().join(), "No exception with a failed handler!");
+        assertTrue(err.getCause() instanceof IllegalStateException, "Handler exception not passed through!");
+
+        final Resource res = svc.get(resource).toCompletableFuture().join();
+        assertTrue(containsTriple(res, Trellis.PreferUserManaged, rdf.createTriple(resource, DC.title, title)),
+                "Unexpected change after a failed update!");
+        assertAll("Check the resource stream", checkResourceStream(res, 1L, 0L, 0L, 0L, 0L));
+    }
+
+    @Test
+    public void testUpdateConcurrentChange() throws Exception {
+        final RDFConnection connection = TriplestoreResourceService.buildRDFConnection(null);
+        final TriplestoreResourceService svc = new TriplestoreResourceService(connection);
+        svc.initialize();
+
+        final Dataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferUserManaged, resource, DC.title, rdf.createLiteral("title"));
+        svc.create(builder(resource).interactionModel(LDP.RDFSource).container(root).build(), dataset)
+            .toCompletableFuture().join();
+
+        final List<Graph> prepared = new ArrayList<>();
+        svc.update(builder(resource).interactionModel(LDP.RDFSource).container(root).build(),
+                Trellis.PreferUserManaged, "DELETE { <> <http://purl.org/dc/terms/title> ?o } "
+                + "INSERT { <> <http://purl.org/dc/terms/description> ?o } "
+                + "WHERE { <> <http://purl.org/dc/terms/title> ?o }",
+                resource.getIRIString(), graph -> {
+                    if (prepared.isEmpty()) {
+                        // Change the stored graph after the update has been prepared
+                        connection.update("DELETE DATA { GRAPH <" + resource.getIRIString() + "> { <"
+                                + resource.getIRIString() + "> <http://purl.org/dc/terms/title> \"title\" } };"
+                                + "INSERT DATA { GRAPH <" + resource.getIRIString() + "> { <"
+                                + resource.getIRIString() + "> <http://purl.org/dc/terms/title> \"other\" } }");
+                    }
+                    prepared.add(graph);
+                    return graph;
+                }).toCompletableFuture().join();
+
+        assertEquals(2, prepared.size(), "The update should be prepared again after a concurrent change!");
+        final Resource res = svc.get(resource).toCompletableFuture().join();
+        assertTrue(containsTriple(res, Trellis.PreferUserManaged,
+                    rdf.createTriple(resource, DC.description, rdf.createLiteral("other"))), "Missing new triple!");
+        assertAll("Check the resource stream", checkResourceStream(res, 1L, 0L, 0L, 0L, 0L));
+    }
+
+    @Test
+    public void testUpdateInvalid() throws Exception {
+        final TriplestoreResourceService svc = new TriplestoreResourceService(
+                TriplestoreResourceService.buildRDFConnection(null));
+        svc.initialize();
+
+        assertThrows(RuntimeTrellisException.class, () ->
+                svc.update(builder(resource).interactionModel(LDP.RDFSource).container(root).build(),
+                    Trellis.PreferUserManaged, "INSERT DATA { <> a ", resource.getIRIString(), graph -> graph),
+                "No exception with an invalid update!");
+    }
+
+    @Test
+    public void testUpdateUnsupported() throws Exception {
+        final TriplestoreResourceService svc = new TriplestoreResourceService(
+                connect(wrap(rdf.createDataset().asJenaDatasetGraph())));
+        svc.initialize();
+
+        assertFalse(svc.supportsUpdate(), "In-place updates should not be supported by this connection!");
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                svc.update(builder(resource).interactionModel(LDP.RDFSource).container(root).build(),
+                    Trellis.PreferUserManaged, "INSERT DATA { <> a <ex:Type> }", resource.getIRIString(),
+                    graph -> graph).toCompletableFuture().join(), "No exception with an unsupported update!");
+        assertTrue(err.getCause() instanceof UnsupportedOperationException, "Incorrect exception type!");
+    }
+
+    @Test
+    public void testPutLdpNrDigests() throws Exception {
+        final TriplestoreResourceService svc = new TriplestoreResourceService(
+                connect(wrap(rdf.createDataset().asJenaDatasetGraph())));
+        svc.initialize();
+
+        final Map<String, String> digests = new HashMap<>();
+        digests.put("MD5", "d553b24705175b508f742e677a5b7b19");
+        digests.put("SHA-1", "2aae6c35c94fcfb415dbe95f408b9ce91ee846ed");
+        final BinaryMetadata binary = BinaryMetadata.builder(rdf.createIRI("foo:binary")).mimeType("text/plain")
+            .digests(digests).build();
+        final Dataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferAudit, rdf.createBlankNode(), RDF.type, AS.Create);
+
+        assertDoesNotThrow(() ->
+              svc.create(builder(resource).interactionModel(LDP.NonRDFSource).container(root).binary(binary).build(),
+                  dataset).toCompletableFuture().join(), "Unsuccessful create operation!");
+
+        svc.get(resource).thenAccept(res -> assertEquals(of(digests), res.getBinaryMetadata()
+                    .map(BinaryMetadata::getDigests), "Incorrect binary digests!")).toCompletableFuture().join();
+    }
+
+    @Test
+    public void testListBinaries() throws Exception {
+        final TriplestoreResourceService svc = new TriplestoreResourceService(
+                connect(wrap(rdf.createDataset().asJenaDatasetGraph())));
+        svc.initialize();
+        assertEquals(0L, svc.listBinaries().count(), "Unexpected binaries!");
+
+        final IRI binaryIdentifier = rdf.createIRI("file:///binary");
+        final Dataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferAudit, rdf.createBlankNode(), RDF.type, AS.Create);
+
+        svc.create(builder(resource).interactionModel(LDP.NonRDFSource).container(root)
+                .binary(BinaryMetadata.builder(binaryIdentifier).build()).build(), dataset)
+            .toCompletableFuture().join();
+        svc.create(builder(members).interactionModel(LDP.RDFSource).container(root).build(), rdf.createDataset())
+            .toCompletableFuture().join();
+
+        try (final Stream<IRI> binaries = svc.listBinaries()) {
+            assertEquals(singletonList(binaryIdentifier), binaries.collect(toList()), "Incorrect binaries!");
+        }
+    }
+
     @Test
     public void testPutLdpNr() throws Exception {
         final TriplestoreResourceService svc = new TriplestoreResourceService(
@@ -543,10 +948,10 @@ public class TriplestoreResourceServiceTest {
             svc.get(resource).thenAccept(res -> {
                 assertAll("Check resource", checkResource(res, resource, LDP.DirectContainer, evenLater));
                 assertAll("Check resource stream", checkResourceStream(res, 5L, 0L, 0L, 1L, 1L));
-                assertTrue(res.stream(LDP.PreferContainment)
-                    .anyMatch(isEqual(rdf.createTriple(resource, LDP.contains, child))), "Missing contains triple!");
-                assertTrue(res.stream(LDP.PreferMembership)
-                    .anyMatch(isEqual(rdf.createTriple(resource, DC.relation, child))), "Missing membership triple!");
+                assertTrue(containsTriple(res, LDP.PreferContainment,
+                        rdf.createTriple(resource, LDP.contains, child)), "Missing contains triple!");
+                assertTrue(containsTriple(res, LDP.PreferMembership,
+                        rdf.createTriple(resource, DC.relation, child)), "Missing membership triple!");
             }).toCompletableFuture(),
             svc.get(root).thenAccept(checkRoot(later, 1L)).toCompletableFuture(),
             svc.get(root).thenAccept(checkPredates(evenLater)).toCompletableFuture()).join();
@@ -610,12 +1015,12 @@ public class TriplestoreResourceServiceTest {
             svc.get(child).thenAccept(checkChild(evenLater2, 1L, 0L)).toCompletableFuture(),
             svc.get(resource).thenAccept(checkResource(evenLater2, LDP.DirectContainer, 4L, 0L, 1L))
                 .toCompletableFuture(),
-            svc.get(resource).thenAccept(res -> assertTrue(res.stream(LDP.PreferContainment)
-                    .anyMatch(isEqual(rdf.createTriple(resource, LDP.contains, child))), "Missing contains triple!"))
+            svc.get(resource).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferContainment,
+                    rdf.createTriple(resource, LDP.contains, child)), "Missing contains triple!"))
                     .toCompletableFuture(),
             svc.get(members).thenAccept(checkMember(evenLater2, 1L, 0L, 1L)).toCompletableFuture(),
-            svc.get(members).thenAccept(res -> assertTrue(res.stream(LDP.PreferMembership)
-                    .anyMatch(isEqual(rdf.createTriple(members, DC.relation, child))), "Missing membership triple!"))
+            svc.get(members).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferMembership,
+                    rdf.createTriple(members, DC.relation, child)), "Missing membership triple!"))
                     .toCompletableFuture(),
             svc.get(root).thenAccept(checkRoot(evenLater, 2L)).toCompletableFuture(),
             svc.get(root).thenAccept(checkPredates(evenLater2)).toCompletableFuture()).join();
@@ -706,12 +1111,12 @@ public class TriplestoreResourceServiceTest {
         allOf(
             svc.get(child).thenAccept(checkChild(later4, 1L, 1L)).toCompletableFuture(),
             svc.get(resource).thenAccept(checkResource(later2, LDP.DirectContainer, 4L, 1L, 1L)).toCompletableFuture(),
-            svc.get(resource).thenAccept(res -> assertTrue(res.stream(LDP.PreferContainment)
-                    .anyMatch(isEqual(rdf.createTriple(resource, LDP.contains, child))), "Missing contains triple!"))
+            svc.get(resource).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferContainment,
+                    rdf.createTriple(resource, LDP.contains, child)), "Missing contains triple!"))
                     .toCompletableFuture(),
             svc.get(members).thenAccept(checkMember(later4, 2L, 1L, 1L)).toCompletableFuture(),
-            svc.get(members).thenAccept(res -> assertTrue(res.stream(LDP.PreferMembership)
-                    .anyMatch(isEqual(rdf.createTriple(members, DC.relation, child))), "Missing membership triple!"))
+            svc.get(members).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferMembership,
+                    rdf.createTriple(members, DC.relation, child)), "Missing membership triple!"))
                     .toCompletableFuture(),
             svc.get(root).thenAccept(checkRoot(later3, 3L)).toCompletableFuture(),
             svc.get(root).thenAccept(checkPredates(later4)).toCompletableFuture()).join();
@@ -737,12 +1142,12 @@ public class TriplestoreResourceServiceTest {
             svc.get(resource2).thenAccept(res -> {
                 assertAll("Check resource", checkResource(res, resource2, LDP.DirectContainer, later5));
                 assertAll("Check resource stream", checkResourceStream(res, 6L, 0L, 1L, 0L, 1L));
-                assertTrue(res.stream(LDP.PreferContainment)
-                    .anyMatch(isEqual(rdf.createTriple(resource2, LDP.contains, child2))), "Missing contains triple!");
+                assertTrue(containsTriple(res, LDP.PreferContainment,
+                        rdf.createTriple(resource2, LDP.contains, child2)), "Missing contains triple!");
             }).toCompletableFuture(),
             svc.get(members).thenAccept(checkMember(later5, 2L, 1L, 2L)).toCompletableFuture(),
-            svc.get(members).thenAccept(res -> assertTrue(res.stream(LDP.PreferMembership)
-                    .anyMatch(isEqual(rdf.createTriple(members, DC.subject, child2))), "Missing membership triple!"))
+            svc.get(members).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferMembership,
+                    rdf.createTriple(members, DC.subject, child2)), "Missing membership triple!"))
                     .toCompletableFuture(),
             svc.get(root).thenAccept(checkRoot(later3, 3L)).toCompletableFuture(),
             svc.get(root).thenAccept(checkPredates(later5)).toCompletableFuture()).join();
@@ -835,8 +1240,8 @@ public class TriplestoreResourceServiceTest {
             }).toCompletableFuture(),
             svc.get(resource).thenAccept(checkResource(evenLater3, LDP.DirectContainer, 5L, 1L, 1L))
                 .toCompletableFuture(),
-            svc.get(resource).thenAccept(res -> assertTrue(res.stream(LDP.PreferContainment)
-                    .anyMatch(isEqual(rdf.createTriple(resource, LDP.contains, child))), "Missing contains triple!"))
+            svc.get(resource).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferContainment,
+                    rdf.createTriple(resource, LDP.contains, child)), "Missing contains triple!"))
                     .toCompletableFuture(),
             svc.get(members).thenAccept(checkMember(evenLater2, 1L, 1L, 0L)).toCompletableFuture(),
             svc.get(members).thenAccept(checkPredates(evenLater3)).toCompletableFuture(),
@@ -863,8 +1268,8 @@ public class TriplestoreResourceServiceTest {
             svc.get(resource2).thenAccept(res -> {
                 assertAll("Check resource", checkResource(res, resource2, LDP.DirectContainer, evenLater4));
                 assertAll("Check resource stream", checkResourceStream(res, 3L, 0L, 1L, 0L, 1L));
-                assertTrue(res.stream(LDP.PreferContainment)
-                    .anyMatch(isEqual(rdf.createTriple(resource2, LDP.contains, child2))), "Missing contains triple!");
+                assertTrue(containsTriple(res, LDP.PreferContainment,
+                        rdf.createTriple(resource2, LDP.contains, child2)), "Missing contains triple!");
             }).toCompletableFuture(),
             svc.get(members).thenAccept(checkMember(evenLater2, 1L, 1L, 0L)).toCompletableFuture(),
             svc.get(members).thenAccept(checkPredates(evenLater4)).toCompletableFuture(),
@@ -948,12 +1353,12 @@ public class TriplestoreResourceServiceTest {
             svc.get(child).thenAccept(checkChild(evenLater2, 1L, 3L)).toCompletableFuture(),
             svc.get(resource).thenAccept(checkResource(evenLater2, LDP.IndirectContainer, 7L, 4L, 1L))
                     .toCompletableFuture(),
-            svc.get(resource).thenAccept(res -> assertTrue(res.stream(LDP.PreferContainment)
-                    .anyMatch(isEqual(rdf.createTriple(resource, LDP.contains, child))), "Missing contains triple!"))
+            svc.get(resource).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferContainment,
+                    rdf.createTriple(resource, LDP.contains, child)), "Missing contains triple!"))
                     .toCompletableFuture(),
             svc.get(members).thenAccept(checkMember(evenLater2, 1L, 4L, 1L)).toCompletableFuture(),
-            svc.get(members).thenAccept(res -> assertTrue(res.stream(LDP.PreferMembership)
-                    .anyMatch(isEqual(rdf.createTriple(members, RDFS.label, label))), "Missing member triple!"))
+            svc.get(members).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferMembership,
+                    rdf.createTriple(members, RDFS.label, label)), "Missing member triple!"))
                     .toCompletableFuture(),
             svc.get(root).thenAccept(checkRoot(evenLater, 2L)).toCompletableFuture(),
             svc.get(root).thenAccept(checkPredates(evenLater2)).toCompletableFuture()).join();
@@ -1024,12 +1429,12 @@ public class TriplestoreResourceServiceTest {
             svc.get(child).thenAccept(checkChild(evenLater2, 1L, 1L)).toCompletableFuture(),
             svc.get(resource).thenAccept(checkResource(evenLater2, LDP.IndirectContainer, 5L, 1L, 1L))
                 .toCompletableFuture(),
-            svc.get(resource).thenAccept(res -> assertTrue(res.stream(LDP.PreferContainment)
-                    .anyMatch(isEqual(rdf.createTriple(resource, LDP.contains, child))), "Missing contains triple!"))
+            svc.get(resource).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferContainment,
+                    rdf.createTriple(resource, LDP.contains, child)), "Missing contains triple!"))
                     .toCompletableFuture(),
             svc.get(members).thenAccept(checkMember(evenLater2, 1L, 2L, 1L)).toCompletableFuture(),
-            svc.get(members).thenAccept(res -> assertTrue(res.stream(LDP.PreferMembership)
-                    .anyMatch(isEqual(rdf.createTriple(members, RDFS.label, child))), "Missing membership triple!"))
+            svc.get(members).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferMembership,
+                    rdf.createTriple(members, RDFS.label, child)), "Missing membership triple!"))
                     .toCompletableFuture(),
             svc.get(root).thenAccept(checkRoot(evenLater, 2L)).toCompletableFuture(),
             svc.get(root).thenAccept(checkPredates(evenLater2)).toCompletableFuture()).join();
@@ -1103,15 +1508,15 @@ public class TriplestoreResourceServiceTest {
             svc.get(child).thenAccept(checkChild(evenLater2, 2L, 1L)).toCompletableFuture(),
             svc.get(resource).thenAccept(checkResource(evenLater2, LDP.IndirectContainer, 4L, 2L, 1L))
                     .toCompletableFuture(),
-            svc.get(resource).thenAccept(res -> assertTrue(res.stream(LDP.PreferContainment)
-                    .anyMatch(isEqual(rdf.createTriple(resource, LDP.contains, child))), "Missing contains triple!"))
+            svc.get(resource).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferContainment,
+                    rdf.createTriple(resource, LDP.contains, child)), "Missing contains triple!"))
                     .toCompletableFuture(),
             svc.get(members).thenAccept(checkMember(evenLater2, 1L, 3L, 2L)).toCompletableFuture(),
             svc.get(members).thenAccept(res -> {
-                assertTrue(res.stream(LDP.PreferMembership)
-                    .anyMatch(isEqual(rdf.createTriple(members, RDFS.label, label2))), "Missing member triple (1)!");
-                assertTrue(res.stream(LDP.PreferMembership)
-                    .anyMatch(isEqual(rdf.createTriple(members, RDFS.label, label1))), "Missing member triple (2)!");
+                assertTrue(containsTriple(res, LDP.PreferMembership,
+                        rdf.createTriple(members, RDFS.label, label2)), "Missing member triple (1)!");
+                assertTrue(containsTriple(res, LDP.PreferMembership,
+                        rdf.createTriple(members, RDFS.label, label1)), "Missing member triple (2)!");
             }).toCompletableFuture(),
             svc.get(root).thenAccept(checkRoot(evenLater, 2L)).toCompletableFuture(),
             svc.get(root).thenAccept(checkPredates(evenLater2)).toCompletableFuture()).join();
@@ -1207,12 +1612,12 @@ public class TriplestoreResourceServiceTest {
             svc.get(child).thenAccept(checkChild(evenLater3, 1L, 1L)).toCompletableFuture(),
             svc.get(resource).thenAccept(checkResource(evenLater3, LDP.IndirectContainer, 5L, 3L, 1L))
                     .toCompletableFuture(),
-            svc.get(resource).thenAccept(res -> assertTrue(res.stream(LDP.PreferContainment)
-                    .anyMatch(isEqual(rdf.createTriple(resource, LDP.contains, child))), "Missing contains triple!"))
+            svc.get(resource).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferContainment,
+                    rdf.createTriple(resource, LDP.contains, child)), "Missing contains triple!"))
                     .toCompletableFuture(),
             svc.get(members).thenAccept(checkMember(evenLater3, 1L, 1L, 1L)).toCompletableFuture(),
-            svc.get(members).thenAccept(res -> assertTrue(res.stream(LDP.PreferMembership)
-                    .anyMatch(isEqual(rdf.createTriple(members, RDFS.label, label))), "Missing membership triple!"))
+            svc.get(members).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferMembership,
+                    rdf.createTriple(members, RDFS.label, label)), "Missing membership triple!"))
                     .toCompletableFuture(),
             svc.get(root).thenAccept(checkRoot(evenLater, 3L)).toCompletableFuture(),
             svc.get(root).thenAccept(checkPredates(evenLater3)).toCompletableFuture()).join();
@@ -1242,26 +1647,140 @@ public class TriplestoreResourceServiceTest {
             svc.get(resource).thenAccept(checkResource(evenLater3, LDP.IndirectContainer, 5L, 3L, 1L))
                 .toCompletableFuture(),
             svc.get(resource).thenAccept(checkPredates(evenLater4)).toCompletableFuture(),
-            svc.get(resource).thenAccept(res -> assertTrue(res.stream(LDP.PreferContainment)
-                .anyMatch(isEqual(rdf.createTriple(resource, LDP.contains, child))), "Missing containment triple!"))
+            svc.get(resource).thenAccept(res -> assertTrue(containsTriple(res, LDP.PreferContainment,
+                    rdf.createTriple(resource, LDP.contains, child)), "Missing containment triple!"))
                 .toCompletableFuture(),
             svc.get(resource2).thenAccept(res -> {
                 assertAll("Check resource", checkResource(res, resource2, LDP.IndirectContainer, evenLater4));
                 assertAll("Check resource stream", checkResourceStream(res, 4L, 0L, 1L, 0L, 1L));
-                assertTrue(res.stream(LDP.PreferContainment).anyMatch(isEqual(rdf.createTriple(resource2, LDP.contains,
-                                    child2))), "Missing containment triple!");
+                assertTrue(containsTriple(res, LDP.PreferContainment, rdf.createTriple(resource2, LDP.contains,
+                                    child2)), "Missing containment triple!");
             }).toCompletableFuture(),
             svc.get(members).thenAccept(checkMember(evenLater4, 1L, 1L, 2L)).toCompletableFuture(),
             svc.get(members).thenAccept(res -> {
-                assertTrue(res.stream(LDP.PreferMembership)
-                    .anyMatch(isEqual(rdf.createTriple(members, RDFS.label, label))), "Missing member triple (1)!");
-                assertTrue(res.stream(LDP.PreferMembership)
-                    .anyMatch(isEqual(rdf.createTriple(members, RDFS.label, label2))), "Missing member triple (2)!");
+                assertTrue(containsTriple(res, LDP.PreferMembership,
+                        rdf.createTriple(members, RDFS.label, label)), "Missing member triple (1)!");
+                assertTrue(containsTriple(res, LDP.PreferMembership,
+                        rdf.createTriple(members, RDFS.label, label2)), "Missing member triple (2)!");
             }).toCompletableFuture(),
             svc.get(root).thenAccept(checkRoot(evenLater, 3L)).toCompletableFuture(),
             svc.get(root).thenAccept(checkPredates(evenLater4)).toCompletableFuture()).join();
     }
 
+    @Test
+    public void testIndirectMembershipIndex() throws Exception {
+        final TriplestoreResourceService svc = new TriplestoreResourceService(
+                connect(wrap(rdf.createDataset().asJenaDatasetGraph())));
+        svc.initialize();
+
+        final Literal label = rdf.createLiteral("Shared label");
+        final Triple membership = rdf.createTriple(members, RDFS.label, label);
+        assertDoesNotThrow(() -> allOf(
+                svc.create(builder(members).interactionModel(LDP.RDFSource).container(root).build(),
+                    rdf.createDataset()).toCompletableFuture(),
+                svc.create(builder(resource).interactionModel(LDP.IndirectContainer).container(root)
+                    .membershipResource(members).memberRelation(RDFS.label)
+                    .insertedContentRelation(SKOS.prefLabel).build(), rdf.createDataset()).toCompletableFuture())
+                .join(), "Unsuccessful create operation!");
+
+        // Two children contribute the same membership triple
+        final IRI otherChild = rdf.createIRI(TRELLIS_DATA_PREFIX + "resource/other");
+        for (final IRI c : asList(child, otherChild)) {
+            final Dataset dataset = rdf.createDataset();
+            dataset.add(Trellis.PreferUserManaged, c, SKOS.prefLabel, label);
+            assertDoesNotThrow(() -> svc.create(builder(c).interactionModel(LDP.RDFSource).container(resource)
+                        .build(), dataset).toCompletableFuture().join(), "Unsuccessful create operation!");
+        }
+        assertTrue(containsTriple(svc.get(members).toCompletableFuture().join(), LDP.PreferMembership, membership),
+                "Missing member triple!");
+
+        // Removing one child retains the triple contributed by the other
+        assertDoesNotThrow(() -> svc.delete(builder(child).interactionModel(LDP.RDFSource).container(resource)
+                    .build()).toCompletableFuture().join(), "Unsuccessful delete operation!");
+        assertTrue(containsTriple(svc.get(members).toCompletableFuture().join(), LDP.PreferMembership, membership),
+                "Missing member triple after removing one child!");
+
+        // Changing the member relation of the container rebuilds its membership triples
+        assertDoesNotThrow(() -> svc.replace(builder(resource).interactionModel(LDP.IndirectContainer).container(root)
+                    .membershipResource(members).memberRelation(DC.subject)
+                    .insertedContentRelation(SKOS.prefLabel).build(), rdf.createDataset()).toCompletableFuture()
+                .join(), "Unsuccessful replace operation!");
+        final Resource res = svc.get(members).toCompletableFuture().join();
+        assertFalse(containsTriple(res, LDP.PreferMembership, membership), "Unexpected stale member triple!");
+        assertTrue(containsTriple(res, LDP.PreferMembership, rdf.createTriple(members, DC.subject, label)),
+                "Missing rebuilt member triple!");
+
+        // Removing the last child removes the triple
+        assertDoesNotThrow(() -> svc.delete(builder(otherChild).interactionModel(LDP.RDFSource).container(resource)
+                    .build()).toCompletableFuture().join(), "Unsuccessful delete operation!");
+        try (final Stream<Triple> triples = svc.get(members).toCompletableFuture().join()
+                .stream(LDP.PreferMembership)) {
+            assertEquals(0L, triples.count(), "Unexpected member triples!");
+        }
+    }
+
+    @Test
+    public void testInitializeMembershipIndex() {
+        final Literal time = rdf.createLiteral(now().toString(), XSD.dateTime);
+        final JenaDataset dataset = rdf.createDataset();
+        dataset.add(Trellis.PreferServerManaged, members, RDF.type, LDP.RDFSource);
+        dataset.add(Trellis.PreferServerManaged, members, DC.modified, time);
+        dataset.add(Trellis.PreferServerManaged, resource, RDF.type, LDP.DirectContainer);
+        dataset.add(Trellis.PreferServerManaged, resource, DC.modified, time);
+        dataset.add(Trellis.PreferServerManaged, resource, LDP.member, members);
+        dataset.add(Trellis.PreferServerManaged, resource, LDP.membershipResource, members);
+        dataset.add(Trellis.PreferServerManaged, resource, LDP.hasMemberRelation, DC.subject);
+        dataset.add(Trellis.PreferServerManaged, resource, LDP.insertedContentRelation, LDP.MemberSubject);
+        dataset.add(Trellis.PreferServerManaged, child, RDF.type, LDP.RDFSource);
+        dataset.add(Trellis.PreferServerManaged, child, DC.isPartOf, resource);
+
+        final TriplestoreResourceService svc = new TriplestoreResourceService(
+                connect(wrap(dataset.asJenaDatasetGraph())));
+        assertFalse(containsTriple(svc.get(members).toCompletableFuture().join(), LDP.PreferMembership,
+                    rdf.createTriple(members, DC.subject, child)), "Unexpected member triple before indexing!");
+
+        svc.initialize();
+        assertTrue(containsTriple(svc.get(members).toCompletableFuture().join(), LDP.PreferMembership,
+                    rdf.createTriple(members, DC.subject, child)), "Missing member triple after indexing!");
+
+        // Once built, the index is not rebuilt on startup
+        dataset.remove(of(rdf.createIRI(members.getIRIString() + "?ext=membership")), members, DC.subject, child);
+        svc.initialize();
+        assertFalse(containsTriple(svc.get(members).toCompletableFuture().join(), LDP.PreferMembership,
+                    rdf.createTriple(members, DC.subject, child)), "Unexpected rebuild of the membership index!");
+    }
+
+    @Test
+    public void testDeleteMembershipResource() throws Exception {
+        final JenaDataset dataset = rdf.createDataset();
+        final TriplestoreResourceService svc = new TriplestoreResourceService(
+                connect(wrap(dataset.asJenaDatasetGraph())));
+        svc.initialize();
+
+        final IRI index = rdf.createIRI(members.getIRIString() + "?ext=membership");
+        final Triple membership = rdf.createTriple(members, DC.subject, child);
+        assertDoesNotThrow(() -> allOf(
+                svc.create(builder(members).interactionModel(LDP.RDFSource).container(root).build(),
+                    rdf.createDataset()).toCompletableFuture(),
+                svc.create(builder(resource).interactionModel(LDP.DirectContainer).container(root)
+                    .membershipResource(members).memberRelation(DC.subject).build(), rdf.createDataset())
+                    .toCompletableFuture()).join(), "Unsuccessful create operation!");
+        assertDoesNotThrow(() -> svc.create(builder(child).interactionModel(LDP.RDFSource).container(resource)
+                    .build(), rdf.createDataset()).toCompletableFuture().join(), "Unsuccessful create operation!");
+        assertTrue(dataset.contains(of(index), members, DC.subject, child), "Missing membership index!");
+
+        // Deleting the membership resource removes its index
+        assertDoesNotThrow(() -> svc.delete(builder(members).interactionModel(LDP.RDFSource).container(root)
+                    .build()).toCompletableFuture().join(), "Unsuccessful delete operation!");
+        assertFalse(dataset.contains(of(index), null, null, null), "Unexpected membership index!");
+
+        // Recreating the membership resource restores its index
+        assertDoesNotThrow(() -> svc.create(builder(members).interactionModel(LDP.RDFSource).container(root)
+                    .build(), rdf.createDataset()).toCompletableFuture().join(), "Unsuccessful create operation!");
+        assertTrue(containsTriple(svc.get(members).toCompletableFuture().join(), LDP.PreferMembership, membership),
+                "Missing member triple after recreating the membership resource!");
+    }
+
     @Test
     public void testBuildRDFConnectionMemory() {
 
@@ -1269,6 +1788,7 @@ public class TriplestoreResourceServiceTest {
         assertNotNull(rdfConnection, "Missing RDFConnection, using in-memory dataset!");
         assertFalse(rdfConnection.isClosed(), "RDFConnection has been closed!");
         assertTrue(rdfConnection instanceof RDFConnectionLocal, "Incorrect type");
+        assertTrue(rdfConnection instanceof EmbeddedRDFConnection, "Missing direct dataset access!");
     }
 
     @Test
@@ -1278,6 +1798,7 @@ public class TriplestoreResourceServiceTest {
         assertNotNull(rdfConnection, "Missing RDFConnection, using local file!");
         assertFalse(rdfConnection.isClosed(), "RDFConnection has been closed!");
         assertTrue(rdfConnection instanceof RDFConnectionLocal, "Incorrect type");
+        assertTrue(rdfConnection instanceof EmbeddedRDFConnection, "Missing direct dataset access!");
     }
 
     @Test
@@ -1367,6 +1888,12 @@ public class TriplestoreResourceServiceTest {
                 () -> assertEquals(total, res.stream().count(), "Incorrect total triple count!"));
     }
 
+    private static boolean containsTriple(final Resource res, final IRI graphName, final Triple triple) {
+        try (final Stream<Triple> triples = res.stream(graphName)) {
+            return triples.anyMatch(isEqual(triple));
+        }
+    }
+
     private static Instant meanwhile() {
         final Instant t1 = now();
         await().until(() -> isReallyLaterThan(t1));
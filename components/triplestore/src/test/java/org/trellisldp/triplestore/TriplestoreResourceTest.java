@@ -15,33 +15,47 @@ package org.trellisldp.triplestore;
 
 import static java.time.Instant.now;
 import static java.time.Instant.parse;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singleton;
 import static java.util.Objects.nonNull;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static java.util.UUID.randomUUID;
 import static java.util.function.Predicate.isEqual;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static org.apache.jena.query.DatasetFactory.create;
 import static org.apache.jena.query.DatasetFactory.wrap;
 import static org.apache.jena.rdfconnection.RDFConnectionFactory.connect;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.trellisldp.triplestore.TriplestoreUtils.getInstance;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.Quad;
+import org.apache.commons.rdf.api.RDFTerm;
 import org.apache.commons.rdf.api.Triple;
 import org.apache.commons.rdf.jena.JenaDataset;
 import org.apache.commons.rdf.jena.JenaRDF;
+import org.apache.jena.query.Query;
 import org.apache.jena.rdfconnection.RDFConnection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 import org.mockito.Mock;
 import org.trellisldp.api.AuditService;
+import org.trellisldp.api.BinaryMetadata;
 import org.trellisldp.api.Resource;
 import org.trellisldp.api.Session;
 import org.trellisldp.audit.DefaultAuditService;
@@ -49,6 +63,7 @@ import org.trellisldp.vocabulary.ACL;
 import org.trellisldp.vocabulary.DC;
 import org.trellisldp.vocabulary.FOAF;
 import org.trellisldp.vocabulary.LDP;
+import org.trellisldp.vocabulary.PREMIS;
 import org.trellisldp.vocabulary.RDF;
 import org.trellisldp.vocabulary.SKOS;
 import org.trellisldp.vocabulary.Trellis;
@@ -70,6 +85,7 @@ public class TriplestoreResourceTest {
     private static final IRI aclId = rdf.createIRI("trellis:data/resource?ext=acl");
     private static final IRI aclSubject = rdf.createIRI("trellis:data/resource#auth");
     private static final IRI member = rdf.createIRI("trellis:data/member");
+    private static final IRI memberIndex = rdf.createIRI(member.getIRIString() + "?ext=membership");
     private static final String time = "2018-01-12T14:02:00Z";
 
     private static final AuditService auditService = new DefaultAuditService() {};
@@ -157,6 +173,10 @@ public class TriplestoreResourceTest {
         final JenaDataset dataset = buildLdpDataset(LDP.NonRDFSource);
         dataset.add(Trellis.PreferServerManaged, identifier, DC.hasPart, binaryIdentifier);
         dataset.add(Trellis.PreferServerManaged, binaryIdentifier, DC.format, rdf.createLiteral(mimeType));
+        dataset.add(Trellis.PreferServerManaged, binaryIdentifier, PREMIS.hasMessageDigest,
+                rdf.createIRI("urn:md5:d553b24705175b508f742e677a5b7b19"));
+        dataset.add(Trellis.PreferServerManaged, binaryIdentifier, PREMIS.hasMessageDigest,
+                rdf.createIRI("urn:sha-1:2aae6c35c94fcfb415dbe95f408b9ce91ee846ed"));
         auditService.creation(identifier, mockSession).forEach(q ->
                 dataset.add(auditId, q.getSubject(), q.getPredicate(), q.getObject()));
 
@@ -168,6 +188,9 @@ public class TriplestoreResourceTest {
         res.getBinaryMetadata().ifPresent(b -> {
             assertEquals(binaryIdentifier, b.getIdentifier(), "Incorrect binary identifier!");
             assertEquals(of(mimeType), b.getMimeType(), "Incorrect binary mime type!");
+            assertEquals("d553b24705175b508f742e677a5b7b19", b.getDigests().get("MD5"), "Incorrect MD5 digest!");
+            assertEquals("2aae6c35c94fcfb415dbe95f408b9ce91ee846ed", b.getDigests().get("SHA-1"),
+                    "Incorrect SHA-1 digest!");
         });
         assertAll("Check resource", checkResource(res, identifier, LDP.NonRDFSource, true, false, false));
         assertAll("Check LDP properties", checkLdpProperties(res, null, null, null, null));
@@ -215,7 +238,10 @@ public class TriplestoreResourceTest {
         dataset.add(Trellis.PreferServerManaged, identifier, LDP.insertedContentRelation, LDP.MemberSubject);
         dataset.add(Trellis.PreferServerManaged, identifier, DC.modified, rdf.createLiteral(time, XSD.dateTime));
         dataset.add(Trellis.PreferServerManaged, member, DC.isPartOf, root);
-        getChildIRIs().forEach(c -> dataset.add(Trellis.PreferServerManaged, c, DC.isPartOf, identifier));
+        getChildIRIs().forEach(c -> {
+            dataset.add(Trellis.PreferServerManaged, c, DC.isPartOf, identifier);
+            dataset.add(memberIndex, member, DC.subject, c);
+        });
 
         final RDFConnection rdfConnection = connect(wrap(dataset.asJenaDatasetGraph()));
         final TriplestoreResource res = new TriplestoreResource(rdfConnection, identifier);
@@ -247,8 +273,10 @@ public class TriplestoreResourceTest {
         dataset.add(identifier, identifier, DC.alternative, rdf.createLiteral("An LDP-IC resource"));
         dataset.add(member, member, DC.alternative, rdf.createLiteral("A membership resource"));
         getChildIRIs().forEach(c -> {
+            final IRI subject = rdf.createIRI("http://example.org/" + randomUUID());
             dataset.add(Trellis.PreferServerManaged, c, DC.isPartOf, identifier);
-            dataset.add(c, c, DC.subject, rdf.createIRI("http://example.org/" + randomUUID()));
+            dataset.add(c, c, DC.subject, subject);
+            dataset.add(memberIndex, member, DC.relation, subject);
         });
 
         final RDFConnection rdfConnection = connect(wrap(dataset.asJenaDatasetGraph()));
@@ -269,6 +297,150 @@ public class TriplestoreResourceTest {
                 .filter(isEqual(DC.relation)).count(), "Incorrect triple count!");
     }
 
+    @Test
+    public void testBatchedFetch() {
+        final JenaDataset dataset = buildLdpDataset(LDP.Container);
+        dataset.add(aclId, aclSubject, ACL.mode, ACL.Read);
+        dataset.add(aclId, aclSubject, ACL.accessTo, identifier);
+        getChildIRIs().forEach(c -> dataset.add(Trellis.PreferServerManaged, c, DC.isPartOf, identifier));
+
+        final RDFConnection rdfConnection = spy(connect(wrap(dataset.asJenaDatasetGraph())));
+        final TriplestoreResource res = new TriplestoreResource(rdfConnection, identifier);
+        res.fetchData();
+        verify(rdfConnection).querySelect(any(Query.class), any());
+        assertTrue(res.hasAcl(), "Missing ACL!");
+        verify(rdfConnection).querySelect(any(Query.class), any());
+
+        try (final Stream<Quad> quads = res.stream()) {
+            verify(rdfConnection).query(any(Query.class));
+            assertEquals(8L, quads.count(), "Incorrect quad count!");
+        }
+        verify(rdfConnection, times(2)).query(any(Query.class));
+
+        try (final Stream<Triple> triples = res.stream(asList(Trellis.PreferUserManaged, LDP.PreferContainment))) {
+            assertEquals(6L, triples.count(), "Incorrect triple count!");
+        }
+        verify(rdfConnection, times(3)).query(any(Query.class));
+        assertFalse(rdfConnection.isInTransaction(), "Read transaction was not closed!");
+    }
+
+    @Test
+    public void testContainmentWindow() {
+        final JenaDataset dataset = buildLdpDataset(LDP.Container);
+        getChildIRIs().forEach(c -> dataset.add(Trellis.PreferServerManaged, c, DC.isPartOf, identifier));
+
+        final RDFConnection rdfConnection = connect(wrap(dataset.asJenaDatasetGraph()));
+        final TriplestoreResource res = new TriplestoreResource(rdfConnection, identifier);
+        res.fetchData();
+
+        assertEquals(asList(child1, child2), window(res, null, false, 2), "Incorrect first page!");
+        assertEquals(asList(child3, child4), window(res, child2, false, 2), "Incorrect next page!");
+        assertEquals(asList(child2, child1), window(res, child3, true, 2), "Incorrect previous page!");
+        assertEquals(emptyList(), window(res, child4, false, 2), "Unexpected children after the last page!");
+        assertEquals(asList(child4), window(res, child3, false, 5), "Incorrect last page!");
+        assertFalse(rdfConnection.isInTransaction(), "Read transaction was not closed!");
+
+        final TriplestoreResource rdfSource = new TriplestoreResource(connect(wrap(
+                        buildLdpDataset(LDP.RDFSource).asJenaDatasetGraph())), identifier);
+        rdfSource.fetchData();
+        assertEquals(emptyList(), window(rdfSource, null, false, 2), "Unexpected children of an RDFSource!");
+    }
+
+    @Test
+    public void testEmbeddedResource() {
+        final IRI binaryIdentifier = rdf.createIRI("file:///binary");
+        final JenaDataset dataset = buildLdpDataset(LDP.NonRDFSource);
+        dataset.add(Trellis.PreferServerManaged, identifier, DC.hasPart, binaryIdentifier);
+        dataset.add(Trellis.PreferServerManaged, binaryIdentifier, DC.format, rdf.createLiteral("image/jpeg"));
+        dataset.add(Trellis.PreferServerManaged, binaryIdentifier, PREMIS.hasMessageDigest,
+                rdf.createIRI("urn:md5:d553b24705175b508f742e677a5b7b19"));
+        dataset.add(aclId, aclSubject, ACL.mode, ACL.Read);
+        dataset.add(aclId, aclSubject, ACL.accessTo, identifier);
+        auditService.creation(identifier, mockSession).forEach(q ->
+                dataset.add(auditId, q.getSubject(), q.getPredicate(), q.getObject()));
+
+        final RDFConnection rdfConnection = spy(new EmbeddedRDFConnection(dataset.asJenaDatasetGraph()));
+        final TriplestoreResource res = new TriplestoreResource(rdfConnection, identifier);
+        res.fetchData();
+        assertTrue(res.exists(), "Missing resource!");
+        assertEquals(of(rdf.createLiteral("image/jpeg").getLexicalForm()), res.getBinaryMetadata()
+                .flatMap(BinaryMetadata::getMimeType), "Incorrect binary mime type!");
+        assertEquals(of("d553b24705175b508f742e677a5b7b19"), res.getBinaryMetadata().map(BinaryMetadata::getDigests)
+                .map(digests -> digests.get("MD5")), "Incorrect binary digest!");
+        assertAll("Check resource", checkResource(res, identifier, LDP.NonRDFSource, true, true, false));
+        assertAll("Check RDF stream", checkRdfStream(res, 2L, 2L, 5L, 0L, 0L));
+        assertSameContent(dataset, identifier);
+        verify(rdfConnection, never()).query(any(Query.class));
+        verify(rdfConnection, never()).querySelect(any(Query.class), any());
+        assertFalse(dataset.asJenaDatasetGraph().isInTransaction(), "Read transaction was not closed!");
+    }
+
+    @Test
+    public void testEmbeddedContainers() {
+        final JenaDataset dataset = buildLdpDataset(LDP.DirectContainer);
+        dataset.add(Trellis.PreferServerManaged, identifier, DC.isPartOf, root);
+        dataset.add(Trellis.PreferServerManaged, identifier, LDP.member, member);
+        dataset.add(Trellis.PreferServerManaged, identifier, LDP.membershipResource, member);
+        dataset.add(Trellis.PreferServerManaged, identifier, LDP.hasMemberRelation, DC.subject);
+        dataset.add(Trellis.PreferServerManaged, identifier, LDP.isMemberOfRelation, DC.isPartOf);
+        dataset.add(Trellis.PreferServerManaged, identifier, LDP.insertedContentRelation, LDP.MemberSubject);
+        dataset.add(Trellis.PreferServerManaged, member, DC.isPartOf, root);
+        dataset.add(Trellis.PreferServerManaged, member, RDF.type, LDP.RDFSource);
+        dataset.add(Trellis.PreferServerManaged, member, DC.modified, rdf.createLiteral(time, XSD.dateTime));
+        getChildIRIs().forEach(c -> {
+            dataset.add(Trellis.PreferServerManaged, c, DC.isPartOf, identifier);
+            dataset.add(Trellis.PreferServerManaged, c, RDF.type, LDP.RDFSource);
+            dataset.add(Trellis.PreferServerManaged, c, DC.modified, rdf.createLiteral(time, XSD.dateTime));
+            dataset.add(memberIndex, member, DC.subject, c);
+        });
+
+        final RDFConnection rdfConnection = new EmbeddedRDFConnection(dataset.asJenaDatasetGraph());
+        final TriplestoreResource res = new TriplestoreResource(rdfConnection, identifier);
+        res.fetchData();
+        assertAll("Check resource", checkResource(res, identifier, LDP.DirectContainer, false, false, true));
+        assertAll("Check LDP properties", checkLdpProperties(res, member, DC.subject, DC.isPartOf,
+                    LDP.MemberSubject));
+        assertAll("Check RDF stream", checkRdfStream(res, 2L, 0L, 0L, 0L, 4L));
+        assertEquals(asList(child1, child2), window(res, null, false, 2), "Incorrect first page!");
+
+        final TriplestoreResource memberRes = new TriplestoreResource(rdfConnection, member);
+        memberRes.fetchData();
+        assertAll("Check RDF stream", checkRdfStream(memberRes, 1L, 0L, 0L, 4L, 0L));
+
+        final TriplestoreResource childRes = new TriplestoreResource(rdfConnection, child1);
+        childRes.fetchData();
+        assertEquals(1L, childRes.stream(singleton(LDP.PreferMembership)).filter(isEqual(
+                        rdf.createTriple(child1, DC.isPartOf, member))).count(), "Missing inverse membership triple!");
+
+        asList(identifier, member, child1, child2).forEach(id -> assertSameContent(dataset, id));
+        assertFalse(dataset.asJenaDatasetGraph().isInTransaction(), "Read transaction was not closed!");
+    }
+
+    private static void assertSameContent(final JenaDataset dataset, final IRI id) {
+        final TriplestoreResource embedded = new TriplestoreResource(
+                new EmbeddedRDFConnection(dataset.asJenaDatasetGraph()), id);
+        final TriplestoreResource remote = new TriplestoreResource(connect(wrap(dataset.asJenaDatasetGraph())), id);
+        embedded.fetchData();
+        remote.fetchData();
+        assertEquals(remote.getModified(), embedded.getModified(), "Modification dates don't match!");
+        assertEquals(remote.getInteractionModel(), embedded.getInteractionModel(), "Interaction models don't match!");
+        assertEquals(remote.getBinaryMetadata().map(BinaryMetadata::getIdentifier),
+                embedded.getBinaryMetadata().map(BinaryMetadata::getIdentifier), "Binaries don't match!");
+        assertEquals(remote.hasAcl(), embedded.hasAcl(), "ACL presence doesn't match!");
+        try (final Stream<Quad> expected = remote.stream(); final Stream<Quad> actual = embedded.stream()) {
+            assertEquals(expected.collect(toSet()), actual.collect(toSet()), "Resource content doesn't match!");
+        }
+    }
+
+    private static List<RDFTerm> window(final Resource res, final IRI cursor, final boolean descending,
+            final int limit) {
+        try (final Stream<Triple> triples = res.stream(LDP.PreferContainment, cursor, descending, limit)) {
+            return triples.peek(t -> assertEquals(identifier, t.getSubject(), "Incorrect subject!"))
+                .peek(t -> assertEquals(LDP.contains, t.getPredicate(), "Incorrect predicate!"))
+                .map(Triple::getObject).collect(toList());
+        }
+    }
+
     private static Stream<IRI> getChildIRIs() {
         return Stream.of(child1, child2, child3, child4);
     }
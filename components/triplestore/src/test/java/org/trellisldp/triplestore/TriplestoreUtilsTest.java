@@ -13,20 +13,41 @@
  */
 package org.trellisldp.triplestore;
 
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.apache.jena.graph.Triple.create;
+import static org.apache.jena.query.DatasetFactory.createTxnMem;
+import static org.apache.jena.query.ReadWrite.READ;
 import static org.apache.jena.rdf.model.ResourceFactory.createProperty;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static org.apache.jena.rdfconnection.RDFConnectionFactory.connect;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.trellisldp.triplestore.TriplestoreUtils.OBJECT;
+import static org.trellisldp.triplestore.TriplestoreUtils.PREDICATE;
+import static org.trellisldp.triplestore.TriplestoreUtils.SUBJECT;
 import static org.trellisldp.vocabulary.RDF.type;
 import static org.trellisldp.vocabulary.Trellis.PreferUserManaged;
 
+import java.util.Iterator;
+import java.util.stream.Stream;
+
 import org.apache.commons.rdf.api.Dataset;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.Literal;
 import org.apache.commons.rdf.api.RDF;
 import org.apache.commons.rdf.jena.JenaRDF;
 import org.apache.commons.rdf.simple.SimpleRDF;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QuerySolution;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdfconnection.RDFConnection;
+import org.apache.jena.sparql.syntax.ElementNamedGraph;
+import org.apache.jena.sparql.syntax.ElementPathBlock;
 import org.junit.jupiter.api.Test;
 import org.trellisldp.vocabulary.AS;
 import org.trellisldp.vocabulary.DC;
@@ -106,4 +127,79 @@ public class TriplestoreUtilsTest {
         final Literal l = jenaRdf.createLiteral("a literal");
         assertEquals(l, TriplestoreUtils.getBaseIRI(l), "Incorrect literal value!");
     }
+
+    @Test
+    public void testLazySelect() {
+        final RDFConnection rdfConnection = spy(connect(createTxnMem()));
+        rdfConnection.update("INSERT DATA { GRAPH <" + PreferUserManaged.getIRIString() + "> { "
+                + "<http://example.com/1> <http://example.com/prop> \"1\" . "
+                + "<http://example.com/2> <http://example.com/prop> \"2\" } }");
+
+        try (final Stream<QuerySolution> solutions = TriplestoreUtils.select(rdfConnection, buildQuery())) {
+            verify(rdfConnection, never()).query(any(Query.class));
+            final Iterator<QuerySolution> iter = solutions.iterator();
+            assertTrue(iter.hasNext(), "Missing query solution!");
+            assertTrue(rdfConnection.isInTransaction(), "Missing read transaction!");
+            iter.next();
+        }
+        assertFalse(rdfConnection.isInTransaction(), "Read transaction not closed!");
+
+        try (final Stream<QuerySolution> solutions = TriplestoreUtils.select(rdfConnection, buildQuery())) {
+            assertEquals((Long) 2L, supplyAsync(solutions::count).join(), "Incorrect solution count!");
+        }
+    }
+
+    @Test
+    public void testSharedReadTransaction() {
+        final RDFConnection rdfConnection = connect(createTxnMem());
+        rdfConnection.update("INSERT DATA { GRAPH <" + PreferUserManaged.getIRIString() + "> { "
+                + "<http://example.com/1> <http://example.com/prop> \"1\" . "
+                + "<http://example.com/2> <http://example.com/prop> \"2\" } }");
+
+        try (final Stream<QuerySolution> first = TriplestoreUtils.select(rdfConnection, buildQuery());
+                final Stream<QuerySolution> second = TriplestoreUtils.select(rdfConnection, buildQuery())) {
+            final Iterator<QuerySolution> iter1 = first.iterator();
+            final Iterator<QuerySolution> iter2 = second.iterator();
+            assertTrue(iter1.hasNext(), "Missing query solution!");
+            assertTrue(iter2.hasNext(), "Missing query solution!");
+
+            // Draining the stream that began the transaction leaves it open for the other one
+            iter1.next();
+            iter1.next();
+            assertFalse(iter1.hasNext(), "Unexpected query solution!");
+            assertTrue(rdfConnection.isInTransaction(), "Read transaction ended under another stream!");
+
+            iter2.next();
+            iter2.next();
+            assertFalse(iter2.hasNext(), "Unexpected query solution!");
+            assertFalse(rdfConnection.isInTransaction(), "Read transaction not ended when drained!");
+        }
+    }
+
+    @Test
+    public void testCallerReadTransaction() {
+        final RDFConnection rdfConnection = connect(createTxnMem());
+        rdfConnection.begin(READ);
+        try {
+            try (final Stream<QuerySolution> solutions = TriplestoreUtils.select(rdfConnection, buildQuery())) {
+                assertEquals(0L, solutions.count(), "Unexpected query solutions!");
+            }
+            assertTrue(rdfConnection.isInTransaction(), "Caller's read transaction was ended!");
+        } finally {
+            rdfConnection.end();
+        }
+    }
+
+    private static Query buildQuery() {
+        final Query q = new Query();
+        q.setQuerySelectType();
+        q.addResultVar(SUBJECT);
+        q.addResultVar(PREDICATE);
+        q.addResultVar(OBJECT);
+
+        final ElementPathBlock epb = new ElementPathBlock();
+        epb.addTriple(create(SUBJECT, PREDICATE, OBJECT));
+        q.setQueryPattern(new ElementNamedGraph(createURI(PreferUserManaged.getIRIString()), epb));
+        return q;
+    }
 }
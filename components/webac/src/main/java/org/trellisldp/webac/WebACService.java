@@ -234,7 +234,8 @@ public class WebACService implements AccessControlService {
     private Stream<Authorization> getAllAuthorizationsFor(final Resource resource, final boolean inherited) {
         LOGGER.debug("Checking ACL for: {}", resource.getIdentifier());
         if (resource.hasAcl()) {
-            try (final WrappedGraph graph = wrap(resource.stream(Trellis.PreferAccessControl).collect(toGraph()))) {
+            try (final Stream<Triple> triples = resource.stream(Trellis.PreferAccessControl);
+                    final WrappedGraph graph = wrap(triples.collect(toGraph()))) {
                 final List<Authorization> authorizations = getAuthorizationFromGraph(graph.getGraph());
                 // Check for any acl:default statements if checking for inheritance
                 if (inherited && authorizations.stream().anyMatch(getInheritedAuth(resource.getIdentifier()))) {
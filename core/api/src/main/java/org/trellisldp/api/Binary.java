@@ -14,7 +14,10 @@
 
 package org.trellisldp.api;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Optional;
 
 /**
  * The non-RDF content of an LDP NonRDFSource.
@@ -32,6 +35,41 @@ public interface Binary {
      * @param to the point in bytes at which to end content
      * @return content from {@code from} to {@code to} inclusive
      */
-    InputStream getContent(int from, int to);
+    InputStream getContent(long from, long to);
 
+    /**
+     * Get the size of this {@link Binary}, if known.
+     *
+     * @implSpec The default implementation returns an empty value.
+     * @return the size in bytes
+     */
+    default Optional<Long> getSize() {
+        return Optional.empty();
+    }
+
+    /**
+     * Write the content of this {@link Binary} to a channel.
+     *
+     * @implSpec The default implementation copies the stream returned by {@link #getContent()}.
+     * @param target the channel
+     * @return the number of bytes written
+     * @throws IOException if the content could not be written
+     */
+    default long writeTo(final WritableByteChannel target) throws IOException {
+        return TrellisUtils.copy(getContent(), target);
+    }
+
+    /**
+     * Write a segment of the content of this {@link Binary} to a channel.
+     *
+     * @implSpec The default implementation copies the stream returned by {@link #getContent(long, long)}.
+     * @param from the point in bytes from which to begin content
+     * @param to the point in bytes at which to end content, inclusive
+     * @param target the channel
+     * @return the number of bytes written
+     * @throws IOException if the content could not be written
+     */
+    default long writeTo(final long from, final long to, final WritableByteChannel target) throws IOException {
+        return TrellisUtils.copy(getContent(from, to), target);
+    }
 }
@@ -33,7 +33,8 @@ import org.apache.commons.rdf.api.IRI;
  * through the {@link BinaryMetadata} class, but rather an identifier is returned, which may
  * be resolved by an external system.
  *
- * <p>The {@link BinaryMetadata} class also provides access methods for the MIME Type of the resource.
+ * <p>The {@link BinaryMetadata} class also provides access methods for the MIME Type of the resource
+ * and for any digests that were computed when the content was stored.
  *
  * @author acoburn
  */
@@ -42,6 +43,7 @@ public final class BinaryMetadata {
     private final IRI identifier;
     private final String mimeType;
     private final Map<String, List<String>> hints;
+    private final Map<String, String> digests;
 
     /**
      * A simple BinaryMetadata object.
@@ -49,11 +51,14 @@ public final class BinaryMetadata {
      * @param identifier the identifier
      * @param mimeType the mimeType, may be {@code null}
      * @param hints hints for persistence, may not be {@code null}
+     * @param digests the stored digests, may not be {@code null}
      */
-    private BinaryMetadata(final IRI identifier, final String mimeType, final Map<String, List<String>> hints) {
+    private BinaryMetadata(final IRI identifier, final String mimeType, final Map<String, List<String>> hints,
+            final Map<String, String> digests) {
         this.identifier = requireNonNull(identifier, "Identifier may not be null!");
         this.mimeType = mimeType;
         this.hints = requireNonNull(hints, "Hints may not be null!");
+        this.digests = requireNonNull(digests, "Digests may not be null!");
     }
 
     /**
@@ -83,6 +88,15 @@ public final class BinaryMetadata {
         return hints;
     }
 
+    /**
+     * Retrieve the digests of the binary content, keyed by upper-case algorithm name (e.g. {@code SHA-256}).
+     *
+     * @return the hexadecimal digest values
+     */
+    public Map<String, String> getDigests() {
+        return digests;
+    }
+
     /**
      * Get a mutable builder for a {@link BinaryMetadata}.
      * @param identifier the identifier
@@ -99,6 +113,7 @@ public final class BinaryMetadata {
         private final IRI identifier;
         private String mimeType;
         private Map<String, List<String>> hints;
+        private Map<String, String> digests;
 
         /**
          * Create a BinaryMetadata builder with the provided identifier.
@@ -128,12 +143,23 @@ public final class BinaryMetadata {
             return this;
         }
 
+        /**
+         * Set the digests of the binary content.
+         * @param digests the hexadecimal digest values, keyed by upper-case algorithm name, may not be {@code null}
+         * @return this builder
+         */
+        public Builder digests(final Map<String, String> digests) {
+            this.digests = requireNonNull(digests, "Digests cannot be null!");
+            return this;
+        }
+
         /**
          * Build the BinaryMetadata object.
          * @return the built BinaryMetadata
          */
         public BinaryMetadata build() {
-            return new BinaryMetadata(identifier, mimeType, hints == null ? emptyMap() : hints);
+            return new BinaryMetadata(identifier, mimeType, hints == null ? emptyMap() : hints,
+                    digests == null ? emptyMap() : digests);
         }
     }
 }
@@ -13,9 +13,12 @@
  */
 package org.trellisldp.api;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
 
@@ -54,6 +57,24 @@ public interface BinaryService extends RetrievalService<Binary> {
         return setContent(metadata, input).thenApply(future -> input.getMessageDigest());
     }
 
+    /**
+     * Set the content for a binary object, computing several digests in a single pass.
+     *
+     * @implSpec The default implementation will compute each digest while processing the {@code InputStream}.
+     * @param metadata the binary metadata
+     * @param stream the content
+     * @param algorithms the digest algorithms
+     * @return the new completion stage containing the server-computed digests, in the order given
+     */
+    default CompletionStage<List<MessageDigest>> setContent(final BinaryMetadata metadata, final InputStream stream,
+                    final List<MessageDigest> algorithms) {
+        InputStream input = stream;
+        for (final MessageDigest algorithm : algorithms) {
+            input = new DigestInputStream(input, algorithm);
+        }
+        return setContent(metadata, input).thenApply(future -> algorithms);
+    }
+
     /**
      * Purge the content from its corresponding datastore.
      *
@@ -76,6 +97,126 @@ public interface BinaryService extends RetrievalService<Binary> {
      */
     CompletionStage<MessageDigest> calculateDigest(IRI identifier, MessageDigest algorithm);
 
+    /**
+     * Calculate several digests for a binary object.
+     *
+     * @implSpec The default implementation will compute all of the digests from a single read of the content.
+     * @param identifier the identifier
+     * @param algorithms the algorithms
+     * @return the new completion stage containing the computed digests, in the order given
+     */
+    default CompletionStage<List<MessageDigest>> calculateDigests(final IRI identifier,
+            final List<MessageDigest> algorithms) {
+        return get(identifier).thenApply(binary -> {
+            try {
+                TrellisUtils.digest(binary.getContent(), algorithms);
+                return algorithms;
+            } catch (final IOException ex) {
+                throw new UncheckedIOException("Error computing digests for " + identifier, ex);
+            }
+        });
+    }
+
+    /**
+     * Test whether this service supports resumable uploads.
+     *
+     * @return true if resumable uploads are supported; false otherwise
+     */
+    default boolean supportsUploads() {
+        return false;
+    }
+
+    /**
+     * Begin a resumable upload.
+     *
+     * <p>Content for an upload may be written in several parts, which are staged until the upload is
+     * completed. The given digests are updated incrementally as content is received. An upload belongs to
+     * the resource for which it was created: any later operation on the upload that names a different
+     * resource will cause the {@link CompletionStage} to complete exceptionally with an
+     * {@link IllegalArgumentException}, as for an upload that does not exist.
+     *
+     * @implSpec The default implementation does not support resumable uploads, and returns a
+     *           {@link CompletionStage} that completes exceptionally with an
+     *           {@link UnsupportedOperationException}.
+     * @param identifier the identifier of the resource for which the content is uploaded
+     * @param algorithms the digest algorithms
+     * @return the new completion stage containing the upload identifier
+     */
+    default CompletionStage<String> createUpload(final IRI identifier, final List<MessageDigest> algorithms) {
+        return TrellisUtils.unsupportedUpload();
+    }
+
+    /**
+     * Write part of the content of a resumable upload.
+     *
+     * <p>Parts may be written in any order, concurrently and more than once. An upload that does not
+     * exist will cause the {@link CompletionStage} to complete exceptionally with an
+     * {@link IllegalArgumentException}.
+     *
+     * @implSpec The default implementation does not support resumable uploads, and returns a
+     *           {@link CompletionStage} that completes exceptionally with an
+     *           {@link UnsupportedOperationException}.
+     * @param uploadId the upload identifier
+     * @param identifier the identifier of the resource for which the content is uploaded
+     * @param offset the offset of this part within the complete content
+     * @param stream the content of this part
+     * @return the new completion stage containing the length of the content received, without gaps,
+     *         from the start of the upload
+     */
+    default CompletionStage<Long> writeUpload(final String uploadId, final IRI identifier, final long offset,
+            final InputStream stream) {
+        return TrellisUtils.unsupportedUpload();
+    }
+
+    /**
+     * Get the progress of a resumable upload.
+     *
+     * @implSpec The default implementation does not support resumable uploads, and returns a
+     *           {@link CompletionStage} that completes exceptionally with an
+     *           {@link UnsupportedOperationException}.
+     * @param uploadId the upload identifier
+     * @param identifier the identifier of the resource for which the content is uploaded
+     * @return the new completion stage containing the length of the content received, without gaps,
+     *         from the start of the upload
+     */
+    default CompletionStage<Long> getUploadOffset(final String uploadId, final IRI identifier) {
+        return TrellisUtils.unsupportedUpload();
+    }
+
+    /**
+     * Complete a resumable upload, atomically making its content available as a binary object.
+     *
+     * <p>An upload whose content has gaps will cause the {@link CompletionStage} to complete
+     * exceptionally with an {@link IllegalStateException}.
+     *
+     * @implSpec The default implementation does not support resumable uploads, and returns a
+     *           {@link CompletionStage} that completes exceptionally with an
+     *           {@link UnsupportedOperationException}.
+     * @param uploadId the upload identifier
+     * @param identifier the identifier of the resource for which the content is uploaded
+     * @param metadata the binary metadata
+     * @return the new completion stage containing the server-computed digests, in the order given
+     *         when the upload was created
+     */
+    default CompletionStage<List<MessageDigest>> completeUpload(final String uploadId, final IRI identifier,
+            final BinaryMetadata metadata) {
+        return TrellisUtils.unsupportedUpload();
+    }
+
+    /**
+     * Abandon a resumable upload, discarding any staged content.
+     *
+     * @implSpec The default implementation does not support resumable uploads, and returns a
+     *           {@link CompletionStage} that completes exceptionally with an
+     *           {@link UnsupportedOperationException}.
+     * @param uploadId the upload identifier
+     * @param identifier the identifier of the resource for which the content is uploaded
+     * @return the new completion stage
+     */
+    default CompletionStage<Void> abortUpload(final String uploadId, final IRI identifier) {
+        return TrellisUtils.unsupportedUpload();
+    }
+
     /**
      * Get a list of supported algorithms.
      *
@@ -39,6 +39,16 @@ public interface CacheService<K, V> {
      */
     V get(K key, Function<K, V> mappingFunction);
 
+    /**
+     * Remove a value from the cache.
+     *
+     * @implSpec The default implementation does nothing, which is appropriate for caches that do not retain values.
+     * @param key the key
+     */
+    default void invalidate(final K key) {
+        // no-op
+    }
+
     /**
      * A {@link CacheService} used for JSON-LD profiles.
      *
@@ -0,0 +1,170 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.api;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.Objects.requireNonNull;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.rdf.api.Dataset;
+import org.apache.commons.rdf.api.Graph;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDFTerm;
+
+/**
+ * A {@link ResourceService} decorator that caches retrieved resources.
+ *
+ * <p>A single request typically retrieves the same resource several times (e.g. for authorization,
+ * for locating its parent and for building the response). With this decorator, those lookups are
+ * served from the supplied {@link CacheService}, which is responsible for bounding the size and
+ * lifetime of its entries. Concurrent lookups of an identifier that is not yet cached share a
+ * single fetch from the underlying service.
+ *
+ * <p>Cached entries are invalidated when a resource is created, replaced, updated, deleted or touched through
+ * this service, before the returned {@link CompletionStage} completes. Changes made to the underlying
+ * persistence layer by other means will only be visible once an entry expires.
+ */
+public class CachingResourceService implements ResourceService {
+
+    private final ResourceService service;
+    private final CacheService<IRI, CompletableFuture<Resource>> cache;
+
+    /**
+     * Create a caching resource service.
+     *
+     * @param service the underlying resource service
+     * @param cache the cache
+     */
+    public CachingResourceService(final ResourceService service,
+            final CacheService<IRI, CompletableFuture<Resource>> cache) {
+        this.service = requireNonNull(service, "ResourceService may not be null!");
+        this.cache = requireNonNull(cache, "CacheService may not be null!");
+    }
+
+    @Override
+    public CompletionStage<Resource> get(final IRI identifier) {
+        final CompletableFuture<Resource> resource = cache.get(identifier, this::fetch);
+        if (isNull(resource)) {
+            return fetch(identifier);
+        }
+        // Failures are not cached
+        resource.whenComplete((result, err) -> {
+            if (nonNull(err)) {
+                cache.invalidate(identifier);
+            }
+        });
+        return resource;
+    }
+
+    @Override
+    public CompletionStage<Void> create(final Metadata metadata, final Dataset dataset) {
+        invalidate(metadata);
+        return service.create(metadata, dataset).whenComplete((result, err) -> invalidate(metadata));
+    }
+
+    @Override
+    public CompletionStage<Void> replace(final Metadata metadata, final Dataset dataset) {
+        invalidate(metadata);
+        return service.replace(metadata, dataset).whenComplete((result, err) -> invalidate(metadata));
+    }
+
+    @Override
+    public CompletionStage<Void> replace(final Metadata metadata, final Dataset dataset, final Dataset removed,
+            final Dataset added) {
+        invalidate(metadata);
+        return service.replace(metadata, dataset, removed, added).whenComplete((result, err) -> invalidate(metadata));
+    }
+
+    @Override
+    public CompletionStage<Void> delete(final Metadata metadata) {
+        invalidate(metadata);
+        return service.delete(metadata).whenComplete((result, err) -> invalidate(metadata));
+    }
+
+    @Override
+    public CompletionStage<Void> touch(final IRI identifier) {
+        cache.invalidate(identifier);
+        return service.touch(identifier).whenComplete((result, err) -> cache.invalidate(identifier));
+    }
+
+    @Override
+    public Optional<Instant> getModified(final Metadata metadata) {
+        return service.getModified(metadata);
+    }
+
+    @Override
+    public boolean supportsUpdate() {
+        return service.supportsUpdate();
+    }
+
+    @Override
+    public CompletionStage<Void> update(final Metadata metadata, final IRI graphName, final String update,
+            final String base, final UnaryOperator<Graph> handler) {
+        invalidate(metadata);
+        return service.update(metadata, graphName, update, base, handler)
+            .whenComplete((result, err) -> invalidate(metadata));
+    }
+
+    @Override
+    public CompletionStage<Void> add(final IRI identifier, final Dataset dataset) {
+        return service.add(identifier, dataset);
+    }
+
+    @Override
+    public RDFTerm skolemize(final RDFTerm term) {
+        return service.skolemize(term);
+    }
+
+    @Override
+    public RDFTerm unskolemize(final RDFTerm term) {
+        return service.unskolemize(term);
+    }
+
+    @Override
+    public <T extends RDFTerm> T toInternal(final T term, final String baseUrl) {
+        return service.toInternal(term, baseUrl);
+    }
+
+    @Override
+    public <T extends RDFTerm> T toExternal(final T term, final String baseUrl) {
+        return service.toExternal(term, baseUrl);
+    }
+
+    @Override
+    public Set<IRI> supportedInteractionModels() {
+        return service.supportedInteractionModels();
+    }
+
+    @Override
+    public String generateIdentifier() {
+        return service.generateIdentifier();
+    }
+
+    private CompletableFuture<Resource> fetch(final IRI identifier) {
+        return service.get(identifier).toCompletableFuture().thenApply(Resource.class::cast);
+    }
+
+    private void invalidate(final Metadata metadata) {
+        cache.invalidate(metadata.getIdentifier());
+        // A container's cached state may depend on its children
+        metadata.getContainer().ifPresent(cache::invalidate);
+    }
+}
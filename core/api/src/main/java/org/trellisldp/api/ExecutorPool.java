@@ -0,0 +1,200 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.api;
+
+import static java.util.Collections.unmodifiableCollection;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named, separately sized pool of threads for asynchronous service operations.
+ *
+ * <p>Blocking operations, such as triplestore queries or disk I/O, should not run on the JVM-wide
+ * common pool, which is sized to the number of processors and is shared with parallel streams.
+ * Instead, each class of operation is assigned to its own pool, so that, for instance, slow binary
+ * uploads cannot starve metadata reads.
+ *
+ * <p>Pools are shared by name and are sized once, typically from configuration at startup. Looking up a pool
+ * by name alone never fixes its size, while requesting an existing pool with a different size is an error,
+ * rather than being silently ignored. When a pool's queue is full, the task is run on the submitting thread,
+ * and the rejection is counted.
+ */
+public final class ExecutorPool implements Executor {
+
+    /** The name of the pool used for reading resources. */
+    public static final String RESOURCE_READ = "trellis-resource-read";
+
+    /** The name of the pool used for writing resources. */
+    public static final String RESOURCE_WRITE = "trellis-resource-write";
+
+    /** The name of the pool used for binary I/O. */
+    public static final String BINARY_IO = "trellis-binary-io";
+
+    /** The name of the pool used for memento I/O. */
+    public static final String MEMENTO_IO = "trellis-memento-io";
+
+    /** The default number of threads in a pool. */
+    public static final int DEFAULT_THREADS = 16;
+
+    /** The default number of tasks that may be queued in a pool. */
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+
+    private static final Map<String, ExecutorPool> pools = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final int queueSize;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong rejected = new AtomicLong();
+
+    private ExecutorPool(final String name, final int threads, final int queueSize) {
+        final AtomicInteger counter = new AtomicInteger();
+        final int size = Math.max(1, threads);
+        this.name = name;
+        this.queueSize = Math.max(1, queueSize);
+        this.executor = new ThreadPoolExecutor(size, size, 60L, SECONDS,
+                new ArrayBlockingQueue<>(this.queueSize), runnable -> {
+                    final Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, pool) -> {
+                    rejected.incrementAndGet();
+                    if (!pool.isShutdown()) {
+                        runnable.run();
+                    }
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Get a pool by name, creating it with the default sizes if necessary.
+     *
+     * <p>An existing pool is returned whatever its size.
+     *
+     * @param name the pool name
+     * @return the pool
+     */
+    public static ExecutorPool getInstance(final String name) {
+        requireNonNull(name, "The pool name may not be null!");
+        return pools.computeIfAbsent(name, n -> new ExecutorPool(n, DEFAULT_THREADS, DEFAULT_QUEUE_SIZE));
+    }
+
+    /**
+     * Get a pool by name, creating it if necessary.
+     *
+     * @param name the pool name
+     * @param threads the number of threads
+     * @return the pool
+     * @throws IllegalStateException if the pool already exists with a different size
+     */
+    public static ExecutorPool getInstance(final String name, final int threads) {
+        return getInstance(name, threads, DEFAULT_QUEUE_SIZE);
+    }
+
+    /**
+     * Get a pool by name, creating it if necessary.
+     *
+     * @param name the pool name
+     * @param threads the number of threads
+     * @param queueSize the maximum number of queued tasks
+     * @return the pool
+     * @throws IllegalStateException if the pool already exists with a different size
+     */
+    public static ExecutorPool getInstance(final String name, final int threads, final int queueSize) {
+        requireNonNull(name, "The pool name may not be null!");
+        final ExecutorPool pool = pools.computeIfAbsent(name, n -> new ExecutorPool(n, threads, queueSize));
+        if (pool.getThreads() != Math.max(1, threads) || pool.queueSize != Math.max(1, queueSize)) {
+            throw new IllegalStateException("The " + name + " pool already exists with " + pool.getThreads()
+                    + " threads and a queue of " + pool.queueSize + "; cannot resize it to " + threads
+                    + " threads and a queue of " + queueSize);
+        }
+        return pool;
+    }
+
+    /**
+     * Get all of the pools that have been created.
+     *
+     * @return the pools
+     */
+    public static Collection<ExecutorPool> getInstances() {
+        return unmodifiableCollection(pools.values());
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        executor.execute(command);
+    }
+
+    /**
+     * Get the name of this pool.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the number of threads in this pool.
+     *
+     * @return the maximum number of threads
+     */
+    public int getThreads() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Get the number of tasks waiting to be run.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Get the number of threads that are actively running tasks.
+     *
+     * @return the approximate number of active threads
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Get the number of tasks that could not be queued and were run by the submitting thread.
+     *
+     * @return the number of rejected tasks
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Get the number of tasks that have completed.
+     *
+     * @return the approximate number of completed tasks
+     */
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+}
@@ -34,6 +34,8 @@ public interface IOService {
     /**
      * Serialize the triple stream in a concrete RDF syntax.
      *
+     * <p>The triple stream is closed once it has been written.
+     *
      * @param triples the stream of triples
      * @param output the output stream
      * @param syntax the output format
@@ -19,6 +19,7 @@ import static java.util.stream.Stream.concat;
 import static org.trellisldp.api.Resource.SpecialResources.MISSING_RESOURCE;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Stream;
@@ -26,6 +27,7 @@ import java.util.stream.Stream;
 import org.apache.commons.rdf.api.Dataset;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.Quad;
+import org.apache.commons.rdf.api.Triple;
 
 /**
  * Uses two underlying persistence services (an {@link ImmutableDataService} and
@@ -81,6 +83,12 @@ public abstract class JoiningResourceService implements ResourceService {
         return mutableData.replace(metadata, dataset);
     }
 
+    @Override
+    public CompletionStage<Void> replace(final Metadata metadata, final Dataset dataset, final Dataset removed,
+            final Dataset added) {
+        return mutableData.replace(metadata, dataset, removed, added);
+    }
+
     @Override
     public CompletionStage<Void> delete(final Metadata metadata) {
         return mutableData.delete(metadata);
@@ -178,6 +186,19 @@ public abstract class JoiningResourceService implements ResourceService {
             return immutable == null ? mutable.stream() : concat(mutable.stream(), immutable.stream());
         }
 
+        @Override
+        public Stream<Triple> stream(final Collection<IRI> graphNames) {
+            return immutable == null ? mutable.stream(graphNames)
+                : concat(mutable.stream(graphNames), immutable.stream(graphNames));
+        }
+
+        @Override
+        public Stream<Triple> stream(final IRI graphName, final IRI cursor, final boolean descending,
+                final int limit) {
+            return immutable == null ? mutable.stream(graphName, cursor, descending, limit)
+                : Resource.super.stream(graphName, cursor, descending, limit);
+        }
+
         @Override
         public Instant getModified() {
             return mutable.getModified();
@@ -17,6 +17,7 @@ import java.time.Instant;
 import java.util.SortedSet;
 import java.util.concurrent.CompletionStage;
 
+import org.apache.commons.rdf.api.Dataset;
 import org.apache.commons.rdf.api.IRI;
 
 /**
@@ -46,6 +47,26 @@ public interface MementoService {
         return resourceService.get(identifier).thenCompose(this::put);
     }
 
+    /**
+     * Create a new Memento for a resource from the data that was just persisted for it.
+     * @param resourceService the resource service to which the data was persisted.
+     * @param metadata the metadata of the persisted resource, including its modification time, if known.
+     * @param dataset the persisted dataset. Any server-managed quads are ignored in favor of the metadata.
+     * @implSpec The default implementation of this method fetches the resource from the {@link ResourceService},
+     * as {@link #put(ResourceService, IRI)} does.
+     * @implNote An implementation may instead create the Memento directly from the metadata and dataset, which
+     * avoids reading back data that the caller already holds. That requires the modification time that the
+     * persistence layer recorded, as reported by {@link ResourceService#getModified(Metadata)}; without it, the
+     * resource should be fetched instead. The resource should also be fetched when the dataset lacks any graph,
+     * such as containment, membership or audit data, that a fetched resource would contribute to the Memento.
+     * @return a new completion stage that, when the stage completes normally, indicates that the Memento resource was
+     * successfully created in the corresponding persistence layer.
+     */
+    default CompletionStage<Void> put(final ResourceService resourceService, final Metadata metadata,
+            final Dataset dataset) {
+        return put(resourceService, metadata.getIdentifier());
+    }
+
     /**
      * Create a new Memento for a resource.
      * @param resource the resource
@@ -16,6 +16,7 @@ package org.trellisldp.api;
 import static java.util.Objects.requireNonNull;
 import static java.util.Optional.ofNullable;
 
+import java.time.Instant;
 import java.util.Optional;
 
 import org.apache.commons.rdf.api.IRI;
@@ -33,6 +34,7 @@ public final class Metadata {
     private final IRI memberOfRelation;
     private final IRI insertedContentRelation;
     private final BinaryMetadata binary;
+    private final Instant modified;
 
     /**
      * A Metadata-bearing data structure for use with resource manipulation.
@@ -45,10 +47,11 @@ public final class Metadata {
      * @param memberOfRelation an LDP isMemberOfRelation predicate, may be {@code null}
      * @param insertedContentRelation an LDP insertedContentRelation, may be {@code null}
      * @param binary metadata about a BinaryMetadata, may be {@code null}
+     * @param modified the modification time, may be {@code null}
      */
     private Metadata(final IRI identifier, final IRI ixnModel, final IRI container, final IRI membershipResource,
             final IRI memberRelation, final IRI memberOfRelation, final IRI insertedContentRelation,
-            final BinaryMetadata binary) {
+            final BinaryMetadata binary, final Instant modified) {
         this.identifier = requireNonNull(identifier, "Identifier cannot be null!");
         this.ixnModel = requireNonNull(ixnModel, "Interaction model cannot be null!");
         this.container = container;
@@ -57,6 +60,7 @@ public final class Metadata {
         this.memberOfRelation = memberOfRelation;
         this.insertedContentRelation = insertedContentRelation;
         this.binary = binary;
+        this.modified = modified;
     }
 
     /**
@@ -163,6 +167,18 @@ public final class Metadata {
         return ofNullable(binary);
     }
 
+    /**
+     * Retrieve the modification time to be recorded for the resource.
+     *
+     * @apiNote returning an empty Optional indicates that the persistence layer should assign the modification time.
+     *          Otherwise, a persistence layer that records the given time allows other services, such as a
+     *          {@link MementoService}, to use the same time without fetching the resource again.
+     * @return the modification time
+     */
+    public Optional<Instant> getModified() {
+        return ofNullable(modified);
+    }
+
     /**
      * A mutable builder for a {@link Metadata} object.
      */
@@ -175,6 +191,7 @@ public final class Metadata {
         private IRI memberOfRelation;
         private IRI insertedContentRelation;
         private BinaryMetadata binary;
+        private Instant modified;
 
         /**
          * Create a Metadata builder with the provided identifier.
@@ -254,13 +271,23 @@ public final class Metadata {
             return this;
         }
 
+        /**
+         * Set the modification time.
+         * @param modified the modification time
+         * @return this builder
+         */
+        public Builder modified(final Instant modified) {
+            this.modified = modified;
+            return this;
+        }
+
         /**
          * Build the Metadata object, transitioning this builder to the built state.
          * @return the built Metadata
          */
         public Metadata build() {
             return new Metadata(identifier, ixnModel, container, membershipResource, memberRelation, memberOfRelation,
-                            insertedContentRelation, binary);
+                            insertedContentRelation, binary, modified);
         }
     }
 }
@@ -53,6 +53,28 @@ public interface MutableDataService<U> extends RetrievalService<U> {
      */
     CompletionStage<Void> replace(Metadata metadata, Dataset dataset);
 
+    /**
+     * Replace a resource in the server, given the changes made to its current state.
+     *
+     * <p>The {@code removed} and {@code added} datasets describe the same change as the {@code dataset}, but
+     * expressed relative to the current state of the resource. Any graph that appears in neither dataset is
+     * unchanged. This allows a persistence layer to write only the quads that have changed.
+     *
+     * @implSpec the default implementation of this method ignores the supplied changes and proxies the request to the
+     * {@link #replace(Metadata, Dataset)} method.
+     * @param metadata metadata for the resource
+     * @param dataset the dataset to be persisted
+     * @param removed the quads removed from the current state of the resource
+     * @param added the quads added to the current state of the resource
+     * @return a new completion stage that, when the stage completes normally, indicates that the supplied data
+     * were successfully stored in the corresponding persistence layer. In the case of an unsuccessful write operation,
+     * the {@link CompletionStage} will complete exceptionally and can be handled with
+     * {@link CompletionStage#handle}, {@link CompletionStage#exceptionally} or similar methods.
+     */
+    default CompletionStage<Void> replace(Metadata metadata, Dataset dataset, Dataset removed, Dataset added) {
+        return replace(metadata, dataset);
+    }
+
     /**
      * Delete a resource from the server.
      *
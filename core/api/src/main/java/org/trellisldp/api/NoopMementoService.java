@@ -21,6 +21,7 @@ import java.time.Instant;
 import java.util.SortedSet;
 import java.util.concurrent.CompletionStage;
 
+import org.apache.commons.rdf.api.Dataset;
 import org.apache.commons.rdf.api.IRI;
 
 /**
@@ -33,6 +34,12 @@ public class NoopMementoService implements MementoService {
         return completedFuture(null);
     }
 
+    @Override
+    public CompletionStage<Void> put(final ResourceService resourceService, final Metadata metadata,
+            final Dataset dataset) {
+        return completedFuture(null);
+    }
+
     @Override
     public CompletionStage<Void> put(final Resource resource) {
         return completedFuture(null);
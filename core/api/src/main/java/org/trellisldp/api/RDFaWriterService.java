@@ -25,6 +25,9 @@ public interface RDFaWriterService {
 
     /**
      * Produce RDFa (HTML) output from a given stream of triples.
+     *
+     * <p>The triple stream is closed once it has been written.
+     *
      * @param triples the triples
      * @param output the output stream
      * @param subject the subject of the resource, may be {@code null}
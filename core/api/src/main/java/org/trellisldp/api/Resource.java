@@ -14,10 +14,12 @@
 package org.trellisldp.api;
 
 import static java.util.Collections.singleton;
+import static java.util.Comparator.comparing;
 import static java.util.Optional.empty;
 
 import java.time.Instant;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -224,6 +226,35 @@ public interface Resource {
             .map(Quad::asTriple);
     }
 
+    /**
+     * Retrieve a window of the RDF Triples in a named graph, ordered by the IRI of each triple's object.
+     *
+     * <p>Only triples whose object is an {@link IRI} are included. A caller can page through a graph by
+     * passing the first or last object of one window as the cursor of the next window.
+     *
+     * @implSpec The default implementation sorts the entire graph in memory. Implementations
+     *           backed by an indexed store should override this method so that the cost of a
+     *           window depends on the limit rather than on the size of the graph.
+     * @param graphName the named graph
+     * @param cursor the exclusive boundary of the window, may be null
+     * @param descending if true, return the objects that precede the cursor in descending order;
+     *                   otherwise return the objects that follow the cursor in ascending order
+     * @param limit the maximum number of triples to return
+     * @return the RDF triples
+     */
+    default Stream<Triple> stream(IRI graphName, IRI cursor, boolean descending, int limit) {
+        final Comparator<Triple> order = comparing(triple -> ((IRI) triple.getObject()).getIRIString());
+        return stream(graphName).filter(triple -> triple.getObject() instanceof IRI)
+            .filter(triple -> {
+                if (cursor == null) {
+                    return true;
+                }
+                final int cmp = ((IRI) triple.getObject()).getIRIString().compareTo(cursor.getIRIString());
+                return descending ? cmp < 0 : cmp > 0;
+            })
+            .sorted(descending ? order.reversed() : order).limit(limit);
+    }
+
     /**
      * Retrieve a BinaryMetadata for this resouce, if it is a LDP-NR.
      *
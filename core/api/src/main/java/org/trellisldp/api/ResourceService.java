@@ -17,10 +17,15 @@ import static org.trellisldp.api.TrellisUtils.TRELLIS_BNODE_PREFIX;
 import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
 import static org.trellisldp.api.TrellisUtils.getInstance;
 
+import java.time.Instant;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.UnaryOperator;
 
 import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.Graph;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.RDFTerm;
 
@@ -114,6 +119,66 @@ public interface ResourceService extends MutableDataService<Resource>, Immutable
      */
     CompletionStage<Void> touch(IRI identifier);
 
+    /**
+     * Get the modification time that this Resource Service records when it persists a resource with the given
+     * metadata.
+     *
+     * <p>A service that records the modification time supplied in {@link Metadata#getModified} returns that time,
+     * so that other services, such as a {@link MementoService}, can rely on it without fetching the resource.
+     *
+     * @implSpec The default implementation of this method returns an empty Optional, indicating that the
+     *           persistence layer assigns its own modification time.
+     * @param metadata metadata for the resource, as passed to {@link #create} or {@link #replace}
+     * @return the modification time that is recorded for the resource, if known
+     */
+    default Optional<Instant> getModified(final Metadata metadata) {
+        return Optional.empty();
+    }
+
+    /**
+     * Test whether this Resource Service can update a graph of a resource in place.
+     *
+     * <p>Callers must only use {@link #update} when this method returns true. Otherwise, the graph is updated
+     * by the caller and persisted with {@link #replace}.
+     *
+     * @return true if {@link #update} is supported; false otherwise
+     */
+    default boolean supportsUpdate() {
+        return false;
+    }
+
+    /**
+     * Update a graph of a resource in place, by executing a SPARQL Update in the persistence layer.
+     *
+     * <p>The default graph of the update refers to the named graph of the resource. Unlike
+     * {@link #replace}, this does not require the entire graph to be read or written:
+     * only the triples affected by the update. Any membership properties of the resource are taken from
+     * its user-managed graph, once the update has been applied.
+     *
+     * <p>This method is only called when {@link #supportsUpdate} returns true. If the update cannot be evaluated
+     * against the stored graph, the returned stage completes exceptionally with a {@link RuntimeTrellisException}.
+     *
+     * @implSpec The default implementation of this method does not support in-place updates, in keeping with
+     *           the default {@link #supportsUpdate}, and returns a stage that completes exceptionally with an
+     *           {@link UnsupportedOperationException}.
+     * @param metadata metadata for the resource
+     * @param graphName the name of the graph to update
+     * @param update the SPARQL Update
+     * @param base the base IRI, for resolving relative IRIs in the update
+     * @param handler a function that is applied to the triples added by the update, before they are persisted,
+     *                and that returns the triples to persist. If the function throws an exception, the update is
+     *                not persisted and the returned stage completes exceptionally with that exception.
+     * @return a new completion stage that, when the stage completes normally, indicates that the update was
+     *         successfully applied in the corresponding persistence layer
+     * @throws RuntimeTrellisException if the update is not valid
+     */
+    default CompletionStage<Void> update(Metadata metadata, IRI graphName, String update, String base,
+            UnaryOperator<Graph> handler) {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(new UnsupportedOperationException("In-place updates are not supported"));
+        return future;
+    }
+
     /**
      * Return a collection of interaction models supported by this Resource Service.
      *
@@ -16,14 +16,27 @@ package org.trellisldp.api;
 import static java.util.Collections.newSetFromMap;
 import static java.util.Collections.unmodifiableSet;
 import static java.util.EnumSet.of;
+import static java.util.Locale.ROOT;
 import static java.util.stream.Collector.Characteristics.CONCURRENT;
 import static java.util.stream.Collector.Characteristics.IDENTITY_FINISH;
 import static java.util.stream.Collector.Characteristics.UNORDERED;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
@@ -47,6 +60,8 @@ import org.apache.commons.rdf.api.Triple;
  */
 public final class TrellisUtils {
 
+    private static final int BUFFER_SIZE = 8192;
+
     private static RDF rdf = findFirst(RDF.class)
         .orElseThrow(() -> new RuntimeTrellisException("No RDF Commons implementation available!"));
 
@@ -70,6 +85,11 @@ public final class TrellisUtils {
      */
     public static final String TRELLIS_SESSION_PREFIX = TRELLIS_SCHEME + "session/";
 
+    /**
+     * The prefix for IRIs that identify message digests.
+     */
+    public static final String DIGEST_PREFIX = "urn:";
+
     /**
      * Get the Commons RDF instance in use.
      *
@@ -102,6 +122,33 @@ public final class TrellisUtils {
                     .map(idx -> TRELLIS_DATA_PREFIX + path.substring(0, idx)).map(rdf::createIRI);
     }
 
+    /**
+     * Get an IRI that identifies a message digest.
+     *
+     * @param algorithm the digest algorithm
+     * @param value the hexadecimal digest value
+     * @return an IRI of the form {@code urn:<algorithm>:<value>}
+     */
+    public static IRI getDigestIRI(final String algorithm, final String value) {
+        return rdf.createIRI(DIGEST_PREFIX + algorithm.toLowerCase(ROOT) + ":" + value);
+    }
+
+    /**
+     * Parse an IRI that identifies a message digest.
+     *
+     * @param digest the digest IRI, in the form {@code urn:<algorithm>:<value>}
+     * @return the upper-case algorithm name and the hexadecimal digest value, if the IRI identifies a digest
+     */
+    public static Optional<Entry<String, String>> parseDigestIRI(final IRI digest) {
+        final String value = digest.getIRIString();
+        final int idx = value.lastIndexOf(':');
+        if (value.startsWith(DIGEST_PREFIX) && idx > DIGEST_PREFIX.length() && idx < value.length() - 1) {
+            return Optional.of(new SimpleImmutableEntry<>(
+                        value.substring(DIGEST_PREFIX.length(), idx).toUpperCase(ROOT), value.substring(idx + 1)));
+        }
+        return Optional.empty();
+    }
+
     /**
      * Collect a stream of Triples into a Graph.
      *
@@ -134,6 +181,61 @@ public final class TrellisUtils {
         return new DatasetCollector();
     }
 
+    /**
+     * Copy an input stream to a channel, closing the stream.
+     *
+     * @param input the input stream
+     * @param target the channel
+     * @return the number of bytes written
+     * @throws IOException if the content could not be copied
+     */
+    static long copy(final InputStream input, final WritableByteChannel target) throws IOException {
+        try (final ReadableByteChannel source = Channels.newChannel(input)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long written = 0L;
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    written += target.write(buffer);
+                }
+                buffer.clear();
+            }
+            return written;
+        }
+    }
+
+    /**
+     * Update several message digests from a single read of an input stream, closing the stream.
+     *
+     * @param input the input stream
+     * @param algorithms the message digests
+     * @throws IOException if the content could not be read
+     */
+    static void digest(final InputStream input, final List<MessageDigest> algorithms) throws IOException {
+        try (final InputStream source = input) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read = source.read(buffer);
+            while (read >= 0) {
+                for (final MessageDigest algorithm : algorithms) {
+                    algorithm.update(buffer, 0, read);
+                }
+                read = source.read(buffer);
+            }
+        }
+    }
+
+    /**
+     * Create a completion stage for an unsupported resumable upload operation.
+     *
+     * @param <T> the type of the stage
+     * @return a stage that completes exceptionally with an {@link UnsupportedOperationException}
+     */
+    static <T> CompletionStage<T> unsupportedUpload() {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(new UnsupportedOperationException("Resumable uploads are not supported"));
+        return future;
+    }
+
     static class DatasetCollector implements Collector<Quad, Dataset, Dataset> {
 
         @Override
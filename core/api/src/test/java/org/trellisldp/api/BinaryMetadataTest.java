@@ -45,11 +45,19 @@ public class BinaryMetadataTest {
         assertEquals(hints, binary.getHints(), "hints did not match");
     }
 
+    @Test
+    public void testBinaryMetadataWithDigests() {
+        final Map<String, String> digests = singletonMap("MD5", "d41d8cd98f00b204e9800998ecf8427e");
+        final BinaryMetadata binary = BinaryMetadata.builder(identifier).digests(digests).build();
+        assertEquals(digests, binary.getDigests(), "Digests did not match");
+    }
+
     @Test
     public void testBinaryMetadataWithOptionalArgs() {
         final BinaryMetadata binary = BinaryMetadata.builder(identifier).build();
         assertEquals(identifier, binary.getIdentifier(), "Identifier did not match");
         assertFalse(binary.getMimeType().isPresent(), "MimeType was not absent");
         assertTrue(binary.getHints().isEmpty(), "Hints are not empty!");
+        assertTrue(binary.getDigests().isEmpty(), "Digests are not empty!");
     }
 }
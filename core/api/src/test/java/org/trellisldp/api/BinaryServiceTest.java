@@ -14,7 +14,10 @@
 package org.trellisldp.api;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.channels.Channels.newChannel;
+import static java.util.Arrays.asList;
 import static java.util.Base64.getEncoder;
+import static java.util.Collections.emptyList;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.apache.commons.io.IOUtils.readLines;
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,9 +26,14 @@ import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.rdf.api.IRI;
@@ -61,13 +69,29 @@ public class BinaryServiceTest {
     public void testGetContent() throws IOException {
         final ByteArrayInputStream inputStream = new ByteArrayInputStream("FooBar".getBytes(UTF_8));
         when(mockBinaryService.get(eq(identifier))).thenAnswer(inv -> completedFuture(mockBinary));
-        when(mockBinary.getContent(anyInt(), anyInt())).thenReturn(inputStream);
+        when(mockBinary.getContent(anyLong(), anyLong())).thenReturn(inputStream);
         try (final InputStream content = mockBinaryService.get(identifier)
                 .thenApply(b -> b.getContent(0, 6)).toCompletableFuture().join()) {
             assertEquals("FooBar", IOUtils.toString(content, UTF_8), "Binary content did not match");
         }
     }
 
+    @Test
+    public void testWriteTo() throws IOException {
+        when(mockBinary.getContent()).thenReturn(new ByteArrayInputStream("FooBar".getBytes(UTF_8)));
+        when(mockBinary.getContent(eq(1L), eq(3L))).thenReturn(new ByteArrayInputStream("ooB".getBytes(UTF_8)));
+        when(mockBinary.writeTo(any(WritableByteChannel.class))).thenCallRealMethod();
+        when(mockBinary.writeTo(anyLong(), anyLong(), any(WritableByteChannel.class))).thenCallRealMethod();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(6L, mockBinary.writeTo(newChannel(out)), "Incorrect number of bytes written!");
+        assertEquals("FooBar", out.toString("UTF-8"), "Binary content did not match");
+
+        out.reset();
+        assertEquals(3L, mockBinary.writeTo(1L, 3L, newChannel(out)), "Incorrect number of bytes written!");
+        assertEquals("ooB", out.toString("UTF-8"), "Binary segment did not match");
+    }
+
     @Test
     public void testSetContent() throws Exception {
         final ByteArrayInputStream inputStream = new ByteArrayInputStream("FooBar".getBytes(UTF_8));
@@ -83,4 +107,64 @@ public class BinaryServiceTest {
                         .thenAccept(digest -> assertEquals("8yom4qOoqjOM13tuEmPFNQ==", digest))
                         .toCompletableFuture()::join);
     }
+
+    @Test
+    public void testSetContentDigests() throws Exception {
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream("FooBar".getBytes(UTF_8));
+        doCallRealMethod().when(mockBinaryService).setContent(any(BinaryMetadata.class),
+                any(InputStream.class), anyList());
+        when(mockBinaryService.setContent(any(BinaryMetadata.class), any(InputStream.class)))
+            .thenAnswer(inv -> {
+                readLines((InputStream) inv.getArguments()[1], UTF_8);
+                return completedFuture(null);
+            });
+        final List<MessageDigest> digests = mockBinaryService.setContent(BinaryMetadata.builder(identifier).build(),
+                inputStream, asList(MessageDigest.getInstance("MD5"), MessageDigest.getInstance("SHA-1")))
+            .toCompletableFuture().join();
+        assertEquals("8yom4qOoqjOM13tuEmPFNQ==", getEncoder().encodeToString(digests.get(0).digest()),
+                "Incorrect MD5 digest!");
+        assertEquals("64/EH52a5YVcTYATVQdeTM+yKAg=", getEncoder().encodeToString(digests.get(1).digest()),
+                "Incorrect SHA-1 digest!");
+    }
+
+    @Test
+    public void testCalculateDigests() throws Exception {
+        when(mockBinaryService.get(eq(identifier))).thenAnswer(inv -> completedFuture(mockBinary));
+        when(mockBinaryService.calculateDigests(eq(identifier), anyList())).thenCallRealMethod();
+        when(mockBinary.getContent()).thenReturn(new ByteArrayInputStream("FooBar".getBytes(UTF_8)));
+        final List<MessageDigest> digests = mockBinaryService.calculateDigests(identifier,
+                asList(MessageDigest.getInstance("MD5"), MessageDigest.getInstance("SHA-1")))
+            .toCompletableFuture().join();
+        assertEquals("8yom4qOoqjOM13tuEmPFNQ==", getEncoder().encodeToString(digests.get(0).digest()),
+                "Incorrect MD5 digest!");
+        assertEquals("64/EH52a5YVcTYATVQdeTM+yKAg=", getEncoder().encodeToString(digests.get(1).digest()),
+                "Incorrect SHA-1 digest!");
+    }
+
+    @Test
+    public void testUploadsUnsupported() {
+        when(mockBinaryService.supportsUploads()).thenCallRealMethod();
+        when(mockBinaryService.createUpload(any(IRI.class), anyList())).thenCallRealMethod();
+        when(mockBinaryService.writeUpload(anyString(), any(IRI.class), anyLong(), any(InputStream.class)))
+            .thenCallRealMethod();
+        when(mockBinaryService.getUploadOffset(anyString(), any(IRI.class))).thenCallRealMethod();
+        when(mockBinaryService.completeUpload(anyString(), any(IRI.class), any(BinaryMetadata.class)))
+            .thenCallRealMethod();
+        when(mockBinaryService.abortUpload(anyString(), any(IRI.class))).thenCallRealMethod();
+
+        assertFalse(mockBinaryService.supportsUploads(), "Unexpected support for uploads!");
+        assertUnsupported(mockBinaryService.createUpload(identifier, emptyList()));
+        assertUnsupported(mockBinaryService.writeUpload("upload", identifier, 0L,
+                    new ByteArrayInputStream(new byte[0])));
+        assertUnsupported(mockBinaryService.getUploadOffset("upload", identifier));
+        assertUnsupported(mockBinaryService.completeUpload("upload", identifier,
+                    BinaryMetadata.builder(identifier).build()));
+        assertUnsupported(mockBinaryService.abortUpload("upload", identifier));
+    }
+
+    private static void assertUnsupported(final CompletionStage<?> stage) {
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                stage.toCompletableFuture().join(), "No exception for an unsupported upload!");
+        assertTrue(err.getCause() instanceof UnsupportedOperationException, "Incorrect exception type!");
+    }
 }
@@ -0,0 +1,197 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.api;
+
+import static java.time.Instant.now;
+import static java.util.Collections.singleton;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.trellisldp.api.Resource.SpecialResources.MISSING_RESOURCE;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.commons.rdf.api.Dataset;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+public class CachingResourceServiceTest {
+
+    private static final RDF rdf = TrellisUtils.getInstance();
+    private static final IRI identifier = rdf.createIRI("trellis:data/resource");
+    private static final IRI parent = rdf.createIRI("trellis:data/");
+    private static final IRI type = rdf.createIRI("http://www.w3.org/ns/ldp#RDFSource");
+
+    @Mock
+    private ResourceService mockResourceService;
+
+    @Mock
+    private Resource mockResource;
+
+    @Mock
+    private Dataset mockDataset;
+
+    private final MapCache cache = new MapCache();
+
+    private ResourceService service;
+
+    @BeforeEach
+    public void setUp() {
+        initMocks(this);
+        cache.values.clear();
+        service = new CachingResourceService(mockResourceService, cache);
+        doReturn(completedFuture(mockResource)).when(mockResourceService).get(identifier);
+        doReturn(completedFuture(MISSING_RESOURCE)).when(mockResourceService).get(parent);
+        when(mockResourceService.create(any(), any())).thenReturn(completedFuture(null));
+        when(mockResourceService.replace(any(), any())).thenReturn(completedFuture(null));
+        when(mockResourceService.replace(any(), any(), any(), any())).thenReturn(completedFuture(null));
+        when(mockResourceService.delete(any())).thenReturn(completedFuture(null));
+        when(mockResourceService.touch(any())).thenReturn(completedFuture(null));
+        when(mockResourceService.update(any(), any(), any(), any(), any())).thenReturn(completedFuture(null));
+        when(mockResourceService.add(any(), any())).thenReturn(completedFuture(null));
+    }
+
+    @Test
+    public void testCachedGet() {
+        assertEquals(mockResource, service.get(identifier).toCompletableFuture().join(), "Incorrect resource!");
+        assertEquals(mockResource, service.get(identifier).toCompletableFuture().join(), "Incorrect resource!");
+        assertEquals(MISSING_RESOURCE, service.get(parent).toCompletableFuture().join(), "Incorrect resource!");
+        verify(mockResourceService, times(1)).get(identifier);
+        verify(mockResourceService, times(1)).get(parent);
+    }
+
+    @Test
+    public void testCoalescedGet() {
+        final CompletableFuture<Resource> pending = new CompletableFuture<>();
+        doReturn(pending).when(mockResourceService).get(identifier);
+
+        final CompletableFuture<? extends Resource> first = service.get(identifier).toCompletableFuture();
+        final CompletableFuture<? extends Resource> second = service.get(identifier).toCompletableFuture();
+        assertFalse(first.isDone(), "Unexpected completed lookup!");
+        pending.complete(mockResource);
+
+        assertEquals(mockResource, first.join(), "Incorrect resource!");
+        assertEquals(mockResource, second.join(), "Incorrect resource!");
+        verify(mockResourceService, times(1)).get(identifier);
+    }
+
+    @Test
+    public void testFailedGet() {
+        final CompletableFuture<Resource> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new RuntimeTrellisException("Expected exception"));
+        doReturn(failure).when(mockResourceService).get(identifier);
+
+        assertThrows(Exception.class, () -> service.get(identifier).toCompletableFuture().join(),
+                "No exception with a failed lookup!");
+        assertFalse(cache.values.containsKey(identifier), "Failed lookup should not be cached!");
+    }
+
+    @Test
+    public void testNullCache() {
+        final ResourceService svc = new CachingResourceService(mockResourceService, new NoopCacheService<IRI,
+                CompletableFuture<Resource>>() {
+            @Override
+            public CompletableFuture<Resource> get(final IRI key,
+                    final Function<IRI, CompletableFuture<Resource>> mappingFunction) {
+                return null;
+            }
+        });
+        assertEquals(mockResource, svc.get(identifier).toCompletableFuture().join(), "Incorrect resource!");
+    }
+
+    @Test
+    public void testInvalidation() {
+        final Metadata metadata = Metadata.builder(identifier).interactionModel(type).container(parent).build();
+
+        service.get(identifier).toCompletableFuture().join();
+        service.get(parent).toCompletableFuture().join();
+        service.replace(metadata, mockDataset).toCompletableFuture().join();
+        assertTrue(cache.values.isEmpty(), "Cache not invalidated after replace!");
+
+        service.get(identifier).toCompletableFuture().join();
+        service.replace(metadata, mockDataset, mockDataset, mockDataset).toCompletableFuture().join();
+        assertTrue(cache.values.isEmpty(), "Cache not invalidated after a replacement with changes!");
+
+        service.get(identifier).toCompletableFuture().join();
+        service.update(metadata, null, "INSERT DATA { <> a <http://example.com/Type> }", "trellis:data/resource",
+                graph -> graph).toCompletableFuture().join();
+        assertTrue(cache.values.isEmpty(), "Cache not invalidated after update!");
+
+        service.get(identifier).toCompletableFuture().join();
+        service.create(metadata, mockDataset).toCompletableFuture().join();
+        assertTrue(cache.values.isEmpty(), "Cache not invalidated after create!");
+
+        service.get(identifier).toCompletableFuture().join();
+        service.delete(metadata).toCompletableFuture().join();
+        assertTrue(cache.values.isEmpty(), "Cache not invalidated after delete!");
+
+        service.get(identifier).toCompletableFuture().join();
+        service.touch(identifier).toCompletableFuture().join();
+        assertTrue(cache.values.isEmpty(), "Cache not invalidated after touch!");
+
+        service.get(identifier).toCompletableFuture().join();
+        service.add(identifier, mockDataset).toCompletableFuture().join();
+        assertTrue(cache.values.containsKey(identifier), "Cache should not be invalidated after add!");
+        verify(mockResourceService, times(7)).get(identifier);
+    }
+
+    @Test
+    public void testDelegation() {
+        final IRI term = rdf.createIRI("http://example.com/resource");
+        when(mockResourceService.generateIdentifier()).thenReturn("identifier");
+        when(mockResourceService.supportedInteractionModels()).thenReturn(singleton(type));
+        when(mockResourceService.skolemize(term)).thenReturn(identifier);
+        when(mockResourceService.unskolemize(term)).thenReturn(identifier);
+        when(mockResourceService.toInternal(term, "http://example.com/")).thenReturn(identifier);
+        when(mockResourceService.toExternal(term, "http://example.com/")).thenReturn(identifier);
+        when(mockResourceService.supportsUpdate()).thenReturn(true);
+        final Instant time = now();
+        final Metadata metadata = Metadata.builder(identifier).interactionModel(type).modified(time).build();
+        when(mockResourceService.getModified(metadata)).thenReturn(Optional.of(time));
+
+        assertEquals("identifier", service.generateIdentifier(), "Incorrect identifier!");
+        assertEquals(singleton(type), service.supportedInteractionModels(), "Incorrect interaction models!");
+        assertEquals(identifier, service.skolemize(term), "Incorrect skolemized term!");
+        assertEquals(identifier, service.unskolemize(term), "Incorrect unskolemized term!");
+        assertEquals(identifier, service.toInternal(term, "http://example.com/"), "Incorrect internal term!");
+        assertEquals(identifier, service.toExternal(term, "http://example.com/"), "Incorrect external term!");
+        assertTrue(service.supportsUpdate(), "In-place updates should be supported!");
+        assertEquals(Optional.of(time), service.getModified(metadata), "Incorrect modification time!");
+    }
+
+    private static class MapCache implements CacheService<IRI, CompletableFuture<Resource>> {
+        private final Map<IRI, CompletableFuture<Resource>> values = new ConcurrentHashMap<>();
+
+        @Override
+        public CompletableFuture<Resource> get(final IRI key,
+                final Function<IRI, CompletableFuture<Resource>> mappingFunction) {
+            return values.computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public void invalidate(final IRI key) {
+            values.remove(key);
+        }
+    }
+}
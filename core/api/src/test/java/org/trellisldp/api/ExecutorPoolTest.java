@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.api;
+
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+public class ExecutorPoolTest {
+
+    @Test
+    public void testSharedPool() {
+        final ExecutorPool pool = ExecutorPool.getInstance("test-shared", 2);
+        assertSame(pool, ExecutorPool.getInstance("test-shared", 2), "Pools with the same name should be shared!");
+        assertSame(pool, ExecutorPool.getInstance("test-shared"), "Lookups by name should ignore the pool size!");
+        assertEquals(2, pool.getThreads(), "Incorrect pool size!");
+        assertEquals("test-shared", pool.getName(), "Incorrect pool name!");
+        assertTrue(ExecutorPool.getInstances().contains(pool), "Pool not listed!");
+        assertEquals(ExecutorPool.DEFAULT_THREADS, ExecutorPool.getInstance("test-default").getThreads(),
+                "Incorrect default pool size!");
+    }
+
+    @Test
+    public void testConflictingSize() {
+        final ExecutorPool pool = ExecutorPool.getInstance("test-conflict", 2);
+        assertThrows(IllegalStateException.class, () -> ExecutorPool.getInstance("test-conflict", 4),
+                "Resizing an existing pool should fail!");
+        assertThrows(IllegalStateException.class, () -> ExecutorPool.getInstance("test-conflict", 2, 5),
+                "Resizing the queue of an existing pool should fail!");
+        assertEquals(2, pool.getThreads(), "Pool should not be resized!");
+    }
+
+    @Test
+    public void testNamedThreads() throws Exception {
+        final ExecutorPool pool = ExecutorPool.getInstance("test-threads", 1);
+        final String name = supplyAsync(() -> Thread.currentThread().getName(), pool).get();
+        assertTrue(name.startsWith("test-threads-"), "Incorrect thread name!");
+        assertEquals(0L, pool.getRejectedCount(), "Unexpected rejected tasks!");
+    }
+
+    @Test
+    public void testRejectedTasks() throws Exception {
+        final ExecutorPool pool = ExecutorPool.getInstance("test-rejected", 1, 1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final CompletableFuture<Void> blocked = runAsync(() -> {
+            try {
+                latch.await();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }, pool);
+        final CompletableFuture<Void> queued = runAsync(() -> { }, pool);
+        assertEquals(1, pool.getQueueDepth(), "Incorrect queue depth!");
+
+        final String caller = Thread.currentThread().getName();
+        assertEquals(caller, supplyAsync(() -> Thread.currentThread().getName(), pool).get(),
+                "Rejected task not run by the caller!");
+        assertEquals(1L, pool.getRejectedCount(), "Incorrect rejected count!");
+
+        latch.countDown();
+        CompletableFuture.allOf(blocked, queued).get();
+    }
+}
@@ -213,6 +213,14 @@ public class JoiningResourceServiceTest {
         assertEquals(testResource2.stream().findFirst().get(), retrieved.stream().findFirst().get(),
                         "Resource was retrieved with wrong data!");
 
+        final Resource testResource3 = new TestResource(testResourceId1, testQuad);
+        assertNull(testable.replace(Metadata.builder(testResource3).interactionModel(LDP.RDFSource).build(),
+                    testResource3.dataset(), testResource2.dataset(), testResource3.dataset()).toCompletableFuture()
+                    .join(), "Couldn't replace resource with changes!");
+        retrieved = testable.get(testResourceId1).toCompletableFuture().join();
+        assertEquals(testResource3.stream().findFirst().get(), retrieved.stream().findFirst().get(),
+                        "Resource was retrieved with wrong data!");
+
         assertNull(testable.delete(Metadata.builder(testResourceId1).interactionModel(LDP.RDFSource).build())
                 .toCompletableFuture().join(), "Couldn't delete resource!");
         assertEquals(MISSING_RESOURCE, testable.get(testResourceId1).toCompletableFuture().join(),
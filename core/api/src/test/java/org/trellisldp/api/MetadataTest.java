@@ -13,11 +13,14 @@
  */
 package org.trellisldp.api;
 
+import static java.time.Instant.now;
 import static java.util.Optional.of;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
+
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.RDF;
 import org.junit.jupiter.api.Test;
@@ -79,6 +82,15 @@ public class MetadataTest {
         assertFalse(metadata.getMemberOfRelation().isPresent());
         assertFalse(metadata.getInsertedContentRelation().isPresent());
         assertFalse(metadata.getMemberRelation().isPresent());
+        assertFalse(metadata.getModified().isPresent());
+    }
+
+    @Test
+    public void testMetadataModified() {
+        final Instant time = now();
+        final Metadata metadata = Metadata.builder(identifier).interactionModel(LDP.RDFSource)
+                .modified(time).build();
+        assertEquals(of(time), metadata.getModified());
     }
 
     @Test
@@ -87,6 +99,7 @@ public class MetadataTest {
         when(mockResource.getContainer()).thenReturn(of(root));
         when(mockResource.getInteractionModel()).thenReturn(LDP.RDFSource);
         when(mockResource.getIdentifier()).thenReturn(identifier);
+        when(mockResource.getModified()).thenReturn(now());
 
         final Metadata metadata = Metadata.builder(mockResource).build();
         assertEquals(identifier, metadata.getIdentifier());
@@ -97,5 +110,6 @@ public class MetadataTest {
         assertFalse(metadata.getMemberOfRelation().isPresent());
         assertFalse(metadata.getInsertedContentRelation().isPresent());
         assertFalse(metadata.getMemberRelation().isPresent());
+        assertFalse(metadata.getModified().isPresent(), "A new write should not reuse the modification time!");
     }
 }
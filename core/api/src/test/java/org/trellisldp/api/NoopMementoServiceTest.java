@@ -28,12 +28,14 @@ import static org.trellisldp.vocabulary.RDF.type;
 import java.time.Instant;
 import java.util.SortedSet;
 
+import org.apache.commons.rdf.api.Dataset;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.Quad;
 import org.apache.commons.rdf.api.RDF;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.trellisldp.vocabulary.LDP;
 import org.trellisldp.vocabulary.SKOS;
 import org.trellisldp.vocabulary.Trellis;
 
@@ -61,6 +63,8 @@ public class NoopMementoServiceTest {
         when(mockResource.getModified()).thenReturn(time);
         when(mockResource.stream()).thenAnswer(inv -> of(quad));
         doCallRealMethod().when(mockMementoService).put(any(ResourceService.class), any(IRI.class));
+        doCallRealMethod().when(mockMementoService).put(any(ResourceService.class), any(Metadata.class),
+                any(Dataset.class));
         when(mockResourceService.get(any(IRI.class))).thenAnswer(inv -> completedFuture(mockResource));
         when(mockMementoService.put(any(Resource.class))).thenReturn(completedFuture(null));
     }
@@ -72,6 +76,21 @@ public class NoopMementoServiceTest {
         verify(mockMementoService).put(eq(mockResource));
     }
 
+    @Test
+    public void testPutDatasetDefaultMethod() {
+        final Metadata metadata = Metadata.builder(identifier).interactionModel(LDP.RDFSource).modified(time).build();
+        mockMementoService.put(mockResourceService, metadata, rdf.createDataset()).toCompletableFuture().join();
+        verify(mockResourceService).get(eq(identifier));
+        verify(mockMementoService).put(eq(mockResource));
+    }
+
+    @Test
+    public void testPutDatasetNoop() {
+        final Metadata metadata = Metadata.builder(identifier).interactionModel(LDP.RDFSource).build();
+        testService.put(mockResourceService, metadata, rdf.createDataset()).toCompletableFuture().join();
+        verifyZeroInteractions(mockResourceService);
+    }
+
     @Test
     public void testPutResourceServiceNoop() {
         testService.put(mockResourceService, identifier).toCompletableFuture().join();
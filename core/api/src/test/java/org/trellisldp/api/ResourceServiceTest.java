@@ -19,6 +19,7 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 
 import org.apache.commons.rdf.api.BlankNode;
@@ -64,6 +65,9 @@ public class ResourceServiceTest {
         doCallRealMethod().when(mockResourceService).toInternal(any(), any());
         doCallRealMethod().when(mockResourceService).toExternal(any(), any());
         doCallRealMethod().when(mockResourceService).create(any(), any());
+        doCallRealMethod().when(mockResourceService).replace(any(), any(), any(), any());
+        doCallRealMethod().when(mockResourceService).supportsUpdate();
+        doCallRealMethod().when(mockResourceService).update(any(), any(), any(), any(), any());
 
         when(mockRetrievalService.get(eq(existing))).thenAnswer(inv -> completedFuture(mockResource));
     }
@@ -93,6 +97,32 @@ public class ResourceServiceTest {
         verify(mockResourceService).replace(eq(metadata), eq(dataset));
     }
 
+    @Test
+    public void testDefaultReplaceChanges() {
+        final IRI root = rdf.createIRI("trellis:data/");
+        final Dataset dataset = rdf.createDataset();
+        final Metadata metadata = Metadata.builder(existing).container(root).interactionModel(LDP.RDFSource).build();
+
+        when(mockResourceService.replace(eq(metadata), eq(dataset))).thenReturn(completedFuture(null));
+
+        assertDoesNotThrow(() -> mockResourceService.replace(metadata, dataset, rdf.createDataset(),
+                    rdf.createDataset()).toCompletableFuture().join());
+        verify(mockResourceService).replace(eq(metadata), eq(dataset));
+    }
+
+    @Test
+    public void testDefaultUpdate() {
+        final IRI root = rdf.createIRI("trellis:data/");
+        final Metadata metadata = Metadata.builder(existing).container(root).interactionModel(LDP.RDFSource).build();
+
+        assertFalse(mockResourceService.supportsUpdate(), "In-place updates should not be supported by default!");
+        final CompletionException err = assertThrows(CompletionException.class, () -> mockResourceService
+                .update(metadata, null, "INSERT DATA { <> a <http://example.com/Type> }", existing.getIRIString(),
+                    graph -> graph).toCompletableFuture().join(), "No exception with an unsupported update!");
+        assertTrue(err.getCause() instanceof UnsupportedOperationException, "Incorrect exception type!");
+        verify(mockResourceService, never()).replace(any(), any());
+    }
+
     @Test
     public void testSkolemization() {
         final BlankNode bnode = rdf.createBlankNode("testing");
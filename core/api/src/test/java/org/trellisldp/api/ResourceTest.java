@@ -13,7 +13,9 @@
  */
 package org.trellisldp.api;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singleton;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Stream.empty;
 import static java.util.stream.Stream.of;
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,8 +26,12 @@ import static org.trellisldp.api.Resource.SpecialResources.DELETED_RESOURCE;
 import static org.trellisldp.api.Resource.SpecialResources.MISSING_RESOURCE;
 import static org.trellisldp.vocabulary.Trellis.PreferUserManaged;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.api.Triple;
 import org.apache.commons.rdf.simple.SimpleRDF;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -53,6 +59,7 @@ public class ResourceTest {
         doCallRealMethod().when(mockResource).getInsertedContentRelation();
         doCallRealMethod().when(mockResource).stream(any(IRI.class));
         doCallRealMethod().when(mockResource).stream(anyCollection());
+        doCallRealMethod().when(mockResource).stream(any(IRI.class), any(), anyBoolean(), anyInt());
         doCallRealMethod().when(mockResource).getBinaryMetadata();
         doCallRealMethod().when(mockResource).hasAcl();
         doCallRealMethod().when(mockResource).getExtraLinkRelations();
@@ -84,6 +91,32 @@ public class ResourceTest {
         assertEquals(1L, mockResource.stream(singleton(prefer)).count(), "Resource has wrong number of triples!");
     }
 
+    @Test
+    public void testResourceWindow() {
+        final IRI subject = rdf.createIRI("ex:subject");
+        final IRI graph = rdf.createIRI("ex:graph");
+        when(mockResource.stream()).thenAnswer((x) -> of(
+                    rdf.createQuad(graph, subject, DC.hasPart, rdf.createIRI("ex:c")),
+                    rdf.createQuad(graph, subject, DC.hasPart, rdf.createIRI("ex:a")),
+                    rdf.createQuad(graph, subject, DC.title, rdf.createLiteral("A title")),
+                    rdf.createQuad(graph, subject, DC.hasPart, rdf.createIRI("ex:d")),
+                    rdf.createQuad(graph, subject, DC.hasPart, rdf.createIRI("ex:b")),
+                    rdf.createQuad(prefer, subject, DC.hasPart, rdf.createIRI("ex:e"))));
+
+        assertEquals(asList("ex:a", "ex:b"), objects(mockResource.stream(graph, null, false, 2)),
+                "Incorrect first window!");
+        assertEquals(asList("ex:c", "ex:d"), objects(mockResource.stream(graph, rdf.createIRI("ex:b"), false, 2)),
+                "Incorrect next window!");
+        assertEquals(asList("ex:b", "ex:a"), objects(mockResource.stream(graph, rdf.createIRI("ex:c"), true, 5)),
+                "Incorrect previous window!");
+        assertEquals(0L, mockResource.stream(graph, rdf.createIRI("ex:d"), false, 2).count(),
+                "Unexpected triples after the last window!");
+    }
+
+    private static List<String> objects(final Stream<Triple> triples) {
+        return triples.map(Triple::getObject).map(IRI.class::cast).map(IRI::getIRIString).collect(toList());
+    }
+
     @Test
     public void testSingletons() {
         assertEquals(MISSING_RESOURCE, MISSING_RESOURCE, "Missing resource singleton doesn't act like a singleton!");
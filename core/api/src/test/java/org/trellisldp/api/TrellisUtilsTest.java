@@ -17,11 +17,14 @@ import static java.util.Optional.of;
 import static java.util.stream.Collectors.toSet;
 import static java.util.stream.Stream.generate;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.trellisldp.api.TrellisUtils.getDigestIRI;
 import static org.trellisldp.api.TrellisUtils.getInstance;
+import static org.trellisldp.api.TrellisUtils.parseDigestIRI;
 import static org.trellisldp.api.TrellisUtils.toDataset;
 import static org.trellisldp.api.TrellisUtils.toGraph;
 import static org.trellisldp.api.TrellisUtils.toQuad;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Set;
 import java.util.stream.Collector;
 
@@ -52,6 +55,17 @@ public class TrellisUtilsTest {
         assertNotNull(rdf, "RDF instance is null!");
     }
 
+    @Test
+    public void testDigestIRI() {
+        final IRI digest = getDigestIRI("SHA-256", "abcdef");
+        assertEquals("urn:sha-256:abcdef", digest.getIRIString(), "Incorrect digest IRI!");
+        assertEquals(of(new SimpleImmutableEntry<>("SHA-256", "abcdef")), parseDigestIRI(digest),
+                "Incorrect parsed digest!");
+        assertFalse(parseDigestIRI(rdf.createIRI("urn:md5:")).isPresent(), "Unexpected digest value!");
+        assertFalse(parseDigestIRI(rdf.createIRI("urn::abcdef")).isPresent(), "Unexpected digest algorithm!");
+        assertFalse(parseDigestIRI(rdf.createIRI("trellis:data/resource")).isPresent(), "Unexpected digest!");
+    }
+
     @Test
     public void testCollectGraph() {
         final Graph graph = generate(() -> rdf.createTriple(getIRI(), getIRI(), getIRI()))
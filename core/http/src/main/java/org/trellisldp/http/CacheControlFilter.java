@@ -26,6 +26,7 @@ import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.Provider;
 
 import org.apache.tamaya.Configuration;
@@ -81,11 +82,15 @@ public class CacheControlFilter implements ContainerResponseFilter {
     public void filter(final ContainerRequestContext req, final ContainerResponseContext res) throws IOException {
         if ((GET.equals(req.getMethod()) || HEAD.equals(req.getMethod()))
                 && SUCCESSFUL.equals(res.getStatusInfo().getFamily()) && cacheAge > 0) {
-            final CacheControl cc = new CacheControl();
-            cc.setMaxAge(cacheAge);
-            cc.setMustRevalidate(revalidate);
-            cc.setNoCache(noCache);
-            res.getHeaders().add(CACHE_CONTROL, cc);
+            final MultivaluedMap<String, Object> headers = res.getHeaders();
+            // Responses, such as those for resumable uploads, may already define their own cache directives
+            if (!headers.containsKey(CACHE_CONTROL)) {
+                final CacheControl cc = new CacheControl();
+                cc.setMaxAge(cacheAge);
+                cc.setMustRevalidate(revalidate);
+                cc.setNoCache(noCache);
+                headers.add(CACHE_CONTROL, cc);
+            }
         }
     }
 }
@@ -13,10 +13,12 @@
  */
 package org.trellisldp.http;
 
+import static java.util.Arrays.stream;
 import static java.util.Objects.nonNull;
 import static java.util.Optional.of;
 import static java.util.Optional.ofNullable;
 import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toList;
 import static org.apache.tamaya.ConfigurationProvider.getConfiguration;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.trellisldp.api.Resource.SpecialResources.DELETED_RESOURCE;
@@ -25,16 +27,21 @@ import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
 import static org.trellisldp.api.TrellisUtils.getContainer;
 import static org.trellisldp.api.TrellisUtils.getInstance;
 import static org.trellisldp.api.TrellisUtils.toQuad;
+import static org.trellisldp.http.core.HttpConstants.APPLICATION_OFFSET_OCTET_STREAM;
 import static org.trellisldp.http.core.HttpConstants.CONFIG_HTTP_BASE_URL;
+import static org.trellisldp.http.core.HttpConstants.CONFIG_HTTP_BINARY_DIGESTS;
 import static org.trellisldp.http.core.HttpConstants.CONFIG_HTTP_JSONLD_PROFILE;
 import static org.trellisldp.http.core.HttpConstants.CONFIG_HTTP_MEMENTO_HEADER_DATES;
+import static org.trellisldp.http.core.HttpConstants.CONFIG_HTTP_PAGE_MAX_SIZE;
 import static org.trellisldp.http.core.HttpConstants.CONFIG_HTTP_PRECONDITION_REQUIRED;
 import static org.trellisldp.http.core.HttpConstants.CONFIG_HTTP_WEAK_ETAG;
 import static org.trellisldp.http.core.HttpConstants.TIMEMAP;
+import static org.trellisldp.http.core.HttpConstants.UPLOAD;
 
 import com.codahale.metrics.annotation.Timed;
 
 import java.io.InputStream;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Stream;
@@ -43,6 +50,7 @@ import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.HEAD;
@@ -84,6 +92,7 @@ import org.trellisldp.http.impl.PatchHandler;
 import org.trellisldp.http.impl.PostHandler;
 import org.trellisldp.http.impl.PutHandler;
 import org.trellisldp.http.impl.TrellisDataset;
+import org.trellisldp.http.impl.UploadHandler;
 import org.trellisldp.vocabulary.ACL;
 import org.trellisldp.vocabulary.FOAF;
 import org.trellisldp.vocabulary.LDP;
@@ -109,6 +118,8 @@ public class TrellisHttpResource {
     protected final boolean weakEtags;
     protected final boolean includeMementoDates;
     protected final boolean preconditionRequired;
+    protected final int maxPageSize;
+    protected final List<String> digestAlgorithms;
 
     /**
      * Create a Trellis HTTP resource matcher.
@@ -143,6 +154,10 @@ public class TrellisHttpResource {
         this.includeMementoDates = config.getOrDefault(CONFIG_HTTP_MEMENTO_HEADER_DATES, Boolean.class, Boolean.TRUE);
         this.preconditionRequired = config.getOrDefault(CONFIG_HTTP_PRECONDITION_REQUIRED, Boolean.class,
                 Boolean.FALSE);
+        this.maxPageSize = config.getOrDefault(CONFIG_HTTP_PAGE_MAX_SIZE, Integer.class,
+                GetHandler.DEFAULT_MAX_PAGE_SIZE);
+        this.digestAlgorithms = stream(config.getOrDefault(CONFIG_HTTP_BINARY_DIGESTS, "MD5,SHA-1,SHA-256")
+                .split(",")).map(String::trim).filter(alg -> !alg.isEmpty()).collect(toList());
     }
 
     /**
@@ -273,6 +288,29 @@ public class TrellisHttpResource {
             .thenApply(ResponseBuilder::build).exceptionally(this::handleException).thenApply(response::resume);
     }
 
+    /**
+     * Write a part of a resumable upload.
+     *
+     * @param response the async response
+     * @param uriInfo the URI info
+     * @param secContext the security context
+     * @param headers the HTTP headers
+     * @param request the request
+     * @param body the body
+     */
+    @PATCH
+    @Timed
+    @Consumes(APPLICATION_OFFSET_OCTET_STREAM)
+    public void uploadContent(@Suspended final AsyncResponse response, @Context final Request request,
+            @Context final UriInfo uriInfo, @Context final HttpHeaders headers,
+            @Context final SecurityContext secContext, final InputStream body) {
+        final TrellisRequest req = new TrellisRequest(request, uriInfo, headers, secContext);
+        final UploadHandler uploadHandler = new UploadHandler(req, trellis, digestAlgorithms, getBaseUrl(req));
+
+        uploadHandler.writeUpload(body).thenApply(ResponseBuilder::build).exceptionally(this::handleException)
+            .thenApply(response::resume);
+    }
+
     /**
      * Perform a DELETE operation on an LDP Resource.
      *
@@ -289,6 +327,12 @@ public class TrellisHttpResource {
             @Context final SecurityContext secContext) {
         final TrellisRequest req = new TrellisRequest(request, uriInfo, headers, secContext);
         final String urlBase = getBaseUrl(req);
+        if (nonNull(req.getUpload())) {
+            new UploadHandler(req, trellis, digestAlgorithms, urlBase).abortUpload().thenApply(ResponseBuilder::build)
+                .exceptionally(this::handleException).thenApply(response::resume);
+            return;
+        }
+
         final IRI identifier = rdf.createIRI(TRELLIS_DATA_PREFIX + req.getPath());
         final DeleteHandler deleteHandler = new DeleteHandler(req, trellis, urlBase);
 
@@ -314,6 +358,12 @@ public class TrellisHttpResource {
             @Context final SecurityContext secContext, final InputStream body) {
         final TrellisRequest req = new TrellisRequest(request, uriInfo, headers, secContext);
         final String urlBase = getBaseUrl(req);
+        if (UPLOAD.equals(req.getExt())) {
+            new UploadHandler(req, trellis, digestAlgorithms, urlBase).createUpload().thenApply(ResponseBuilder::build)
+                .exceptionally(this::handleException).thenApply(response::resume);
+            return;
+        }
+
         final String path = req.getPath();
         final String identifier = ofNullable(req.getSlug())
             .orElseGet(trellis.getResourceService()::generateIdentifier);
@@ -322,7 +372,8 @@ public class TrellisHttpResource {
 
         final IRI parent = rdf.createIRI(TRELLIS_DATA_PREFIX + path);
         final IRI child = rdf.createIRI(TRELLIS_DATA_PREFIX + path + separator + identifier);
-        final PostHandler postHandler = new PostHandler(req, parent, identifier, body, trellis, urlBase);
+        final PostHandler postHandler = new PostHandler(req, parent, identifier, body, trellis, digestAlgorithms,
+                urlBase);
 
         trellis.getResourceService().get(parent)
             .thenCombine(trellis.getResourceService().get(child), postHandler::initialize)
@@ -348,7 +399,8 @@ public class TrellisHttpResource {
         final TrellisRequest req = new TrellisRequest(request, uriInfo, headers, secContext);
         final String urlBase = getBaseUrl(req);
         final IRI identifier = rdf.createIRI(TRELLIS_DATA_PREFIX + req.getPath());
-        final PutHandler putHandler = new PutHandler(req, body, trellis, preconditionRequired, urlBase);
+        final PutHandler putHandler = new PutHandler(req, body, trellis, preconditionRequired, digestAlgorithms,
+                urlBase);
 
         getParent(identifier).thenCombine(trellis.getResourceService().get(identifier), putHandler::initialize)
             .thenCompose(putHandler::setResource).thenCompose(putHandler::updateMemento)
@@ -371,10 +423,15 @@ public class TrellisHttpResource {
         final String urlBase = getBaseUrl(req);
         final IRI identifier = rdf.createIRI(TRELLIS_DATA_PREFIX + req.getPath());
         final GetHandler getHandler = new GetHandler(req, trellis, nonNull(req.getVersion()), weakEtags,
-                includeMementoDates, defaultJsonLdProfile, urlBase);
+                includeMementoDates, defaultJsonLdProfile, urlBase, maxPageSize);
+
+        // Fetch the progress of a resumable upload
+        if (nonNull(req.getUpload())) {
+            LOGGER.debug("Getting upload status: {}", req.getUpload());
+            return new UploadHandler(req, trellis, digestAlgorithms, urlBase).getUploadStatus();
 
         // Fetch a memento
-        if (nonNull(req.getVersion())) {
+        } else if (nonNull(req.getVersion())) {
             LOGGER.debug("Getting versioned resource: {}", req.getVersion());
             return trellis.getMementoService().get(identifier, req.getVersion().getInstant())
                 .thenApply(getHandler::initialize).thenApply(getHandler::standardHeaders)
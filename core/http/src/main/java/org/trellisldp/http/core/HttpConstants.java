@@ -49,9 +49,15 @@ public final class HttpConstants {
     /** The default Memento TimeMap output format. **/
     public static final String APPLICATION_LINK_FORMAT = "application/link-format";
 
+    /** The media type of a part of a resumable upload. **/
+    public static final String APPLICATION_OFFSET_OCTET_STREAM = "application/offset+octet-stream";
+
     /** Configuration key defining the server's base URL. **/
     public static final String CONFIG_HTTP_BASE_URL = "trellis.http.baseUrl";
 
+    /** Configuration key defining the digest algorithms to compute and store when binary content is persisted. **/
+    public static final String CONFIG_HTTP_BINARY_DIGESTS = "trellis.http.binary.digests";
+
     /** Configuration key defining whether to include dates in memento headers. **/
     public static final String CONFIG_HTTP_MEMENTO_HEADER_DATES = "trellis.http.memento.headerdates";
 
@@ -61,6 +67,9 @@ public final class HttpConstants {
     /** Configuration key defining the default JSON-LD profile. **/
     public static final String CONFIG_HTTP_JSONLD_PROFILE = "trellis.http.jsonld.profile";
 
+    /** Configuration key defining the maximum number of child resources on a page of a container. **/
+    public static final String CONFIG_HTTP_PAGE_MAX_SIZE = "trellis.http.page.maxsize";
+
     /** Configuration key defining whether to require precondition headers for PUT operations. **/
     public static final String CONFIG_HTTP_PRECONDITION_REQUIRED = "trellis.http.precondition.required";
 
@@ -73,12 +82,18 @@ public final class HttpConstants {
     /** The Trellis ext parameter value used for accessing the description of an LDP-NR. **/
     public static final String DESCRIPTION = "description";
 
+    /** The name of the HTTP response header used to indicate the range of a partial response. **/
+    public static final String CONTENT_RANGE = "Content-Range";
+
     /** The name of the HTTP response header used to communicate instance digest values. **/
     public static final String DIGEST = "Digest";
 
     /** The Memento link parameter indicating the beginning range of a TimeMap. **/
     public static final String FROM = "from";
 
+    /** The name of the HTTP request header used to make a range request conditional. **/
+    public static final String IF_RANGE = "If-Range";
+
     /** The name of the HTTP response header used to indicate a link template to clients. **/
     public static final String LINK_TEMPLATE = "Link-Template";
 
@@ -91,6 +106,9 @@ public final class HttpConstants {
     /** The Memento link relation for original resources. **/
     public static final String ORIGINAL = "original";
 
+    /** The name of the query parameter used to select a page of containment triples. **/
+    public static final String PAGE = "page";
+
     /** The name of the HTTP verb used to update resources. **/
     public static final String PATCH = "PATCH";
 
@@ -124,6 +142,12 @@ public final class HttpConstants {
     /** The Memento link parameter indicating the ending range of a TimeMap. **/
     public static final String UNTIL = "until";
 
+    /** The ext parameter value used to begin a resumable upload. **/
+    public static final String UPLOAD = "upload";
+
+    /** The name of the HTTP header holding the offset of a resumable upload. **/
+    public static final String UPLOAD_OFFSET = "Upload-Offset";
+
     /** The implied or default set of IRIs used with a Prefer header. **/
     public static final Set<String> DEFAULT_REPRESENTATION = unmodifiableSet(asList(PreferContainment, PreferMembership,
                 PreferUserManaged).stream().map(IRI::getIRIString).collect(toSet()));
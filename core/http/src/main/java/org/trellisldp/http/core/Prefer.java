@@ -56,6 +56,8 @@ public class Prefer {
 
     public static final String PREFER_HANDLING = "handling";
 
+    public static final String PREFER_MAX_MEMBER_COUNT = "max-member-count";
+
     private final Optional<String> preference;
 
     private final Optional<String> handling;
@@ -66,6 +68,8 @@ public class Prefer {
 
     private final Set<String> params;
 
+    private final Optional<Integer> maxMemberCount;
+
     /**
      * Create a Prefer header representation.
      *
@@ -77,12 +81,28 @@ public class Prefer {
      */
     public Prefer(final String preference, final List<String> include, final List<String> omit,
             final Set<String> params, final String handling) {
+        this(preference, include, omit, params, handling, null);
+    }
+
+    /**
+     * Create a Prefer header representation.
+     *
+     * @param preference the preference value
+     * @param include a list of include values
+     * @param omit a list of omit values
+     * @param params single-valued parameters
+     * @param handling the handling value
+     * @param maxMemberCount the maximum number of containment triples to include in a page
+     */
+    public Prefer(final String preference, final List<String> include, final List<String> omit,
+            final Set<String> params, final String handling, final Integer maxMemberCount) {
         this.preference = ofNullable(preference)
             .filter(isEqual(PREFER_MINIMAL).or(PREFER_REPRESENTATION::equals));
         this.include = ofNullable(include).orElseGet(Collections::emptyList);
         this.omit = ofNullable(omit).orElseGet(Collections::emptyList);
         this.handling = ofNullable(handling).filter(isEqual(PREFER_LENIENT).or(PREFER_STRICT::equals));
         this.params = ofNullable(params).orElseGet(Collections::emptySet);
+        this.maxMemberCount = ofNullable(maxMemberCount).filter(x -> x > 0);
     }
 
     /**
@@ -103,7 +123,8 @@ public class Prefer {
                 }
             });
             return new Prefer(data.get(PREFER_RETURN), parseParameter(data.get(PREFER_INCLUDE)),
-                        parseParameter(data.get(PREFER_OMIT)), params, data.get(PREFER_HANDLING));
+                        parseParameter(data.get(PREFER_OMIT)), params, data.get(PREFER_HANDLING),
+                        parseInteger(data.get(PREFER_MAX_MEMBER_COUNT)));
         }
         return null;
     }
@@ -135,6 +156,15 @@ public class Prefer {
         return params.contains("respond-async");
     }
 
+    /**
+     * Get the preferred maximum number of containment triples per page.
+     *
+     * @return the page size, if one was requested
+     */
+    public Optional<Integer> getMaxMemberCount() {
+        return maxMemberCount;
+    }
+
     /**
      * Get the preferred include IRIs.
      *
@@ -188,6 +218,17 @@ public class Prefer {
             .orElseGet(Collections::emptyList);
     }
 
+    private static Integer parseInteger(final String param) {
+        if (nonNull(param)) {
+            try {
+                return Integer.parseInt(trimQuotes(param));
+            } catch (final NumberFormatException ex) {
+                return null;
+            }
+        }
+        return null;
+    }
+
     private static String trimQuotes(final String param) {
         if (param.startsWith("\"") && param.endsWith("\"") && param.length() > 1) {
             return param.substring(1, param.length() - 1);
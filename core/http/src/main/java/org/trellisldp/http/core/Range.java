@@ -13,24 +13,50 @@
  */
 package org.trellisldp.http.core;
 
-import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Comparator.comparingLong;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
 import org.slf4j.Logger;
 
 /**
  * A class representing an HTTP Range header.
  *
+ * <p>A Range header may contain one or more byte ranges. Each range has a first and last byte position,
+ * both inclusive. An open-ended range ({@code bytes=500-}) has no last position, and a suffix range
+ * ({@code bytes=-500}) has no first position; in these cases, the missing value is {@code -1}. For a
+ * suffix range, the last position holds the length of the suffix.
+ *
+ * <p>A header with more than {@value #MAX_RANGES} ranges is ignored.
+ *
  * @author acoburn
  */
 public class Range {
 
     private static final Logger LOGGER = getLogger(Range.class);
+    private static final String BYTES = "bytes=";
+    private static final long UNSPECIFIED = -1L;
+
+    /** The maximum number of byte ranges accepted in a single header. */
+    public static final int MAX_RANGES = 100;
+
+    private final long from;
 
-    private final int from;
+    private final long to;
 
-    private final int to;
+    private final List<Range> ranges;
 
     /**
      * Create a Range object.
@@ -38,29 +64,97 @@ public class Range {
      * @param from the from value
      * @param to the to value
      */
-    public Range(final int from, final int to) {
+    public Range(final long from, final long to) {
         this.from = from;
         this.to = to;
+        this.ranges = singletonList(this);
+    }
+
+    private Range(final List<Range> ranges) {
+        this.from = ranges.get(0).getFrom();
+        this.to = ranges.get(0).getTo();
+        this.ranges = unmodifiableList(ranges);
     }
 
     /**
      * Get the from value.
      *
-     * @return the byte offset
+     * @return the first byte offset of the (first) range, or -1 for a suffix range
      */
-    public int getFrom() {
+    public long getFrom() {
         return from;
     }
 
     /**
      * Get the to value.
      *
-     * @return the byte end
+     * @return the last byte offset of the (first) range, -1 for an open-ended range,
+     *         or the suffix length for a suffix range
      */
-    public int getTo() {
+    public long getTo() {
         return to;
     }
 
+    /**
+     * Get the individual byte ranges of this header, in request order.
+     *
+     * @return the byte ranges
+     */
+    public List<Range> getRanges() {
+        return ranges;
+    }
+
+    /**
+     * Resolve the byte ranges of this header against the length of a representation.
+     *
+     * <p>Overlapping and adjacent ranges are coalesced, so the resolved ranges are in ascending order
+     * and never overlap. Ranges that together request more bytes than the representation contains
+     * are not resolved, since serving them would cost more than sending the full representation.
+     *
+     * @param length the length of the representation in bytes, or -1 if the length is unknown
+     * @return the satisfiable byte ranges, each with an absolute first and last position; an empty list if
+     *         none of the ranges can be satisfied; or nothing, if the ranges cannot be resolved without knowing
+     *         the length of the representation or they request more bytes than the representation contains
+     */
+    public Optional<List<Range>> resolve(final long length) {
+        final List<Range> resolved = new ArrayList<>();
+        for (final Range range : ranges) {
+            if (length < 0) {
+                if (range.getFrom() == UNSPECIFIED || range.getTo() == UNSPECIFIED) {
+                    return empty();
+                }
+                resolved.add(range);
+            } else if (range.getFrom() == UNSPECIFIED) {
+                if (range.getTo() > 0 && length > 0) {
+                    resolved.add(new Range(max(0L, length - range.getTo()), length - 1));
+                }
+            } else if (range.getFrom() < length) {
+                resolved.add(new Range(range.getFrom(),
+                            range.getTo() == UNSPECIFIED ? length - 1 : min(range.getTo(), length - 1)));
+            }
+        }
+        if (length >= 0 && resolved.stream().mapToLong(r -> r.getTo() - r.getFrom() + 1).sum() > length) {
+            LOGGER.debug("Ignoring ranges that exceed the representation length: {}", length);
+            return empty();
+        }
+        return of(coalesce(resolved));
+    }
+
+    private static List<Range> coalesce(final List<Range> resolved) {
+        resolved.sort(comparingLong(Range::getFrom));
+        final List<Range> merged = new ArrayList<>();
+        for (final Range range : resolved) {
+            final int idx = merged.size() - 1;
+            if (idx >= 0 && range.getFrom() <= merged.get(idx).getTo() + 1) {
+                final Range previous = merged.get(idx);
+                merged.set(idx, new Range(previous.getFrom(), max(previous.getTo(), range.getTo())));
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
+    }
+
     /**
      * Get a Range object from a header value.
      *
@@ -68,32 +162,52 @@ public class Range {
      * @return the Range object or null if the value is not parseable
      */
     public static Range valueOf(final String value) {
-        final int[] vals = parse(value);
-        if (vals.length == 2) {
-            return new Range(vals[0], vals[1]);
+        if (nonNull(value) && value.startsWith(BYTES)) {
+            final String[] specs = value.substring(BYTES.length()).split(",", -1);
+            if (specs.length > MAX_RANGES) {
+                LOGGER.warn("Ignoring range request with {} ranges", specs.length);
+                return null;
+            }
+            final List<Range> ranges = new ArrayList<>();
+            for (final String spec : specs) {
+                final Range range = parse(spec.trim());
+                if (isNull(range)) {
+                    LOGGER.warn("Ignoring range request: {}", value);
+                    return null;
+                }
+                ranges.add(range);
+            }
+            return new Range(ranges);
         }
         return null;
     }
 
-    private static int[] parse(final String range) {
-        if (nonNull(range) && range.startsWith("bytes=")) {
-            final String[] parts = range.substring("bytes=".length()).split("-");
-            if (parts.length == 2) {
-                try {
-                    final int[] ints = new int[2];
-                    ints[0] = parseInt(parts[0]);
-                    ints[1] = parseInt(parts[1]);
-                    if (ints[1] > ints[0]) {
-                        return ints;
-                    }
-                    LOGGER.warn("Ignoring range request: {}", range);
-                } catch (final NumberFormatException ex) {
-                    LOGGER.warn("Invalid Range request ({}): {}", range, ex.getMessage());
+    private static Range parse(final String spec) {
+        final int idx = spec.indexOf('-');
+        if (idx >= 0 && spec.indexOf('-', idx + 1) < 0) {
+            try {
+                final String first = spec.substring(0, idx);
+                final String last = spec.substring(idx + 1);
+                if (first.isEmpty()) {
+                    return last.isEmpty() ? null : new Range(UNSPECIFIED, parseDigits(last));
                 }
-            } else {
-                LOGGER.warn("Only simple range requests are supported! {}", range);
+                final long start = parseDigits(first);
+                final long end = last.isEmpty() ? UNSPECIFIED : parseDigits(last);
+                if (end == UNSPECIFIED || end >= start) {
+                    return new Range(start, end);
+                }
+            } catch (final NumberFormatException ex) {
+                LOGGER.warn("Invalid Range request ({}): {}", spec, ex.getMessage());
             }
         }
-        return new int[0];
+        return null;
+    }
+
+    private static long parseDigits(final String value) {
+        // Only unsigned decimal values are permitted
+        if (!value.chars().allMatch(Character::isDigit)) {
+            throw new NumberFormatException("Invalid byte position: " + value);
+        }
+        return parseLong(value);
     }
 }
@@ -186,6 +186,15 @@ public class TrellisRequest {
         return parameters.getFirst("ext");
     }
 
+    /**
+     * Get the resumable upload identifier.
+     *
+     * @return the upload query parameter
+     */
+    public String getUpload() {
+        return parameters.getFirst("upload");
+    }
+
     /**
      * Get the subject filter.
      *
@@ -213,6 +222,15 @@ public class TrellisRequest {
         return parameters.getFirst("object");
     }
 
+    /**
+     * Get the page cursor.
+     *
+     * @return the page query parameter
+     */
+    public String getPage() {
+        return parameters.getFirst("page");
+    }
+
     /**
      * Get a base url value.
      *
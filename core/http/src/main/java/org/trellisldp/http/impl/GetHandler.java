@@ -14,18 +14,27 @@
 package org.trellisldp.http.impl;
 
 import static java.lang.String.join;
+import static java.nio.channels.Channels.newChannel;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Base64.getEncoder;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.reverse;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static java.util.Date.from;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Optional.empty;
 import static java.util.Optional.ofNullable;
+import static java.util.UUID.randomUUID;
 import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.function.Predicate.isEqual;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
+import static java.util.stream.Stream.concat;
 import static java.util.stream.Stream.of;
 import static javax.ws.rs.HttpMethod.DELETE;
 import static javax.ws.rs.HttpMethod.GET;
@@ -35,11 +44,16 @@ import static javax.ws.rs.HttpMethod.POST;
 import static javax.ws.rs.HttpMethod.PUT;
 import static javax.ws.rs.core.HttpHeaders.ACCEPT;
 import static javax.ws.rs.core.HttpHeaders.ALLOW;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
 import static javax.ws.rs.core.HttpHeaders.VARY;
 import static javax.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
 import static javax.ws.rs.core.Response.Status.GONE;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
+import static javax.ws.rs.core.Response.Status.PARTIAL_CONTENT;
+import static javax.ws.rs.core.Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE;
 import static javax.ws.rs.core.Response.ok;
+import static javax.ws.rs.core.Response.status;
+import static org.apache.commons.codec.binary.Hex.decodeHex;
 import static org.apache.commons.codec.digest.DigestUtils.getDigest;
 import static org.apache.commons.rdf.api.RDFSyntax.TURTLE;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -50,42 +64,53 @@ import static org.trellisldp.http.core.HttpConstants.ACCEPT_PATCH;
 import static org.trellisldp.http.core.HttpConstants.ACCEPT_POST;
 import static org.trellisldp.http.core.HttpConstants.ACCEPT_RANGES;
 import static org.trellisldp.http.core.HttpConstants.ACL;
+import static org.trellisldp.http.core.HttpConstants.CONTENT_RANGE;
 import static org.trellisldp.http.core.HttpConstants.DESCRIPTION;
 import static org.trellisldp.http.core.HttpConstants.DIGEST;
+import static org.trellisldp.http.core.HttpConstants.IF_RANGE;
 import static org.trellisldp.http.core.HttpConstants.LINK_TEMPLATE;
 import static org.trellisldp.http.core.HttpConstants.MEMENTO_DATETIME;
+import static org.trellisldp.http.core.HttpConstants.PAGE;
 import static org.trellisldp.http.core.HttpConstants.PATCH;
 import static org.trellisldp.http.core.HttpConstants.PREFER;
 import static org.trellisldp.http.core.HttpConstants.PREFERENCE_APPLIED;
 import static org.trellisldp.http.core.HttpConstants.RANGE;
 import static org.trellisldp.http.core.HttpConstants.WANT_DIGEST;
+import static org.trellisldp.http.core.Prefer.PREFER_MAX_MEMBER_COUNT;
 import static org.trellisldp.http.core.Prefer.PREFER_MINIMAL;
 import static org.trellisldp.http.core.Prefer.PREFER_REPRESENTATION;
 import static org.trellisldp.http.core.Prefer.PREFER_RETURN;
 import static org.trellisldp.http.impl.HttpUtils.buildEtagHash;
+import static org.trellisldp.http.impl.HttpUtils.checkIfRange;
 import static org.trellisldp.http.impl.HttpUtils.filterWithLDF;
-import static org.trellisldp.http.impl.HttpUtils.filterWithPrefer;
+import static org.trellisldp.http.impl.HttpUtils.getDigestAlgorithm;
 import static org.trellisldp.http.impl.HttpUtils.getDefaultProfile;
 import static org.trellisldp.http.impl.HttpUtils.getProfile;
 import static org.trellisldp.http.impl.HttpUtils.getSyntax;
+import static org.trellisldp.http.impl.HttpUtils.graphsWithPrefer;
+import static org.trellisldp.http.impl.HttpUtils.isContainer;
 import static org.trellisldp.http.impl.HttpUtils.ldpResourceTypes;
-import static org.trellisldp.http.impl.HttpUtils.unskolemizeQuads;
+import static org.trellisldp.http.impl.HttpUtils.unskolemizeTriples;
 import static org.trellisldp.vocabulary.Trellis.PreferAccessControl;
 import static org.trellisldp.vocabulary.Trellis.PreferUserManaged;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
-import java.security.MessageDigest;
+import java.nio.channels.WritableByteChannel;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Stream;
 
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.core.EntityTag;
@@ -93,16 +118,19 @@ import javax.ws.rs.core.Link;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.StreamingOutput;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.codec.DecoderException;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.rdf.api.IRI;
-import org.apache.commons.rdf.api.Quad;
 import org.apache.commons.rdf.api.RDFSyntax;
+import org.apache.commons.rdf.api.Triple;
 import org.slf4j.Logger;
 import org.trellisldp.api.Binary;
 import org.trellisldp.api.BinaryMetadata;
 import org.trellisldp.api.Resource;
+import org.trellisldp.api.RuntimeTrellisException;
 import org.trellisldp.api.ServiceBundler;
 import org.trellisldp.http.core.Prefer;
+import org.trellisldp.http.core.Range;
 import org.trellisldp.http.core.TrellisRequest;
 import org.trellisldp.http.core.Version;
 import org.trellisldp.vocabulary.LDP;
@@ -115,12 +143,18 @@ import org.trellisldp.vocabulary.Memento;
  */
 public class GetHandler extends BaseLdpHandler {
 
+    /** The default maximum number of child resources on a page of a container. */
+    public static final int DEFAULT_MAX_PAGE_SIZE = 1000;
+
     private static final Logger LOGGER = getLogger(GetHandler.class);
+    private static final String MULTIPART_BYTERANGES = "multipart/byteranges";
+    private static final String CRLF = "\r\n";
 
     private final boolean weakEtags;
     private final boolean includeMementoDates;
     private final boolean isMemento;
     private final String defaultJsonLdProfile;
+    private final int maxPageSize;
 
     private RDFSyntax syntax;
 
@@ -138,11 +172,31 @@ public class GetHandler extends BaseLdpHandler {
     public GetHandler(final TrellisRequest req, final ServiceBundler trellis, final boolean isMemento,
             final boolean weakEtags, final boolean includeMementoDates, final String defaultJsonLdProfile,
             final String baseUrl) {
+        this(req, trellis, isMemento, weakEtags, includeMementoDates, defaultJsonLdProfile, baseUrl,
+                DEFAULT_MAX_PAGE_SIZE);
+    }
+
+    /**
+     * A GET response builder.
+     *
+     * @param req the LDP request
+     * @param trellis the Trellis application bundle
+     * @param isMemento true if the resource is a memento; false otherwise
+     * @param weakEtags whether to use weak ETags for RDF responses
+     * @param includeMementoDates whether to include date strings in memento link headers
+     * @param defaultJsonLdProfile a default json-ld profile
+     * @param baseUrl the base URL
+     * @param maxPageSize the maximum number of child resources on a page of a container
+     */
+    public GetHandler(final TrellisRequest req, final ServiceBundler trellis, final boolean isMemento,
+            final boolean weakEtags, final boolean includeMementoDates, final String defaultJsonLdProfile,
+            final String baseUrl, final int maxPageSize) {
         super(req, trellis, baseUrl);
         this.isMemento = isMemento;
         this.weakEtags = weakEtags;
         this.includeMementoDates = includeMementoDates;
         this.defaultJsonLdProfile = defaultJsonLdProfile;
+        this.maxPageSize = maxPageSize;
     }
 
     /**
@@ -306,10 +360,13 @@ public class GetHandler extends BaseLdpHandler {
             new Prefer(PREFER_REPRESENTATION, singletonList(PreferAccessControl.getIRIString()),
                     of(PreferUserManaged, LDP.PreferContainment, LDP.PreferMembership).map(IRI::getIRIString)
                         .collect(toList()), null, null) : getRequest().getPrefer();
+        final Set<IRI> graphs = graphsWithPrefer(prefer);
+        final PageCursor cursor = getPageCursor(prefer, graphs);
 
         // Check for a cache hit
-        final EntityTag etag = new EntityTag(buildEtagHash(getIdentifier(), getResource().getModified(), prefer),
-                weakEtags);
+        final EntityTag etag = new EntityTag(buildEtagHash(getIdentifier() + ofNullable(cursor)
+                    .map(PageCursor::toToken).map(token -> "?" + PAGE + "=" + token).orElse(""),
+                    getResource().getModified(), prefer), weakEtags);
         checkCache(getResource().getModified(), etag);
 
         builder.tag(etag);
@@ -320,27 +377,34 @@ public class GetHandler extends BaseLdpHandler {
                 + LDP.RDFSource.getIRIString() + "\"");
 
         ofNullable(prefer).ifPresent(p -> builder.header(PREFERENCE_APPLIED, PREFER_RETURN + "=" + p.getPreference()
-                    .orElse(PREFER_REPRESENTATION)));
+                    .orElse(PREFER_REPRESENTATION) + p.getMaxMemberCount().filter(x -> nonNull(cursor))
+                    .map(x -> "; " + PREFER_MAX_MEMBER_COUNT + "=" + cursor.getSize()).orElse("")));
 
         if (ofNullable(prefer).flatMap(Prefer::getPreference).filter(PREFER_MINIMAL::equals).isPresent()) {
             return completedFuture(builder.status(NO_CONTENT));
         }
 
-        // Short circuit HEAD requests
+        // Short circuit HEAD requests, which need no page of containment triples. Without the page, the next and
+        // prev links are not known, so a HEAD response only includes the type, self and first links.
         if (HEAD.equals(getRequest().getMethod())) {
+            ofNullable(cursor).ifPresent(c -> addPageLinks(builder, c));
             return completedFuture(builder);
         }
 
+        // Fetch a single page of containment triples, along with the paging links
+        final List<Triple> page = isNull(cursor) ? emptyList() : getPage(builder, cursor);
+        final Set<IRI> unpaged = isNull(cursor) ? graphs : graphs.stream()
+            .filter(isEqual(LDP.PreferContainment).negate()).collect(toSet());
+
         // Stream the rdf content
         final StreamingOutput stream = new StreamingOutput() {
             @Override
             public void write(final OutputStream out) throws IOException {
-                try (final Stream<Quad> stream = getResource().stream()) {
-                    getServices().getIOService().write(stream.filter(filterWithPrefer(prefer))
-                        .map(unskolemizeQuads(getServices().getResourceService(), getBaseUrl()))
+                try (final Stream<Triple> stream = concat(getResource().stream(unpaged), page.stream())) {
+                    getServices().getIOService().write(stream
+                        .map(unskolemizeTriples(getServices().getResourceService(), getBaseUrl()))
                         .filter(filterWithLDF(getRequest().getSubject(), getRequest().getPredicate(),
-                                getRequest().getObject()))
-                        .map(Quad::asTriple), out, syntax, ofNullable(profile).orElseGet(() ->
+                                getRequest().getObject())), out, syntax, ofNullable(profile).orElseGet(() ->
                                 getDefaultProfile(syntax, getIdentifier(), defaultJsonLdProfile)));
                 }
             }
@@ -348,20 +412,99 @@ public class GetHandler extends BaseLdpHandler {
         return completedFuture(builder.entity(stream));
     }
 
+    private PageCursor getPageCursor(final Prefer prefer, final Set<IRI> graphs) {
+        // Only containment triples are paged, and only for containers
+        if (ACL.equals(getRequest().getExt()) || !graphs.contains(LDP.PreferContainment)
+                || !isContainer(getResource().getInteractionModel())) {
+            return null;
+        } else if (nonNull(getRequest().getPage())) {
+            return PageCursor.valueOf(getRequest().getPage()).map(c -> c.limit(maxPageSize))
+                .orElseThrow(() -> new BadRequestException("Invalid page parameter: " + getRequest().getPage()));
+        }
+        return ofNullable(prefer).flatMap(Prefer::getMaxMemberCount).map(PageCursor::first)
+            .map(c -> c.limit(maxPageSize)).orElse(null);
+    }
+
+    private void addPageLinks(final ResponseBuilder builder, final PageCursor cursor) {
+        builder.link(LDP.Page.getIRIString(), "type").link(getPageIdentifier(cursor), "self")
+            .link(getPageIdentifier(PageCursor.first(cursor.getSize())), "first");
+    }
+
+    private List<Triple> getPage(final ResponseBuilder builder, final PageCursor cursor) {
+        // Fetch one extra triple in order to determine whether there are additional pages
+        final List<Triple> triples;
+        try (final Stream<Triple> stream = getResource().stream(LDP.PreferContainment, cursor.getBoundary(),
+                    cursor.isBackward(), cursor.getSize() + 1)) {
+            triples = stream.collect(toList());
+        }
+        final boolean more = triples.size() > cursor.getSize();
+        final List<Triple> page = new ArrayList<>(triples.subList(0, Math.min(triples.size(), cursor.getSize())));
+        if (cursor.isBackward()) {
+            reverse(page);
+        }
+
+        final IRI first = page.isEmpty() ? cursor.getBoundary() : (IRI) page.get(0).getObject();
+        final IRI last = page.isEmpty() ? cursor.getBoundary() : (IRI) page.get(page.size() - 1).getObject();
+        addPageLinks(builder, cursor);
+        if (cursor.isBackward() ? nonNull(cursor.getBoundary()) : more) {
+            builder.link(getPageIdentifier(cursor.next(last)), "next");
+        }
+        if (cursor.isBackward() ? more : nonNull(cursor.getBoundary())) {
+            builder.link(getPageIdentifier(cursor.previous(first)), "prev");
+        }
+        return page;
+    }
+
+    private String getPageIdentifier(final PageCursor cursor) {
+        final String base = getSelfIdentifier();
+        return base + (base.contains("?") ? "&" : "?") + PAGE + "=" + cursor.toToken();
+    }
+
     private CompletionStage<Optional<String>> computeInstanceDigest(final IRI dsid) {
         // Add instance digests, if Requested and supported
-        if (nonNull(getRequest().getWantDigest())) {
-            final Optional<String> algorithm = getRequest().getWantDigest().getAlgorithms().stream()
-                .filter(getServices().getBinaryService().supportedAlgorithms()::contains).findFirst();
-            if (algorithm.isPresent()) {
-                final String alg = algorithm.filter(isEqual("SHA").negate()).orElse("SHA-1");
-                return getServices().getBinaryService().calculateDigest(dsid, getDigest(alg))
-                    .thenApply(MessageDigest::digest)
-                    .thenApply(getEncoder()::encodeToString)
-                    .thenApply(digest -> Optional.of(algorithm.get().toLowerCase() + "=" + digest));
-            }
+        if (isNull(getRequest().getWantDigest())) {
+            return completedFuture(empty());
+        }
+        final List<String> algorithms = getRequest().getWantDigest().getAlgorithms().stream()
+            .filter(getServices().getBinaryService().supportedAlgorithms()::contains).distinct().collect(toList());
+        if (algorithms.isEmpty()) {
+            return completedFuture(empty());
+        }
+
+        // Use any digests stored with the binary; the others are computed together from a single read
+        final Map<String, String> stored = getResource().getBinaryMetadata().map(BinaryMetadata::getDigests)
+            .orElseGet(Collections::emptyMap);
+        final List<String> missing = algorithms.stream().map(HttpUtils::getDigestAlgorithm)
+            .filter(alg -> !stored.containsKey(alg)).distinct().collect(toList());
+        return calculateDigests(dsid, missing).thenApply(computed -> Optional.of(algorithms.stream()
+                    .map(alg -> alg.toLowerCase() + "=" + ofNullable(stored.get(getDigestAlgorithm(alg)))
+                        .map(GetHandler::hexToBase64).orElseGet(() -> computed.get(getDigestAlgorithm(alg))))
+                    .collect(joining(","))));
+    }
+
+    private CompletionStage<Map<String, String>> calculateDigests(final IRI dsid, final List<String> algorithms) {
+        if (algorithms.isEmpty()) {
+            return completedFuture(emptyMap());
+        } else if (algorithms.size() == 1) {
+            return getServices().getBinaryService().calculateDigest(dsid, getDigest(algorithms.get(0)))
+                .thenApply(digest -> singletonMap(algorithms.get(0), getEncoder().encodeToString(digest.digest())));
+        }
+        return getServices().getBinaryService().calculateDigests(dsid, algorithms.stream()
+                .map(DigestUtils::getDigest).collect(toList())).thenApply(digests -> {
+                    final Map<String, String> values = new HashMap<>();
+                    for (int i = 0; i < algorithms.size(); i++) {
+                        values.put(algorithms.get(i), getEncoder().encodeToString(digests.get(i).digest()));
+                    }
+                    return values;
+                });
+    }
+
+    private static String hexToBase64(final String hex) {
+        try {
+            return getEncoder().encodeToString(decodeHex(hex));
+        } catch (final DecoderException ex) {
+            throw new RuntimeTrellisException("Invalid stored digest value: " + hex, ex);
         }
-        return completedFuture(empty());
     }
 
     private CompletionStage<ResponseBuilder> getLdpNr(final ResponseBuilder builder) {
@@ -376,27 +519,59 @@ public class GetHandler extends BaseLdpHandler {
         builder.header(VARY, RANGE).header(VARY, WANT_DIGEST).header(ACCEPT_RANGES, "bytes").tag(etag)
             .header(ALLOW, isMemento ? join(",", GET, HEAD, OPTIONS) : join(",", GET, HEAD, OPTIONS, PUT, DELETE));
 
-        // Stream the binary content
-        final StreamingOutput stream = new StreamingOutput() {
-            @Override
-            public void write(final OutputStream out) throws IOException {
-                // TODO -- with JDK 9 use InputStream::transferTo instead of IOUtils::copy
-                try (final InputStream binary = getBinaryStream(dsid, getRequest()).toCompletableFuture().join()) {
-                    IOUtils.copy(binary, out);
-                }
-            }
-        };
+        // A range is only applied if any If-Range validator matches the current representation
+        final Optional<Range> range = ofNullable(getRequest().getRange())
+            .filter(r -> checkIfRange(getRequest().getHeaders().getFirst(IF_RANGE), mod, etag));
 
         return computeInstanceDigest(dsid).thenAccept(digest -> digest.ifPresent(d -> builder.header(DIGEST, d)))
-            .thenApply(future -> builder.entity(stream));
+            .thenCompose(future -> getServices().getBinaryService().get(dsid))
+            .thenApply(binary -> range.map(r -> addRange(builder, binary, r))
+                    .orElseGet(() -> builder.entity(writeBinary(binary))));
     }
 
-    private CompletionStage<InputStream> getBinaryStream(final IRI dsid, final TrellisRequest req) {
-        if (isNull(req.getRange())) {
-            return getServices().getBinaryService().get(dsid).thenApply(Binary::getContent);
+    private ResponseBuilder addRange(final ResponseBuilder builder, final Binary binary, final Range range) {
+        final Optional<Long> size = binary.getSize();
+        final String length = size.map(Object::toString).orElse("*");
+        final Optional<List<Range>> ranges = range.resolve(size.orElse(-1L));
+
+        // A range that cannot be resolved without knowing the size is ignored
+        if (!ranges.isPresent()) {
+            return builder.entity(writeBinary(binary));
+        } else if (ranges.get().isEmpty()) {
+            throw new ClientErrorException(status(REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(CONTENT_RANGE, "bytes */" + length).build());
+        } else if (ranges.get().size() == 1) {
+            final Range part = ranges.get().get(0);
+            return builder.status(PARTIAL_CONTENT).header(CONTENT_RANGE, getContentRange(part, length))
+                .entity((StreamingOutput) out -> binary.writeTo(part.getFrom(), part.getTo(), newChannel(out)));
         }
-        return getServices().getBinaryService().get(dsid)
-                        .thenApply(b -> b.getContent(req.getRange().getFrom(), req.getRange().getTo()));
+
+        final String mimeType = getResource().getBinaryMetadata().flatMap(BinaryMetadata::getMimeType)
+            .orElse(APPLICATION_OCTET_STREAM);
+        final String boundary = randomUUID().toString();
+        return builder.status(PARTIAL_CONTENT).type(MULTIPART_BYTERANGES + "; boundary=" + boundary)
+            .entity((StreamingOutput) out -> writeParts(binary, ranges.get(), mimeType, length, boundary, out));
+    }
+
+    private static StreamingOutput writeBinary(final Binary binary) {
+        // JAX-RS only exposes the response as a stream, so the content is still copied through a heap buffer
+        return out -> binary.writeTo(newChannel(out));
+    }
+
+    private static void writeParts(final Binary binary, final List<Range> parts, final String mimeType,
+            final String length, final String boundary, final OutputStream out) throws IOException {
+        final WritableByteChannel channel = newChannel(out);
+        for (final Range part : parts) {
+            out.write(("--" + boundary + CRLF + CONTENT_TYPE + ": " + mimeType + CRLF + CONTENT_RANGE + ": "
+                        + getContentRange(part, length) + CRLF + CRLF).getBytes(UTF_8));
+            binary.writeTo(part.getFrom(), part.getTo(), channel);
+            out.write(CRLF.getBytes(UTF_8));
+        }
+        out.write(("--" + boundary + "--" + CRLF).getBytes(UTF_8));
+    }
+
+    private static String getContentRange(final Range range, final String length) {
+        return "bytes " + range.getFrom() + "-" + range.getTo() + "/" + length;
     }
 
     private void addLdpHeaders(final ResponseBuilder builder, final IRI model) {
@@ -18,6 +18,7 @@ import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
 import static java.time.temporal.ChronoUnit.SECONDS;
 import static java.util.Arrays.stream;
 import static java.util.Collections.unmodifiableSet;
+import static java.util.Locale.ROOT;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static java.util.Optional.empty;
@@ -41,11 +42,16 @@ import static org.trellisldp.vocabulary.Trellis.PreferUserManaged;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -68,9 +74,11 @@ import org.apache.commons.rdf.api.RDF;
 import org.apache.commons.rdf.api.RDFSyntax;
 import org.apache.commons.rdf.api.RDFTerm;
 import org.apache.commons.rdf.api.Triple;
+import org.apache.commons.rdf.api.TripleLike;
 import org.slf4j.Logger;
 import org.trellisldp.api.IOService;
 import org.trellisldp.api.ResourceService;
+import org.trellisldp.http.core.Digest;
 import org.trellisldp.http.core.Prefer;
 import org.trellisldp.vocabulary.LDP;
 import org.trellisldp.vocabulary.Trellis;
@@ -120,17 +128,21 @@ public final class HttpUtils {
      */
     public static String buildEtagHash(final String identifier, final Instant modified, final Prefer prefer) {
         final String sep = ".";
-        final String hash = nonNull(prefer) ? prefer.getInclude().hashCode() + sep + prefer.getOmit().hashCode() : "";
+        final String hash = nonNull(prefer) ? prefer.getInclude().hashCode() + sep + prefer.getOmit().hashCode()
+            + prefer.getMaxMemberCount().map(size -> sep + size).orElse("") : "";
         return md5Hex(modified.toEpochMilli() + sep + modified.getNano() + sep + hash + sep + identifier);
     }
 
     /**
-     * Create a filter based on a Prefer header.
+     * Resolve the named graphs that should be included in a representation, based on a Prefer header.
      *
-     * @param prefer the Prefer header
-     * @return a suitable predicate for filtering a stream of quads
+     * <p>This allows the persistence layer to avoid retrieving any graphs that would otherwise
+     * be filtered out of a response.
+     *
+     * @param prefer the Prefer header, may be null
+     * @return the names of the graphs to include
      */
-    public static Predicate<Quad> filterWithPrefer(final Prefer prefer) {
+    public static Set<IRI> graphsWithPrefer(final Prefer prefer) {
         final Set<String> include = new HashSet<>(DEFAULT_REPRESENTATION);
         ofNullable(prefer).ifPresent(p -> {
             if (p.getInclude().contains(LDP.PreferMinimalContainer.getIRIString())) {
@@ -143,8 +155,19 @@ public final class HttpUtils {
             p.getOmit().forEach(include::remove);
             p.getInclude().stream().filter(iri -> !ignoredPreferences.contains(iri)).forEach(include::add);
         });
+        return include.stream().map(rdf::createIRI).collect(toSet());
+    }
+
+    /**
+     * Create a filter based on a Prefer header.
+     *
+     * @param prefer the Prefer header
+     * @return a suitable predicate for filtering a stream of quads
+     */
+    public static Predicate<Quad> filterWithPrefer(final Prefer prefer) {
+        final Set<IRI> include = graphsWithPrefer(prefer);
         return quad -> quad.getGraphName().filter(IRI.class::isInstance).map(IRI.class::cast)
-            .map(IRI::getIRIString).filter(include::contains).isPresent();
+            .filter(include::contains).isPresent();
     }
 
     /**
@@ -153,13 +176,14 @@ public final class HttpUtils {
      * @param subject the LDF subject
      * @param predicate the LDF predicate
      * @param object the LDF object
+     * @param <T> the type of triple or quad
      * @return a filtering predicate
      */
-    public static Predicate<Quad> filterWithLDF(final String subject, final String predicate,
+    public static <T extends TripleLike> Predicate<T> filterWithLDF(final String subject, final String predicate,
             final String object) {
-        return quad -> !(notCompareWithString(quad.getSubject(), subject)
-                    || notCompareWithString(quad.getPredicate(), predicate)
-                    || notCompareWithString(quad.getObject(), object));
+        return triple -> !(notCompareWithString(triple.getSubject(), subject)
+                    || notCompareWithString(triple.getPredicate(), predicate)
+                    || notCompareWithString(triple.getObject(), object));
     }
 
     private static boolean notCompareWithString(final RDFTerm term, final String str) {
@@ -341,6 +365,70 @@ public final class HttpUtils {
         });
     }
 
+    /**
+     * Get the standard name of a digest algorithm.
+     * @param algorithm the algorithm, as used in a Digest or Want-Digest header
+     * @return the upper-case algorithm name, where {@code SHA} is taken to mean {@code SHA-1}
+     */
+    public static String getDigestAlgorithm(final String algorithm) {
+        final String alg = algorithm.toUpperCase(ROOT);
+        return "SHA".equals(alg) ? "SHA-1" : alg;
+    }
+
+    /**
+     * Get the digest algorithms to compute when persisting binary content.
+     * @param configured the configured digest algorithms, which are used only if supported
+     * @param supported the algorithms supported by the binary service
+     * @param digest the digest supplied with the request, may be {@code null}
+     * @return the message digests, keyed by their standard algorithm names
+     */
+    public static Map<String, MessageDigest> getDigestAlgorithms(final Collection<String> configured,
+            final Set<String> supported, final Digest digest) {
+        final Map<String, MessageDigest> algorithms = new LinkedHashMap<>();
+        try {
+            for (final String algorithm : configured) {
+                final String alg = getDigestAlgorithm(algorithm);
+                if (supported.contains(alg) && !algorithms.containsKey(alg)) {
+                    algorithms.put(alg, MessageDigest.getInstance(alg));
+                }
+            }
+            if (nonNull(digest)) {
+                final String alg = getDigestAlgorithm(digest.getAlgorithm());
+                if (!algorithms.containsKey(alg)) {
+                    algorithms.put(alg, MessageDigest.getInstance(alg));
+                }
+            }
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new BadRequestException("Invalid digest algorithm: " + ex.getMessage());
+        }
+        return algorithms;
+    }
+
+    /**
+     * Check whether a range request applies to the current representation.
+     * @param ifRange the If-Range header
+     * @param modified the resource modification date
+     * @param etag the resource etag
+     * @return true if any range should be applied; false if the full representation should be returned
+     */
+    public static boolean checkIfRange(final String ifRange, final Instant modified, final EntityTag etag) {
+        if (isNull(ifRange)) {
+            return true;
+        }
+        final String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/")) {
+            // Entity tags in an If-Range header must use the strong comparison function
+            try {
+                final EntityTag tag = EntityTag.valueOf(value);
+                return !tag.isWeak() && !etag.isWeak() && tag.equals(etag);
+            } catch (final IllegalArgumentException ex) {
+                LOGGER.debug("Ignoring invalid entity tag ({}): {}", value, ex.getMessage());
+                return false;
+            }
+        }
+        return parseDate(value).filter(modified.truncatedTo(SECONDS)::equals).isPresent();
+    }
+
     /**
      * Check for a conditional operation.
      * @param ifMatch the If-Match header
@@ -13,20 +13,24 @@
  */
 package org.trellisldp.http.impl;
 
+import static java.time.Instant.now;
 import static java.util.Arrays.asList;
 import static java.util.Base64.getEncoder;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static java.util.Optional.of;
 import static java.util.Optional.ofNullable;
 import static java.util.concurrent.CompletableFuture.allOf;
 import static java.util.concurrent.CompletableFuture.completedFuture;
-import static java.util.function.Predicate.isEqual;
 import static java.util.stream.Collectors.toList;
 import static javax.ws.rs.core.Response.Status.CONFLICT;
 import static javax.ws.rs.core.Response.status;
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.trellisldp.api.TrellisUtils.toQuad;
+import static org.trellisldp.http.impl.HttpUtils.getDigestAlgorithm;
+import static org.trellisldp.http.impl.HttpUtils.getDigestAlgorithms;
 import static org.trellisldp.http.impl.HttpUtils.skolemizeQuads;
 import static org.trellisldp.http.impl.HttpUtils.skolemizeTriples;
 
@@ -34,7 +38,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Stream;
@@ -45,6 +52,7 @@ import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.StreamingOutput;
 
+import org.apache.commons.rdf.api.Dataset;
 import org.apache.commons.rdf.api.Graph;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.Quad;
@@ -78,8 +86,14 @@ class MutatingLdpHandler extends BaseLdpHandler {
 
     private final InputStream entity;
 
+    private final Collection<String> digestAlgorithms;
+
     private Resource parent;
 
+    private Metadata persistedMetadata;
+
+    private Dataset persistedData;
+
     /**
      * Create a base handler for a mutating LDP response.
      *
@@ -88,7 +102,7 @@ class MutatingLdpHandler extends BaseLdpHandler {
      * @param baseUrl the base URL
      */
     protected MutatingLdpHandler(final TrellisRequest req, final ServiceBundler trellis, final String baseUrl) {
-        this(req, trellis, baseUrl, null);
+        this(req, trellis, baseUrl, null, emptyList());
     }
 
     /**
@@ -98,11 +112,13 @@ class MutatingLdpHandler extends BaseLdpHandler {
      * @param trellis the Trellis application bundle
      * @param baseUrl the base URL
      * @param entity the entity
+     * @param digestAlgorithms the digest algorithms to compute when persisting binary content
      */
     protected MutatingLdpHandler(final TrellisRequest req, final ServiceBundler trellis,
-            final String baseUrl, final InputStream entity) {
+            final String baseUrl, final InputStream entity, final Collection<String> digestAlgorithms) {
         super(req, trellis, baseUrl);
         this.entity = entity;
+        this.digestAlgorithms = digestAlgorithms;
         this.session = ofNullable(req.getPrincipalName()).map(getServices().getAgentService()::asAgent)
                 .map(HttpSession::new).orElseGet(HttpSession::new);
     }
@@ -131,12 +147,15 @@ class MutatingLdpHandler extends BaseLdpHandler {
      * @return a response builder promise
      */
     public CompletionStage<ResponseBuilder> updateMemento(final ResponseBuilder builder) {
-        return getServices().getMementoService().put(getServices().getResourceService(), getInternalId())
-            .exceptionally(ex -> {
-                    LOGGER.warn("Unable to store memento for {}: {}", getInternalId(), ex.getMessage());
-                    return null;
-                })
-            .thenApply(stage -> builder);
+        // Create the Memento from the data that was written, rather than reading the resource back
+        final CompletionStage<Void> memento = nonNull(persistedMetadata)
+            ? getServices().getMementoService().put(getServices().getResourceService(), persistedMetadata,
+                    persistedData)
+            : getServices().getMementoService().put(getServices().getResourceService(), getInternalId());
+        return memento.exceptionally(ex -> {
+                LOGGER.warn("Unable to store memento for {}: {}", getInternalId(), ex.getMessage());
+                return null;
+            }).thenApply(stage -> builder);
     }
 
     /**
@@ -238,35 +257,72 @@ class MutatingLdpHandler extends BaseLdpHandler {
             });
     }
 
-    protected CompletionStage<Void> persistContent(final BinaryMetadata metadata) {
-        return getServices().getBinaryService().setContent(metadata, entity)
-                        .whenComplete(HttpUtils.closeInputStreamAsync(entity));
+    protected CompletionStage<BinaryMetadata> persistContent(final BinaryMetadata metadata, final Digest digest) {
+        if (nonNull(getRequest().getUpload())) {
+            return persistUpload(getRequest().getUpload(), metadata, digest);
+        }
+
+        final Map<String, MessageDigest> algorithms = getDigestAlgorithms(digestAlgorithms,
+                getServices().getBinaryService().supportedAlgorithms(), digest);
+        if (algorithms.isEmpty()) {
+            return getServices().getBinaryService().setContent(metadata, entity)
+                .whenComplete(HttpUtils.closeInputStreamAsync(entity)).thenApply(future -> metadata);
+        }
+
+        // All of the digests are computed in a single pass while the content is persisted
+        return getServices().getBinaryService().setContent(metadata, entity, new ArrayList<>(algorithms.values()))
+            .whenComplete(HttpUtils.closeInputStreamAsync(entity))
+            .thenCompose(future -> {
+                final Map<String, byte[]> values = new HashMap<>();
+                algorithms.forEach((alg, md) -> values.put(alg, md.digest()));
+                return verifyDigest(metadata, digest, values);
+            });
     }
 
-    protected CompletionStage<Void> persistContent(final BinaryMetadata metadata, final Digest digest) {
+    private CompletionStage<BinaryMetadata> persistUpload(final String uploadId, final BinaryMetadata metadata,
+            final Digest digest) {
+        // The digests were computed incrementally as the parts of the upload were received
+        return getServices().getBinaryService().completeUpload(uploadId, UploadHandler.getUploadTarget(getRequest()),
+                metadata)
+            .exceptionally(UploadHandler::handleUploadError)
+            .thenCompose(computed -> {
+                final Map<String, byte[]> values = new HashMap<>();
+                computed.forEach(md -> values.put(md.getAlgorithm(), md.digest()));
+                if (isNull(digest) || values.containsKey(getDigestAlgorithm(digest.getAlgorithm()))) {
+                    return completedFuture(values);
+                }
+                // A digest algorithm that was not computed during the upload requires reading the content again
+                final String alg = getDigestAlgorithm(digest.getAlgorithm());
+                return getServices().getBinaryService().calculateDigest(metadata.getIdentifier(),
+                        getDigestAlgorithms(emptyList(), emptySet(), digest).get(alg))
+                    .thenApply(md -> {
+                        values.put(alg, md.digest());
+                        return values;
+                    });
+            })
+            .thenCompose(values -> verifyDigest(metadata, digest, values));
+    }
+
+    private CompletionStage<BinaryMetadata> verifyDigest(final BinaryMetadata metadata, final Digest digest,
+            final Map<String, byte[]> values) {
+        final Map<String, String> digests = new HashMap<>();
+        values.forEach((alg, value) -> digests.put(alg, encodeHexString(value)));
+        final BinaryMetadata verified = BinaryMetadata.builder(metadata.getIdentifier())
+            .mimeType(metadata.getMimeType().orElse(null)).hints(metadata.getHints()).digests(digests).build();
         if (isNull(digest)) {
-            return persistContent(metadata);
+            return completedFuture(verified);
         }
-        try {
-            final String alg = of(digest).map(Digest::getAlgorithm).map(String::toUpperCase)
-                .filter(isEqual("SHA").negate()).orElse("SHA-1");
-            return getServices().getBinaryService().setContent(metadata, entity, MessageDigest.getInstance(alg))
-                .thenApply(MessageDigest::digest)
-                .thenApply(getEncoder()::encodeToString).thenCompose(serverComputed -> {
-                    if (digest.getDigest().equals(serverComputed)) {
-                        LOGGER.debug("Successfully persisted digest-verified bitstream: {}", metadata.getIdentifier());
-                        return completedFuture(null);
-                    }
-                    return getServices().getBinaryService().purgeContent(metadata.getIdentifier())
-                        .thenAccept(future -> {
-                            throw new BadRequestException(
-                                    "Supplied digest value does not match the server-computed digest: "
-                                    + serverComputed);
-                    });
-                });
-        } catch (final NoSuchAlgorithmException ex) {
-            throw new BadRequestException("Invalid digest algorithm: " + ex.getMessage());
+        final String serverComputed = getEncoder().encodeToString(
+                values.get(getDigestAlgorithm(digest.getAlgorithm())));
+        if (digest.getDigest().equals(serverComputed)) {
+            LOGGER.debug("Successfully persisted digest-verified bitstream: {}", metadata.getIdentifier());
+            return completedFuture(verified);
         }
+        return getServices().getBinaryService().purgeContent(metadata.getIdentifier())
+            .thenApply(purged -> {
+                throw new BadRequestException(
+                        "Supplied digest value does not match the server-computed digest: " + serverComputed);
+            });
     }
 
     protected Metadata.Builder metadataBuilder(final IRI identifier, final IRI ixnModel, final TrellisDataset mutable) {
@@ -286,17 +342,54 @@ class MutatingLdpHandler extends BaseLdpHandler {
 
     protected CompletionStage<Void> handleResourceReplacement(final TrellisDataset mutable,
             final TrellisDataset immutable) {
-        final Metadata.Builder metadata = metadataBuilder(getResource().getIdentifier(),
-                getResource().getInteractionModel(), mutable);
-        getResource().getContainer().ifPresent(metadata::container);
-        getResource().getBinaryMetadata().ifPresent(metadata::binary);
         // update the resource
         return allOf(
-            getServices().getResourceService().replace(metadata.build(), mutable.asDataset()).toCompletableFuture(),
+            getServices().getResourceService().replace(replacementMetadata(mutable).build(), mutable.asDataset())
+                .toCompletableFuture(),
             getServices().getResourceService().add(getResource().getIdentifier(),
                 immutable.asDataset()).toCompletableFuture());
     }
 
+    protected CompletionStage<Void> handleResourceReplacement(final TrellisDataset mutable,
+            final TrellisDataset immutable, final TrellisDataset removed, final TrellisDataset added) {
+        // update the resource, using only the changed quads
+        return allOf(
+            getServices().getResourceService().replace(
+                prepareMetadata(replacementMetadata(mutable), mutable, immutable), mutable.asDataset(),
+                removed.asDataset(), added.asDataset()).toCompletableFuture(),
+            getServices().getResourceService().add(getResource().getIdentifier(),
+                immutable.asDataset()).toCompletableFuture());
+    }
+
+    /**
+     * Build the metadata for a write, keeping a copy of the data to be written so that the Memento of the resource
+     * can be created without fetching the resource again.
+     *
+     * <p>This must be called before the data is persisted, as a persistence layer may add to the datasets.
+     *
+     * @param metadata the metadata builder
+     * @param mutable the mutable data to be written
+     * @param immutable the immutable data to be written
+     * @return the metadata, with the modification time that the persistence layer is to record
+     */
+    protected Metadata prepareMetadata(final Metadata.Builder metadata, final TrellisDataset mutable,
+            final TrellisDataset immutable) {
+        final Dataset data = rdf.createDataset();
+        mutable.asDataset().stream().forEachOrdered(data::add);
+        immutable.asDataset().stream().forEachOrdered(data::add);
+        persistedData = data;
+        persistedMetadata = metadata.modified(now()).build();
+        return persistedMetadata;
+    }
+
+    private Metadata.Builder replacementMetadata(final TrellisDataset mutable) {
+        final Metadata.Builder metadata = metadataBuilder(getResource().getIdentifier(),
+                getResource().getInteractionModel(), mutable);
+        getResource().getContainer().ifPresent(metadata::container);
+        getResource().getBinaryMetadata().ifPresent(metadata::binary);
+        return metadata;
+    }
+
     protected Stream<Quad> getAuditUpdateData() {
         return getServices().getAuditService().update(getResource().getIdentifier(), getSession()).stream()
             .map(skolemizeQuads(getServices().getResourceService(), getBaseUrl()));
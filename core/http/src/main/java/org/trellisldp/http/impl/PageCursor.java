@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.http.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Base64.getUrlDecoder;
+import static java.util.Base64.getUrlEncoder;
+import static java.util.Objects.isNull;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static org.trellisldp.api.TrellisUtils.getInstance;
+
+import java.util.Optional;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+
+/**
+ * A keyset cursor over the children of a container.
+ *
+ * <p>Rather than using an offset, a cursor records the child identifier at the boundary of the
+ * previous page, so that any page can be retrieved at the same cost as the first page.
+ */
+final class PageCursor {
+
+    private static final RDF rdf = getInstance();
+    private static final String FORWARD = "n";
+    private static final String BACKWARD = "p";
+    private static final String SEP = "|";
+    // One more child than a page holds is fetched, so a page must be smaller than the largest int
+    private static final int MAX_SIZE = Integer.MAX_VALUE - 1;
+
+    private final int size;
+    private final IRI boundary;
+    private final boolean backward;
+
+    private PageCursor(final int size, final IRI boundary, final boolean backward) {
+        this.size = size;
+        this.boundary = boundary;
+        this.backward = backward;
+    }
+
+    /**
+     * Create a cursor for the first page.
+     *
+     * @param size the page size
+     * @return the cursor
+     */
+    public static PageCursor first(final int size) {
+        return new PageCursor(size, null, false);
+    }
+
+    /**
+     * Parse a cursor from an opaque page token.
+     *
+     * @param token the token
+     * @return the cursor, if the token is valid
+     */
+    public static Optional<PageCursor> valueOf(final String token) {
+        if (isNull(token)) {
+            return empty();
+        }
+        try {
+            final String[] parts = new String(getUrlDecoder().decode(token), UTF_8).split("\\|", 3);
+            final int size = Integer.parseInt(parts[1]);
+            if (parts.length == 3 && size > 0 && (FORWARD.equals(parts[0]) || BACKWARD.equals(parts[0]))) {
+                return of(new PageCursor(size, parts[2].isEmpty() ? null : rdf.createIRI(parts[2]),
+                            BACKWARD.equals(parts[0])));
+            }
+        } catch (final IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            return empty();
+        }
+        return empty();
+    }
+
+    /**
+     * Create a cursor for the page that follows the given child.
+     *
+     * @param last the last child on the current page
+     * @return the cursor
+     */
+    public PageCursor next(final IRI last) {
+        return new PageCursor(size, last, false);
+    }
+
+    /**
+     * Create a cursor for the page that precedes the given child.
+     *
+     * @param first the first child on the current page
+     * @return the cursor
+     */
+    public PageCursor previous(final IRI first) {
+        return new PageCursor(size, first, true);
+    }
+
+    /**
+     * Limit the size of the page addressed by this cursor.
+     *
+     * @param max the maximum page size
+     * @return a cursor for a page of at most the given size
+     */
+    public PageCursor limit(final int max) {
+        final int limit = Math.min(max, MAX_SIZE);
+        return size > limit ? new PageCursor(limit, boundary, backward) : this;
+    }
+
+    /**
+     * Get the page size.
+     *
+     * @return the page size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Get the exclusive boundary of this page.
+     *
+     * @return the boundary child identifier, or null for the first page
+     */
+    public IRI getBoundary() {
+        return boundary;
+    }
+
+    /**
+     * Test whether this cursor moves backward from its boundary.
+     *
+     * @return true if the page precedes the boundary; false otherwise
+     */
+    public boolean isBackward() {
+        return backward;
+    }
+
+    /**
+     * Serialize this cursor as an opaque, URL-safe page token.
+     *
+     * @return the token
+     */
+    public String toToken() {
+        final String value = (backward ? BACKWARD : FORWARD) + SEP + size + SEP
+            + (isNull(boundary) ? "" : boundary.getIRIString());
+        return getUrlEncoder().withoutPadding().encodeToString(value.getBytes(UTF_8));
+    }
+}
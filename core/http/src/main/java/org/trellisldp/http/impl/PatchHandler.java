@@ -29,6 +29,7 @@ import static javax.ws.rs.core.Response.status;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.trellisldp.api.Resource.SpecialResources.DELETED_RESOURCE;
 import static org.trellisldp.api.Resource.SpecialResources.MISSING_RESOURCE;
+import static org.trellisldp.api.Syntax.SPARQL_UPDATE;
 import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
 import static org.trellisldp.api.TrellisUtils.toQuad;
 import static org.trellisldp.http.core.HttpConstants.ACL;
@@ -47,7 +48,10 @@ import static org.trellisldp.vocabulary.Trellis.UnsupportedInteractionModel;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -60,12 +64,14 @@ import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.StreamingOutput;
 
+import org.apache.commons.rdf.api.Graph;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.RDFSyntax;
 import org.apache.commons.rdf.api.Triple;
 import org.slf4j.Logger;
 import org.trellisldp.api.ConstraintService;
 import org.trellisldp.api.ConstraintViolation;
+import org.trellisldp.api.Metadata;
 import org.trellisldp.api.Resource;
 import org.trellisldp.api.RuntimeTrellisException;
 import org.trellisldp.api.ServiceBundler;
@@ -167,12 +173,23 @@ public class PatchHandler extends MutatingLdpHandler {
             getLinkTypes(getResource().getInteractionModel()).forEach(type -> builder.link(type, "type"));
         }
 
+        // Where possible, let the persistence layer apply the update, without reading the entire graph
+        if (isNull(preference) && SPARQL_UPDATE.equals(syntax)
+                && getServices().getResourceService().supportsUpdate()) {
+            final TrellisDataset immutable = TrellisDataset.createDataset();
+            return updateInPlace(immutable, builder).whenComplete((a, b) -> immutable.close());
+        }
+
         final TrellisDataset mutable = TrellisDataset.createDataset();
         final TrellisDataset immutable = TrellisDataset.createDataset();
+        final TrellisDataset removed = TrellisDataset.createDataset();
+        final TrellisDataset added = TrellisDataset.createDataset();
 
-        return assembleResponse(mutable, immutable, builder)
+        return assembleResponse(mutable, immutable, removed, added, builder)
             .whenComplete((a, b) -> mutable.close())
-            .whenComplete((a, b) -> immutable.close());
+            .whenComplete((a, b) -> immutable.close())
+            .whenComplete((a, b) -> removed.close())
+            .whenComplete((a, b) -> added.close());
     }
 
     @Override
@@ -180,22 +197,97 @@ public class PatchHandler extends MutatingLdpHandler {
         return super.getIdentifier() + (ACL.equals(getRequest().getExt()) ? "?ext=acl" : "");
     }
 
-    private List<Triple> updateGraph(final RDFSyntax syntax, final IRI graphName) {
+    private List<Triple> updateGraph(final RDFSyntax syntax, final IRI graphName, final Set<Triple> original) {
         final List<Triple> triples;
         // Update existing graph
         try (final TrellisGraph graph = TrellisGraph.createGraph()) {
             try (final Stream<Triple> stream = getResource().stream(graphName)) {
-                stream.forEachOrdered(graph::add);
+                stream.forEachOrdered(triple -> {
+                    original.add(triple);
+                    graph.add(triple);
+                });
             }
-            getServices().getIOService().update(graph.asGraph(), updateBody, syntax,
-                TRELLIS_DATA_PREFIX + getRequest().getPath() + (ACL.equals(getRequest().getExt()) ? "?ext=acl" : ""));
-            triples = graph.stream().filter(triple -> !RDF.type.equals(triple.getPredicate())
-                || !triple.getObject().ntriplesString().startsWith("<" + LDP.getNamespace())).collect(toList());
+            getServices().getIOService().update(graph.asGraph(), updateBody, syntax, getUpdateBase());
+            triples = graph.stream().filter(PatchHandler::isUserTriple).collect(toList());
         }
 
         return triples;
     }
 
+    private String getUpdateBase() {
+        return TRELLIS_DATA_PREFIX + getRequest().getPath() + (ACL.equals(getRequest().getExt()) ? "?ext=acl" : "");
+    }
+
+    private static boolean isUserTriple(final Triple triple) {
+        return !RDF.type.equals(triple.getPredicate())
+            || !triple.getObject().ntriplesString().startsWith("<" + LDP.getNamespace());
+    }
+
+    private CompletionStage<ResponseBuilder> updateInPlace(final TrellisDataset immutable,
+            final ResponseBuilder builder) {
+        final Metadata.Builder metadata = Metadata.builder(getResource().getIdentifier())
+            .interactionModel(getResource().getInteractionModel());
+        getResource().getContainer().ifPresent(metadata::container);
+        getResource().getBinaryMetadata().ifPresent(metadata::binary);
+
+        final CompletionStage<Void> update;
+        try {
+            update = getServices().getResourceService().update(metadata.build(), graphName, updateBody,
+                    getUpdateBase(), this::handleAddedTriples);
+        } catch (final RuntimeTrellisException ex) {
+            throw new BadRequestException("Invalid RDF: " + ex.getMessage());
+        }
+
+        // Collect the audit data
+        getAuditUpdateData().forEachOrdered(immutable::add);
+        return update.exceptionally(PatchHandler::handleUpdateError)
+            .thenCompose(future -> getServices().getResourceService()
+                .add(getResource().getIdentifier(), immutable.asDataset()))
+            .thenCompose(future -> !ACL.equals(getRequest().getExt()) ?
+                    emitEvent(getInternalId(), AS.Update, getResource().getInteractionModel()) : completedFuture(null))
+            .thenApply(future -> builder.status(NO_CONTENT));
+    }
+
+    /*
+     * An update that cannot be evaluated against the stored graph is a bad request; constraint violations are
+     * passed through.
+     */
+    private static Void handleUpdateError(final Throwable err) {
+        final Throwable cause = err instanceof CompletionException ? err.getCause() : err;
+        if (cause instanceof RuntimeTrellisException) {
+            throw new BadRequestException("Invalid RDF: " + cause.getMessage());
+        }
+        throw err instanceof CompletionException ? (CompletionException) err : new CompletionException(err);
+    }
+
+    /*
+     * Prepare the triples added by an in-place update for persistence, rejecting any constraint violations.
+     */
+    private Graph handleAddedTriples(final Graph added) {
+        final Graph graph = rdf.createGraph();
+        try (final TrellisDataset dataset = TrellisDataset.createDataset()) {
+            added.stream().filter(PatchHandler::isUserTriple)
+                .map(skolemizeTriples(getServices().getResourceService(), getBaseUrl()))
+                .map(toQuad(graphName)).forEachOrdered(dataset::add);
+            checkConstraints(dataset);
+            dataset.getGraph(graphName).ifPresent(g -> g.stream().forEachOrdered(graph::add));
+        }
+        return graph;
+    }
+
+    private void checkConstraints(final TrellisDataset dataset) {
+        final List<ConstraintViolation> violations = constraintServices.stream()
+            .flatMap(handleConstraintViolations(dataset, graphName, getResource().getInteractionModel()))
+            .collect(toList());
+
+        // Short-ciruit if there is a constraint violation
+        if (!violations.isEmpty()) {
+            final ResponseBuilder err = status(CONFLICT);
+            violations.forEach(v -> err.link(v.getConstraint().getIRIString(), LDP.constrainedBy.getIRIString()));
+            throw new ClientErrorException(err.build());
+        }
+    }
+
     private static Function<ConstraintService, Stream<ConstraintViolation>> handleConstraintViolations(
             final TrellisDataset dataset, final IRI graphName, final IRI interactionModel) {
         final IRI model = PreferAccessControl.equals(graphName) ? LDP.RDFSource : interactionModel;
@@ -211,39 +303,38 @@ public class PatchHandler extends MutatingLdpHandler {
     }
 
     private CompletionStage<ResponseBuilder> assembleResponse(final TrellisDataset mutable,
-            final TrellisDataset immutable, final ResponseBuilder builder) {
+            final TrellisDataset immutable, final TrellisDataset removed, final TrellisDataset added,
+            final ResponseBuilder builder) {
 
         // Put triples in buffer, short-circuit on exception
+        final Set<Triple> original = new HashSet<>();
         final List<Triple> triples;
         try {
-            triples = updateGraph(syntax, graphName);
+            triples = updateGraph(syntax, graphName, original);
         } catch (final RuntimeTrellisException ex) {
             throw new BadRequestException("Invalid RDF: " + ex.getMessage());
         }
 
-        triples.stream().map(skolemizeTriples(getServices().getResourceService(), getBaseUrl()))
-            .map(toQuad(graphName)).forEachOrdered(mutable::add);
+        final List<Triple> updated = triples.stream()
+            .map(skolemizeTriples(getServices().getResourceService(), getBaseUrl())).collect(toList());
+        updated.stream().map(toQuad(graphName)).forEachOrdered(mutable::add);
 
         // Check any constraints on the resulting dataset
-        final List<ConstraintViolation> violations = constraintServices.stream()
-            .flatMap(handleConstraintViolations(mutable, graphName, getResource().getInteractionModel()))
-            .collect(toList());
-
-        // Short-ciruit if there is a constraint violation
-        if (!violations.isEmpty()) {
-            final ResponseBuilder err = status(CONFLICT);
-            violations.forEach(v -> err.link(v.getConstraint().getIRIString(), LDP.constrainedBy.getIRIString()));
-            throw new ClientErrorException(err.build());
-        }
+        checkConstraints(mutable);
 
         // When updating User or ACL triples, be sure to add the other category to the dataset
         try (final Stream<Triple> remaining = getResource().stream(otherGraph)) {
             remaining.map(toQuad(otherGraph)).forEachOrdered(mutable::add);
         }
 
+        // Record the changes, relative to the current state of the resource
+        updated.stream().filter(triple -> !original.remove(triple)).map(toQuad(graphName))
+            .forEachOrdered(added::add);
+        original.stream().map(toQuad(graphName)).forEachOrdered(removed::add);
+
         // Collect the audit data
         getAuditUpdateData().forEachOrdered(immutable::add);
-        return handleResourceReplacement(mutable, immutable)
+        return handleResourceReplacement(mutable, immutable, removed, added)
             .thenCompose(future -> !ACL.equals(getRequest().getExt()) ?
                     emitEvent(getInternalId(), AS.Update, getResource().getInteractionModel()) : completedFuture(null))
             .thenApply(future -> {
@@ -45,6 +45,7 @@ import static org.trellisldp.vocabulary.Trellis.UnsupportedInteractionModel;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Collection;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Stream;
 
@@ -91,11 +92,12 @@ public class PostHandler extends MutatingLdpHandler {
      * @param id the new resource's identifier
      * @param entity the entity
      * @param trellis the Trellis application bundle
+     * @param digestAlgorithms the digest algorithms to compute when persisting binary content
      * @param baseUrl the base URL
      */
     public PostHandler(final TrellisRequest req, final IRI parentIdentifier, final String id, final InputStream entity,
-            final ServiceBundler trellis, final String baseUrl) {
-        super(req, trellis, baseUrl, entity);
+            final ServiceBundler trellis, final Collection<String> digestAlgorithms, final String baseUrl) {
+        super(req, trellis, baseUrl, entity, digestAlgorithms);
 
         final String separator = req.getPath().isEmpty() ? "" : "/";
 
@@ -176,9 +178,8 @@ public class PostHandler extends MutatingLdpHandler {
             // Persist the content
             final BinaryMetadata binary = BinaryMetadata.builder(binaryLocation).mimeType(mimeType)
                             .hints(getRequest().getHeaders()).build();
-            persistPromise = persistContent(binary, getRequest().getDigest());
-
             metadata = metadataBuilder(internalId, ldpType, mutable).container(parentIdentifier).binary(binary);
+            persistPromise = persistContent(binary, getRequest().getDigest()).thenAccept(metadata::binary);
             builder.link(getIdentifier() + "?ext=description", "describedby");
         } else {
             readEntityIntoDataset(PreferUserManaged, ofNullable(rdfSyntax).orElse(TURTLE), mutable);
@@ -196,7 +197,8 @@ public class PostHandler extends MutatingLdpHandler {
             .map(skolemizeQuads(getServices().getResourceService(), getBaseUrl())).forEachOrdered(immutable::add);
 
         return persistPromise.thenCompose(future -> allOf(
-                getServices().getResourceService().create(metadata.build(), mutable.asDataset()).toCompletableFuture(),
+                getServices().getResourceService().create(prepareMetadata(metadata, mutable, immutable),
+                    mutable.asDataset()).toCompletableFuture(),
                 getServices().getResourceService().add(internalId, immutable.asDataset()).toCompletableFuture()))
             .thenCompose(future -> emitEvent(internalId, AS.Create, ldpType))
             .thenApply(future -> {
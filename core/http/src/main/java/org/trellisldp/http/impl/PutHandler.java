@@ -46,6 +46,7 @@ import static org.trellisldp.vocabulary.Trellis.UnsupportedInteractionModel;
 import java.io.InputStream;
 import java.net.URI;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Stream;
@@ -94,17 +95,21 @@ public class PutHandler extends MutatingLdpHandler {
      * @param entity the entity
      * @param trellis the Trellis application bundle
      * @param preconditionRequired whether preconditions are required for PUT operations
+     * @param digestAlgorithms the digest algorithms to compute when persisting binary content
      * @param baseUrl the base URL
      */
     public PutHandler(final TrellisRequest req, final InputStream entity, final ServiceBundler trellis,
-                    final boolean preconditionRequired, final String baseUrl) {
-        super(req, trellis, baseUrl, entity);
+                    final boolean preconditionRequired, final Collection<String> digestAlgorithms,
+                    final String baseUrl) {
+        super(req, trellis, baseUrl, entity, digestAlgorithms);
         this.internalId = rdf.createIRI(TRELLIS_DATA_PREFIX + req.getPath());
         this.rdfSyntax = ofNullable(req.getContentType()).map(MediaType::valueOf).flatMap(ct ->
                 getServices().getIOService().supportedWriteSyntaxes().stream().filter(s ->
                     ct.isCompatible(MediaType.valueOf(s.mediaType()))).findFirst()).orElse(null);
 
-        this.heuristicType = nonNull(req.getContentType()) && isNull(rdfSyntax) ? LDP.NonRDFSource : LDP.RDFSource;
+        // A resumable upload is always committed as binary content
+        this.heuristicType = (nonNull(req.getContentType()) || nonNull(req.getUpload())) && isNull(rdfSyntax)
+            ? LDP.NonRDFSource : LDP.RDFSource;
         this.graphName = ACL.equals(req.getExt()) ? PreferAccessControl : PreferUserManaged;
         this.otherGraph = ACL.equals(req.getExt()) ? PreferUserManaged : PreferAccessControl;
         this.preconditionRequired = preconditionRequired;
@@ -172,6 +177,11 @@ public class PutHandler extends MutatingLdpHandler {
             throw new ClientErrorException("Cannot change the LDP type to " + ldpType, status(CONFLICT).build());
         }
 
+        // A resumable upload can only be committed as binary content
+        if (nonNull(getRequest().getUpload()) && (nonNull(rdfSyntax) || !LDP.NonRDFSource.equals(ldpType))) {
+            throw new BadRequestException("An upload may only be committed as a NonRDFSource");
+        }
+
         LOGGER.debug("Using LDP Type: {}", ldpType);
 
         final TrellisDataset mutable = TrellisDataset.createDataset();
@@ -208,9 +218,8 @@ public class PutHandler extends MutatingLdpHandler {
             // Persist the content
             final BinaryMetadata binary = BinaryMetadata.builder(binaryLocation).mimeType(mimeType)
                             .hints(getRequest().getHeaders()).build();
-            persistPromise = persistContent(binary, getRequest().getDigest());
-
             metadata = metadataBuilder(internalId, ldpType, mutable).binary(binary);
+            persistPromise = persistContent(binary, getRequest().getDigest()).thenAccept(metadata::binary);
             builder.link(getIdentifier() + "?ext=description", "describedby");
         } else {
             readEntityIntoDataset(graphName, ofNullable(rdfSyntax).orElse(TURTLE), mutable);
@@ -248,7 +257,7 @@ public class PutHandler extends MutatingLdpHandler {
         LOGGER.debug("Persisting mutable data for {} with data: {}", internalId, mutable);
 
         return persistPromise.thenCompose(future -> allOf(
-                createOrReplace(metadata.build(), mutable).toCompletableFuture(),
+                createOrReplace(prepareMetadata(metadata, mutable, immutable), mutable).toCompletableFuture(),
                 getServices().getResourceService().add(internalId, immutable.asDataset()).toCompletableFuture()))
             .thenCompose(future -> handleUpdateEvent(ldpType))
             .thenApply(future -> decorateResponse(builder));
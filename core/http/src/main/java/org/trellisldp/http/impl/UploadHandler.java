@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.http.impl;
+
+import static java.net.URI.create;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static javax.ws.rs.core.HttpHeaders.CACHE_CONTROL;
+import static javax.ws.rs.core.Response.Status.CONFLICT;
+import static javax.ws.rs.core.Response.Status.CREATED;
+import static javax.ws.rs.core.Response.Status.METHOD_NOT_ALLOWED;
+import static javax.ws.rs.core.Response.noContent;
+import static javax.ws.rs.core.Response.ok;
+import static javax.ws.rs.core.Response.status;
+import static org.slf4j.LoggerFactory.getLogger;
+import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
+import static org.trellisldp.http.core.HttpConstants.UPLOAD;
+import static org.trellisldp.http.core.HttpConstants.UPLOAD_OFFSET;
+import static org.trellisldp.http.impl.HttpUtils.closeInputStreamAsync;
+import static org.trellisldp.http.impl.HttpUtils.getDigestAlgorithms;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response.ResponseBuilder;
+
+import org.apache.commons.rdf.api.IRI;
+import org.slf4j.Logger;
+import org.trellisldp.api.BinaryService;
+import org.trellisldp.api.ServiceBundler;
+import org.trellisldp.http.core.TrellisRequest;
+
+/**
+ * The response builder for resumable uploads.
+ *
+ * <p>An upload is created with a {@code POST} request using {@code ?ext=upload}. The parts of the upload are
+ * then sent, in any order, with {@code PATCH} requests to the upload location, each of which includes an
+ * {@code Upload-Offset} header. The progress of an upload can be checked with a {@code HEAD} request, and
+ * an upload can be abandoned with a {@code DELETE} request. A completed upload is committed with a
+ * {@code PUT} request to the upload location, which is handled by the {@link PutHandler}.
+ */
+public class UploadHandler extends BaseLdpHandler {
+
+    private static final Logger LOGGER = getLogger(UploadHandler.class);
+    private static final String NO_STORE = "no-store";
+
+    private final Collection<String> digestAlgorithms;
+
+    /**
+     * Create a builder for a resumable upload response.
+     *
+     * @param req the LDP request
+     * @param trellis the Trellis application bundle
+     * @param digestAlgorithms the digest algorithms to compute as the upload is received
+     * @param baseUrl the base URL
+     */
+    public UploadHandler(final TrellisRequest req, final ServiceBundler trellis,
+            final Collection<String> digestAlgorithms, final String baseUrl) {
+        super(req, trellis, baseUrl);
+        this.digestAlgorithms = digestAlgorithms;
+    }
+
+    /**
+     * Begin a resumable upload.
+     *
+     * @return a response builder promise
+     */
+    public CompletionStage<ResponseBuilder> createUpload() {
+        final BinaryService binaryService = getServices().getBinaryService();
+        final List<MessageDigest> algorithms = new ArrayList<>(getDigestAlgorithms(digestAlgorithms,
+                    binaryService.supportedAlgorithms(), null).values());
+        return binaryService.createUpload(getUploadTarget(getRequest()), algorithms)
+            .exceptionally(UploadHandler::handleUploadError)
+            .thenApply(uploadId -> {
+                LOGGER.debug("Created upload {} for {}", uploadId, getIdentifier());
+                return status(CREATED).location(create(getIdentifier() + "?" + UPLOAD + "=" + uploadId))
+                    .header(UPLOAD_OFFSET, 0L).header(CACHE_CONTROL, NO_STORE);
+            });
+    }
+
+    /**
+     * Write a part of a resumable upload.
+     *
+     * @param entity the content of the part
+     * @return a response builder promise
+     */
+    public CompletionStage<ResponseBuilder> writeUpload(final InputStream entity) {
+        // The request is validated within the stage so that the entity is always closed
+        return completedFuture(getRequest()).thenApply(UploadHandler::getOffset)
+            .thenCompose(offset -> getServices().getBinaryService().writeUpload(getRequest().getUpload(),
+                        getUploadTarget(getRequest()), offset, entity))
+            .whenComplete(closeInputStreamAsync(entity)).exceptionally(UploadHandler::handleUploadError)
+            .thenApply(received -> noContent().header(UPLOAD_OFFSET, received));
+    }
+
+    /**
+     * Get the progress of a resumable upload.
+     *
+     * @return a response builder promise
+     */
+    public CompletionStage<ResponseBuilder> getUploadStatus() {
+        return getServices().getBinaryService().getUploadOffset(getRequest().getUpload(),
+                getUploadTarget(getRequest()))
+            .exceptionally(UploadHandler::handleUploadError)
+            .thenApply(received -> ok().header(UPLOAD_OFFSET, received).header(CACHE_CONTROL, NO_STORE));
+    }
+
+    /**
+     * Abandon a resumable upload.
+     *
+     * @return a response builder promise
+     */
+    public CompletionStage<ResponseBuilder> abortUpload() {
+        LOGGER.debug("Aborting upload {} for {}", getRequest().getUpload(), getIdentifier());
+        return getServices().getBinaryService().abortUpload(getRequest().getUpload(), getUploadTarget(getRequest()))
+            .exceptionally(UploadHandler::handleUploadError).thenApply(future -> noContent());
+    }
+
+    /**
+     * Get the identifier of the resource to which an upload belongs.
+     *
+     * <p>An upload belongs to the resource at whose path it was created, and can only be used through that path.
+     *
+     * @param req the request
+     * @return the resource identifier
+     */
+    static IRI getUploadTarget(final TrellisRequest req) {
+        return rdf.createIRI(TRELLIS_DATA_PREFIX + req.getPath());
+    }
+
+    /**
+     * Convert an error from a resumable upload operation to an HTTP error.
+     *
+     * @param <T> the type of the completion stage
+     * @param err the error
+     * @return never returns normally
+     */
+    static <T> T handleUploadError(final Throwable err) {
+        final Throwable cause = err instanceof CompletionException && nonNull(err.getCause()) ? err.getCause() : err;
+        if (cause instanceof WebApplicationException) {
+            throw (WebApplicationException) cause;
+        } else if (cause instanceof IllegalArgumentException) {
+            throw new NotFoundException(cause.getMessage(), cause);
+        } else if (cause instanceof IllegalStateException) {
+            throw new ClientErrorException(cause.getMessage(), CONFLICT, cause);
+        } else if (cause instanceof UnsupportedOperationException) {
+            throw new ClientErrorException(cause.getMessage(), METHOD_NOT_ALLOWED, cause);
+        } else if (err instanceof CompletionException) {
+            throw (CompletionException) err;
+        }
+        throw new CompletionException(err);
+    }
+
+    private static long getOffset(final TrellisRequest req) {
+        if (isNull(req.getUpload())) {
+            throw new BadRequestException("Missing " + UPLOAD + " parameter");
+        }
+        final String offset = req.getHeaders().getFirst(UPLOAD_OFFSET);
+        if (isNull(offset)) {
+            throw new BadRequestException("Missing " + UPLOAD_OFFSET + " header");
+        }
+        try {
+            final long value = Long.parseLong(offset.trim());
+            if (value >= 0L) {
+                return value;
+            }
+        } catch (final NumberFormatException ex) {
+            LOGGER.debug("Invalid {} header ({}): {}", UPLOAD_OFFSET, offset, ex.getMessage());
+        }
+        throw new BadRequestException("Invalid " + UPLOAD_OFFSET + " header: " + offset);
+    }
+}
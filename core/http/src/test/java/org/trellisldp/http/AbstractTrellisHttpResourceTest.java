@@ -42,6 +42,7 @@ import static javax.servlet.http.HttpServletResponse.SC_NOT_FOUND;
 import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
 import static javax.servlet.http.HttpServletResponse.SC_NO_CONTENT;
 import static javax.servlet.http.HttpServletResponse.SC_OK;
+import static javax.servlet.http.HttpServletResponse.SC_PARTIAL_CONTENT;
 import static javax.servlet.http.HttpServletResponse.SC_PRECONDITION_FAILED;
 import static javax.servlet.http.HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE;
 import static javax.ws.rs.HttpMethod.DELETE;
@@ -68,6 +69,8 @@ import static org.trellisldp.http.core.HttpConstants.ACCEPT_PATCH;
 import static org.trellisldp.http.core.HttpConstants.ACCEPT_POST;
 import static org.trellisldp.http.core.HttpConstants.ACCEPT_RANGES;
 import static org.trellisldp.http.core.HttpConstants.APPLICATION_LINK_FORMAT;
+import static org.trellisldp.http.core.HttpConstants.APPLICATION_OFFSET_OCTET_STREAM;
+import static org.trellisldp.http.core.HttpConstants.CONTENT_RANGE;
 import static org.trellisldp.http.core.HttpConstants.DIGEST;
 import static org.trellisldp.http.core.HttpConstants.LINK_TEMPLATE;
 import static org.trellisldp.http.core.HttpConstants.MEMENTO_DATETIME;
@@ -75,6 +78,7 @@ import static org.trellisldp.http.core.HttpConstants.PATCH;
 import static org.trellisldp.http.core.HttpConstants.PREFER;
 import static org.trellisldp.http.core.HttpConstants.RANGE;
 import static org.trellisldp.http.core.HttpConstants.SLUG;
+import static org.trellisldp.http.core.HttpConstants.UPLOAD_OFFSET;
 import static org.trellisldp.http.core.HttpConstants.WANT_DIGEST;
 import static org.trellisldp.http.core.RdfMediaType.APPLICATION_LD_JSON;
 import static org.trellisldp.http.core.RdfMediaType.APPLICATION_LD_JSON_TYPE;
@@ -419,11 +423,12 @@ abstract class AbstractTrellisHttpResourceTest extends BaseTrellisHttpResourceTe
     public void testGetBinaryRange() throws IOException {
         final Response res = target(BINARY_PATH).request().header(RANGE, "bytes=3-10").get();
 
-        assertEquals(SC_OK, res.getStatus(), "Unexpected response code!");
+        assertEquals(SC_PARTIAL_CONTENT, res.getStatus(), "Unexpected response code!");
+        assertEquals("bytes 3-10/*", res.getHeaderString(CONTENT_RANGE), "Incorrect Content-Range header!");
         assertAll("Check Binary response", checkBinaryResponse(res));
 
         final String entity = IOUtils.toString((InputStream) res.getEntity(), UTF_8);
-        assertEquals("e input", entity, "Incorrect entity value!");
+        assertEquals("e input ", entity, "Incorrect entity value!");
     }
 
     @Test
@@ -2103,6 +2108,51 @@ abstract class AbstractTrellisHttpResourceTest extends BaseTrellisHttpResourceTe
         assertEquals(SC_METHOD_NOT_ALLOWED, res.getStatus(), "Unexpected response code!");
     }
 
+    @Test
+    public void testPostUpload() {
+        when(mockBinaryService.createUpload(any(IRI.class), anyList())).thenReturn(completedFuture("upload-id"));
+
+        final Response res = target(RESOURCE_PATH).queryParam("ext", "upload").request().post(entity("",
+                    TEXT_PLAIN_TYPE));
+
+        assertEquals(SC_CREATED, res.getStatus(), "Unexpected response code!");
+        assertEquals(getBaseUrl() + RESOURCE_PATH + "?upload=upload-id", res.getLocation().toString(),
+                "Incorrect Location header!");
+        assertEquals("0", res.getHeaderString(UPLOAD_OFFSET), "Incorrect Upload-Offset header!");
+    }
+
+    @Test
+    public void testPatchUpload() {
+        when(mockBinaryService.writeUpload(eq("upload-id"), any(IRI.class), eq(5L), any(InputStream.class)))
+            .thenReturn(completedFuture(14L));
+
+        final Response res = target(RESOURCE_PATH).queryParam("upload", "upload-id").request()
+            .header(UPLOAD_OFFSET, "5").method("PATCH", entity("Some data", APPLICATION_OFFSET_OCTET_STREAM));
+
+        assertEquals(SC_NO_CONTENT, res.getStatus(), "Unexpected response code!");
+        assertEquals("14", res.getHeaderString(UPLOAD_OFFSET), "Incorrect Upload-Offset header!");
+    }
+
+    @Test
+    public void testHeadUpload() {
+        when(mockBinaryService.getUploadOffset(eq("upload-id"), any(IRI.class))).thenReturn(completedFuture(9L));
+
+        final Response res = target(RESOURCE_PATH).queryParam("upload", "upload-id").request().head();
+
+        assertEquals(SC_OK, res.getStatus(), "Unexpected response code!");
+        assertEquals("9", res.getHeaderString(UPLOAD_OFFSET), "Incorrect Upload-Offset header!");
+        assertEquals("no-store", res.getHeaderString(CACHE_CONTROL), "Incorrect Cache-Control header!");
+    }
+
+    @Test
+    public void testDeleteUpload() {
+        when(mockBinaryService.abortUpload(eq("upload-id"), any(IRI.class))).thenReturn(completedFuture(null));
+
+        final Response res = target(RESOURCE_PATH).queryParam("upload", "upload-id").request().delete();
+
+        assertEquals(SC_NO_CONTENT, res.getStatus(), "Unexpected response code!");
+    }
+
     @Test
     public void testPatchTimeMap() {
         final Response res = target(RESOURCE_PATH).queryParam("ext", "timemap").request()
@@ -40,8 +40,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
 import java.security.MessageDigest;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.TreeSet;
@@ -51,6 +53,7 @@ import org.apache.commons.rdf.api.BlankNode;
 import org.apache.commons.rdf.api.Dataset;
 import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.Literal;
+import org.apache.commons.rdf.api.Quad;
 import org.apache.commons.rdf.api.RDF;
 import org.apache.commons.rdf.api.RDFTerm;
 import org.glassfish.jersey.client.ClientConfig;
@@ -226,6 +229,8 @@ abstract class BaseTrellisHttpResourceTest extends JerseyTest {
         when(mockResourceService.add(any(IRI.class), any(Dataset.class))).thenReturn(completedFuture(null));
         when(mockResourceService.delete(any(Metadata.class))).thenReturn(completedFuture(null));
         when(mockResourceService.replace(any(Metadata.class), any(Dataset.class))).thenReturn(completedFuture(null));
+        when(mockResourceService.replace(any(Metadata.class), any(Dataset.class), any(Dataset.class),
+                    any(Dataset.class))).thenReturn(completedFuture(null));
         when(mockResourceService.create(any(Metadata.class), any(Dataset.class))).thenReturn(completedFuture(null));
         when(mockResourceService.unskolemize(any(Literal.class))).then(returnsFirstArg());
         when(mockResourceService.skolemize(any(Literal.class))).then(returnsFirstArg());
@@ -239,6 +244,9 @@ abstract class BaseTrellisHttpResourceTest extends JerseyTest {
                     rdf.createLiteral("2017-04-01T10:15:00Z", XSD.dateTime)),
                 rdf.createQuad(PreferAccessControl, identifier, type, ACL.Authorization),
                 rdf.createQuad(PreferAccessControl, identifier, ACL.mode, ACL.Control)));
+        doAnswer(inv -> mockResource.stream()
+                .filter(quad -> quad.getGraphName().filter(((Collection<?>) inv.getArgument(0))::contains).isPresent())
+                .map(Quad::asTriple)).when(mockResource).stream(anyCollection());
     }
 
     private void setUpMementoService() {
@@ -267,6 +275,8 @@ abstract class BaseTrellisHttpResourceTest extends JerseyTest {
         when(mockMementoService.mementos(eq(userDeletedIdentifier))).thenReturn(completedFuture(emptySortedSet()));
         when(mockMementoService.put(any())).thenReturn(completedFuture(null));
         doCallRealMethod().when(mockMementoService).put(any(ResourceService.class), any(IRI.class));
+        doCallRealMethod().when(mockMementoService).put(any(ResourceService.class), any(Metadata.class),
+                any(Dataset.class));
     }
 
     private void setUpBinaryService() throws Exception {
@@ -275,9 +285,11 @@ abstract class BaseTrellisHttpResourceTest extends JerseyTest {
         when(mockBinaryService.calculateDigest(eq(binaryInternalIdentifier), any(MessageDigest.class)))
             .thenReturn(completedFuture(mockDigest));
         when(mockBinaryService.get(eq(binaryInternalIdentifier))).thenAnswer(inv -> completedFuture(mockBinary));
-        when(mockBinary.getContent(eq(3), eq(10))).thenReturn(new ByteArrayInputStream("e input".getBytes(UTF_8)));
+        when(mockBinary.getContent(eq(3L), eq(10L))).thenReturn(new ByteArrayInputStream("e input ".getBytes(UTF_8)));
         when(mockBinary.getContent()).thenReturn(new ByteArrayInputStream("Some input stream".getBytes(UTF_8)));
-        when(mockBinaryService.setContent(any(BinaryMetadata.class), any(InputStream.class), any()))
+        when(mockBinary.writeTo(any(WritableByteChannel.class))).thenCallRealMethod();
+        when(mockBinary.writeTo(anyLong(), anyLong(), any(WritableByteChannel.class))).thenCallRealMethod();
+        when(mockBinaryService.setContent(any(BinaryMetadata.class), any(InputStream.class), any(MessageDigest.class)))
             .thenAnswer(inv -> {
                 readLines((InputStream) inv.getArguments()[1], UTF_8);
                 return completedFuture(null);
@@ -290,7 +302,10 @@ abstract class BaseTrellisHttpResourceTest extends JerseyTest {
         when(mockBinaryService.purgeContent(any(IRI.class))).thenReturn(completedFuture(null));
         when(mockBinaryService.generateIdentifier()).thenReturn(RANDOM_VALUE);
         doCallRealMethod().when(mockBinaryService)
-            .setContent(any(BinaryMetadata.class), any(InputStream.class), any());
+            .setContent(any(BinaryMetadata.class), any(InputStream.class), any(MessageDigest.class));
+        doCallRealMethod().when(mockBinaryService)
+            .setContent(any(BinaryMetadata.class), any(InputStream.class), anyList());
+        doCallRealMethod().when(mockBinaryService).calculateDigests(any(IRI.class), anyList());
     }
 
     private void setUpResources() {
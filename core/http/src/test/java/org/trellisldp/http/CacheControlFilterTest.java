@@ -15,7 +15,10 @@ package org.trellisldp.http;
 
 import static javax.ws.rs.HttpMethod.GET;
 import static javax.ws.rs.HttpMethod.HEAD;
+import static javax.ws.rs.core.HttpHeaders.CACHE_CONTROL;
 import static javax.ws.rs.core.Response.Status.OK;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -69,4 +72,18 @@ public class CacheControlFilterTest {
         filter.filter(mockRequest, mockResponse);
         verify(mockResponse).getHeaders();
     }
+
+    @Test
+    public void testCacheControlExisting() throws Exception {
+
+        when(mockRequest.getMethod()).thenReturn(GET);
+        when(mockResponse.getStatusInfo()).thenReturn(OK);
+        when(mockResponse.getHeaders()).thenReturn(mockHeaders);
+        when(mockHeaders.containsKey(CACHE_CONTROL)).thenReturn(true);
+
+        final CacheControlFilter filter = new CacheControlFilter(180, true, false);
+
+        filter.filter(mockRequest, mockResponse);
+        verify(mockHeaders, never()).add(eq(CACHE_CONTROL), any());
+    }
 }
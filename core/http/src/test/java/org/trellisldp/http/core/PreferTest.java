@@ -170,6 +170,19 @@ public class PreferTest {
         assertFalse(prefer.getRespondAsync(), "Check respond async");
     }
 
+    @Test
+    public void testPreferMaxMemberCount() {
+        final Prefer prefer = Prefer.valueOf("return=representation; max-member-count=\"25\"");
+        assertEquals(of("representation"), prefer.getPreference(), "Check preference type");
+        assertEquals(of(25), prefer.getMaxMemberCount(), "Check max member count");
+        assertFalse(Prefer.valueOf("return=representation").getMaxMemberCount().isPresent(),
+                "Check missing max member count");
+        assertFalse(Prefer.valueOf("return=representation; max-member-count=0").getMaxMemberCount().isPresent(),
+                "Check non-positive max member count");
+        assertFalse(Prefer.valueOf("return=representation; max-member-count=many").getMaxMemberCount().isPresent(),
+                "Check invalid max member count");
+    }
+
     @Test
     public void testNullPrefer() {
         assertNull(Prefer.valueOf(null), "Check null value");
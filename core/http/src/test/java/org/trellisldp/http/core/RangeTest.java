@@ -15,6 +15,8 @@ package org.trellisldp.http.core;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -39,9 +41,88 @@ public class RangeTest {
         assertNull(Range.valueOf("bytes=1-15.5"), "Check invalid numbers");
     }
 
+    @Test
+    public void testMultipleRanges() {
+        final Range range = Range.valueOf("bytes=1-15, 20-24");
+        assertEquals(2, range.getRanges().size(), "Check number of ranges");
+        assertEquals(1, range.getFrom(), "Check 'from' value");
+        assertEquals(15, range.getTo(), "Check 'to' value");
+        assertEquals(20, range.getRanges().get(1).getFrom(), "Check second 'from' value");
+        assertEquals(24, range.getRanges().get(1).getTo(), "Check second 'to' value");
+    }
+
     @Test
     public void testInvalidRange2() {
-        assertNull(Range.valueOf("bytes=1-15, 20-24"), "Check invalid multiple ranges");
+        assertNull(Range.valueOf("bytes=1-15, 24-20"), "Check invalid multiple ranges");
+    }
+
+    @Test
+    public void testLargeRange() {
+        final Range range = Range.valueOf("bytes=5000000000-5000000999");
+        assertEquals(5000000000L, range.getFrom(), "Check 'from' value");
+        assertEquals(5000000999L, range.getTo(), "Check 'to' value");
+    }
+
+    @Test
+    public void testSuffixRange() {
+        final Range range = Range.valueOf("bytes=-500");
+        assertEquals(-1L, range.getFrom(), "Check 'from' value");
+        assertEquals(500L, range.getTo(), "Check suffix length");
+
+        final List<Range> resolved = range.resolve(2000L).get();
+        assertEquals(1, resolved.size(), "Check number of resolved ranges");
+        assertEquals(1500L, resolved.get(0).getFrom(), "Check resolved 'from' value");
+        assertEquals(1999L, resolved.get(0).getTo(), "Check resolved 'to' value");
+        assertEquals(0L, range.resolve(100L).get().get(0).getFrom(), "Check short representation");
+        assertFalse(range.resolve(-1L).isPresent(), "Check unknown length");
+    }
+
+    @Test
+    public void testOpenRange() {
+        final Range range = Range.valueOf("bytes=500-");
+        assertEquals(500L, range.getFrom(), "Check 'from' value");
+        assertEquals(-1L, range.getTo(), "Check 'to' value");
+        assertEquals(1999L, range.resolve(2000L).get().get(0).getTo(), "Check resolved 'to' value");
+        assertTrue(range.resolve(500L).get().isEmpty(), "Check unsatisfiable range");
+        assertFalse(range.resolve(-1L).isPresent(), "Check unknown length");
+    }
+
+    @Test
+    public void testResolveRanges() {
+        final Range range = Range.valueOf("bytes=0-9,50-99,200-299");
+        final List<Range> resolved = range.resolve(120L).get();
+        assertEquals(2, resolved.size(), "Check satisfiable ranges");
+        assertEquals(0L, resolved.get(0).getFrom(), "Check first range");
+        assertEquals(99L, resolved.get(1).getTo(), "Check second range");
+        assertEquals(3, range.resolve(-1L).get().size(), "Check unknown length");
+        assertTrue(Range.valueOf("bytes=-0").resolve(10L).get().isEmpty(), "Check empty suffix");
+    }
+
+    @Test
+    public void testCoalesceRanges() {
+        final List<Range> resolved = Range.valueOf("bytes=50-59,0-9,5-19,20-29").resolve(100L).get();
+        assertEquals(2, resolved.size(), "Check coalesced ranges");
+        assertEquals(0L, resolved.get(0).getFrom(), "Check first range start");
+        assertEquals(29L, resolved.get(0).getTo(), "Check first range end");
+        assertEquals(50L, resolved.get(1).getFrom(), "Check second range start");
+        assertEquals(59L, resolved.get(1).getTo(), "Check second range end");
+    }
+
+    @Test
+    public void testExcessiveRanges() {
+        assertFalse(Range.valueOf("bytes=0-,0-,0-").resolve(100L).isPresent(), "Check repeated full ranges");
+        final StringBuilder header = new StringBuilder("bytes=0-0");
+        for (int i = 1; i <= Range.MAX_RANGES; ++i) {
+            header.append(',').append(i * 2).append('-').append(i * 2);
+        }
+        assertNull(Range.valueOf(header.toString()), "Check too many ranges");
+    }
+
+    @Test
+    public void testInvalidSuffix() {
+        assertNull(Range.valueOf("bytes=-"), "Check missing positions");
+        assertNull(Range.valueOf("bytes=--5"), "Check negative suffix");
+        assertNull(Range.valueOf("bytes=1-5,"), "Check empty range");
     }
 
     @Test
@@ -217,6 +217,8 @@ abstract class BaseTestHandler {
         when(mockResourceService.get(any(IRI.class))).thenAnswer(inv -> completedFuture(mockResource));
         when(mockResourceService.create(any(Metadata.class), any(Dataset.class))).thenReturn(completedFuture(null));
         when(mockResourceService.replace(any(Metadata.class), any(Dataset.class))).thenReturn(completedFuture(null));
+        when(mockResourceService.replace(any(Metadata.class), any(Dataset.class), any(Dataset.class),
+                    any(Dataset.class))).thenReturn(completedFuture(null));
         when(mockResourceService.delete(any(Metadata.class))).thenReturn(completedFuture(null));
         when(mockResourceService.add(any(IRI.class), any(Dataset.class))).thenReturn(completedFuture(null));
         when(mockResourceService.skolemize(any(Literal.class))).then(returnsFirstArg());
@@ -229,7 +231,7 @@ abstract class BaseTestHandler {
     }
 
     private void setUpBinaryService() throws Exception {
-        when(mockBinary.getContent(eq(3), eq(10))).thenReturn(new ByteArrayInputStream("e input".getBytes(UTF_8)));
+        when(mockBinary.getContent(eq(3L), eq(10L))).thenReturn(new ByteArrayInputStream("e input ".getBytes(UTF_8)));
         when(mockBinary.getContent()).thenReturn(new ByteArrayInputStream("Some input stream".getBytes(UTF_8)));
         when(mockBinaryService.generateIdentifier()).thenReturn("file:///" + randomUUID());
         when(mockBinaryService.supportedAlgorithms()).thenReturn(new HashSet<>(asList("MD5", "SHA-1")));
@@ -238,7 +240,7 @@ abstract class BaseTestHandler {
             .thenReturn(completedFuture(mockDigest));
         when(mockBinaryService.get(any(IRI.class))).thenAnswer(inv -> completedFuture(mockBinary));
         when(mockBinaryService.purgeContent(any(IRI.class))).thenReturn(completedFuture(null));
-        when(mockBinaryService.setContent(any(BinaryMetadata.class), any(InputStream.class), any()))
+        when(mockBinaryService.setContent(any(BinaryMetadata.class), any(InputStream.class), any(MessageDigest.class)))
             .thenAnswer(inv -> {
                 readLines((InputStream) inv.getArguments()[1], UTF_8);
                 return completedFuture(null);
@@ -249,7 +251,10 @@ abstract class BaseTestHandler {
             return completedFuture(null);
         });
         doCallRealMethod().when(mockBinaryService)
-            .setContent(any(BinaryMetadata.class), any(InputStream.class), any());
+            .setContent(any(BinaryMetadata.class), any(InputStream.class), any(MessageDigest.class));
+        doCallRealMethod().when(mockBinaryService)
+            .setContent(any(BinaryMetadata.class), any(InputStream.class), anyList());
+        doCallRealMethod().when(mockBinaryService).calculateDigests(any(IRI.class), anyList());
     }
 
     private void setUpBundler() {
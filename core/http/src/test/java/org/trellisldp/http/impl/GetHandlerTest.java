@@ -17,8 +17,10 @@ import static java.time.Instant.now;
 import static java.time.ZoneOffset.UTC;
 import static java.time.ZonedDateTime.ofInstant;
 import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static java.util.Date.from;
 import static java.util.Optional.of;
 import static java.util.function.Predicate.isEqual;
@@ -38,19 +40,36 @@ import static javax.ws.rs.core.MediaType.WILDCARD_TYPE;
 import static javax.ws.rs.core.Response.Status.NOT_ACCEPTABLE;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
 import static javax.ws.rs.core.Response.Status.OK;
+import static javax.ws.rs.core.Response.Status.PARTIAL_CONTENT;
+import static javax.ws.rs.core.Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE;
+import static org.apache.commons.codec.binary.Base64.encodeBase64String;
+import static org.apache.commons.codec.digest.DigestUtils.md5;
 import static org.apache.commons.codec.digest.DigestUtils.md5Hex;
+import static org.apache.commons.codec.digest.DigestUtils.sha1;
 import static org.apache.commons.rdf.api.RDFSyntax.JSONLD;
 import static org.apache.commons.rdf.api.RDFSyntax.NTRIPLES;
 import static org.apache.commons.rdf.api.RDFSyntax.RDFA;
 import static org.apache.commons.rdf.api.RDFSyntax.TURTLE;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.trellisldp.api.Syntax.LD_PATCH;
+import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
 import static org.trellisldp.http.core.HttpConstants.ACCEPT_DATETIME;
 import static org.trellisldp.http.core.HttpConstants.ACCEPT_PATCH;
 import static org.trellisldp.http.core.HttpConstants.ACCEPT_POST;
 import static org.trellisldp.http.core.HttpConstants.ACCEPT_RANGES;
+import static org.trellisldp.http.core.HttpConstants.CONTENT_RANGE;
 import static org.trellisldp.http.core.HttpConstants.DESCRIPTION;
+import static org.trellisldp.http.core.HttpConstants.DIGEST;
+import static org.trellisldp.http.core.HttpConstants.IF_RANGE;
 import static org.trellisldp.http.core.HttpConstants.MEMENTO_DATETIME;
 import static org.trellisldp.http.core.HttpConstants.PATCH;
 import static org.trellisldp.http.core.HttpConstants.PREFER;
@@ -64,25 +83,39 @@ import static org.trellisldp.http.core.RdfMediaType.APPLICATION_SPARQL_UPDATE;
 import static org.trellisldp.http.core.RdfMediaType.TEXT_TURTLE_TYPE;
 import static org.trellisldp.vocabulary.JSONLD.compacted;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.CompletionStage;
 import java.util.stream.Stream;
 
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.NotAcceptableException;
 import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.Link;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.StreamingOutput;
 
+import org.apache.commons.rdf.api.IRI;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 import org.trellisldp.api.BinaryMetadata;
 import org.trellisldp.http.core.Prefer;
+import org.trellisldp.http.core.Range;
+import org.trellisldp.http.core.WantDigest;
 import org.trellisldp.vocabulary.LDP;
 import org.trellisldp.vocabulary.OA;
 import org.trellisldp.vocabulary.SKOS;
@@ -244,6 +277,116 @@ public class GetHandlerTest extends BaseTestHandler {
         assertFalse(varies.contains(WANT_DIGEST), "Unexpected Vary: want-digest header!");
     }
 
+    @Test
+    public void testGetPagedLdpc() {
+        final IRI child1 = rdf.createIRI(TRELLIS_DATA_PREFIX + "resource/child1");
+        final IRI child2 = rdf.createIRI(TRELLIS_DATA_PREFIX + "resource/child2");
+        final IRI child3 = rdf.createIRI(TRELLIS_DATA_PREFIX + "resource/child3");
+        when(mockResource.getInteractionModel()).thenReturn(LDP.Container);
+        when(mockResource.stream(eq(LDP.PreferContainment), any(), anyBoolean(), anyInt())).thenAnswer(inv ->
+                Stream.of(child1, child2, child3).map(c -> rdf.createTriple(identifier, LDP.contains, c)));
+        when(mockTrellisRequest.getPrefer()).thenReturn(Prefer.valueOf("return=representation; max-member-count=2"));
+        when(mockTrellisRequest.getPath()).thenReturn("resource");
+
+        final GetHandler handler = new GetHandler(mockTrellisRequest, mockBundler, false, true, true, null, baseUrl);
+        final Response res = handler.getRepresentation(handler.standardHeaders(handler.initialize(mockResource)))
+            .toCompletableFuture().join().build();
+
+        assertEquals(OK, res.getStatusInfo(), "Incorrect response code");
+        assertEquals("return=representation; max-member-count=2", res.getHeaderString(PREFERENCE_APPLIED),
+                "Incorrect Preference-Applied header!");
+        assertTrue(res.getLinks().stream().anyMatch(hasType(LDP.Page)), "Missing ldp:Page type link header!");
+        assertEquals(baseUrl + "resource?page=" + PageCursor.first(2).toToken(),
+                res.getLink("self").getUri().toString(), "Incorrect self link!");
+        assertEquals(baseUrl + "resource?page=" + PageCursor.first(2).toToken(),
+                res.getLink("first").getUri().toString(), "Incorrect first link!");
+        assertEquals(baseUrl + "resource?page=" + PageCursor.first(2).next(child2).toToken(),
+                res.getLink("next").getUri().toString(), "Incorrect next link!");
+        assertNull(res.getLink("prev"), "Unexpected prev link!");
+        verify(mockResource).stream(LDP.PreferContainment, null, false, 3);
+    }
+
+    @Test
+    public void testGetPreviousPageLdpc() {
+        final IRI child1 = rdf.createIRI(TRELLIS_DATA_PREFIX + "resource/child1");
+        final IRI child2 = rdf.createIRI(TRELLIS_DATA_PREFIX + "resource/child2");
+        final PageCursor cursor = PageCursor.first(5).previous(child2);
+        when(mockResource.getInteractionModel()).thenReturn(LDP.BasicContainer);
+        when(mockResource.stream(eq(LDP.PreferContainment), any(), anyBoolean(), anyInt())).thenAnswer(inv ->
+                Stream.of(rdf.createTriple(identifier, LDP.contains, child1)));
+        when(mockTrellisRequest.getPage()).thenReturn(cursor.toToken());
+        when(mockTrellisRequest.getPath()).thenReturn("resource");
+
+        final GetHandler handler = new GetHandler(mockTrellisRequest, mockBundler, false, true, true, null, baseUrl);
+        final Response res = handler.getRepresentation(handler.standardHeaders(handler.initialize(mockResource)))
+            .toCompletableFuture().join().build();
+
+        assertEquals(OK, res.getStatusInfo(), "Incorrect response code");
+        assertEquals(baseUrl + "resource?page=" + cursor.next(child1).toToken(),
+                res.getLink("next").getUri().toString(), "Incorrect next link!");
+        assertNull(res.getLink("prev"), "Unexpected prev link!");
+        verify(mockResource).stream(LDP.PreferContainment, child2, true, 6);
+    }
+
+    @Test
+    public void testHeadPagedLdpc() {
+        final IRI child = rdf.createIRI(TRELLIS_DATA_PREFIX + "resource/child");
+        final PageCursor cursor = PageCursor.first(5).next(child);
+        when(mockResource.getInteractionModel()).thenReturn(LDP.BasicContainer);
+        when(mockTrellisRequest.getPage()).thenReturn(cursor.toToken());
+        when(mockTrellisRequest.getPath()).thenReturn("resource");
+        when(mockTrellisRequest.getMethod()).thenReturn(HEAD);
+
+        final GetHandler handler = new GetHandler(mockTrellisRequest, mockBundler, false, true, true, null, baseUrl);
+        final Response res = handler.getRepresentation(handler.standardHeaders(handler.initialize(mockResource)))
+            .toCompletableFuture().join().build();
+
+        assertEquals(OK, res.getStatusInfo(), "Incorrect response code");
+        assertTrue(res.getLinks().stream().anyMatch(hasType(LDP.Page)), "Missing ldp:Page type link header!");
+        assertEquals(baseUrl + "resource?page=" + cursor.toToken(), res.getLink("self").getUri().toString(),
+                "Incorrect self link!");
+        assertEquals(baseUrl + "resource?page=" + PageCursor.first(5).toToken(),
+                res.getLink("first").getUri().toString(), "Incorrect first link!");
+        // The next and prev links depend on the page, which is not fetched for a HEAD request
+        assertNull(res.getLink("next"), "Unexpected next link!");
+        assertNull(res.getLink("prev"), "Unexpected prev link!");
+        verify(mockResource, never()).stream(any(IRI.class), any(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    public void testGetPagedLdpcMaxSize() {
+        final IRI child = rdf.createIRI(TRELLIS_DATA_PREFIX + "resource/child");
+        when(mockResource.getInteractionModel()).thenReturn(LDP.Container);
+        when(mockResource.stream(eq(LDP.PreferContainment), any(), anyBoolean(), anyInt())).thenAnswer(inv ->
+                Stream.of(rdf.createTriple(identifier, LDP.contains, child)));
+        when(mockTrellisRequest.getPrefer())
+            .thenReturn(Prefer.valueOf("return=representation; max-member-count=" + Integer.MAX_VALUE));
+        when(mockTrellisRequest.getPath()).thenReturn("resource");
+
+        final GetHandler handler = new GetHandler(mockTrellisRequest, mockBundler, false, true, true, null, baseUrl,
+                50);
+        final Response res = handler.getRepresentation(handler.standardHeaders(handler.initialize(mockResource)))
+            .toCompletableFuture().join().build();
+
+        assertEquals(OK, res.getStatusInfo(), "Incorrect response code");
+        assertEquals("return=representation; max-member-count=50", res.getHeaderString(PREFERENCE_APPLIED),
+                "Incorrect Preference-Applied header!");
+        assertEquals(baseUrl + "resource?page=" + PageCursor.first(50).toToken(),
+                res.getLink("first").getUri().toString(), "Incorrect first link!");
+        verify(mockResource).stream(LDP.PreferContainment, null, false, 51);
+    }
+
+    @Test
+    public void testGetInvalidPageLdpc() {
+        when(mockResource.getInteractionModel()).thenReturn(LDP.Container);
+        when(mockTrellisRequest.getPage()).thenReturn("not a valid cursor");
+
+        final GetHandler handler = new GetHandler(mockTrellisRequest, mockBundler, false, true, true, null, baseUrl);
+        final ResponseBuilder builder = handler.standardHeaders(handler.initialize(mockResource));
+        assertThrows(BadRequestException.class, () -> handler.getRepresentation(builder),
+                "No exception for an invalid page cursor!");
+    }
+
     @Test
     public void testGetLdpc() {
         when(mockResource.getInteractionModel()).thenReturn(LDP.Container);
@@ -371,6 +514,109 @@ public class GetHandlerTest extends BaseTestHandler {
         assertAll("Check LDP type link headers", checkLdpType(res, LDP.NonRDFSource));
     }
 
+    @Test
+    public void testGetBinaryRange() throws IOException {
+        setUpBinaryRange("bytes=3-10");
+        final Response res = getBinaryResponse();
+
+        assertEquals(PARTIAL_CONTENT, res.getStatusInfo(), "Incorrect response code!");
+        assertEquals("bytes 3-10/17", res.getHeaderString(CONTENT_RANGE), "Incorrect Content-Range header!");
+        assertEquals("e input ", writeEntity(res), "Incorrect entity value!");
+    }
+
+    @Test
+    public void testGetBinaryMultipleRanges() throws IOException {
+        setUpBinaryRange("bytes=0-3,-6");
+        when(mockBinary.getContent(eq(0L), eq(3L))).thenReturn(new ByteArrayInputStream("Some".getBytes(UTF_8)));
+        when(mockBinary.getContent(eq(11L), eq(16L))).thenReturn(new ByteArrayInputStream("stream".getBytes(UTF_8)));
+        final Response res = getBinaryResponse();
+
+        assertEquals(PARTIAL_CONTENT, res.getStatusInfo(), "Incorrect response code!");
+        assertNull(res.getHeaderString(CONTENT_RANGE), "Unexpected Content-Range header!");
+        assertEquals("multipart/byteranges", res.getMediaType().getType() + "/" + res.getMediaType().getSubtype(),
+                "Incorrect content-type header!");
+        final String boundary = res.getMediaType().getParameters().get("boundary");
+        assertNotNull(boundary, "Missing multipart boundary!");
+        assertEquals("--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 0-3/17\r\n\r\nSome\r\n"
+                + "--" + boundary + "\r\nContent-Type: text/plain\r\nContent-Range: bytes 11-16/17\r\n\r\nstream\r\n"
+                + "--" + boundary + "--\r\n", writeEntity(res), "Incorrect entity value!");
+    }
+
+    @Test
+    public void testGetBinaryIfRange() throws IOException {
+        setUpBinaryRange("bytes=3-10");
+        final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle(IF_RANGE, ofInstant(time, UTC).format(RFC_1123_DATE_TIME));
+        when(mockTrellisRequest.getHeaders()).thenReturn(headers);
+
+        final Response res = getBinaryResponse();
+        assertEquals(PARTIAL_CONTENT, res.getStatusInfo(), "Incorrect response code!");
+        assertEquals("e input ", writeEntity(res), "Incorrect entity value!");
+    }
+
+    @Test
+    public void testGetBinaryIfRangeMismatch() throws IOException {
+        setUpBinaryRange("bytes=3-10");
+        final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle(IF_RANGE, "\"some-other-etag\"");
+        when(mockTrellisRequest.getHeaders()).thenReturn(headers);
+
+        final Response res = getBinaryResponse();
+        assertEquals(OK, res.getStatusInfo(), "Incorrect response code!");
+        assertNull(res.getHeaderString(CONTENT_RANGE), "Unexpected Content-Range header!");
+        assertEquals("Some input stream", writeEntity(res), "Incorrect entity value!");
+    }
+
+    @Test
+    public void testGetBinaryRepeatedRanges() throws IOException {
+        setUpBinaryRange("bytes=0-,0-,0-");
+        final Response res = getBinaryResponse();
+        assertEquals(OK, res.getStatusInfo(), "Incorrect response code!");
+        assertNull(res.getHeaderString(CONTENT_RANGE), "Unexpected Content-Range header!");
+        assertEquals("Some input stream", writeEntity(res), "Incorrect entity value!");
+    }
+
+    @Test
+    public void testGetBinaryUnsatisfiableRange() throws IOException {
+        setUpBinaryRange("bytes=300-400");
+        final Response res = assertThrows(ClientErrorException.class, this::getBinaryResponse,
+                "No exception for an unsatisfiable range!").getResponse();
+        assertEquals(REQUESTED_RANGE_NOT_SATISFIABLE, res.getStatusInfo(), "Incorrect response code!");
+        assertEquals("bytes */17", res.getHeaderString(CONTENT_RANGE), "Incorrect Content-Range header!");
+    }
+
+    @Test
+    public void testGetBinaryStoredDigest() {
+        final BinaryMetadata binary = BinaryMetadata.builder(testBinary.getIdentifier()).mimeType("text/plain")
+            .digests(singletonMap("SHA-1", "636f6d70757465642d646967657374")).build();
+        when(mockResource.getBinaryMetadata()).thenReturn(of(binary));
+        when(mockResource.getInteractionModel()).thenReturn(LDP.NonRDFSource);
+        when(mockTrellisRequest.getAcceptableMediaTypes()).thenReturn(singletonList(WILDCARD_TYPE));
+        when(mockTrellisRequest.getWantDigest()).thenReturn(new WantDigest("sha-1"));
+
+        final Response res = getBinaryResponse();
+        assertEquals(OK, res.getStatusInfo(), "Incorrect response code!");
+        assertEquals("sha-1=Y29tcHV0ZWQtZGlnZXN0", res.getHeaderString(DIGEST), "Incorrect Digest header!");
+        verify(mockBinaryService, never()).calculateDigest(any(IRI.class), any(MessageDigest.class));
+        verify(mockBinaryService, never()).calculateDigests(any(IRI.class), anyList());
+    }
+
+    @Test
+    public void testGetBinaryMultipleDigests() {
+        when(mockResource.getBinaryMetadata()).thenReturn(of(testBinary));
+        when(mockResource.getInteractionModel()).thenReturn(LDP.NonRDFSource);
+        when(mockTrellisRequest.getAcceptableMediaTypes()).thenReturn(singletonList(WILDCARD_TYPE));
+        when(mockTrellisRequest.getWantDigest()).thenReturn(new WantDigest("md5, sha-1, sha-512"));
+
+        final Response res = getBinaryResponse();
+        assertEquals(OK, res.getStatusInfo(), "Incorrect response code!");
+        assertEquals("md5=" + encodeBase64String(md5("Some input stream")) + ",sha-1="
+                + encodeBase64String(sha1("Some input stream")), res.getHeaderString(DIGEST),
+                "Incorrect Digest header!");
+        verify(mockBinaryService).calculateDigests(any(IRI.class), anyList());
+        verify(mockBinaryService, never()).calculateDigest(any(IRI.class), any(MessageDigest.class));
+    }
+
     @Test
     public void testGetAcl() {
         when(mockResource.getInteractionModel()).thenReturn(LDP.Container);
@@ -402,4 +648,28 @@ public class GetHandlerTest extends BaseTestHandler {
             .filter(link -> "memento".equals(link.getRel())).collect(toList());
         assertEquals(2L, links.size());
     }
+
+    private void setUpBinaryRange(final String range) throws IOException {
+        when(mockResource.getBinaryMetadata()).thenReturn(of(testBinary));
+        when(mockResource.getInteractionModel()).thenReturn(LDP.NonRDFSource);
+        when(mockTrellisRequest.getAcceptableMediaTypes()).thenReturn(singletonList(WILDCARD_TYPE));
+        when(mockTrellisRequest.getRange()).thenReturn(Range.valueOf(range));
+        when(mockBinary.getSize()).thenReturn(of(17L));
+        when(mockBinary.writeTo(any(WritableByteChannel.class))).thenCallRealMethod();
+        when(mockBinary.writeTo(anyLong(), anyLong(), any(WritableByteChannel.class))).thenCallRealMethod();
+    }
+
+    private Response getBinaryResponse() {
+        final GetHandler handler = new GetHandler(mockTrellisRequest, mockBundler, false, true, true, null, baseUrl);
+        final CompletionStage<ResponseBuilder> builder = handler.getRepresentation(
+                handler.standardHeaders(handler.initialize(mockResource)));
+        unwrapAsyncError(builder);
+        return builder.toCompletableFuture().join().build();
+    }
+
+    private static String writeEntity(final Response res) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) res.getEntity()).write(out);
+        return new String(out.toByteArray(), UTF_8);
+    }
 }
@@ -36,6 +36,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Set;
 
 import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.NotAcceptableException;
@@ -58,6 +59,7 @@ import org.trellisldp.api.ResourceService;
 import org.trellisldp.http.core.Prefer;
 import org.trellisldp.io.JenaIOService;
 import org.trellisldp.vocabulary.DC;
+import org.trellisldp.vocabulary.LDP;
 import org.trellisldp.vocabulary.Trellis;
 
 /**
@@ -168,6 +170,27 @@ public class HttpUtilsTest {
         assertEquals(1, filtered4.size(), "Incorrect size of filtered quad list!");
     }
 
+    @Test
+    public void testGraphsWithPrefer() {
+        final Set<IRI> graphs = HttpUtils.graphsWithPrefer(Prefer.valueOf("return=representation; include=\"" +
+                    LDP.PreferMinimalContainer.getIRIString() + " " + Trellis.PreferAudit.getIRIString() + "\""));
+
+        assertTrue(graphs.contains(Trellis.PreferUserManaged), "Missing user-managed graph!");
+        assertTrue(graphs.contains(Trellis.PreferAudit), "Missing audit graph!");
+        assertFalse(graphs.contains(LDP.PreferContainment), "Unexpected containment graph!");
+        assertFalse(graphs.contains(LDP.PreferMembership), "Unexpected membership graph!");
+    }
+
+    @Test
+    public void testGraphsWithoutPrefer() {
+        final Set<IRI> graphs = HttpUtils.graphsWithPrefer(null);
+
+        assertTrue(graphs.contains(Trellis.PreferUserManaged), "Missing user-managed graph!");
+        assertTrue(graphs.contains(LDP.PreferContainment), "Missing containment graph!");
+        assertTrue(graphs.contains(LDP.PreferMembership), "Missing membership graph!");
+        assertEquals(3, graphs.size(), "Incorrect number of graphs!");
+    }
+
     @Test
     public void testSkolemize() {
         final String baseUrl = "http://example.org/";
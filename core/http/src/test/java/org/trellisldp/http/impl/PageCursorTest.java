@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.http.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Base64.getUrlEncoder;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.trellisldp.api.TrellisUtils.getInstance;
+
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+import org.junit.jupiter.api.Test;
+
+public class PageCursorTest {
+
+    private static final RDF rdf = getInstance();
+    private static final IRI child = rdf.createIRI("trellis:data/container/child?with=query&and|pipe");
+
+    @Test
+    public void testFirstPage() {
+        final PageCursor cursor = PageCursor.valueOf(PageCursor.first(10).toToken()).orElse(null);
+        assertNotNull(cursor, "Missing cursor!");
+        assertEquals(10, cursor.getSize(), "Incorrect page size!");
+        assertNull(cursor.getBoundary(), "Unexpected boundary for the first page!");
+        assertFalse(cursor.isBackward(), "First page is not a forward cursor!");
+    }
+
+    @Test
+    public void testRoundTrip() {
+        final PageCursor next = PageCursor.valueOf(PageCursor.first(3).next(child).toToken()).orElse(null);
+        assertNotNull(next, "Missing next cursor!");
+        assertEquals(child, next.getBoundary(), "Incorrect next boundary!");
+        assertFalse(next.isBackward(), "Next cursor is not a forward cursor!");
+
+        final PageCursor prev = PageCursor.valueOf(next.previous(child).toToken()).orElse(null);
+        assertNotNull(prev, "Missing previous cursor!");
+        assertEquals(child, prev.getBoundary(), "Incorrect previous boundary!");
+        assertEquals(3, prev.getSize(), "Incorrect page size!");
+        assertTrue(prev.isBackward(), "Previous cursor is not a backward cursor!");
+        assertFalse(prev.toToken().contains("="), "Token should not be padded!");
+    }
+
+    @Test
+    public void testLimit() {
+        final PageCursor cursor = PageCursor.first(Integer.MAX_VALUE).next(child);
+        final PageCursor limited = cursor.limit(100);
+        assertEquals(100, limited.getSize(), "Incorrect limited page size!");
+        assertEquals(child, limited.getBoundary(), "Incorrect limited boundary!");
+        assertFalse(limited.isBackward(), "Limited cursor is not a forward cursor!");
+        assertSame(limited, limited.limit(100), "Unexpected new cursor within the limit!");
+        assertEquals(Integer.MAX_VALUE - 1, cursor.limit(Integer.MAX_VALUE).getSize(), "Incorrect maximum size!");
+    }
+
+    @Test
+    public void testInvalidTokens() {
+        assertFalse(PageCursor.valueOf(null).isPresent(), "Unexpected cursor from null token!");
+        assertFalse(PageCursor.valueOf("not a token").isPresent(), "Unexpected cursor from invalid base64!");
+        assertFalse(PageCursor.valueOf(encode("x|10|")).isPresent(), "Unexpected cursor with bad direction!");
+        assertFalse(PageCursor.valueOf(encode("n|0|")).isPresent(), "Unexpected cursor with bad size!");
+        assertFalse(PageCursor.valueOf(encode("n|ten|")).isPresent(), "Unexpected cursor with bad size!");
+        assertFalse(PageCursor.valueOf(encode("n")).isPresent(), "Unexpected cursor with missing fields!");
+    }
+
+    private static String encode(final String value) {
+        return getUrlEncoder().encodeToString(value.getBytes(UTF_8));
+    }
+}
@@ -15,10 +15,13 @@ package org.trellisldp.http.impl;
 
 import static java.util.Collections.emptySet;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static java.util.stream.Stream.of;
 import static javax.ws.rs.core.Link.fromUri;
 import static javax.ws.rs.core.MediaType.TEXT_HTML_TYPE;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.CONFLICT;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
 import static javax.ws.rs.core.Response.Status.OK;
 import static org.apache.commons.rdf.api.RDFSyntax.RDFA;
@@ -26,6 +29,8 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.trellisldp.api.Syntax.SPARQL_UPDATE;
+import static org.trellisldp.api.TrellisUtils.TRELLIS_BNODE_PREFIX;
+import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
 import static org.trellisldp.http.core.HttpConstants.ACCEPT_POST;
 import static org.trellisldp.http.core.HttpConstants.ACCEPT_RANGES;
 import static org.trellisldp.http.core.HttpConstants.PREFERENCE_APPLIED;
@@ -34,12 +39,17 @@ import static org.trellisldp.http.core.RdfMediaType.TEXT_TURTLE_TYPE;
 import static org.trellisldp.vocabulary.Trellis.PreferUserManaged;
 import static org.trellisldp.vocabulary.Trellis.UnsupportedInteractionModel;
 
+import java.util.Optional;
 import java.util.concurrent.CompletionException;
+import java.util.function.UnaryOperator;
 
 import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
+import org.apache.commons.rdf.api.BlankNode;
+import org.apache.commons.rdf.api.BlankNodeOrIRI;
 import org.apache.commons.rdf.api.Dataset;
 import org.apache.commons.rdf.api.Graph;
 import org.apache.commons.rdf.api.IRI;
@@ -49,7 +59,9 @@ import org.trellisldp.api.Metadata;
 import org.trellisldp.api.RuntimeTrellisException;
 import org.trellisldp.audit.DefaultAuditService;
 import org.trellisldp.http.core.Prefer;
+import org.trellisldp.vocabulary.DC;
 import org.trellisldp.vocabulary.LDP;
+import org.trellisldp.vocabulary.RDF;
 import org.trellisldp.vocabulary.RDFS;
 
 /**
@@ -111,7 +123,162 @@ public class PatchHandlerTest extends BaseTestHandler {
         assertEquals(NO_CONTENT, res.getStatusInfo(), "Incorrect response code!");
 
         verify(mockIoService).update(any(Graph.class), eq(insert), eq(SPARQL_UPDATE), eq(identifier.getIRIString()));
-        verify(mockResourceService).replace(any(Metadata.class), any(Dataset.class));
+        verify(mockResourceService).replace(any(Metadata.class), any(Dataset.class), any(Dataset.class),
+                any(Dataset.class));
+    }
+
+    @Test
+    public void testChanges() {
+        final Triple label = rdf.createTriple(identifier, RDFS.label, rdf.createLiteral("A label"));
+        final Triple title = rdf.createTriple(identifier, DC.title, rdf.createLiteral("A title"));
+        final Triple other = rdf.createTriple(identifier, RDFS.comment, rdf.createLiteral("A comment"));
+
+        when(mockTrellisRequest.getContentType()).thenReturn(APPLICATION_SPARQL_UPDATE);
+        when(mockTrellisRequest.getPath()).thenReturn("resource");
+        when(mockResource.stream(eq(PreferUserManaged))).thenAnswer(x -> of(label, other));
+        doAnswer(inv -> {
+            final Graph graph = inv.getArgument(0);
+            graph.remove(label);
+            graph.add(title);
+            return null;
+        }).when(mockIoService).update(any(Graph.class), eq(insert), eq(SPARQL_UPDATE), any());
+        when(mockResourceService.replace(any(Metadata.class), any(Dataset.class), any(Dataset.class),
+                    any(Dataset.class))).thenAnswer(inv -> {
+            final Dataset dataset = inv.getArgument(1);
+            final Dataset removed = inv.getArgument(2);
+            final Dataset added = inv.getArgument(3);
+            final Optional<BlankNodeOrIRI> userGraph = Optional.of(PreferUserManaged);
+            assertTrue(dataset.contains(userGraph, identifier, DC.title, null), "Missing new triple!");
+            assertTrue(dataset.contains(userGraph, identifier, RDFS.comment, null), "Missing triple!");
+            assertFalse(dataset.contains(userGraph, identifier, RDFS.label, null), "Unexpected triple!");
+            assertEquals(1L, removed.size(), "Incorrect number of removed quads!");
+            assertTrue(removed.contains(userGraph, identifier, RDFS.label, null), "Missing removal!");
+            assertEquals(1L, added.size(), "Incorrect number of added quads!");
+            assertTrue(added.contains(userGraph, identifier, DC.title, null), "Missing addition!");
+            return completedFuture(null);
+        });
+
+        final PatchHandler patchHandler = new PatchHandler(mockTrellisRequest, insert, mockBundler, null, null);
+        final Response res = patchHandler.updateResource(patchHandler.initialize(mockParent, mockResource))
+            .toCompletableFuture().join().build();
+
+        assertEquals(NO_CONTENT, res.getStatusInfo(), "Incorrect response code!");
+        verify(mockResourceService, never()).replace(any(Metadata.class), any(Dataset.class));
+    }
+
+    @Test
+    public void testUpdateInPlace() {
+        final Triple title = rdf.createTriple(identifier, DC.title, rdf.createLiteral("A title"));
+        final Triple type = rdf.createTriple(identifier, RDF.type, LDP.Container);
+        final BlankNode bnode = rdf.createBlankNode();
+        final Triple relation = rdf.createTriple(identifier, DC.relation, bnode);
+
+        when(mockTrellisRequest.getContentType()).thenReturn(APPLICATION_SPARQL_UPDATE);
+        when(mockTrellisRequest.getPath()).thenReturn("resource");
+        when(mockResourceService.supportsUpdate()).thenReturn(true);
+        when(mockResourceService.update(any(Metadata.class), eq(PreferUserManaged), eq(insert),
+                    eq(identifier.getIRIString()), any())).thenAnswer(inv -> {
+            final Metadata metadata = inv.getArgument(0);
+            final UnaryOperator<Graph> handler = inv.getArgument(4);
+            final Graph added = rdf.createGraph();
+            added.add(title);
+            added.add(type);
+            added.add(relation);
+            final Graph graph = handler.apply(added);
+            assertEquals(identifier, metadata.getIdentifier(), "Incorrect identifier!");
+            assertEquals(LDP.RDFSource, metadata.getInteractionModel(), "Incorrect interaction model!");
+            assertEquals(2L, graph.size(), "Incorrect number of triples to persist!");
+            assertTrue(graph.contains(title), "Missing added triple!");
+            assertFalse(graph.contains(type), "Unexpected LDP type triple!");
+            assertTrue(graph.contains(identifier, DC.relation,
+                        rdf.createIRI(TRELLIS_BNODE_PREFIX + bnode.uniqueReference())), "Missing skolemized triple!");
+            return completedFuture(null);
+        });
+
+        final PatchHandler patchHandler = new PatchHandler(mockTrellisRequest, insert, mockBundler, null, null);
+        final Response res = patchHandler.updateResource(patchHandler.initialize(mockParent, mockResource))
+            .toCompletableFuture().join().build();
+
+        assertEquals(NO_CONTENT, res.getStatusInfo(), "Incorrect response code!");
+        verify(mockResourceService).add(eq(identifier), any(Dataset.class));
+        verify(mockResourceService, never()).replace(any(Metadata.class), any(Dataset.class));
+        verify(mockResourceService, never()).replace(any(Metadata.class), any(Dataset.class), any(Dataset.class),
+                any(Dataset.class));
+        verify(mockIoService, never()).update(any(Graph.class), any(), any(), any());
+    }
+
+    @Test
+    public void testUpdateInPlaceConflict() {
+        when(mockTrellisRequest.getContentType()).thenReturn(APPLICATION_SPARQL_UPDATE);
+        when(mockTrellisRequest.getPath()).thenReturn("resource");
+        when(mockResourceService.supportsUpdate()).thenReturn(true);
+        when(mockResourceService.update(any(Metadata.class), any(), any(), any(), any())).thenAnswer(inv -> {
+            final UnaryOperator<Graph> handler = inv.getArgument(4);
+            final Graph added = rdf.createGraph();
+            added.add(identifier, LDP.contains, rdf.createIRI(TRELLIS_DATA_PREFIX + "resource/child"));
+            return supplyAsync(() -> handler.apply(added)).thenAccept(graph -> { });
+        });
+
+        final PatchHandler patchHandler = new PatchHandler(mockTrellisRequest, insert, mockBundler, null, null);
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                patchHandler.updateResource(patchHandler.initialize(mockParent, mockResource))
+                .toCompletableFuture().join(), "No exception with a constraint violation!");
+        assertTrue(err.getCause() instanceof ClientErrorException, "Incorrect exception type!");
+        final Response res = ((ClientErrorException) err.getCause()).getResponse();
+        assertEquals(CONFLICT, res.getStatusInfo(), "Incorrect response code!");
+        assertTrue(res.getLinks().stream().anyMatch(link ->
+                link.getRel().equals(LDP.constrainedBy.getIRIString())), "Missing Link header with constraint!");
+        verify(mockResourceService, never()).add(any(IRI.class), any(Dataset.class));
+    }
+
+    @Test
+    public void testUpdateInPlaceInvalid() {
+        when(mockTrellisRequest.getContentType()).thenReturn(APPLICATION_SPARQL_UPDATE);
+        when(mockTrellisRequest.getPath()).thenReturn("resource");
+        when(mockResourceService.supportsUpdate()).thenReturn(true);
+        when(mockResourceService.update(any(Metadata.class), any(), any(), any(), any()))
+            .thenThrow(new RuntimeTrellisException("Expected exception"));
+
+        final PatchHandler patchHandler = new PatchHandler(mockTrellisRequest, insert, mockBundler, null, null);
+        final Response res = assertThrows(BadRequestException.class, () ->
+                patchHandler.updateResource(patchHandler.initialize(mockParent, mockResource)),
+                "No exception with an invalid update!").getResponse();
+        assertEquals(BAD_REQUEST, res.getStatusInfo(), "Incorrect response code!");
+    }
+
+    @Test
+    public void testUpdateInPlaceFailed() {
+        when(mockTrellisRequest.getContentType()).thenReturn(APPLICATION_SPARQL_UPDATE);
+        when(mockTrellisRequest.getPath()).thenReturn("resource");
+        when(mockResourceService.supportsUpdate()).thenReturn(true);
+        when(mockResourceService.update(any(Metadata.class), any(), any(), any(), any())).thenReturn(
+                supplyAsync(() -> {
+                    throw new RuntimeTrellisException("Expected exception");
+                }));
+
+        final PatchHandler patchHandler = new PatchHandler(mockTrellisRequest, insert, mockBundler, null, null);
+        final CompletionException err = assertThrows(CompletionException.class, () ->
+                patchHandler.updateResource(patchHandler.initialize(mockParent, mockResource))
+                .toCompletableFuture().join(), "No exception with a failed update!");
+        assertTrue(err.getCause() instanceof BadRequestException, "Incorrect exception type!");
+        assertEquals(BAD_REQUEST, ((BadRequestException) err.getCause()).getResponse().getStatusInfo(),
+                "Incorrect response code!");
+        verify(mockResourceService, never()).add(any(IRI.class), any(Dataset.class));
+    }
+
+    @Test
+    public void testUpdateInPlaceRepresentation() {
+        when(mockTrellisRequest.getContentType()).thenReturn(APPLICATION_SPARQL_UPDATE);
+        when(mockTrellisRequest.getPath()).thenReturn("resource");
+        when(mockTrellisRequest.getPrefer()).thenReturn(Prefer.valueOf("return=representation"));
+        when(mockResourceService.supportsUpdate()).thenReturn(true);
+
+        final PatchHandler patchHandler = new PatchHandler(mockTrellisRequest, insert, mockBundler, null, null);
+        final Response res = patchHandler.updateResource(patchHandler.initialize(mockParent, mockResource))
+            .toCompletableFuture().join().build();
+
+        assertEquals(OK, res.getStatusInfo(), "Incorrect response code!");
+        verify(mockResourceService, never()).update(any(), any(), any(), any(), any());
     }
 
     @Test
@@ -160,7 +327,8 @@ public class PatchHandlerTest extends BaseTestHandler {
     public void testError() {
         when(mockTrellisRequest.getContentType()).thenReturn(APPLICATION_SPARQL_UPDATE);
         when(mockTrellisRequest.getPath()).thenReturn("resource");
-        when(mockResourceService.replace(any(Metadata.class), any(Dataset.class))).thenReturn(asyncException());
+        when(mockResourceService.replace(any(Metadata.class), any(Dataset.class), any(Dataset.class),
+                    any(Dataset.class))).thenReturn(asyncException());
 
         final PatchHandler patchHandler = new PatchHandler(mockTrellisRequest, insert, mockBundler, null, null);
         assertThrows(CompletionException.class, () ->
@@ -15,12 +15,14 @@ package org.trellisldp.http.impl;
 
 import static java.net.URI.create;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
 import static java.util.Optional.of;
 import static javax.ws.rs.core.Link.fromUri;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.CREATED;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
 import static org.apache.commons.rdf.api.RDFSyntax.JSONLD;
 import static org.apache.commons.rdf.api.RDFSyntax.NTRIPLES;
 import static org.apache.commons.rdf.api.RDFSyntax.TURTLE;
@@ -34,6 +36,9 @@ import static org.trellisldp.vocabulary.Trellis.UnsupportedInteractionModel;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Map;
 import java.util.concurrent.CompletionException;
 import java.util.stream.Stream;
 
@@ -47,6 +52,7 @@ import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.Triple;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
+import org.mockito.ArgumentCaptor;
 import org.trellisldp.api.BinaryMetadata;
 import org.trellisldp.api.Metadata;
 import org.trellisldp.audit.DefaultAuditService;
@@ -185,7 +191,8 @@ public class PostHandlerTest extends BaseTestHandler {
         assertEquals(create(baseUrl + path), res.getLocation(), "Incorrect Location header!");
         assertAll("Check LDP type Link headers", checkLdpType(res, LDP.RDFSource));
 
-        verify(mockBinaryService, never()).setContent(any(BinaryMetadata.class), any(InputStream.class), any());
+        verify(mockBinaryService, never()).setContent(any(BinaryMetadata.class), any(InputStream.class),
+                any(MessageDigest.class));
         verify(mockIoService).read(any(InputStream.class), eq(TURTLE), eq(baseUrl + path));
         verify(mockResourceService).create(any(Metadata.class), any(Dataset.class));
     }
@@ -219,6 +226,29 @@ public class PostHandlerTest extends BaseTestHandler {
         assertAll("Check Binary response", checkBinaryEntityResponse());
     }
 
+    @Test
+    public void testEntityStoredDigests() throws IOException {
+        when(mockTrellisRequest.getContentType()).thenReturn("text/plain");
+        when(mockTrellisRequest.getDigest()).thenReturn(new Digest("md5", "1VOyRwUXW1CPdC5nelt7GQ=="));
+        final ArgumentCaptor<Metadata> captor = ArgumentCaptor.forClass(Metadata.class);
+
+        final PostHandler handler = new PostHandler(mockTrellisRequest, root, "stored-digests",
+                getClass().getResource("/simpleData.txt").openStream(), mockBundler,
+                asList("MD5", "SHA-1", "SHA-512"), null);
+        final Response res = handler.createResource(handler.initialize(mockParent, MISSING_RESOURCE))
+            .toCompletableFuture().join().build();
+
+        assertEquals(CREATED, res.getStatusInfo(), "Incorrect response code!");
+        verify(mockBinaryService).setContent(any(BinaryMetadata.class), any(InputStream.class), anyList());
+        verify(mockResourceService).create(captor.capture(), any(Dataset.class));
+        final Map<String, String> digests = captor.getValue().getBinary().map(BinaryMetadata::getDigests)
+            .orElseGet(Collections::emptyMap);
+        assertEquals(2, digests.size(), "Incorrect number of stored digests!");
+        assertEquals("d553b24705175b508f742e677a5b7b19", digests.get("MD5"), "Incorrect MD5 digest!");
+        assertEquals(sha1Hex(getClass().getResourceAsStream("/simpleData.txt")), digests.get("SHA-1"),
+                "Incorrect SHA-1 digest!");
+    }
+
     @Test
     public void testEntityBadDigest() throws IOException {
         when(mockTrellisRequest.getContentType()).thenReturn("text/plain");
@@ -265,7 +295,7 @@ public class PostHandlerTest extends BaseTestHandler {
         });
 
         final PostHandler handler = new PostHandler(mockTrellisRequest, root, "bad-resource", mockInputStream,
-                mockBundler, null);
+                mockBundler, emptyList(), null);
         final Response res = assertThrows(WebApplicationException.class, () ->
                 handler.createResource(handler.initialize(mockParent, MISSING_RESOURCE)).toCompletableFuture().join())
             .getResponse();
@@ -276,7 +306,7 @@ public class PostHandlerTest extends BaseTestHandler {
     private PostHandler buildPostHandler(final String resourceName, final String id, final String baseUrl)
                     throws IOException {
         final InputStream entity = getClass().getResource(resourceName).openStream();
-        return new PostHandler(mockTrellisRequest, root, id, entity, mockBundler, baseUrl);
+        return new PostHandler(mockTrellisRequest, root, id, entity, mockBundler, emptyList(), baseUrl);
     }
 
     private Stream<Executable> checkBinaryEntityResponse() {
@@ -13,9 +13,14 @@
  */
 package org.trellisldp.http.impl;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
 import static java.util.Optional.of;
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
 import static javax.ws.rs.core.Link.fromUri;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
@@ -31,6 +36,7 @@ import static org.trellisldp.vocabulary.Trellis.UnsupportedInteractionModel;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.security.MessageDigest;
 import java.util.concurrent.CompletionException;
 import java.util.stream.Stream;
 
@@ -43,13 +49,17 @@ import org.apache.commons.rdf.api.IRI;
 import org.apache.commons.rdf.api.RDFSyntax;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
+import org.mockito.ArgumentCaptor;
 import org.trellisldp.api.BinaryMetadata;
 import org.trellisldp.api.MementoService;
 import org.trellisldp.api.Metadata;
 import org.trellisldp.api.ResourceService;
 import org.trellisldp.api.RuntimeTrellisException;
 import org.trellisldp.audit.DefaultAuditService;
+import org.trellisldp.http.core.Digest;
+import org.trellisldp.vocabulary.DC;
 import org.trellisldp.vocabulary.LDP;
+import org.trellisldp.vocabulary.Trellis;
 
 /**
  * @author acoburn
@@ -101,7 +111,8 @@ public class PutHandlerTest extends BaseTestHandler {
         assertEquals(NO_CONTENT, res.getStatusInfo(), "Incorrect response type");
         assertAll("Check LDP type Link headers", checkLdpType(res, LDP.RDFSource));
 
-        verify(mockBinaryService, never()).setContent(any(BinaryMetadata.class), any(InputStream.class), any());
+        verify(mockBinaryService, never()).setContent(any(BinaryMetadata.class), any(InputStream.class),
+                any(MessageDigest.class));
         verify(mockIoService).read(any(InputStream.class), eq(TURTLE), eq(baseUrl + "resource"));
     }
 
@@ -118,7 +129,8 @@ public class PutHandlerTest extends BaseTestHandler {
         assertEquals(NO_CONTENT, res.getStatusInfo(), "Incorrect response code");
         assertAll("Check LDP type Link headers", checkLdpType(res, LDP.Container));
 
-        verify(mockBinaryService, never()).setContent(any(BinaryMetadata.class), any(InputStream.class), any());
+        verify(mockBinaryService, never()).setContent(any(BinaryMetadata.class), any(InputStream.class),
+                any(MessageDigest.class));
         verify(mockIoService).read(any(InputStream.class), eq(TURTLE), eq(baseUrl + "resource"));
     }
 
@@ -241,6 +253,8 @@ public class PutHandlerTest extends BaseTestHandler {
         final MementoService mockMementoService = mock(MementoService.class);
         when(mockBundler.getMementoService()).thenReturn(mockMementoService);
         doCallRealMethod().when(mockMementoService).put(any(ResourceService.class), any(IRI.class));
+        doCallRealMethod().when(mockMementoService).put(any(ResourceService.class), any(Metadata.class),
+                any(Dataset.class));
         when(mockMementoService.put(any())).thenAnswer(inv -> runAsync(() -> {
             throw new RuntimeTrellisException("Expected error");
         }));
@@ -252,6 +266,32 @@ public class PutHandlerTest extends BaseTestHandler {
         assertEquals(NO_CONTENT, res.getStatusInfo(), "Incorrect response code!");
     }
 
+    @Test
+    public void testMementoFromPersistedData() {
+        final MementoService mockMementoService = mock(MementoService.class);
+        when(mockBundler.getMementoService()).thenReturn(mockMementoService);
+        when(mockMementoService.put(any(ResourceService.class), any(Metadata.class), any(Dataset.class)))
+            .thenReturn(completedFuture(null));
+        when(mockTrellisRequest.getContentType()).thenReturn(TEXT_TURTLE);
+        when(mockIoService.read(any(InputStream.class), eq(TURTLE), anyString())).thenAnswer(inv ->
+                Stream.of(rdf.createTriple(rdf.createIRI(baseUrl), DC.title, rdf.createLiteral("A title"))));
+
+        final PutHandler handler = buildPutHandler("/simpleTriple.ttl", null);
+        final Response res = handler.setResource(handler.initialize(mockParent, mockResource))
+            .thenCompose(handler::updateMemento).toCompletableFuture().join().build();
+        assertEquals(NO_CONTENT, res.getStatusInfo(), "Incorrect response code!");
+
+        final ArgumentCaptor<Metadata> metadata = ArgumentCaptor.forClass(Metadata.class);
+        final ArgumentCaptor<Dataset> dataset = ArgumentCaptor.forClass(Dataset.class);
+        verify(mockResourceService).replace(metadata.capture(), any(Dataset.class));
+        verify(mockMementoService).put(eq(mockResourceService), eq(metadata.getValue()), dataset.capture());
+        verify(mockMementoService, never().description("Resource fetched again for the Memento"))
+            .put(any(ResourceService.class), any(IRI.class));
+        assertTrue(metadata.getValue().getModified().isPresent(), "Missing modification time!");
+        assertTrue(dataset.getValue().contains(of(Trellis.PreferUserManaged), null, DC.title, null),
+                "Missing user data in the Memento!");
+    }
+
     @Test
     public void testBinaryError() throws IOException {
         when(mockResource.getInteractionModel()).thenReturn(LDP.NonRDFSource);
@@ -261,7 +301,8 @@ public class PutHandlerTest extends BaseTestHandler {
             .thenReturn(asyncException());
 
         try (final InputStream entity = getClass().getResource("/simpleData.txt").openStream()) {
-            final PutHandler handler = new PutHandler(mockTrellisRequest, entity, mockBundler, false, null);
+            final PutHandler handler = new PutHandler(mockTrellisRequest, entity, mockBundler, false, emptyList(),
+                    null);
 
             assertThrows(CompletionException.class,
                             () -> unwrapAsyncError(handler.setResource(handler.initialize(mockParent, mockResource))),
@@ -269,10 +310,98 @@ public class PutHandlerTest extends BaseTestHandler {
         }
     }
 
+    @Test
+    public void testPutUpload() throws Exception {
+        when(mockResource.getInteractionModel()).thenReturn(LDP.NonRDFSource);
+        when(mockTrellisRequest.getContentType()).thenReturn(TEXT_PLAIN);
+        when(mockTrellisRequest.getUpload()).thenReturn("upload-id");
+        when(mockTrellisRequest.getDigest()).thenReturn(new Digest("md5", "W4L4v03yv7DmbMqnMG/QJA=="));
+        when(mockBinaryService.completeUpload(eq("upload-id"), any(IRI.class), any(BinaryMetadata.class)))
+            .thenReturn(completedFuture(singletonList(digest("MD5", "Some data"))));
+
+        final PutHandler handler = buildPutHandler("/simpleData.txt", null);
+        final Response res = handler.setResource(handler.initialize(mockParent, mockResource))
+            .toCompletableFuture().join().build();
+
+        assertEquals(NO_CONTENT, res.getStatusInfo(), "Incorrect response code!");
+        assertAll("Check LDP type Link headers", checkLdpType(res, LDP.NonRDFSource));
+        verify(mockBinaryService).completeUpload(eq("upload-id"), any(IRI.class), metadataArgument.capture());
+        verify(mockBinaryService, never()).setContent(any(BinaryMetadata.class), any(InputStream.class));
+        verify(mockBinaryService, never()).calculateDigest(any(IRI.class), any(MessageDigest.class));
+        assertEquals(of("text/plain"), metadataArgument.getValue().getMimeType(), "Incorrect binary mime type!");
+    }
+
+    @Test
+    public void testPutUploadUncomputedDigest() throws Exception {
+        when(mockResource.getInteractionModel()).thenReturn(LDP.NonRDFSource);
+        when(mockTrellisRequest.getContentType()).thenReturn(TEXT_PLAIN);
+        when(mockTrellisRequest.getUpload()).thenReturn("upload-id");
+        when(mockTrellisRequest.getDigest()).thenReturn(new Digest("sha", "Y29tcHV0ZWQtZGlnZXN0"));
+        when(mockBinaryService.completeUpload(eq("upload-id"), any(IRI.class), any(BinaryMetadata.class)))
+            .thenReturn(completedFuture(emptyList()));
+
+        final PutHandler handler = buildPutHandler("/simpleData.txt", null);
+        final Response res = handler.setResource(handler.initialize(mockParent, mockResource))
+            .toCompletableFuture().join().build();
+
+        assertEquals(NO_CONTENT, res.getStatusInfo(), "Incorrect response code!");
+        verify(mockBinaryService).calculateDigest(any(IRI.class), any(MessageDigest.class));
+    }
+
+    @Test
+    public void testPutUploadBadDigest() throws Exception {
+        when(mockResource.getInteractionModel()).thenReturn(LDP.NonRDFSource);
+        when(mockTrellisRequest.getContentType()).thenReturn(TEXT_PLAIN);
+        when(mockTrellisRequest.getUpload()).thenReturn("upload-id");
+        when(mockTrellisRequest.getDigest()).thenReturn(new Digest("md5", "blahblah"));
+        when(mockBinaryService.completeUpload(eq("upload-id"), any(IRI.class), any(BinaryMetadata.class)))
+            .thenReturn(completedFuture(singletonList(digest("MD5", "Some data"))));
+
+        final PutHandler handler = buildPutHandler("/simpleData.txt", null);
+        assertThrows(BadRequestException.class, () ->
+                unwrapAsyncError(handler.setResource(handler.initialize(mockParent, mockResource))),
+                "No exception for an upload with a bad digest!");
+        verify(mockBinaryService).purgeContent(any(IRI.class));
+    }
+
+    @Test
+    public void testPutUploadIncomplete() {
+        when(mockResource.getInteractionModel()).thenReturn(LDP.NonRDFSource);
+        when(mockTrellisRequest.getContentType()).thenReturn(TEXT_PLAIN);
+        when(mockTrellisRequest.getUpload()).thenReturn("upload-id");
+        when(mockBinaryService.completeUpload(eq("upload-id"), any(IRI.class), any(BinaryMetadata.class)))
+            .thenReturn(supplyAsync(() -> {
+                throw new IllegalStateException("Expected exception");
+            }));
+
+        final PutHandler handler = buildPutHandler("/simpleData.txt", null);
+        final WebApplicationException ex = assertThrows(WebApplicationException.class, () ->
+                unwrapAsyncError(handler.setResource(handler.initialize(mockParent, mockResource))),
+                "No exception for an incomplete upload!");
+        assertEquals(CONFLICT, ex.getResponse().getStatusInfo(), "Incorrect response code!");
+    }
+
+    @Test
+    public void testPutUploadAsRdf() {
+        when(mockTrellisRequest.getContentType()).thenReturn(TEXT_TURTLE);
+        when(mockTrellisRequest.getUpload()).thenReturn("upload-id");
+
+        final PutHandler handler = buildPutHandler("/simpleTriple.ttl", null);
+        assertThrows(BadRequestException.class, () -> handler.setResource(handler.initialize(mockParent,
+                        mockResource)), "No exception when committing an upload as RDF!");
+        verify(mockBinaryService, never()).completeUpload(anyString(), any(IRI.class), any(BinaryMetadata.class));
+    }
+
+    private static MessageDigest digest(final String algorithm, final String data) throws Exception {
+        final MessageDigest digest = MessageDigest.getInstance(algorithm);
+        digest.update(data.getBytes(UTF_8));
+        return digest;
+    }
+
     private PutHandler buildPutHandler(final String resourceName, final String baseUrl) {
         try {
             return new PutHandler(mockTrellisRequest, getClass().getResource(resourceName).openStream(), mockBundler,
-                            false, baseUrl);
+                            false, emptyList(), baseUrl);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -282,7 +411,7 @@ public class PutHandlerTest extends BaseTestHandler {
         return Stream.of(
                 () -> assertAll("Check LDP type Link headers", checkLdpType(res, LDP.RDFSource)),
                 () -> verify(mockBinaryService, never().description("Binary service shouldn't have been called!"))
-                             .setContent(any(BinaryMetadata.class), any(InputStream.class), any()),
+                             .setContent(any(BinaryMetadata.class), any(InputStream.class), any(MessageDigest.class)),
                 () -> verify(mockIoService, description("IOService should have been called with an RDF resource"))
                              .read(any(InputStream.class), any(RDFSyntax.class), anyString()));
     }
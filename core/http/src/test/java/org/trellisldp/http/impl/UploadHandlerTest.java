@@ -0,0 +1,192 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.http.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static javax.ws.rs.core.HttpHeaders.CACHE_CONTROL;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.CONFLICT;
+import static javax.ws.rs.core.Response.Status.CREATED;
+import static javax.ws.rs.core.Response.Status.METHOD_NOT_ALLOWED;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.NO_CONTENT;
+import static javax.ws.rs.core.Response.Status.OK;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.trellisldp.api.TrellisUtils.TRELLIS_DATA_PREFIX;
+import static org.trellisldp.http.core.HttpConstants.UPLOAD_OFFSET;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.rdf.api.IRI;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+
+public class UploadHandlerTest extends BaseTestHandler {
+
+    private static final String UPLOAD_ID = "upload-id";
+
+    @Captor
+    private ArgumentCaptor<List<MessageDigest>> digestsArgument;
+
+    @Test
+    public void testCreateUpload() {
+        when(mockTrellisRequest.getPath()).thenReturn("resource");
+        when(mockBinaryService.createUpload(any(IRI.class), anyList())).thenReturn(completedFuture(UPLOAD_ID));
+
+        final UploadHandler handler = new UploadHandler(mockTrellisRequest, mockBundler,
+                asList("MD5", "SHA-256", "sha"), baseUrl);
+        final Response res = handler.createUpload().toCompletableFuture().join().build();
+
+        assertEquals(CREATED, res.getStatusInfo(), "Incorrect response code!");
+        assertEquals(baseUrl + "resource?upload=" + UPLOAD_ID, res.getLocation().toString(), "Incorrect location!");
+        assertEquals("0", res.getHeaderString(UPLOAD_OFFSET), "Incorrect upload offset!");
+        assertEquals("no-store", res.getHeaderString(CACHE_CONTROL), "Incorrect cache control!");
+
+        // Only supported algorithms are computed as the upload is received
+        verify(mockBinaryService).createUpload(eq(rdf.createIRI(TRELLIS_DATA_PREFIX + "resource")),
+                digestsArgument.capture());
+        assertEquals(2L, digestsArgument.getValue().size(), "Incorrect number of digest algorithms!");
+        assertEquals("MD5", digestsArgument.getValue().get(0).getAlgorithm(), "Incorrect digest algorithm!");
+        assertEquals("SHA-1", digestsArgument.getValue().get(1).getAlgorithm(), "Incorrect digest algorithm!");
+    }
+
+    @Test
+    public void testCreateUploadUnsupported() {
+        when(mockBinaryService.createUpload(any(IRI.class), anyList())).thenReturn(supplyAsync(() -> {
+            throw new UnsupportedOperationException("Expected exception");
+        }));
+
+        final UploadHandler handler = new UploadHandler(mockTrellisRequest, mockBundler, asList("MD5"), null);
+        assertErrorStatus(METHOD_NOT_ALLOWED, handler.createUpload());
+    }
+
+    @Test
+    public void testWriteUpload() throws IOException {
+        when(mockTrellisRequest.getUpload()).thenReturn(UPLOAD_ID);
+        when(mockTrellisRequest.getHeaders()).thenReturn(offsetHeader("5"));
+        when(mockBinaryService.writeUpload(eq(UPLOAD_ID), any(IRI.class), eq(5L), any(InputStream.class)))
+            .thenReturn(completedFuture(14L));
+
+        final InputStream entity = spy(new ByteArrayInputStream("Some data".getBytes(UTF_8)));
+        final UploadHandler handler = new UploadHandler(mockTrellisRequest, mockBundler, asList("MD5"), null);
+        final Response res = handler.writeUpload(entity).toCompletableFuture().join().build();
+
+        assertEquals(NO_CONTENT, res.getStatusInfo(), "Incorrect response code!");
+        assertEquals("14", res.getHeaderString(UPLOAD_OFFSET), "Incorrect upload offset!");
+        verify(entity).close();
+    }
+
+    @Test
+    public void testWriteUploadBadOffset() throws IOException {
+        when(mockTrellisRequest.getUpload()).thenReturn(UPLOAD_ID);
+
+        final InputStream entity = spy(new ByteArrayInputStream("Some data".getBytes(UTF_8)));
+        final UploadHandler handler = new UploadHandler(mockTrellisRequest, mockBundler, asList("MD5"), null);
+        assertErrorStatus(BAD_REQUEST, handler.writeUpload(entity));
+
+        when(mockTrellisRequest.getHeaders()).thenReturn(offsetHeader("-1"));
+        assertErrorStatus(BAD_REQUEST, handler.writeUpload(entity));
+
+        when(mockTrellisRequest.getHeaders()).thenReturn(offsetHeader("blah"));
+        assertErrorStatus(BAD_REQUEST, handler.writeUpload(entity));
+
+        verify(entity, times(3)).close();
+        verify(mockBinaryService, never()).writeUpload(anyString(), any(IRI.class), anyLong(), any(InputStream.class));
+    }
+
+    @Test
+    public void testWriteUploadMissingId() {
+        when(mockTrellisRequest.getHeaders()).thenReturn(offsetHeader("0"));
+
+        final UploadHandler handler = new UploadHandler(mockTrellisRequest, mockBundler, asList("MD5"), null);
+        assertErrorStatus(BAD_REQUEST, handler.writeUpload(new ByteArrayInputStream("Some data".getBytes(UTF_8))));
+    }
+
+    @Test
+    public void testWriteUnknownUpload() {
+        when(mockTrellisRequest.getUpload()).thenReturn(UPLOAD_ID);
+        when(mockTrellisRequest.getHeaders()).thenReturn(offsetHeader("0"));
+        when(mockBinaryService.writeUpload(eq(UPLOAD_ID), any(IRI.class), eq(0L), any(InputStream.class)))
+            .thenReturn(supplyAsync(() -> {
+                throw new IllegalArgumentException("Expected exception");
+            }));
+
+        final UploadHandler handler = new UploadHandler(mockTrellisRequest, mockBundler, asList("MD5"), null);
+        assertErrorStatus(NOT_FOUND, handler.writeUpload(new ByteArrayInputStream("Some data".getBytes(UTF_8))));
+    }
+
+    @Test
+    public void testGetUploadStatus() {
+        when(mockTrellisRequest.getUpload()).thenReturn(UPLOAD_ID);
+        when(mockBinaryService.getUploadOffset(eq(UPLOAD_ID), any(IRI.class))).thenReturn(completedFuture(9L));
+
+        final UploadHandler handler = new UploadHandler(mockTrellisRequest, mockBundler, asList("MD5"), null);
+        final Response res = handler.getUploadStatus().toCompletableFuture().join().build();
+
+        assertEquals(OK, res.getStatusInfo(), "Incorrect response code!");
+        assertEquals("9", res.getHeaderString(UPLOAD_OFFSET), "Incorrect upload offset!");
+        assertEquals("no-store", res.getHeaderString(CACHE_CONTROL), "Incorrect cache control!");
+    }
+
+    @Test
+    public void testAbortUpload() {
+        when(mockTrellisRequest.getPath()).thenReturn("resource");
+        when(mockTrellisRequest.getUpload()).thenReturn(UPLOAD_ID);
+        when(mockBinaryService.abortUpload(eq(UPLOAD_ID), any(IRI.class))).thenReturn(completedFuture(null));
+
+        final UploadHandler handler = new UploadHandler(mockTrellisRequest, mockBundler, asList("MD5"), null);
+        final Response res = handler.abortUpload().toCompletableFuture().join().build();
+
+        assertEquals(NO_CONTENT, res.getStatusInfo(), "Incorrect response code!");
+        verify(mockBinaryService).abortUpload(eq(UPLOAD_ID), eq(rdf.createIRI(TRELLIS_DATA_PREFIX + "resource")));
+    }
+
+    @Test
+    public void testUploadErrors() {
+        assertErrorStatus(CONFLICT, supplyAsync(() -> {
+            throw new IllegalStateException("Expected exception");
+        }).exceptionally(UploadHandler::handleUploadError));
+        assertThrows(CompletionException.class, () -> UploadHandler.handleUploadError(
+                    new RuntimeException("Expected exception")), "No exception for an unexpected error!");
+    }
+
+    private void assertErrorStatus(final Response.Status status, final CompletionStage<?> stage) {
+        final WebApplicationException ex = assertThrows(WebApplicationException.class, () ->
+                unwrapAsyncError(stage), "No exception for an upload error!");
+        assertEquals(status, ex.getResponse().getStatusInfo(), "Incorrect response code!");
+    }
+
+    private static MultivaluedMap<String, String> offsetHeader(final String value) {
+        final MultivaluedMap<String, String> headers = new MultivaluedHashMap<>();
+        headers.putSingle(UPLOAD_OFFSET, value);
+        return headers;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.trellisldp.vocabulary;
+
+import static org.trellisldp.vocabulary.VocabUtils.createIRI;
+
+import org.apache.commons.rdf.api.IRI;
+
+/**
+ * RDF Terms from the PREMIS Ontology.
+ *
+ * @see <a href="http://id.loc.gov/ontologies/premis.html">PREMIS Ontology</a>
+ *
+ * @author acoburn
+ */
+public final class PREMIS {
+
+    /* Namespace */
+    private static final String URI = "http://www.loc.gov/premis/rdf/v1#";
+
+    /* Properties */
+    public static final IRI hasMessageDigest = createIRI(getNamespace() + "hasMessageDigest");
+
+    /**
+     * get the namespace.
+     *
+     * @return namespace
+     */
+    public static String getNamespace() {
+        return URI;
+    }
+
+    private PREMIS() {
+        // prevent instantiation
+    }
+}
@@ -15,8 +15,12 @@ package org.trellisldp.webapp;
 
 import static java.util.Arrays.asList;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.jmx.JmxReporter;
+
 import org.glassfish.jersey.server.ResourceConfig;
-import org.trellisldp.api.ServiceBundler;
+import org.glassfish.jersey.server.spi.Container;
+import org.glassfish.jersey.server.spi.ContainerLifecycleListener;
 import org.trellisldp.auth.basic.BasicAuthFilter;
 import org.trellisldp.auth.oauth.OAuthFilter;
 import org.trellisldp.http.AgentAuthorizationFilter;
@@ -39,7 +43,7 @@ public class TrellisApplication extends ResourceConfig {
     public TrellisApplication() {
         super();
 
-        final ServiceBundler serviceBundler = new WebappServiceBundler();
+        final WebappServiceBundler serviceBundler = new WebappServiceBundler();
         final TrellisHttpResource ldpResource = new TrellisHttpResource(serviceBundler);
         ldpResource.initialize();
 
@@ -56,5 +60,30 @@ public class TrellisApplication extends ResourceConfig {
 
         AppUtils.getCacheControlFilter().ifPresent(this::register);
         AppUtils.getCORSFilter().ifPresent(this::register);
+
+        // Publish the metrics of the services through JMX
+        final MetricRegistry metrics = new MetricRegistry();
+        serviceBundler.registerMetrics(metrics);
+        final JmxReporter reporter = JmxReporter.forRegistry(metrics).inDomain("org.trellisldp").build();
+        reporter.start();
+
+        // Commit any queued triplestore updates on shutdown
+        register(new ContainerLifecycleListener() {
+            @Override
+            public void onStartup(final Container container) {
+                // The services are ready once constructed
+            }
+
+            @Override
+            public void onReload(final Container container) {
+                // The services are unaffected by a reload
+            }
+
+            @Override
+            public void onShutdown(final Container container) {
+                reporter.stop();
+                serviceBundler.close();
+            }
+        });
     }
 }
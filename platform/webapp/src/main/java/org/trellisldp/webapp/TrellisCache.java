@@ -54,4 +54,9 @@ public class TrellisCache implements CacheService<String, String> {
             return null;
         }
     }
+
+    @Override
+    public void invalidate(final String key) {
+        cache.invalidate(key);
+    }
 }
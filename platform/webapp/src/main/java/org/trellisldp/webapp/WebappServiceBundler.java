@@ -13,12 +13,25 @@
  */
 package org.trellisldp.webapp;
 
+import static com.codahale.metrics.MetricRegistry.name;
 import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.apache.tamaya.ConfigurationProvider.getConfiguration;
+import static org.trellisldp.file.AsyncMementoService.CONFIG_FILE_MEMENTO_ASYNC;
+import static org.trellisldp.file.BinaryGarbageCollector.CONFIG_FILE_BINARY_GC_INTERVAL;
+import static org.trellisldp.file.BinaryGarbageCollector.DEFAULT_INTERVAL;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.cache.Cache;
 
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.apache.commons.rdf.api.IRI;
 import org.apache.tamaya.Configuration;
 import org.trellisldp.api.AgentService;
 import org.trellisldp.api.AuditService;
@@ -30,6 +43,8 @@ import org.trellisldp.api.NamespaceService;
 import org.trellisldp.api.NoopEventService;
 import org.trellisldp.api.ResourceService;
 import org.trellisldp.api.ServiceBundler;
+import org.trellisldp.file.AsyncMementoService;
+import org.trellisldp.file.BinaryGarbageCollector;
 import org.trellisldp.file.FileBinaryService;
 import org.trellisldp.file.FileMementoService;
 import org.trellisldp.io.JenaIOService;
@@ -42,7 +57,7 @@ import org.trellisldp.triplestore.TriplestoreResourceService;
  * such as Tomcat or Jetty. This implementation combines a triplestore-based persistence layer with
  * file-based storage for mementos and binaries. RDF processing makes use of Apache Jena.
  */
-public class WebappServiceBundler implements ServiceBundler {
+public class WebappServiceBundler implements ServiceBundler, AutoCloseable {
 
     private final AgentService agentService;
     private final MementoService mementoService;
@@ -51,6 +66,7 @@ public class WebappServiceBundler implements ServiceBundler {
     private final BinaryService binaryService;
     private final IOService ioService;
     private final EventService eventService;
+    private final BinaryGarbageCollector binaryCollector;
 
     /**
      * Create a new application service bundler.
@@ -65,10 +81,37 @@ public class WebappServiceBundler implements ServiceBundler {
 
         eventService = AppUtils.loadWithDefault(EventService.class, NoopEventService::new);
         agentService = AppUtils.loadFirst(AgentService.class);
-        binaryService = new FileBinaryService();
-        mementoService = new FileMementoService();
+        final FileBinaryService fileBinaryService = new FileBinaryService();
+        final FileMementoService fileMementoService = new FileMementoService();
+        binaryService = fileBinaryService;
         ioService = new JenaIOService(nsService, null, profileCache);
         auditService = resourceService = new TriplestoreResourceService();
+        if (config.getOrDefault(CONFIG_FILE_MEMENTO_ASYNC, Boolean.class, Boolean.FALSE)) {
+            final AsyncMementoService asyncMementoService = new AsyncMementoService(fileMementoService);
+            // Re-queue any writes that were journaled, but not completed, before the last shutdown
+            asyncMementoService.recover(resourceService);
+            mementoService = asyncMementoService;
+        } else {
+            mementoService = fileMementoService;
+        }
+
+        // Binaries are retained while referenced by a current resource or by a stored Memento
+        final List<Supplier<Stream<IRI>>> references = asList(resourceService::listBinaries,
+                fileMementoService::listBinaries);
+        binaryCollector = new BinaryGarbageCollector(fileBinaryService, references);
+        final long interval = config.getOrDefault(CONFIG_FILE_BINARY_GC_INTERVAL, Long.class, DEFAULT_INTERVAL);
+        if (interval > 0L) {
+            binaryCollector.schedule(interval, MILLISECONDS);
+        }
+    }
+
+    /**
+     * Close the bundled services, once any queued triplestore updates have been committed.
+     */
+    @Override
+    public void close() {
+        binaryCollector.close();
+        resourceService.close();
     }
 
     @Override
@@ -105,4 +148,30 @@ public class WebappServiceBundler implements ServiceBundler {
     public EventService getEventService() {
         return eventService;
     }
+
+    /**
+     * Register the metrics of the bundled services.
+     *
+     * <p>When Mementos are written in the background, this registers the depth and lag (in milliseconds)
+     * of the Memento queue along with counts of the queued, coalesced, completed and failed writes. It also
+     * registers the counts of the binary garbage collector.
+     *
+     * @param metrics the metric registry
+     */
+    public void registerMetrics(final MetricRegistry metrics) {
+        metrics.register(name("trellis-binary-gc", "runs"), (Gauge<Long>) binaryCollector::getRuns);
+        metrics.register(name("trellis-binary-gc", "scanned"), (Gauge<Long>) binaryCollector::getScanned);
+        metrics.register(name("trellis-binary-gc", "orphaned"), (Gauge<Long>) binaryCollector::getOrphaned);
+        metrics.register(name("trellis-binary-gc", "purged"), (Gauge<Long>) binaryCollector::getPurged);
+        metrics.register(name("trellis-binary-gc", "purgedBytes"), (Gauge<Long>) binaryCollector::getPurgedBytes);
+        if (mementoService instanceof AsyncMementoService) {
+            final AsyncMementoService mementos = (AsyncMementoService) mementoService;
+            metrics.register(name("trellis-memento-queue", "depth"), (Gauge<Integer>) mementos::getQueueDepth);
+            metrics.register(name("trellis-memento-queue", "lag"), (Gauge<Long>) () -> mementos.getLag().toMillis());
+            metrics.register(name("trellis-memento-queue", "queued"), (Gauge<Long>) mementos::getQueued);
+            metrics.register(name("trellis-memento-queue", "coalesced"), (Gauge<Long>) mementos::getCoalesced);
+            metrics.register(name("trellis-memento-queue", "completed"), (Gauge<Long>) mementos::getCompleted);
+            metrics.register(name("trellis-memento-queue", "failed"), (Gauge<Long>) mementos::getFailed);
+        }
+    }
 }
@@ -15,6 +15,9 @@ package org.trellisldp.webapp;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
 
 import org.apache.commons.text.RandomStringGenerator;
 import org.junit.jupiter.api.AfterAll;
@@ -46,4 +49,14 @@ public class ServiceBundlerTest {
         assertNotNull(bundler.getBinaryService(), "Missing binary service!");
         assertNotNull(bundler.getEventService(), "Missing event service!");
     }
+
+    @Test
+    public void testRegisterMetrics() {
+        final WebappServiceBundler bundler = new WebappServiceBundler();
+        final MetricRegistry metrics = new MetricRegistry();
+        bundler.registerMetrics(metrics);
+
+        assertTrue(metrics.getGauges().containsKey("trellis-binary-gc.runs"), "Missing binary collector gauge!");
+        bundler.close();
+    }
 }